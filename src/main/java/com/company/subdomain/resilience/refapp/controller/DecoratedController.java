@@ -1,68 +1,214 @@
 package com.company.subdomain.resilience.refapp.controller;
 
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.enums.ResilienceEventType;
+import com.company.subdomain.resilience.refapp.enums.ResponseFormat;
 import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.filter.ConditionalGetFilter;
+import com.company.subdomain.resilience.refapp.model.EndpointRequestCounts;
+import com.company.subdomain.resilience.refapp.model.KeyedPatternMetrics;
+import com.company.subdomain.resilience.refapp.model.LoadSheddingMetrics;
 import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.ResilienceEvent;
+import com.company.subdomain.resilience.refapp.model.ResilienceEventStats;
+import com.company.subdomain.resilience.refapp.model.ResourceUsageMetrics;
+import com.company.subdomain.resilience.refapp.model.StageLatencyMetrics;
 import com.company.subdomain.resilience.refapp.service.DecoratedSupplier;
+import com.company.subdomain.resilience.refapp.service.EncodedResponseCache;
+import com.company.subdomain.resilience.refapp.service.LoadShedder;
+import com.company.subdomain.resilience.refapp.util.RequestDeadline;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("decorated-services")
+//created at startup with the resilience instances it calls when spring.main.lazy-initialization is on
+@Lazy(false)
 public class DecoratedController {
     private static Logger LOGGER = LoggerFactory.getLogger(DecoratedController.class);
     private final DecoratedSupplier decoratedSupplier;
+    private final LoadShedder loadShedder;
+    private final EncodedResponseCache encodedResponseCache;
+    private final SchedulingClock clock;
 
-    public DecoratedController(DecoratedSupplier decoratedSupplier) {
+    public DecoratedController(DecoratedSupplier decoratedSupplier, LoadShedder loadShedder,
+                               EncodedResponseCache encodedResponseCache, SchedulingClock clock) {
         this.decoratedSupplier = decoratedSupplier;
-
+        this.loadShedder = loadShedder;
+        this.encodedResponseCache = encodedResponseCache;
+        this.clock = clock;
     }
 
     @GetMapping("/offeringsWithThreadPoolBulkheadAndTimeLimiter")
-    public MockDataServiceResponse offerings(@RequestParam Boolean throwException) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
-        return decoratedSupplier.callThreadPoolBulkheadAndTimeLimiterDecoratedService(throwException);
+    public ResponseEntity<byte[]> offerings(@RequestParam Boolean throwException, HttpServletRequest request) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
+        return encoded(decoratedSupplier.callThreadPoolBulkheadAndTimeLimiterDecoratedService(throwException), request);
     }
 
     @GetMapping("/simpleRetry")
-    public MockDataServiceResponse offeringsWithSimpleRetry(@RequestParam Boolean throwException) throws Throwable {
-        return decoratedSupplier.callRetryDecoratedService(throwException);
+    public ResponseEntity<byte[]> offeringsWithSimpleRetry(@RequestParam Boolean throwException, HttpServletRequest request)
+            throws Throwable {
+        return encoded(decoratedSupplier.callRetryDecoratedService(throwException), request);
     }
 
 
     @GetMapping("/simpleCircuitBreaker")
-    public MockDataServiceResponse offeringsWithSimpleCircuitBreaker(@RequestParam Boolean throwException) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
-        return decoratedSupplier.callCircuitBreakerDecoratedService(throwException);
+    public ResponseEntity<byte[]> offeringsWithSimpleCircuitBreaker(@RequestParam Boolean throwException, HttpServletRequest request) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
+        return encoded(decoratedSupplier.callCircuitBreakerDecoratedService(throwException), request);
     }
 
     @GetMapping("/simpleBulkhead")
-    public MockDataServiceResponse offeringsWithSimpleBulkhead(@RequestParam String offerId, @RequestParam Boolean throwException)
-            throws Throwable {
-        return decoratedSupplier.callBulkheadDecoratedService(throwException);
+    public ResponseEntity<byte[]> offeringsWithSimpleBulkhead(@RequestParam String offerId, @RequestParam Boolean throwException,
+                                                              HttpServletRequest request) throws Throwable {
+        return encoded(decoratedSupplier.callBulkheadDecoratedService(throwException), request);
     }
 
     @GetMapping("/simpleRateLimiter")
-    public MockDataServiceResponse offeringsWithSimpleRateLimiter(@RequestParam Boolean throwException) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
-        return decoratedSupplier.callRateLimiterDecoratedService(throwException);
+    public ResponseEntity<byte[]> offeringsWithSimpleRateLimiter(@RequestParam Boolean throwException, HttpServletRequest request) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
+        return encoded(decoratedSupplier.callRateLimiterDecoratedService(throwException), request);
     }
 
     @GetMapping("/simpleTimeLimiter")
-    public MockDataServiceResponse offeringsWithSimpleTimeLimiter(@RequestParam Boolean throwException) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
-        return decoratedSupplier.callTimeLimiterDecoratedService(throwException);
+    public ResponseEntity<byte[]> offeringsWithSimpleTimeLimiter(@RequestParam Boolean throwException, HttpServletRequest request) throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
+        return encoded(decoratedSupplier.callTimeLimiterDecoratedService(throwException), request);
     }
 
 
     @GetMapping("/simpleSemaphoreBulkhead")
-    public MockDataServiceResponse offeringsById(@RequestParam String offerId, @RequestParam Boolean throwException) {
-        return decoratedSupplier.callSemaphoreBulkheadDecoratedService(offerId, throwException);
+    public ResponseEntity<byte[]> offeringsById(@RequestParam String offerId, @RequestParam Boolean throwException,
+                                                HttpServletRequest request) {
+        return encoded(decoratedSupplier.callSemaphoreBulkheadDecoratedService(offerId, throwException), request);
+    }
+
+    @GetMapping("/keyedCircuitBreaker")
+    public ResponseEntity<byte[]> offeringsWithKeyedCircuitBreaker(@RequestParam ProductType productType,
+                                                                   @RequestParam Boolean throwException,
+                                                                   HttpServletRequest request) {
+        return encoded(decoratedSupplier.callKeyedCircuitBreakerDecoratedService(productType, throwException), request);
+    }
+
+    @GetMapping("/keyedSemaphoreBulkhead")
+    public ResponseEntity<byte[]> offeringsByIdWithKeyedBulkhead(@RequestParam String offerId, @RequestParam Boolean throwException,
+                                                                 HttpServletRequest request) {
+        return encoded(decoratedSupplier.callKeyedSemaphoreBulkheadDecoratedService(offerId, throwException), request);
     }
 
+    @GetMapping("/endpointMetrics")
+    public List<EndpointRequestCounts> endpointMetrics() {
+        return decoratedSupplier.getEndpointRequestCounts();
+    }
+
+    /**
+     * @param name        resilience instance name, e.g. simple-circuit-breaker.circuit-breaker, all instances if absent
+     * @param type        ResilienceEventType, all types if absent
+     * @param sinceMillis epoch millis of the oldest event returned
+     * @param limit       maximum number of events per instance, newest first
+     */
+    @GetMapping("/resilienceEvents")
+    public List<ResilienceEvent> resilienceEvents(@RequestParam(required = false) String name,
+                                                  @RequestParam(required = false) ResilienceEventType type,
+                                                  @RequestParam(defaultValue = "0") long sinceMillis,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        return decoratedSupplier.getResilienceEvents(name, type, sinceMillis, limit);
+    }
+
+    @GetMapping("/resilienceEventStats")
+    public List<ResilienceEventStats> resilienceEventStats(@RequestParam(defaultValue = "60") int windowSeconds) {
+        return decoratedSupplier.getResilienceEventStats(windowSeconds);
+    }
+
+    @GetMapping("/latencyMetrics")
+    public List<StageLatencyMetrics> latencyMetrics() {
+        return decoratedSupplier.getLatencyMetrics();
+    }
+
+    @GetMapping("/resourceUsageMetrics")
+    public List<ResourceUsageMetrics> resourceUsageMetrics() {
+        return decoratedSupplier.getResourceUsage();
+    }
+
+    @GetMapping("/loadSheddingMetrics")
+    public List<LoadSheddingMetrics> loadSheddingMetrics() {
+        return loadShedder.getLoadSheddingMetrics();
+    }
+
+    @GetMapping("/keyedMetrics")
+    public List<KeyedPatternMetrics> keyedMetrics() {
+        return decoratedSupplier.getKeyedPatternMetrics();
+    }
+
+    /**
+     * Clients can bound the whole decorator chain by sending their own timeout in the
+     * {@value RequestDeadline#TIMEOUT_HEADER} header.
+     */
     @GetMapping("/degradingService")
-    public MockDataServiceResponse degradingOfferings(@RequestParam Boolean throwException) throws InterruptedException, ExecutionException {
-        return decoratedSupplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(throwException);
+    public ResponseEntity<byte[]> degradingOfferings(@RequestParam Boolean throwException,
+                                                     @RequestHeader(value = RequestDeadline.TIMEOUT_HEADER, required = false) Long timeoutMillis,
+                                                     HttpServletRequest request)
+            throws InterruptedException, ExecutionException {
+        return encoded(decoratedSupplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(throwException,
+                RequestDeadline.fromTimeoutMillis(timeoutMillis, clock)), request);
+    }
+
+    /**
+     * Offerings assembled from the reference data, bid quote and ask quote sources called in parallel, the sources of
+     * the response tell which of them the data is missing. Bounded by the {@value RequestDeadline#TIMEOUT_HEADER} header
+     * like the degrading service.
+     */
+    @GetMapping("/scatterGather")
+    public ResponseEntity<byte[]> scatterGatherOfferings(@RequestHeader(value = RequestDeadline.TIMEOUT_HEADER, required = false) Long timeoutMillis,
+                                                         HttpServletRequest request)
+            throws InterruptedException, ExecutionException {
+        return encoded(decoratedSupplier.callScatterGatherDecoratedService(RequestDeadline.fromTimeoutMillis(timeoutMillis, clock)),
+                request);
+    }
+
+    /**
+     * Offerings responses are written as the pre-encoded bytes of {@link EncodedResponseCache} in the format of the
+     * Accept header, see {@link ResponseFormat}, with the ETag of their snapshot, see {@link ConditionalGetFilter}
+     */
+    private ResponseEntity<byte[]> encoded(MockDataServiceResponse response, HttpServletRequest request) {
+        ResponseFormat format = ResponseFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        String query = request.getQueryString();
+        EncodedResponseCache.Encoded encoded = encodedResponseCache.encode(response,
+                query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query, format,
+                acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (response.getSnapshotVersion() != null) {
+            builder.eTag(ConditionalGetFilter.etag(response.getSnapshotVersion()));
+        }
+        if (encoded.isGzipped()) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(encoded.getBody());
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.trim().split(";");
+            String name = parameters[0].trim();
+            boolean refused = parameters.length > 1 && parameters[1].trim().matches("q=0(\\.0*)?");
+            if (("gzip".equalsIgnoreCase(name) || "*".equals(name)) && !refused) {
+                return true;
+            }
+        }
+        return false;
     }
 }
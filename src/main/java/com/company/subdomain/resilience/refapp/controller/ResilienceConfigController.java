@@ -0,0 +1,50 @@
+package com.company.subdomain.resilience.refapp.controller;
+
+import com.company.subdomain.resilience.refapp.service.DecoratedSupplier;
+import com.company.subdomain.resilience.refapp.util.EndpointConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Resilience settings of the running application, outside /decorated-services so the load shedding filter never
+ * rejects an operator retuning a bulkhead during an incident
+ */
+@RestController
+@RequestMapping("admin")
+public class ResilienceConfigController {
+    private static Logger LOGGER = LoggerFactory.getLogger(ResilienceConfigController.class);
+    private final DecoratedSupplier decoratedSupplier;
+
+    public ResilienceConfigController(DecoratedSupplier decoratedSupplier) {
+        this.decoratedSupplier = decoratedSupplier;
+    }
+
+    @GetMapping("/resilienceConfig")
+    public Map<String, EndpointConfig> resilienceConfig() {
+        return decoratedSupplier.getEndpointConfigs();
+    }
+
+    /**
+     * @param overrides per endpoint, e.g. {"simple-rate-limiter": {"limitForPeriod": 8}}, values not set are kept
+     * @return the settings of every endpoint after the update
+     */
+    @PostMapping("/resilienceConfig")
+    public Map<String, EndpointConfig> reconfigure(@RequestBody Map<String, EndpointConfig> overrides) {
+        return decoratedSupplier.reconfigure(overrides);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> invalidConfig(IllegalArgumentException e) {
+        LOGGER.warn("Rejected resilience settings: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
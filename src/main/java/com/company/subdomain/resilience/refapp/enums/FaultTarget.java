@@ -0,0 +1,9 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+/**
+ * Layers into which the FaultInjector injects errors and latency, REFERENCE_DATA, BID_QUOTES and ASK_QUOTES being the
+ * stand-ins of the {@link OfferingSource}s
+ */
+public enum FaultTarget {
+    REPOSITORY, SERVICE, REFERENCE_DATA, BID_QUOTES, ASK_QUOTES;
+}
@@ -0,0 +1,12 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+/**
+ * Stages of a decorated call whose latency is recorded per endpoint.
+ * TOTAL is the whole call inside DecoratedSupplier, BULKHEAD_WAIT the time spent in the decorators before the
+ * service call of a semaphore bulkhead chain, QUEUE_WAIT the time a call waited in a thread pool bulkhead queue,
+ * RETRY_BACKOFF the wait before each retry, SERVICE the time spent in OfferingsDataService and FALLBACK the time
+ * spent building fallback responses.
+ */
+public enum LatencyStage {
+    TOTAL, BULKHEAD_WAIT, QUEUE_WAIT, RETRY_BACKOFF, SERVICE, FALLBACK;
+}
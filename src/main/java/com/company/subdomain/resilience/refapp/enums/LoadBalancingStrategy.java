@@ -0,0 +1,9 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+/**
+ * How the ReplicaRouter picks the replica of a call. P2C draws two replicas at random and takes the one with the lower
+ * cost, in-flight calls times the moving average of its latency, ROUND_ROBIN takes the replicas in turn.
+ */
+public enum LoadBalancingStrategy {
+    P2C, ROUND_ROBIN;
+}
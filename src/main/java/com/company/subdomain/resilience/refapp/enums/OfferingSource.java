@@ -0,0 +1,61 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+import com.company.subdomain.resilience.refapp.model.Offering;
+
+/**
+ * Downstream sources an Offering is assembled from by the scatter-gather endpoint, each stood in for by
+ * OfferingSourceRepository and called through its own bulkhead, time limiter and circuit breaker.
+ * REFERENCE_DATA carries the static attributes of an offering (cusip, coupon, rating...), BID_QUOTES and ASK_QUOTES its
+ * bid and ask side.
+ */
+public enum OfferingSource {
+    REFERENCE_DATA, BID_QUOTES, ASK_QUOTES;
+
+    /**
+     * Copies the attributes the source owns, the offerId is left alone
+     */
+    public void copyAttributes(Offering from, Offering to) {
+        switch (this) {
+            case REFERENCE_DATA:
+                to.setProductType(from.getProductType());
+                to.setCusip(from.getCusip());
+                to.setDescription(from.getDescription());
+                to.setState(from.getState());
+                to.setTicker(from.getTicker());
+                to.setCouponType(from.getCouponType());
+                to.setIndustry(from.getIndustry());
+                to.setCoupon(from.getCoupon());
+                to.setMaturityDate(from.getMaturityDate());
+                to.setCallable(from.isCallable());
+                to.setTaxable(from.isTaxable());
+                to.setMoodyRating(from.getMoodyRating());
+                to.setSnpRating(from.getSnpRating());
+                to.setDuration(from.getDuration());
+                to.setConvexity(from.getConvexity());
+                to.setMarketType(from.getMarketType());
+                break;
+            case BID_QUOTES:
+                to.setBidQty(from.getBidQty());
+                to.setBidMinQty(from.getBidMinQty());
+                to.setBidMinIncrement(from.getBidMinIncrement());
+                to.setBidPrice(from.getBidPrice());
+                to.setBidYtw(from.getBidYtw());
+                to.setBidYtm(from.getBidYtm());
+                to.setBidDeltaPrice(from.getBidDeltaPrice());
+                to.setBidDeltaYield(from.getBidDeltaYield());
+                break;
+            case ASK_QUOTES:
+                to.setAskQty(from.getAskQty());
+                to.setAskMinQty(from.getAskMinQty());
+                to.setAskMinIncrement(from.getAskMinIncrement());
+                to.setAskPrice(from.getAskPrice());
+                to.setAskYtw(from.getAskYtw());
+                to.setAskYtm(from.getAskYtm());
+                to.setAskDeltaPrice(from.getAskDeltaPrice());
+                to.setAskDeltaYield(from.getAskDeltaYield());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown offering source " + this);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+/**
+ * Queueing discipline used by the thread pool bulkhead.
+ * FIFO is the plain bounded queue provided by resilience4j, CODEL drops queued tasks based on sojourn time
+ * and switches to LIFO while the queue is overloaded.
+ */
+public enum QueueDiscipline {
+    FIFO, CODEL;
+}
@@ -0,0 +1,17 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+/**
+ * Priority class of a client request used by load shedding, declared from the highest to the lowest priority.
+ * When the service is saturated BATCH requests are shed first, then NORMAL ones, CRITICAL requests are only limited by
+ * their client quota.
+ */
+public enum RequestPriority {
+    CRITICAL, NORMAL, BATCH;
+
+    /**
+     * @return the lower of the two priorities
+     */
+    public RequestPriority lowest(RequestPriority other) {
+        return other != null && other.ordinal() > ordinal() ? other : this;
+    }
+}
@@ -0,0 +1,34 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+/**
+ * Resilience events kept in the in-memory event store, with the meaning of the numeric value recorded with the event.
+ */
+public enum ResilienceEventType {
+    BULKHEAD_REJECTED,
+    THREAD_POOL_BULKHEAD_REJECTED,
+    /**
+     * value is the wait before the retry in milliseconds
+     */
+    RETRY,
+    /**
+     * value is the number of attempts made
+     */
+    RETRY_EXHAUSTED,
+    /**
+     * value is the ordinal of the CircuitBreaker.State transitioned to
+     */
+    CIRCUIT_BREAKER_TRANSITION,
+    CIRCUIT_BREAKER_NOT_PERMITTED,
+    /**
+     * value is the duration of the failed call in milliseconds
+     */
+    CIRCUIT_BREAKER_ERROR,
+    RATE_LIMITER_REJECTED,
+    TIME_LIMITER_TIMEOUT;
+
+    private static final ResilienceEventType[] VALUES = values();
+
+    public static ResilienceEventType ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
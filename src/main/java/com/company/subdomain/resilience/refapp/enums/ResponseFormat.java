@@ -0,0 +1,51 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Encodings of the offerings responses, chosen by the Accept header. JSON is compact, SMILE and CBOR are binary
+ * encodings of the same document, smaller and cheaper to write and parse.
+ */
+public enum ResponseFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile")),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param accept Accept header, may be null
+     * @return the format of the most preferred acceptable media type, JSON if none is acceptable
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType acceptable : mediaTypes) {
+            for (ResponseFormat format : values()) {
+                if (acceptable.getQualityValue() > 0 && acceptable.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,9 @@
+package com.company.subdomain.resilience.refapp.enums;
+
+/**
+ * Outcome of the call of one OfferingSource in a scatter-gather request, every outcome but OK leaves the attributes of
+ * the source out of the merged offerings
+ */
+public enum SourceOutcome {
+    OK, TIMEOUT, CIRCUIT_OPEN, BULKHEAD_FULL, DEADLINE_EXCEEDED, FAILED;
+}
@@ -0,0 +1,8 @@
+package com.company.subdomain.resilience.refapp.exception;
+
+public class BulkheadQueueRejectionException extends RuntimeException {
+
+    public BulkheadQueueRejectionException(String message) {
+        super(message);
+    }
+}
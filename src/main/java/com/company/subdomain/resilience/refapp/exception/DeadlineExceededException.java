@@ -0,0 +1,8 @@
+package com.company.subdomain.resilience.refapp.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.company.subdomain.resilience.refapp.exception;
+
+/**
+ * A call failed because of the region it was routed to, only these failures count towards failing over from a region
+ */
+public class RegionFailureException extends ChaosEngineeringRuntimeException {
+
+    public RegionFailureException(String message) {
+        super(message);
+    }
+}
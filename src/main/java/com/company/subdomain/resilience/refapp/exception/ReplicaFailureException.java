@@ -0,0 +1,12 @@
+package com.company.subdomain.resilience.refapp.exception;
+
+/**
+ * A call failed because of the replica it was routed to rather than because of the request, only these failures count
+ * towards the ejection of a replica
+ */
+public class ReplicaFailureException extends ChaosEngineeringRuntimeException {
+
+    public ReplicaFailureException(String message) {
+        super(message);
+    }
+}
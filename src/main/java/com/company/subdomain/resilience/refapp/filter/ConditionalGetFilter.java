@@ -0,0 +1,101 @@
+package com.company.subdomain.resilience.refapp.filter;
+
+import com.company.subdomain.resilience.refapp.service.DecoratedSupplier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Answers conditional GETs of the offerings endpoints whose If-None-Match holds the ETag of the current repository
+ * snapshot with a 304, before load shedding and the resilience decorators, so an unchanged poll takes no client quota,
+ * bulkhead or rate limiter permit and is not serialized. The ETag is weak, the JSON, Smile and CBOR encodings of a
+ * snapshot are equivalent. Offerings responses carry the ETag of the snapshot they were read from.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConditionalGetFilter extends OncePerRequestFilter {
+    /**
+     * DecoratedController endpoints answering with offerings of the repository snapshot
+     */
+    static final Set<String> OFFERINGS_PATHS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "/decorated-services/offeringsWithThreadPoolBulkheadAndTimeLimiter",
+            "/decorated-services/simpleRetry",
+            "/decorated-services/simpleCircuitBreaker",
+            "/decorated-services/simpleBulkhead",
+            "/decorated-services/simpleRateLimiter",
+            "/decorated-services/simpleTimeLimiter",
+            "/decorated-services/simpleSemaphoreBulkhead",
+            "/decorated-services/keyedCircuitBreaker",
+            "/decorated-services/keyedSemaphoreBulkhead",
+            "/decorated-services/degradingService",
+            "/decorated-services/scatterGather")));
+
+    private final DecoratedSupplier decoratedSupplier;
+    private final Counter notModified;
+
+    public ConditionalGetFilter(DecoratedSupplier decoratedSupplier, MeterRegistry meterRegistry) {
+        this.decoratedSupplier = decoratedSupplier;
+        this.notModified = Counter.builder("offerings.not.modified")
+                .description("Conditional GETs answered with 304 before entering the resilience decorators")
+                .register(meterRegistry);
+    }
+
+    public static String etag(long snapshotVersion) {
+        return "W/\"" + snapshotVersion + "\"";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || request.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                || !OFFERINGS_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String etag = etag(decoratedSupplier.getSnapshotVersion());
+        if (!matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        notModified.increment();
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Weak comparison of If-None-Match with the current ETag
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || opaqueTag.equals(opaqueTag(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
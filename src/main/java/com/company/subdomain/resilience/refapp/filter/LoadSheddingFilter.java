@@ -0,0 +1,60 @@
+package com.company.subdomain.resilience.refapp.filter;
+
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.service.LoadShedder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Sheds client requests to the decorated services before they take a server thread in the resilience decorators,
+ * see {@link LoadShedder}. Requests without a X-Client-Id header are treated as an unknown client, they get the
+ * default priority and share the default token bucket. The metrics endpoints are never shed.
+ * A shed request gets a 429 with a Retry-After header and a fallback response body.
+ */
+@Component
+public class LoadSheddingFilter extends OncePerRequestFilter {
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    public static final String PRIORITY_HEADER = "X-Request-Priority";
+
+    private final LoadShedder loadShedder;
+    private final ObjectMapper objectMapper;
+
+    public LoadSheddingFilter(LoadShedder loadShedder, ObjectMapper objectMapper) {
+        this.loadShedder = loadShedder;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !loadShedder.isEnabled()
+                || !path.startsWith("/decorated-services/")
+                || path.endsWith("Metrics");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LoadShedder.Outcome outcome = loadShedder.admit(request.getHeader(CLIENT_ID_HEADER),
+                request.getHeader(PRIORITY_HEADER));
+        if (outcome == LoadShedder.Outcome.ADMITTED) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MockDataServiceResponse fallback = new MockDataServiceResponse();
+        fallback.setHostedRegion(String.format("Request shed by load shedding filter {%s}", outcome));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), fallback);
+    }
+}
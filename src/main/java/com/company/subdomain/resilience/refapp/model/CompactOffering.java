@@ -0,0 +1,118 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import com.company.subdomain.resilience.refapp.enums.CouponType;
+import com.company.subdomain.resilience.refapp.enums.MarketType;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.util.FixedPoint;
+import com.company.subdomain.resilience.refapp.util.FixedPointScale;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * {@link Offering} with its prices, yields and rates as {@link FixedPoint} longs instead of BigDecimals, serialized to
+ * the same JSON properties. Missing values are {@link FixedPoint#NONE} and written as null.
+ */
+@Data
+public class CompactOffering {
+    public static final int PRICE_SCALE = 6;
+    public static final int YIELD_SCALE = 6;
+    public static final int RATE_SCALE = 4;
+
+    private ProductType productType;
+    private String cusip;
+    private String description;
+    private String state;
+    private String ticker;
+    private CouponType couponType;
+
+    private String industry;
+    @FixedPointScale(RATE_SCALE)
+    private long coupon = FixedPoint.NONE;
+    private LocalDate maturityDate;
+    private boolean callable;
+    private boolean taxable;
+    private String moodyRating;
+    private String snpRating;
+
+    private String offerId;
+
+    @FixedPointScale(RATE_SCALE)
+    private long duration = FixedPoint.NONE;
+    @FixedPointScale(RATE_SCALE)
+    private long convexity = FixedPoint.NONE;
+    private MarketType marketType;
+
+    private int askQty;
+    private int askMinQty;
+    private int askMinIncrement;
+    @FixedPointScale(PRICE_SCALE)
+    private long askPrice = FixedPoint.NONE;
+    @FixedPointScale(YIELD_SCALE)
+    private long askYtw = FixedPoint.NONE;
+    @FixedPointScale(YIELD_SCALE)
+    private long askYtm = FixedPoint.NONE;
+
+    private int bidQty;
+    private int bidMinQty;
+    private int bidMinIncrement;
+    @FixedPointScale(PRICE_SCALE)
+    private long bidPrice = FixedPoint.NONE;
+    @FixedPointScale(YIELD_SCALE)
+    private long bidYtw = FixedPoint.NONE;
+    @FixedPointScale(YIELD_SCALE)
+    private long bidYtm = FixedPoint.NONE;
+
+    @FixedPointScale(PRICE_SCALE)
+    private long askDeltaPrice = FixedPoint.NONE;
+    @FixedPointScale(YIELD_SCALE)
+    private long askDeltaYield = FixedPoint.NONE;
+    @FixedPointScale(PRICE_SCALE)
+    private long bidDeltaPrice = FixedPoint.NONE;
+    @FixedPointScale(YIELD_SCALE)
+    private long bidDeltaYield = FixedPoint.NONE;
+
+    /**
+     * @return the offering with its decimals rounded half up to the scales of the compact model
+     */
+    public static CompactOffering of(Offering offering) {
+        CompactOffering compact = new CompactOffering();
+        compact.setProductType(offering.getProductType());
+        compact.setCusip(offering.getCusip());
+        compact.setDescription(offering.getDescription());
+        compact.setState(offering.getState());
+        compact.setTicker(offering.getTicker());
+        compact.setCouponType(offering.getCouponType());
+        compact.setIndustry(offering.getIndustry());
+        compact.setCoupon(FixedPoint.of(offering.getCoupon(), RATE_SCALE));
+        compact.setMaturityDate(offering.getMaturityDate());
+        compact.setCallable(offering.isCallable());
+        compact.setTaxable(offering.isTaxable());
+        compact.setMoodyRating(offering.getMoodyRating());
+        compact.setSnpRating(offering.getSnpRating());
+        compact.setOfferId(offering.getOfferId());
+        compact.setDuration(FixedPoint.of(offering.getDuration(), RATE_SCALE));
+        compact.setConvexity(FixedPoint.of(offering.getConvexity(), RATE_SCALE));
+        compact.setMarketType(offering.getMarketType());
+
+        compact.setAskQty(offering.getAskQty());
+        compact.setAskMinQty(offering.getAskMinQty());
+        compact.setAskMinIncrement(offering.getAskMinIncrement());
+        compact.setAskPrice(FixedPoint.of(offering.getAskPrice(), PRICE_SCALE));
+        compact.setAskYtw(FixedPoint.of(offering.getAskYtw(), YIELD_SCALE));
+        compact.setAskYtm(FixedPoint.of(offering.getAskYtm(), YIELD_SCALE));
+
+        compact.setBidQty(offering.getBidQty());
+        compact.setBidMinQty(offering.getBidMinQty());
+        compact.setBidMinIncrement(offering.getBidMinIncrement());
+        compact.setBidPrice(FixedPoint.of(offering.getBidPrice(), PRICE_SCALE));
+        compact.setBidYtw(FixedPoint.of(offering.getBidYtw(), YIELD_SCALE));
+        compact.setBidYtm(FixedPoint.of(offering.getBidYtm(), YIELD_SCALE));
+
+        compact.setAskDeltaPrice(FixedPoint.of(offering.getAskDeltaPrice(), PRICE_SCALE));
+        compact.setAskDeltaYield(FixedPoint.of(offering.getAskDeltaYield(), YIELD_SCALE));
+        compact.setBidDeltaPrice(FixedPoint.of(offering.getBidDeltaPrice(), PRICE_SCALE));
+        compact.setBidDeltaYield(FixedPoint.of(offering.getBidDeltaYield(), YIELD_SCALE));
+        return compact;
+    }
+}
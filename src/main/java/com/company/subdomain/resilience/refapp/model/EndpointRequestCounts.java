@@ -0,0 +1,19 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+@Data
+public class EndpointRequestCounts {
+
+    /**
+     * Name of the DecoratedController endpoint, e.g. simple-retry
+     */
+    private String endpoint;
+
+    private long requests;
+
+    /**
+     * Requests answered with a fallback response
+     */
+    private long fallbacks;
+}
@@ -0,0 +1,30 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+/**
+ * Metrics of a single CircuitBreaker or Bulkhead created per key (ProductType, offerId...)
+ */
+@Data
+public class KeyedPatternMetrics {
+
+    /**
+     * Name of the resilience instance, e.g. circuit-breaker:MUNICIPAL
+     */
+    private String name;
+
+    private String key;
+
+    /**
+     * CircuitBreaker state, null for bulkheads
+     */
+    private String state;
+
+    private float failureRate;
+    private int numberOfBufferedCalls;
+    private int numberOfFailedCalls;
+    private long numberOfNotPermittedCalls;
+
+    private int availableConcurrentCalls;
+    private int maxAllowedConcurrentCalls;
+}
@@ -0,0 +1,19 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+/**
+ * Latency distribution of a recording period, values in microseconds
+ */
+@Data
+public class LatencyPercentiles {
+
+    private long count;
+
+    private long p50;
+    private long p90;
+    private long p99;
+    private long p999;
+    private long p9999;
+    private long max;
+}
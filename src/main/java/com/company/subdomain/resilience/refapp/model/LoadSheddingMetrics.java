@@ -0,0 +1,24 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+/**
+ * Load shedding counts of a single request priority class
+ */
+@Data
+public class LoadSheddingMetrics {
+
+    private String priority;
+
+    private long admitted;
+
+    /**
+     * Requests rejected because their client exceeded its token bucket quota
+     */
+    private long shedOverQuota;
+
+    /**
+     * Requests rejected because the bulkheads were saturated
+     */
+    private long shedOverload;
+}
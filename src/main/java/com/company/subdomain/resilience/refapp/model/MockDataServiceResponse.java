@@ -1,5 +1,6 @@
 package com.company.subdomain.resilience.refapp.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
@@ -16,4 +17,15 @@ public class MockDataServiceResponse {
      * List of mock offerings
      */
     private List<Offering> data;
+    /**
+     * Version of the repository snapshot the data was read from, responses with the same version and request are
+     * identical. Null for fallback responses.
+     */
+    private Long snapshotVersion;
+    /**
+     * Outcome of every source of a scatter-gather response, the data only holds the attributes of the OK ones.
+     * Null for the other endpoints.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SourceStatus> sources;
 }
@@ -0,0 +1,29 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Offerings of the repository as of one refresh. Snapshots are never modified, a refresh creates a new one with a
+ * higher version, so everything derived from a snapshot can be cached by its version.
+ */
+public final class OfferingsSnapshot {
+    private final long version;
+    private final List<Offering> offerings;
+
+    public OfferingsSnapshot(long version, List<Offering> offerings) {
+        this.version = version;
+        this.offerings = Collections.unmodifiableList(offerings);
+    }
+
+    /**
+     * Epoch millis of the refresh, increasing with every refresh
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Offering> getOfferings() {
+        return offerings;
+    }
+}
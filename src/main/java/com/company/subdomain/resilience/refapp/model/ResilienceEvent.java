@@ -0,0 +1,29 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+@Data
+public class ResilienceEvent {
+
+    /**
+     * Name of the resilience instance, e.g. simple-retry.retry-for-bulkhead
+     */
+    private String name;
+
+    /**
+     * One of ResilienceEventType
+     */
+    private String type;
+
+    private long timestampMillis;
+
+    /**
+     * Value recorded with the event, its meaning depends on the type, e.g. the retry wait in milliseconds
+     */
+    private long value;
+
+    /**
+     * Human readable value, only formatted when the event is queried
+     */
+    private String detail;
+}
@@ -0,0 +1,18 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+/**
+ * Number of events of one type recorded by one resilience instance within a time window
+ */
+@Data
+public class ResilienceEventStats {
+
+    private String name;
+
+    private String type;
+
+    private long count;
+
+    private double perSecond;
+}
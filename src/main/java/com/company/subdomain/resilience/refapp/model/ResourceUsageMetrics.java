@@ -0,0 +1,32 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+/**
+ * Allocation and CPU time of one stage of one DecoratedController endpoint
+ */
+@Data
+public class ResourceUsageMetrics {
+
+    private String endpoint;
+
+    /**
+     * Decorators applied by the endpoint, e.g. thread-pool-bulkhead,time-limiter
+     */
+    private String patterns;
+
+    /**
+     * TOTAL (request thread), SERVICE or FALLBACK
+     */
+    private String stage;
+
+    private long samples;
+
+    private long allocatedBytesPerRequest;
+
+    private long cpuMicrosPerRequest;
+
+    private long totalAllocatedBytes;
+
+    private long totalCpuMillis;
+}
@@ -0,0 +1,19 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.SourceOutcome;
+import lombok.Data;
+
+@Data
+public class SourceStatus {
+    private OfferingSource source;
+    private SourceOutcome outcome;
+    /**
+     * Time from the scatter until the source answered or failed
+     */
+    private long latencyMillis;
+    /**
+     * Reason of the failure, null when OK
+     */
+    private String message;
+}
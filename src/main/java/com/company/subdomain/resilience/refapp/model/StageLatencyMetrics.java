@@ -0,0 +1,27 @@
+package com.company.subdomain.resilience.refapp.model;
+
+import lombok.Data;
+
+@Data
+public class StageLatencyMetrics {
+
+    /**
+     * Name of the DecoratedController endpoint, e.g. simple-retry
+     */
+    private String endpoint;
+
+    /**
+     * One of LatencyStage, e.g. QUEUE_WAIT
+     */
+    private String stage;
+
+    /**
+     * Latency recorded in the last collection interval
+     */
+    private LatencyPercentiles interval;
+
+    /**
+     * Latency recorded since startup
+     */
+    private LatencyPercentiles cumulative;
+}
@@ -1,6 +1,7 @@
 package com.company.subdomain.resilience.refapp.repository;
 
 import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
 
 import java.util.List;
 
@@ -12,8 +13,12 @@ public interface ChaosEngineeringDataRepository {
     List<Offering> getSampleDataFromRepository();
 
     /**
-     * @param offerId
-     * @returns a specific dummy offering by id
+     * @return the current snapshot of the dummy offering data with its version
      */
-    List<Offering> getSampleDataFromRepositoryById(String offerId);
+    OfferingsSnapshot getSnapshotFromRepository();
+
+    /**
+     * @return the snapshot the next read returns, without the latency of a read, like a version check in a database
+     */
+    OfferingsSnapshot currentSnapshot();
 }
@@ -1,63 +1,111 @@
 package com.company.subdomain.resilience.refapp.repository;
 
 import com.company.subdomain.resilience.refapp.enums.CouponType;
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
 import com.company.subdomain.resilience.refapp.enums.MarketType;
 import com.company.subdomain.resilience.refapp.enums.OfferType;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
 import com.company.subdomain.resilience.refapp.enums.ProductType;
 import com.company.subdomain.resilience.refapp.model.Offer;
 import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.util.BondAnalyticsEngine;
+import com.company.subdomain.resilience.refapp.util.BondUniverse;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.FixedPoint;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 
 @Repository
 public class ChaosEngineeringDataRepositoryImpl implements ChaosEngineeringDataRepository {
     private static Logger LOGGER = LoggerFactory.getLogger(ChaosEngineeringDataRepositoryImpl.class);
+    private static final double DAYS_PER_YEAR = 365.25;
+    private static final int YIELD_SCALE = 6;
+    private static final int RISK_SCALE = 4;
+
+    private final FaultInjector faultInjector;
+    private final SchedulingClock clock;
+    private final BondAnalyticsEngine analyticsEngine;
+    private final long refreshMillis;
+    /**
+     * Row i holds the offering at index i of the snapshot, only written under the lock of the repository
+     */
+    private final BondUniverse universe;
+    private final Random random = new Random();
+    private volatile OfferingsSnapshot snapshot;
+
+    /**
+     * @param refreshMillis age after which a quarter of the dummy offerings is requoted, like prices updated in a
+     *                      database
+     */
+    public ChaosEngineeringDataRepositoryImpl(FaultInjector faultInjector, SchedulingClock clock,
+                                              BondAnalyticsEngine analyticsEngine,
+                                              @Value("${patterns.snapshot.refreshMillis}") long refreshMillis) {
+        this.faultInjector = faultInjector;
+        this.clock = clock;
+        this.analyticsEngine = analyticsEngine;
+        this.refreshMillis = refreshMillis;
+        List<Offering> offerings = getDummyOfferings();
+        this.universe = new BondUniverse(offerings.size());
+        this.snapshot = new OfferingsSnapshot(clock.currentTimeMillis(), withAnalytics(offerings));
+    }
 
     /**
      * This method returns a list of sample data to service layer,mimicking a database call.
      */
     @Override
     public List<Offering> getSampleDataFromRepository() {
+        return getSnapshotFromRepository().getOfferings();
+    }
+
+    @Override
+    public OfferingsSnapshot getSnapshotFromRepository() {
         // Ideally here we connect to database and fetch offerings data, for this POC, we will return some dummy offerings
-        LOGGER.debug("getSampleDataFromRepository going to sleep");
+        faultInjector.inject(FaultTarget.REPOSITORY);
+        LOGGER.debug("getSnapshotFromRepository going to sleep");
         try {
-            Thread.sleep(500);
+            clock.sleep(500);
         } catch (Exception e) {
             e.printStackTrace();
         }
-        LOGGER.debug("getSampleDataFromRepository waking up");
-        return getDummyOfferings();
+        LOGGER.debug("getSnapshotFromRepository waking up");
+        return currentSnapshot();
     }
 
-    /**
-     * @param offerId
-     * @return
-     */
     @Override
-    public List<Offering> getSampleDataFromRepositoryById(String offerId) {
-        List<Offering> dummyOfferings = getDummyOfferings();
-        try {
-            Thread.sleep(500);
-        } catch (Exception e) {
-            e.printStackTrace();
+    public OfferingsSnapshot currentSnapshot() {
+        OfferingsSnapshot current = snapshot;
+        long now = clock.currentTimeMillis();
+        if (now - current.getVersion() < refreshMillis) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == current) {
+                //versions must increase even if the clock does not move between refreshes
+                snapshot = new OfferingsSnapshot(Math.max(now, current.getVersion() + 1),
+                        withAnalytics(requote(current.getOfferings())));
+                LOGGER.debug("Refreshed offerings snapshot to version {}", snapshot.getVersion());
+            }
+            return snapshot;
         }
-        return dummyOfferings
-                .stream()
-                .filter(ofr -> offerId.equals(ofr.getOfferId()))
-                .collect(Collectors.toList());
     }
 
     /**
-     * This method generates a list of dummy offering data
+     * This method generates a list of dummy offering data, priced at a random yield and maturing on a coupon date
+     * within 30 years
      */
     private List<Offering> getDummyOfferings() {
         Random random = new Random();
@@ -66,19 +114,100 @@ public class ChaosEngineeringDataRepositoryImpl implements ChaosEngineeringDataR
         String[] descriptions = {"OXNARD CALIF SCH DIST", "MORGAN STANLEY MTN", "FED Treasury Bond", "MANUFACTURER AND TRADERS NOTE"};
         ProductType[] types = {ProductType.CORPORATE, ProductType.MBS, ProductType.MUNICIPAL, ProductType.TREASURY};
         String[] states = {"MA", "NY"};
+        LocalDate settlementDate = settlementDate();
 
         int offerId = 1000;
         for (int i = 0; i < 100; i++) {
-            Offer bid = new Offer(OfferType.BID, random.nextDouble() * 25, random.nextInt(100) + 50, random.nextInt(100) * 8);
-            Offer ask = new Offer(OfferType.ASK, random.nextDouble() * 25, random.nextInt(100) + 50, random.nextInt(100) * 8);
+            BigDecimal coupon = new BigDecimal(10 * random.nextDouble());
+            LocalDate maturityDate = settlementDate.plusMonths(6 * (1 + random.nextInt(60)));
+            double askYield = 1 + random.nextDouble() * 7;
+            double askPrice = roundPrice(BondAnalyticsEngine.price(coupon.doubleValue(), yearsTo(settlementDate, maturityDate), askYield));
+            Offer ask = new Offer(OfferType.ASK, askYield, askPrice, random.nextInt(100) * 8);
+            Offer bid = new Offer(OfferType.BID, Double.NaN, roundPrice(askPrice - 0.05 - random.nextDouble() * 0.45), random.nextInt(100) * 8);
 
-            offerings.add(addMockOfferings(generateRandomCusip(), descriptions[random.nextInt(descriptions.length)], new BigDecimal(10 * random.nextDouble()), LocalDate.parse("2019-10-09"), "AAA+",
-                    types[random.nextInt(types.length)], true, states[random.nextInt(states.length)], bid, ask, ++offerId));
+            offerings.add(addMockOfferings(generateRandomCusip(), descriptions[random.nextInt(descriptions.length)], coupon, maturityDate, "AAA+",
+                    types[random.nextInt(types.length)], random.nextBoolean(), states[random.nextInt(states.length)], bid, ask, ++offerId));
         }
 
         return offerings;
     }
 
+    /**
+     * Moves the prices of about a quarter of the offerings by a few basis points, the others are kept as they are
+     */
+    private List<Offering> requote(List<Offering> offerings) {
+        List<Offering> requoted = new ArrayList<>(offerings.size());
+        for (Offering offering : offerings) {
+            if (random.nextInt(4) != 0) {
+                requoted.add(offering);
+                continue;
+            }
+            double move = 1 + random.nextGaussian() * 0.002;
+            Offering copy = copy(offering);
+            copy.setAskPrice(BigDecimal.valueOf(roundPrice(offering.getAskPrice().doubleValue() * move)));
+            copy.setBidPrice(BigDecimal.valueOf(roundPrice(offering.getBidPrice().doubleValue() * move)));
+            requoted.add(copy);
+        }
+        return requoted;
+    }
+
+    /**
+     * Computes the yields, duration and convexity of the offerings whose terms, quote or settlement date changed since
+     * the previous snapshot, into copies so that the offerings of published snapshots are never modified
+     */
+    private List<Offering> withAnalytics(List<Offering> offerings) {
+        LocalDate settlementDate = settlementDate();
+        for (int row = 0; row < offerings.size(); row++) {
+            Offering offering = offerings.get(row);
+            double years = yearsTo(settlementDate, offering.getMaturityDate());
+            universe.setTerms(row, offering.getCoupon().doubleValue(), years,
+                    offering.isCallable() ? analyticsEngine.firstCallYears(years) : Double.NaN);
+            universe.setQuote(row, offering.getBidPrice().doubleValue(), offering.getAskPrice().doubleValue());
+        }
+        int computed = analyticsEngine.compute(universe);
+        LOGGER.debug("Computed the analytics of {} of {} offerings", computed, offerings.size());
+        List<Offering> analysed = new ArrayList<>(offerings.size());
+        for (int row = 0; row < offerings.size(); row++) {
+            Offering offering = offerings.get(row);
+            if (universe.isUpdated(row)) {
+                offering = copy(offering);
+                offering.setBidYtm(decimal(universe.getBidYtm(row), YIELD_SCALE));
+                offering.setBidYtw(decimal(universe.getBidYtw(row), YIELD_SCALE));
+                offering.setAskYtm(decimal(universe.getAskYtm(row), YIELD_SCALE));
+                offering.setAskYtw(decimal(universe.getAskYtw(row), YIELD_SCALE));
+                offering.setDuration(decimal(universe.getDuration(row), RISK_SCALE));
+                offering.setConvexity(decimal(universe.getConvexity(row), RISK_SCALE));
+            }
+            analysed.add(offering);
+        }
+        return analysed;
+    }
+
+    private LocalDate settlementDate() {
+        return Instant.ofEpochMilli(clock.currentTimeMillis()).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private static double yearsTo(LocalDate settlementDate, LocalDate date) {
+        return ChronoUnit.DAYS.between(settlementDate, date) / DAYS_PER_YEAR;
+    }
+
+    private static double roundPrice(double price) {
+        return Math.round(price * 1000) / 1000d;
+    }
+
+    private static BigDecimal decimal(double value, int scale) {
+        return Double.isNaN(value) ? null : FixedPoint.toBigDecimal(FixedPoint.of(value, scale), scale);
+    }
+
+    private static Offering copy(Offering offering) {
+        Offering copy = new Offering();
+        copy.setOfferId(offering.getOfferId());
+        for (OfferingSource source : OfferingSource.values()) {
+            source.copyAttributes(offering, copy);
+        }
+        return copy;
+    }
+
     /**
      * This method generates a list of random sample Cusip data for dummy offerings list
      */
@@ -132,17 +261,13 @@ public class ChaosEngineeringDataRepositoryImpl implements ChaosEngineeringDataR
         offering.setState(state);
 
         offering.setBidQty(bid.getQuantity());
-        offering.setBidPrice(new BigDecimal(bid.getPrice()));
-        offering.setBidYtw(new BigDecimal(bid.getYield()));
+        offering.setBidPrice(BigDecimal.valueOf(bid.getPrice()));
 
         offering.setAskQty(ask.getQuantity());
-        offering.setAskPrice(new BigDecimal(ask.getPrice()));
-        offering.setAskYtw(new BigDecimal(ask.getYield()));
+        offering.setAskPrice(BigDecimal.valueOf(ask.getPrice()));
 
         offering.setCouponType(CouponType.NONZERO);
         offering.setMarketType(MarketType.SECONDARY);
-        offering.setDuration(new BigDecimal("0.05"));
-        offering.setConvexity(new BigDecimal("0.02"));
         offering.setOfferId(String.valueOf(offerId));
         return offering;
     }
@@ -0,0 +1,14 @@
+package com.company.subdomain.resilience.refapp.repository;
+
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+
+public interface OfferingSourceRepository {
+
+    /**
+     * @param source
+     * @return the offerings of the current snapshot with only the offerId and the attributes the source owns set,
+     * versioned like the snapshot they were read from
+     */
+    OfferingsSnapshot getFromSource(OfferingSource source);
+}
@@ -0,0 +1,76 @@
+package com.company.subdomain.resilience.refapp.repository;
+
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stands in for the reference data, bid quote and ask quote services the offerings are assembled from in production.
+ * Every source answers from the snapshot of {@link ChaosEngineeringDataRepository} after its own latency, set under
+ * patterns.sourceLatencyMillis, and with the faults injected into its own FaultTarget, so one source can be slowed
+ * down or broken while the others stay healthy.
+ */
+@Repository
+public class OfferingSourceRepositoryImpl implements OfferingSourceRepository {
+    private static Logger LOGGER = LoggerFactory.getLogger(OfferingSourceRepositoryImpl.class);
+
+    private final ChaosEngineeringDataRepository chaosEngineeringDataRepository;
+    private final FaultInjector faultInjector;
+    private final SchedulingClock clock;
+    private final Map<OfferingSource, Integer> latencyMillis = new EnumMap<>(OfferingSource.class);
+    /**
+     * The partial offerings of every source, rebuilt once per snapshot version
+     */
+    private final Map<OfferingSource, OfferingsSnapshot> projections = new ConcurrentHashMap<>();
+
+    public OfferingSourceRepositoryImpl(ChaosEngineeringDataRepository chaosEngineeringDataRepository,
+                                        FaultInjector faultInjector, SchedulingClock clock, YMLConfig ymlConfig) {
+        this.chaosEngineeringDataRepository = chaosEngineeringDataRepository;
+        this.faultInjector = faultInjector;
+        this.clock = clock;
+        for (OfferingSource source : OfferingSource.values()) {
+            latencyMillis.put(source, ymlConfig.getSourceLatencyMillis().getOrDefault(source, 0));
+        }
+        LOGGER.info("Offering sources created with latencies {}", latencyMillis);
+    }
+
+    @Override
+    public OfferingsSnapshot getFromSource(OfferingSource source) {
+        faultInjector.inject(FaultTarget.valueOf(source.name()));
+        try {
+            clock.sleep(latencyMillis.get(source));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.info("Source {} interrupted while waiting for its latency", source);
+        }
+        OfferingsSnapshot snapshot = chaosEngineeringDataRepository.currentSnapshot();
+        return projections.compute(source, (key, projection) -> projection != null
+                && projection.getVersion() == snapshot.getVersion() ? projection : project(key, snapshot));
+    }
+
+    private static OfferingsSnapshot project(OfferingSource source, OfferingsSnapshot snapshot) {
+        return new OfferingsSnapshot(snapshot.getVersion(), snapshot.getOfferings()
+                .stream()
+                .map(offering -> project(source, offering))
+                .collect(Collectors.toList()));
+    }
+
+    private static Offering project(OfferingSource source, Offering offering) {
+        Offering part = new Offering();
+        part.setOfferId(offering.getOfferId());
+        source.copyAttributes(offering, part);
+        return part;
+    }
+}
@@ -0,0 +1,43 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exits the JVM once the application is ready and warmed up, so a run with -XX:ArchiveClassesAtExit archives the
+ * classes loaded by startup and the call paths. Only active with patterns.startup.cdsTrainingRun=true, see the appcds
+ * build profile.
+ */
+@Component
+@ConditionalOnProperty("patterns.startup.cdsTrainingRun")
+class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+    private static Logger LOGGER = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+    private final StartupWarmUp startupWarmUp;
+
+    CdsTrainingRun(StartupWarmUp startupWarmUp) {
+        this.startupWarmUp = startupWarmUp;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Thread thread = new Thread(() -> {
+            try {
+                while (!startupWarmUp.isComplete()) {
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.warn("Class data sharing training run complete, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }, "cds-training-run");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
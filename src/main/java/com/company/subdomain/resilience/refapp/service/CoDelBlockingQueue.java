@@ -0,0 +1,88 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded work queue which manages itself by sojourn time (the time a task spent waiting in the queue) rather than
+ * by length, in the style of CoDel with an adaptive LIFO switch.
+ * <p>
+ * The queue is considered overloaded when it has not been empty for the last {@code interval}. While it is not
+ * overloaded tasks are taken FIFO and are only dropped after waiting longer than {@code interval}. Once it is overloaded
+ * tasks are taken LIFO, so the freshest requests are served first, and any task which waited longer than
+ * {@code target} is dropped instead of being executed.
+ * Dropped tasks are failed through {@link CoDelThreadPoolBulkhead.CoDelTask#drop(long)} so the caller gets an immediate fallback.
+ */
+class CoDelBlockingQueue extends LinkedBlockingDeque<Runnable> {
+    private final long targetNanos;
+    private final long intervalNanos;
+    private volatile long lastEmptyNanos = System.nanoTime();
+
+    CoDelBlockingQueue(int capacity, long targetMillis, long intervalMillis) {
+        super(capacity);
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        if (isEmpty()) {
+            lastEmptyNanos = System.nanoTime();
+        }
+        return super.offer(runnable);
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        for (; ; ) {
+            Runnable runnable = isOverloaded(System.nanoTime()) ? takeLast() : takeFirst();
+            if (admit(runnable)) {
+                return runnable;
+            }
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (; ; ) {
+            long remaining = deadline - System.nanoTime();
+            Runnable runnable = isOverloaded(System.nanoTime())
+                    ? pollLast(remaining, TimeUnit.NANOSECONDS)
+                    : pollFirst(remaining, TimeUnit.NANOSECONDS);
+            if (runnable == null) {
+                lastEmptyNanos = System.nanoTime();
+                return null;
+            }
+            if (admit(runnable)) {
+                return runnable;
+            }
+        }
+    }
+
+    boolean isOverloaded(long nowNanos) {
+        return nowNanos - lastEmptyNanos > intervalNanos;
+    }
+
+    /**
+     * @return true if the task should run, false if it was dropped because it waited too long
+     */
+    private boolean admit(Runnable runnable) {
+        long now = System.nanoTime();
+        boolean overloaded = isOverloaded(now);
+        if (isEmpty()) {
+            lastEmptyNanos = now;
+        }
+        if (!(runnable instanceof CoDelThreadPoolBulkhead.CoDelTask)) {
+            return true;
+        }
+        CoDelThreadPoolBulkhead.CoDelTask task = (CoDelThreadPoolBulkhead.CoDelTask) runnable;
+        long sojournNanos = now - task.getEnqueuedNanos();
+        long limitNanos = overloaded ? targetNanos : intervalNanos;
+        if (sojournNanos > limitNanos) {
+            task.drop(sojournNanos);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.exception.BulkheadQueueRejectionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A thread pool bulkhead whose queue is managed by sojourn time ({@link CoDelBlockingQueue}) instead of by length only.
+ * Resilience4j's ThreadPoolBulkhead does not allow a custom work queue, so this class mirrors its sizing
+ * (core/max threads, keep alive, queue capacity) and exposes a CompletionStage returning {@link #submit(Supplier)}
+ * which can be passed to {@code Decorators.ofCompletionStage(..)}.
+ * <p>
+ * The sojourn time of every task is recorded in the {@code bulkhead.queue.sojourn} timer as a percentile histogram.
+ */
+class CoDelThreadPoolBulkhead {
+    private static Logger LOGGER = LoggerFactory.getLogger(CoDelThreadPoolBulkhead.class);
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final CoDelBlockingQueue queue;
+    private final Timer sojournTimer;
+
+    CoDelThreadPoolBulkhead(String name, int maxThreadPoolSize, int coreThreadPoolSize, int queueCapacity,
+                            int targetDelayMillis, int intervalMillis, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.queue = new CoDelBlockingQueue(queueCapacity, targetDelayMillis, intervalMillis);
+        this.executor = new ThreadPoolExecutor(coreThreadPoolSize, maxThreadPoolSize, 2, TimeUnit.SECONDS,
+                queue, new NamingThreadFactory(name));
+        this.sojournTimer = Timer.builder("bulkhead.queue.sojourn")
+                .description("Time tasks spent queued in the thread pool bulkhead before running or being dropped")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(new CoDelTask(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            }, future));
+        } catch (RejectedExecutionException e) {
+            LOGGER.info("CoDelThreadPoolBulkhead {} rejected remote call, queue is full", name);
+            future.completeExceptionally(new BulkheadQueueRejectionException(
+                    String.format("Bulkhead '%s' queue is full and does not permit further calls", name)));
+        }
+        return future;
+    }
+
+    /**
+     * Stops accepting calls, queued calls still run
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return current number of threads in the pool
+     */
+    int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return true while calls are queued and the queue has not been empty for a whole interval
+     */
+    boolean isOverloaded() {
+        return !queue.isEmpty() && queue.isOverloaded(System.nanoTime());
+    }
+
+    /**
+     * Runnable which remembers when it was queued so the queue can decide by sojourn time whether it should still run.
+     */
+    class CoDelTask implements Runnable {
+        private final long enqueuedNanos = System.nanoTime();
+        private final Runnable delegate;
+        private final CompletableFuture<?> future;
+
+        CoDelTask(Runnable delegate, CompletableFuture<?> future) {
+            this.delegate = delegate;
+            this.future = future;
+        }
+
+        long getEnqueuedNanos() {
+            return enqueuedNanos;
+        }
+
+        @Override
+        public void run() {
+            sojournTimer.record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+            if (!future.isDone()) {
+                delegate.run();
+            }
+        }
+
+        void drop(long sojournNanos) {
+            sojournTimer.record(sojournNanos, TimeUnit.NANOSECONDS);
+            LOGGER.info("CoDelThreadPoolBulkhead {} dropped task after {} ms in queue", name,
+                    TimeUnit.NANOSECONDS.toMillis(sojournNanos));
+            future.completeExceptionally(new BulkheadQueueRejectionException(
+                    String.format("Bulkhead '%s' dropped call after %d ms in queue", name,
+                            TimeUnit.NANOSECONDS.toMillis(sojournNanos))));
+        }
+    }
+}
@@ -1,8 +1,28 @@
 package com.company.subdomain.resilience.refapp.service;
 
+import com.company.subdomain.resilience.refapp.enums.LatencyStage;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.enums.ResilienceEventType;
+import com.company.subdomain.resilience.refapp.enums.SourceOutcome;
+import com.company.subdomain.resilience.refapp.exception.BulkheadQueueRejectionException;
 import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.exception.DeadlineExceededException;
 import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
+import com.company.subdomain.resilience.refapp.model.EndpointRequestCounts;
+import com.company.subdomain.resilience.refapp.model.KeyedPatternMetrics;
 import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.model.ResilienceEvent;
+import com.company.subdomain.resilience.refapp.model.ResilienceEventStats;
+import com.company.subdomain.resilience.refapp.model.ResourceUsageMetrics;
+import com.company.subdomain.resilience.refapp.model.SourceStatus;
+import com.company.subdomain.resilience.refapp.model.StageLatencyMetrics;
+import com.company.subdomain.resilience.refapp.util.EndpointConfig;
+import com.company.subdomain.resilience.refapp.util.PooledTasks;
+import com.company.subdomain.resilience.refapp.util.RequestDeadline;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
 import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
@@ -12,6 +32,7 @@ import io.github.resilience4j.decorators.Decorators;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.timelimiter.TimeLimiter;
 import io.vavr.CheckedFunction0;
 import io.vavr.CheckedFunction1;
@@ -25,10 +46,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.ResourceAccessException;
 
 import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Component
@@ -38,33 +66,49 @@ public class DecoratedSupplier {
 
     private final OfferingsDataService offeringsDataService;
     private final PatternsFactory patternsFactory;
+    private final ResilienceEventStore eventStore;
+    /**
+     * Requests wait for their decorated calls on the clock
+     */
+    private final SchedulingClock clock;
+    /**
+     * Schedules the time limiter timeouts and the retry backoff waits of all requests
+     */
+    private final ScheduledExecutorService scheduler;
 
-    private AtomicInteger atomicInteger = new AtomicInteger(0);
-
-    public DecoratedSupplier(OfferingsDataService offeringsDataService, PatternsFactory patternsFactory) {
+    public DecoratedSupplier(OfferingsDataService offeringsDataService, PatternsFactory patternsFactory,
+                             ResilienceEventStore eventStore, SchedulingClock clock) {
         this.offeringsDataService = offeringsDataService;
         this.patternsFactory = patternsFactory;
+        this.eventStore = eventStore;
+        this.clock = clock;
+        this.scheduler = clock.scheduler();
+        //Event consumers are registered once per instance rather than on every request
+        for (EndpointPatterns endpoint : patternsFactory.endpoints()) {
+            registerEventConsumers(null, endpoint);
+        }
+        patternsFactory.onReconfigured(this::registerEventConsumers);
     }
 
     public MockDataServiceResponse callRetryDecoratedService(boolean throwException) {
-        handlePublishedEvents(patternsFactory.retry);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferingsWithRetry(throwException);
-        return Retry.decorateSupplier(patternsFactory.retry, mockDataServiceResponseSupplier)
-                .get();
+        return timed(PatternsFactory.SIMPLE_RETRY, endpoint -> {
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferingsWithRetry(endpoint, throwException);
+            return retryOnCaller(endpoint.retry, mockDataServiceResponseSupplier);
+        });
     }
 
     public MockDataServiceResponse callRetryDecoratedServiceWithFallBack(boolean throwException) {
-        handlePublishedEvents(patternsFactory.retry);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferingsWithRetry(throwException);
-        return Decorators.ofSupplier(mockDataServiceResponseSupplier)
-                .withRetry(patternsFactory.retry)
-                .withFallback(Arrays.asList(ConnectException.class, ResourceAccessException.class),
-                        (e) -> fallbackResponse(String.format("Exception thrown: {%s}", e.getMessage())))
-                .get();
+        return timed(PatternsFactory.SIMPLE_RETRY, endpoint -> {
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferingsWithRetry(endpoint, throwException);
+            return Decorators.ofSupplier(() -> retryOnCaller(endpoint.retry, mockDataServiceResponseSupplier))
+                    .withFallback(Arrays.asList(ConnectException.class, ResourceAccessException.class),
+                            (e) -> fallbackResponse(endpoint, String.format("Exception thrown: {%s}", e.getMessage())))
+                    .get();
+        });
     }
 
-    private MockDataServiceResponse getMockOfferingsWithRetry(boolean throwException) {
-        return Try.of(() -> offeringsDataService.getMockOfferingsForRetry(throwException))
+    private MockDataServiceResponse getMockOfferingsWithRetry(EndpointPatterns endpoint, boolean throwException) {
+        return Try.of(timedCall(endpoint, () -> offeringsDataService.getMockOfferingsForRetry(throwException)))
                 .recover(throwable -> {
                     if (throwable instanceof TemporaryServiceOutageException) {
                         throw new ChaosEngineeringRuntimeException(throwable.getMessage());
@@ -75,8 +119,8 @@ public class DecoratedSupplier {
                 .get();
     }
 
-    private MockDataServiceResponse getMockOfferings(boolean throwException) {
-        return Try.of(() -> offeringsDataService.getMockOfferings(throwException))
+    private MockDataServiceResponse getMockOfferings(EndpointPatterns endpoint, boolean throwException) {
+        return Try.of(timedCall(endpoint, () -> offeringsDataService.getMockOfferings(throwException)))
                 .recover(throwable -> {
                     if (throwable instanceof TemporaryServiceOutageException) {
                         throw new ChaosEngineeringRuntimeException(throwable.getMessage());
@@ -88,78 +132,88 @@ public class DecoratedSupplier {
     }
 
     public MockDataServiceResponse callCircuitBreakerDecoratedService(boolean throwException) {
-        handlePublishedEvents(patternsFactory.circuitBreaker);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferings(throwException);
-        Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(mockDataServiceResponseSupplier)
-                .withCircuitBreaker(patternsFactory.circuitBreaker)
-                .decorate();
-        return Try.ofSupplier(decoratedSupplier)
-                .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
-                .getOrElseGet(throwable -> fallbackResponse(String.format(throwable.getMessage())));
+        return timed(PatternsFactory.SIMPLE_CIRCUIT_BREAKER, endpoint -> {
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferings(endpoint, throwException);
+            Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(mockDataServiceResponseSupplier)
+                    .withCircuitBreaker(endpoint.circuitBreaker)
+                    .decorate();
+            return Try.ofSupplier(decoratedSupplier)
+                    .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
+                    .getOrElseGet(throwable -> fallbackResponse(endpoint, String.format(throwable.getMessage())));
+        });
     }
 
     public MockDataServiceResponse callSimpleCircuitBreakerDecoratedService(boolean throwException) throws ExecutionException, InterruptedException, ChaosEngineeringRuntimeException {
-        handlePublishedEvents(patternsFactory.circuitBreaker);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = (() ->
-                offeringsDataService.getMockOfferingsDataFromService(throwException));
-        return CircuitBreaker.decorateSupplier(patternsFactory.circuitBreaker, mockDataServiceResponseSupplier)
-                .get();
+        return timed(PatternsFactory.SIMPLE_CIRCUIT_BREAKER, endpoint -> {
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = timedService(endpoint, () ->
+                    offeringsDataService.getMockOfferingsDataFromService(throwException));
+            return CircuitBreaker.decorateSupplier(endpoint.circuitBreaker, mockDataServiceResponseSupplier)
+                    .get();
+        });
     }
 
     public MockDataServiceResponse callRateLimiterDecoratedService(boolean throwException) throws ExecutionException, InterruptedException, ChaosEngineeringRuntimeException {
-        handlePublishedEvents(patternsFactory.rateLimiter);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = (() ->
-                offeringsDataService.getMockOfferingsDataFromService(throwException));
-        Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(mockDataServiceResponseSupplier)
-                .withRateLimiter(patternsFactory.rateLimiter)
-                .withFallback(Collections.singletonList(RequestNotPermitted.class),
-                        (e) -> fallbackResponse(String.format("RequestNotPermitted thrown: {%s}", e.getMessage())))
-                .decorate();
-        return Try.ofSupplier(decoratedSupplier)
-                .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
-                .getOrElseGet(throwable -> fallbackResponse(String.format(throwable.getMessage())));
+        return timed(PatternsFactory.SIMPLE_RATE_LIMITER, endpoint -> {
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = timedService(endpoint, () ->
+                    offeringsDataService.getMockOfferingsDataFromService(throwException));
+            Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(mockDataServiceResponseSupplier)
+                    .withRateLimiter(endpoint.rateLimiter)
+                    .withFallback(Collections.singletonList(RequestNotPermitted.class),
+                            (e) -> fallbackResponse(endpoint, String.format("RequestNotPermitted thrown: {%s}", e.getMessage())))
+                    .decorate();
+            return Try.ofSupplier(decoratedSupplier)
+                    .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
+                    .getOrElseGet(throwable -> fallbackResponse(endpoint, String.format(throwable.getMessage())));
+        });
     }
 
     public MockDataServiceResponse callTimeLimiterDecoratedService(boolean throwException) throws ExecutionException, InterruptedException, ChaosEngineeringRuntimeException {
-        handlePublishedEvents(patternsFactory.timeLimiter);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = (() ->
-                offeringsDataService.getDegradedMockOfferings(throwException));
-        Supplier<CompletableFuture<MockDataServiceResponse>> futureSupplier =
-                () -> CompletableFuture.supplyAsync(mockDataServiceResponseSupplier);
-
-        Callable<MockDataServiceResponse> decorateFutureSupplier =
-                TimeLimiter.decorateFutureSupplier(patternsFactory.timeLimiter, futureSupplier);
-
-
-        //https://github.com/resilience4j/resilience4j/issues/928
-        //TimeLimiter does not set an exception message so creating one see issue number above
-        return Try.of(decorateFutureSupplier::call)
-                .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
-                .getOrElseGet(throwable -> {
-                    LOGGER.error("Request failed due to {}", throwable.getMessage());
-                    return fallbackResponse("TimeLimiter does not set an exception message so creating one");
-                });
+        return timed(PatternsFactory.SIMPLE_TIME_LIMITER, endpoint -> {
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = timedService(endpoint, () ->
+                    offeringsDataService.getDegradedMockOfferings(throwException));
+            //the timeout is scheduled on the clock scheduler instead of blocking in Future.get(timeout)
+            Supplier<CompletionStage<MockDataServiceResponse>> timeLimitedSupplier = Decorators.ofCompletionStage(
+                    () -> CompletableFuture.supplyAsync(mockDataServiceResponseSupplier, clock.executor()))
+                    .withTimeLimiter(endpoint.timeLimiter, scheduler)
+                    .decorate();
+
+
+            //https://github.com/resilience4j/resilience4j/issues/928
+            //TimeLimiter does not set an exception message so creating one see issue number above
+            return Try.of(() -> clock.await(timeLimitedSupplier.get().toCompletableFuture()))
+                    .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
+                    .getOrElseGet(throwable -> {
+                        LOGGER.error("Request failed due to {}", throwable.getMessage());
+                        return fallbackResponse(endpoint, "TimeLimiter does not set an exception message so creating one");
+                    });
+        });
     }
 
     public MockDataServiceResponse callBulkheadDecoratedService(boolean throwException) throws Throwable {
-        LOGGER.info(" {} callBulkheadDecoratedService ", Thread.currentThread().getName());
-        handlePublishedEvents(patternsFactory.bulkhead);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferings(throwException);
-        Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(mockDataServiceResponseSupplier)
-                .withBulkhead(patternsFactory.bulkhead)
-                .withFallback(Collections.singletonList(BulkheadFullException.class),
-                        (e) -> fallbackResponse(String.format("BulkheadFullException thrown: {%s}", e.getMessage())))
-                .decorate();
-        return Try.ofSupplier(decoratedSupplier)
-                .getOrElseGet(throwable -> fallbackResponse(throwable.getMessage()));
+        return timed(PatternsFactory.SIMPLE_BULKHEAD, endpoint -> {
+            long enteredNanos = System.nanoTime();
+            LOGGER.info(" {} callBulkheadDecoratedService ", Thread.currentThread().getName());
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = () -> getMockOfferings(endpoint, throwException);
+            Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(
+                    afterBulkheadWait(endpoint, enteredNanos, mockDataServiceResponseSupplier))
+                    .withBulkhead(endpoint.bulkhead)
+                    .withFallback(Collections.singletonList(BulkheadFullException.class),
+                            (e) -> fallbackResponse(endpoint, String.format("BulkheadFullException thrown: {%s}", e.getMessage())))
+                    .decorate();
+            return Try.ofSupplier(decoratedSupplier)
+                    .getOrElseGet(throwable -> fallbackResponse(endpoint, throwable.getMessage()));
+        });
     }
 
     public MockDataServiceResponse callSimpleBulkheadDecoratedService(boolean throwException) throws ExecutionException, InterruptedException, ChaosEngineeringRuntimeException {
-        handlePublishedEvents(patternsFactory.bulkhead);
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = (() ->
-                offeringsDataService.getMockOfferingsDataFromService(throwException));
-        return Bulkhead.decorateSupplier(patternsFactory.bulkhead, mockDataServiceResponseSupplier)
-                .get();
+        return timed(PatternsFactory.SIMPLE_BULKHEAD, endpoint -> {
+            long enteredNanos = System.nanoTime();
+            Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = timedService(endpoint, () ->
+                    offeringsDataService.getMockOfferingsDataFromService(throwException));
+            return Bulkhead.decorateSupplier(endpoint.bulkhead,
+                    afterBulkheadWait(endpoint, enteredNanos, mockDataServiceResponseSupplier))
+                    .get();
+        });
     }
 
     /**
@@ -171,18 +225,20 @@ public class DecoratedSupplier {
      */
     public MockDataServiceResponse callThreadPoolBulkheadAndTimeLimiterDecoratedService(boolean throwException)
             throws ExecutionException, InterruptedException, ChaosEngineeringRuntimeException {
-        handlePublishedEvents(patternsFactory.threadPoolBulkhead);
-        CompletableFuture<MockDataServiceResponse> future = Decorators
-                .ofSupplier(() -> offeringsDataService.getDegradedMockOfferings(throwException))
-                .withThreadPoolBulkhead(patternsFactory.threadPoolBulkhead)
-                .withTimeLimiter(patternsFactory.timeLimiter, Executors.newSingleThreadScheduledExecutor())
-                .withFallback(BulkheadFullException.class, (e) -> fallbackResponse(
-                        String.format("Request failed due to bulkheadName {%s} BulkheadFullException", e.getMessage())))
-                .withFallback(TimeoutException.class, (e) -> fallbackResponse(
-                        String.format("Request failed due to TimeLimiter {%s} with duration {%s} due to TimeoutException",
-                                patternsFactory.timeLimiter.getName(), patternsFactory.timeLimiter.getTimeLimiterConfig().getTimeoutDuration())))
-                .get().toCompletableFuture();
-        return future.get();
+        return timedBlocking(PatternsFactory.OFFERINGS, endpoint -> {
+            CompletableFuture<MockDataServiceResponse> future =
+                    withThreadPoolBulkhead(endpoint, timedService(endpoint, () -> offeringsDataService.getDegradedMockOfferings(throwException)))
+                    .withTimeLimiter(endpoint.timeLimiter, scheduler)
+                    .withFallback(BulkheadFullException.class, (e) -> fallbackResponse(endpoint,
+                            String.format("Request failed due to bulkheadName {%s} BulkheadFullException", e.getMessage())))
+                    .withFallback(BulkheadQueueRejectionException.class, (e) -> fallbackResponse(endpoint,
+                            String.format("Request failed due to bulkheadName {%s} BulkheadQueueRejectionException", e.getMessage())))
+                    .withFallback(TimeoutException.class, (e) -> fallbackResponse(endpoint,
+                            String.format("Request failed due to TimeLimiter {%s} with duration {%s} due to TimeoutException",
+                                    endpoint.timeLimiter.getName(), endpoint.timeLimiter.getTimeLimiterConfig().getTimeoutDuration())))
+                    .get().toCompletableFuture();
+            return clock.await(future);
+        });
     }
 
 
@@ -194,20 +250,20 @@ public class DecoratedSupplier {
      * @throws ChaosEngineeringRuntimeException
      */
     public MockDataServiceResponse callBulkheadAndRetryDecoratedService(boolean throwException) throws ExecutionException, InterruptedException, ChaosEngineeringRuntimeException {
-        handlePublishedEvents(patternsFactory.threadPoolBulkhead);
-        //Retry retryContext = Retry.of("retry-for-bulkhead", RetryConfig.ofDefaults());
-        //handlePublishedEvents(retryContext);
-        Supplier<MockDataServiceResponse> serviceAsSupplier = createServiceAsSupplier(throwException);
-
-        Supplier<CompletionStage<MockDataServiceResponse>> decorate = Decorators.ofSupplier(serviceAsSupplier)
-                .withThreadPoolBulkhead(patternsFactory.threadPoolBulkhead)
-                //.withRetry(retryContext, Executors.newSingleThreadScheduledExecutor())
-                .decorate();
+        return timedBlocking(PatternsFactory.OFFERINGS, endpoint -> {
+            //Retry retryContext = Retry.of("retry-for-bulkhead", RetryConfig.ofDefaults());
+            //handlePublishedEvents(retryContext);
+            Supplier<MockDataServiceResponse> serviceAsSupplier = createServiceAsSupplier(endpoint, throwException);
 
-        CompletableFuture<MockDataServiceResponse> mockDataServiceResponseCompletionStage =
-                decorate.get().toCompletableFuture();
-        //return mockDataServiceResponseCompletionStage.getNow( getFallbackMockDataServiceResponse("Failed with Bulkhead and Retry"));
-        return mockDataServiceResponseCompletionStage.get();
+            Supplier<CompletionStage<MockDataServiceResponse>> decorate = withThreadPoolBulkhead(endpoint, serviceAsSupplier)
+                    //.withRetry(retryContext, Executors.newSingleThreadScheduledExecutor())
+                    .decorate();
+
+            CompletableFuture<MockDataServiceResponse> mockDataServiceResponseCompletionStage =
+                    decorate.get().toCompletableFuture();
+            //return mockDataServiceResponseCompletionStage.getNow( getFallbackMockDataServiceResponse("Failed with Bulkhead and Retry"));
+            return clock.await(mockDataServiceResponseCompletionStage);
+        });
     }
 
     /**
@@ -217,116 +273,699 @@ public class DecoratedSupplier {
      */
     public MockDataServiceResponse callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(boolean throwException)
             throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
-        handlePublishedEvents(patternsFactory.circuitBreaker);
-        handlePublishedEvents(patternsFactory.bulkhead);
-        CheckedFunction0<MockDataServiceResponse> checkedFunction0 =
-                CheckedFunction0.of(() -> offeringsDataService.getDegradedMockOfferings(throwException));
-        Function0<MockDataServiceResponse> unchecked = checkedFunction0.unchecked();
-//        Supplier<MockDataServiceResponse> timeLimiterDecoratedSupplier =
-//                Bulkhead.decorateSupplier(decoratorFactory.bulkhead, unchecked);
-        Supplier<CompletableFuture<MockDataServiceResponse>> futureSupplier = () -> CompletableFuture.supplyAsync(unchecked);
-        Callable<MockDataServiceResponse> timeLimiterDecoratedSupplier =
-                TimeLimiter.decorateFutureSupplier(patternsFactory.timeLimiter, futureSupplier);
-
-        CompletableFuture<MockDataServiceResponse> completableFutureCompletionStage =
-                Decorators.ofSupplier(() -> offeringsDataService.getDegradedMockOfferings(throwException))
-                        .withThreadPoolBulkhead(patternsFactory.threadPoolBulkhead)
-                        .withTimeLimiter(patternsFactory.timeLimiter, Executors.newSingleThreadScheduledExecutor())
-                        .withCircuitBreaker(patternsFactory.circuitBreaker)
-                        .withRetry(patternsFactory.retry, Executors.newSingleThreadScheduledExecutor())
-                        .withFallback(BulkheadFullException.class, (e) -> {
-                            LOGGER.info(" Recovering from BulkheadFullException {} ", e.getMessage());
-                            return fallbackResponse(
-                                    String.format("Request failed due to bulkheadName {%s} BulkheadFullException", e.getMessage()));
-                        })
-                        .withFallback(CallNotPermittedException.class, (e) -> {
-                            LOGGER.info(" Recovering from CallNotPermittedException {} ", e.getMessage());
-                            return fallbackResponse(
-                                    String.format("Request failed due to circuitbreaker {%s} CallNotPermitted", e.getMessage()));
-                        })
-                        .withFallback(TimeoutException.class, (e) ->
-                                {
-                                    LOGGER.info(" Recovering from TimeoutException {} ", e.getMessage());
-                                    return fallbackResponse(
-                                            String.format("Request failed due to TimeLimiter {%s} with duration {%s} due to TimeoutException",
-                                                    patternsFactory.timeLimiter.getName(), patternsFactory.timeLimiter.getTimeLimiterConfig().getTimeoutDuration()));
-                                }
-                        )
-                        .get().toCompletableFuture();
-        return completableFutureCompletionStage.get();
-//        return Try.ofCallable(decoratedCallable)
-//                .onFailure(throwable -> LOGGER.error(" Failure reason {} ", throwable.getMessage()))
-//
-//                .get();
-
-//        Callable<MockDataServiceResponse> decoratedCallable = Decorators.ofCallable(
-//                () -> chaosEngineeringDataService.getDegradedMockOfferings(throwException))
-//                .withCircuitBreaker(decoratorFactory.circuitBreaker)
-//                .decorate();
-//        return Try.ofCallable(decoratedCallable)
-//                .onFailure(throwable -> LOGGER.error(" Failure reason {} ", throwable.getMessage(), throwable))
-//                .recoverWith(throwable -> Try.success(fallbackResponse(
-//                        String.format("Request failed due to circuit-breaker {%s}", decoratorFactory.circuitBreaker.getName()))))
-//                .get();
+        return callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(throwException, RequestDeadline.none());
+    }
+
+    /**
+     * Same chain as above but bounded by the deadline of the client request. A call times out at the deadline when it
+     * comes before the time limiter timeout, a retry is only attempted if its backoff still fits in the budget and calls
+     * are not submitted to the bulkhead once the deadline passed. At the deadline a queued call is dropped and a running
+     * call is interrupted, so no bulkhead thread keeps working for a client which stopped waiting.
+     *
+     * @param throwException
+     * @param deadline       derived from the {@value RequestDeadline#TIMEOUT_HEADER} request header
+     * @return
+     * @throws ChaosEngineeringRuntimeException
+     */
+    public MockDataServiceResponse callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(boolean throwException,
+                                                                                                RequestDeadline deadline)
+            throws ChaosEngineeringRuntimeException, ExecutionException, InterruptedException {
+        return timedBlocking(PatternsFactory.DEGRADING_SERVICE, endpoint -> {
+            CheckedFunction0<MockDataServiceResponse> checkedFunction0 =
+                    CheckedFunction0.of(() -> offeringsDataService.getDegradedMockOfferings(throwException));
+            Function0<MockDataServiceResponse> unchecked = checkedFunction0.unchecked();
+    //        Supplier<MockDataServiceResponse> timeLimiterDecoratedSupplier =
+    //                Bulkhead.decorateSupplier(decoratorFactory.bulkhead, unchecked);
+            Supplier<CompletableFuture<MockDataServiceResponse>> futureSupplier = () -> CompletableFuture.supplyAsync(unchecked);
+            Callable<MockDataServiceResponse> timeLimiterDecoratedSupplier =
+                    TimeLimiter.decorateFutureSupplier(endpoint.timeLimiter, futureSupplier);
+
+            Duration timeLimit = deadline.cap(endpoint.timeLimiter.getTimeLimiterConfig().getTimeoutDuration());
+            Supplier<CompletionStage<MockDataServiceResponse>> attempt = Decorators.ofCompletionStage(
+                    withThreadPoolBulkhead(endpoint, timedService(endpoint,
+                            () -> offeringsDataService.getDegradedMockOfferings(throwException)), deadline, scheduler))
+                    .withTimeLimiter(endpoint.timeLimiter, scheduler)
+                    .withCircuitBreaker(endpoint.circuitBreaker)
+                    .decorate();
+            CompletableFuture<MockDataServiceResponse> completableFutureCompletionStage =
+                    Decorators.ofCompletionStage(stopRetryingAtDeadline(attempt, endpoint.retry, deadline))
+                            .withRetry(endpoint.retry, scheduler)
+                            .withFallback(DeadlineExceededException.class, (e) -> {
+                                LOGGER.info(" Recovering from DeadlineExceededException {} ", e.getMessage());
+                                return fallbackResponse(endpoint, e.getMessage());
+                            })
+                            .withFallback(BulkheadFullException.class, (e) -> {
+                                LOGGER.info(" Recovering from BulkheadFullException {} ", e.getMessage());
+                                return fallbackResponse(endpoint,
+                                        String.format("Request failed due to bulkheadName {%s} BulkheadFullException", e.getMessage()));
+                            })
+                            .withFallback(BulkheadQueueRejectionException.class, (e) -> {
+                                LOGGER.info(" Recovering from BulkheadQueueRejectionException {} ", e.getMessage());
+                                return fallbackResponse(endpoint,
+                                        String.format("Request failed due to bulkheadName {%s} BulkheadQueueRejectionException", e.getMessage()));
+                            })
+                            .withFallback(CallNotPermittedException.class, (e) -> {
+                                LOGGER.info(" Recovering from CallNotPermittedException {} ", e.getMessage());
+                                return fallbackResponse(endpoint,
+                                        String.format("Request failed due to circuitbreaker {%s} CallNotPermitted", e.getMessage()));
+                            })
+                            .withFallback(TimeoutException.class, (e) ->
+                                    {
+                                        LOGGER.info(" Recovering from TimeoutException {} ", e.getMessage());
+                                        return fallbackResponse(endpoint,
+                                                String.format("Request failed due to TimeLimiter {%s} with duration {%s} due to TimeoutException",
+                                                        endpoint.timeLimiter.getName(), timeLimit));
+                                    }
+                            )
+                            .get().toCompletableFuture();
+            //a deadline bound chain completes by the deadline, each of its calls fails once the deadline passed
+            return clock.await(completableFutureCompletionStage);
+    //        return Try.ofCallable(decoratedCallable)
+    //                .onFailure(throwable -> LOGGER.error(" Failure reason {} ", throwable.getMessage()))
+    //
+    //                .get();
+
+    //        Callable<MockDataServiceResponse> decoratedCallable = Decorators.ofCallable(
+    //                () -> chaosEngineeringDataService.getDegradedMockOfferings(throwException))
+    //                .withCircuitBreaker(decoratorFactory.circuitBreaker)
+    //                .decorate();
+    //        return Try.ofCallable(decoratedCallable)
+    //                .onFailure(throwable -> LOGGER.error(" Failure reason {} ", throwable.getMessage(), throwable))
+    //                .recoverWith(throwable -> Try.success(fallbackResponse(
+    //                        String.format("Request failed due to circuit-breaker {%s}", decoratorFactory.circuitBreaker.getName()))))
+    //                .get();
+        });
+    }
+
+    /**
+     * Assembles the offerings from all {@link OfferingSource}s at once. Every source is called on the thread pool bulkhead
+     * of its own endpoint, bounded by its own time limiter and circuit breaker, and the partial offerings of the sources
+     * which answered are merged by offerId. A source which times out, is open, is rejected or fails is left out of the
+     * offerings and reported in the sources of the response, so a request takes as long as the slowest source which
+     * answers within its timeout instead of the sum of the sources.
+     * <p>
+     * Only a response all sources answered from the same snapshot gets a snapshot version, partial responses are neither
+     * cached nor given an ETag.
+     *
+     * @param deadline derived from the {@value RequestDeadline#TIMEOUT_HEADER} request header, caps the timeout of
+     *                 every source
+     */
+    public MockDataServiceResponse callScatterGatherDecoratedService(RequestDeadline deadline)
+            throws ExecutionException, InterruptedException {
+        return timedBlocking(PatternsFactory.SCATTER_GATHER, endpoint -> {
+            long scatterNanos = clock.nanoTime();
+            List<SourceStatus> statuses = new ArrayList<>();
+            List<CompletableFuture<OfferingsSnapshot>> futures = new ArrayList<>();
+            for (OfferingSource source : OfferingSource.values()) {
+                SourceStatus status = new SourceStatus();
+                status.setSource(source);
+                statuses.add(status);
+                futures.add(callSource(source, deadline).handle((snapshot, throwable) -> {
+                    status.setLatencyMillis(TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - scatterNanos));
+                    if (throwable == null) {
+                        status.setOutcome(SourceOutcome.OK);
+                        return snapshot;
+                    }
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause() : throwable;
+                    status.setOutcome(sourceOutcome(cause));
+                    status.setMessage(cause.getMessage());
+                    LOGGER.info(" Gathering without source {} : {} {} ", source, status.getOutcome(), cause.getMessage());
+                    return null;
+                }));
+            }
+
+            Map<String, Offering> offerings = new LinkedHashMap<>();
+            Long snapshotVersion = null;
+            boolean complete = true;
+            for (int i = 0; i < futures.size(); i++) {
+                OfferingsSnapshot snapshot = clock.await(futures.get(i));
+                if (snapshot == null) {
+                    complete = false;
+                    continue;
+                }
+                if (snapshotVersion != null && snapshotVersion != snapshot.getVersion()) {
+                    complete = false;
+                }
+                snapshotVersion = snapshot.getVersion();
+                for (Offering part : snapshot.getOfferings()) {
+                    statuses.get(i).getSource().copyAttributes(part, offerings.computeIfAbsent(part.getOfferId(),
+                            offerId -> {
+                                Offering offering = new Offering();
+                                offering.setOfferId(offerId);
+                                return offering;
+                            }));
+                }
+            }
+            if (!complete) {
+                endpoint.fallbacks.increment();
+            }
+            MockDataServiceResponse response = new MockDataServiceResponse();
+            response.setData(new ArrayList<>(offerings.values()));
+            response.setHostedRegion("");
+            response.setSnapshotVersion(complete ? snapshotVersion : null);
+            response.setSources(statuses);
+            return response;
+        });
+    }
+
+    /**
+     * The source endpoints record their TOTAL latency but not their resource usage, their calls start on the request
+     * thread and complete on a bulkhead or scheduler thread
+     */
+    private CompletableFuture<OfferingsSnapshot> callSource(OfferingSource source, RequestDeadline deadline) {
+        EndpointPatterns endpoint = patternsFactory.endpoint(PatternsFactory.sourceEndpoint(source));
+        endpoint.requests.increment();
+        long startNanos = System.nanoTime();
+        return Decorators.ofCompletionStage(withThreadPoolBulkhead(endpoint, timedService(endpoint,
+                () -> offeringsDataService.getOfferingsFromSource(source)), deadline, scheduler))
+                .withTimeLimiter(endpoint.timeLimiter, scheduler)
+                .withCircuitBreaker(endpoint.circuitBreaker)
+                .get().toCompletableFuture()
+                .whenComplete((snapshot, throwable) -> {
+                    if (throwable != null) {
+                        endpoint.fallbacks.increment();
+                    }
+                    endpoint.recorder(LatencyStage.TOTAL).recordSince(startNanos);
+                });
+    }
+
+    private static SourceOutcome sourceOutcome(Throwable throwable) {
+        if (throwable instanceof TimeoutException) {
+            return SourceOutcome.TIMEOUT;
+        }
+        if (throwable instanceof CallNotPermittedException) {
+            return SourceOutcome.CIRCUIT_OPEN;
+        }
+        if (throwable instanceof BulkheadFullException || throwable instanceof BulkheadQueueRejectionException) {
+            return SourceOutcome.BULKHEAD_FULL;
+        }
+        if (throwable instanceof DeadlineExceededException) {
+            return SourceOutcome.DEADLINE_EXCEEDED;
+        }
+        return SourceOutcome.FAILED;
     }
 
     public MockDataServiceResponse callSemaphoreBulkheadDecoratedService(String offerId, boolean throwException) throws ChaosEngineeringRuntimeException {
-        handlePublishedEvents(patternsFactory.bulkhead);
-        if (throwException) {
-            return checkedFunctionWithBulkheadDecorator(offerId, throwException);
-        } else {
-            return callableWithBulkheadDecorator(offerId, throwException);
+        return timed(PatternsFactory.SIMPLE_SEMAPHORE_BULKHEAD, endpoint -> {
+            if (throwException) {
+                return checkedFunctionWithBulkheadDecorator(endpoint, offerId, throwException);
+            } else {
+                return callableWithBulkheadDecorator(endpoint, offerId, throwException);
+            }
+        });
+    }
+
+    /**
+     * Calls protected by a CircuitBreaker per ProductType, so failures of one product type open only its own circuit
+     * and do not reject calls for the healthy product types.
+     *
+     * @param productType
+     * @param throwException
+     * @return
+     */
+    public MockDataServiceResponse callKeyedCircuitBreakerDecoratedService(ProductType productType, boolean throwException) {
+        return timed(PatternsFactory.KEYED_CIRCUIT_BREAKER, endpoint -> {
+            CircuitBreaker circuitBreaker = patternsFactory.keyedCircuitBreakers.get(productType.name());
+            Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(timedService(endpoint,
+                    () -> offeringsDataService.getMockOfferingsDataFromService(productType, throwException)))
+                    .withCircuitBreaker(circuitBreaker)
+                    .decorate();
+            return Try.ofSupplier(decoratedSupplier)
+                    .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
+                    .getOrElseGet(throwable -> fallbackResponse(endpoint, throwable.getMessage()));
+        });
+    }
+
+    /**
+     * Calls protected by a semaphore Bulkhead per offerId, so a hot offerId cannot use up the concurrency of the others.
+     *
+     * @param offerId
+     * @param throwException
+     * @return
+     */
+    public MockDataServiceResponse callKeyedSemaphoreBulkheadDecoratedService(String offerId, boolean throwException) {
+        return timed(PatternsFactory.KEYED_SEMAPHORE_BULKHEAD, endpoint -> {
+            long enteredNanos = System.nanoTime();
+            Bulkhead bulkhead = patternsFactory.keyedBulkheads.get(offerId);
+            Supplier<MockDataServiceResponse> decoratedSupplier = Decorators.ofSupplier(afterBulkheadWait(endpoint, enteredNanos,
+                    timedService(endpoint, () -> offeringsDataService.getMockOfferingsDataFromService(offerId, throwException))))
+                    .withBulkhead(bulkhead)
+                    .withFallback(Collections.singletonList(BulkheadFullException.class),
+                            (e) -> fallbackResponse(endpoint, String.format("BulkheadFullException thrown: {%s}", e.getMessage())))
+                    .decorate();
+            return Try.ofSupplier(decoratedSupplier)
+                    .onFailure(throwable -> LOGGER.error("Request failed due to {}", throwable.getMessage()))
+                    .getOrElseGet(throwable -> fallbackResponse(endpoint, throwable.getMessage()));
+        });
+    }
+
+    /**
+     * @return the metrics of every keyed CircuitBreaker and Bulkhead currently held in the registries
+     */
+    public List<KeyedPatternMetrics> getKeyedPatternMetrics() {
+        List<KeyedPatternMetrics> keyedPatternMetrics = new ArrayList<>();
+        patternsFactory.keyedCircuitBreakers.forEach((key, circuitBreaker) -> {
+            CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+            KeyedPatternMetrics patternMetrics = new KeyedPatternMetrics();
+            patternMetrics.setName(circuitBreaker.getName());
+            patternMetrics.setKey(key);
+            patternMetrics.setState(circuitBreaker.getState().name());
+            patternMetrics.setFailureRate(metrics.getFailureRate());
+            patternMetrics.setNumberOfBufferedCalls(metrics.getNumberOfBufferedCalls());
+            patternMetrics.setNumberOfFailedCalls(metrics.getNumberOfFailedCalls());
+            patternMetrics.setNumberOfNotPermittedCalls(metrics.getNumberOfNotPermittedCalls());
+            keyedPatternMetrics.add(patternMetrics);
+        });
+        patternsFactory.keyedBulkheads.forEach((key, bulkhead) -> {
+            Bulkhead.Metrics metrics = bulkhead.getMetrics();
+            KeyedPatternMetrics patternMetrics = new KeyedPatternMetrics();
+            patternMetrics.setName(bulkhead.getName());
+            patternMetrics.setKey(key);
+            patternMetrics.setAvailableConcurrentCalls(metrics.getAvailableConcurrentCalls());
+            patternMetrics.setMaxAllowedConcurrentCalls(metrics.getMaxAllowedConcurrentCalls());
+            keyedPatternMetrics.add(patternMetrics);
+        });
+        return keyedPatternMetrics;
+    }
+
+    /**
+     * @return version of the offerings snapshot a call would currently return, without entering the decorators
+     */
+    public long getSnapshotVersion() {
+        return offeringsDataService.getSnapshotVersion();
+    }
+
+    /**
+     * @return the number of requests and fallback responses per endpoint
+     */
+    public List<EndpointRequestCounts> getEndpointRequestCounts() {
+        List<EndpointRequestCounts> endpointRequestCounts = new ArrayList<>();
+        for (EndpointPatterns endpoint : patternsFactory.endpoints()) {
+            EndpointRequestCounts requestCounts = new EndpointRequestCounts();
+            requestCounts.setEndpoint(endpoint.endpoint);
+            requestCounts.setRequests(endpoint.requests.sum());
+            requestCounts.setFallbacks(endpoint.fallbacks.sum());
+            endpointRequestCounts.add(requestCounts);
         }
+        return endpointRequestCounts;
+    }
+
+    /**
+     * @return p50 to p99.99 per endpoint and stage, for the last collection interval and since startup
+     */
+    public List<StageLatencyMetrics> getLatencyMetrics() {
+        List<StageLatencyMetrics> latencyMetrics = new ArrayList<>();
+        for (EndpointPatterns endpoint : patternsFactory.endpoints()) {
+            endpoint.latency.forEach((stage, recorder) -> {
+                StageLatencyMetrics metrics = new StageLatencyMetrics();
+                metrics.setEndpoint(endpoint.endpoint);
+                metrics.setStage(stage.name());
+                metrics.setInterval(recorder.getInterval());
+                metrics.setCumulative(recorder.getCumulative());
+                latencyMetrics.add(metrics);
+            });
+        }
+        return latencyMetrics;
+    }
+
+    /**
+     * Allocation and CPU time per endpoint and stage, TOTAL only covers the request thread, the work of a thread pool
+     * bulkhead thread is reported under SERVICE.
+     */
+    public List<ResourceUsageMetrics> getResourceUsage() {
+        List<ResourceUsageMetrics> resourceUsage = new ArrayList<>();
+        for (EndpointPatterns endpoint : patternsFactory.endpoints()) {
+            endpoint.resourceUsage.forEach((stage, usage) -> {
+                long samples = usage.samples.sum();
+                long allocatedBytes = usage.allocatedBytes.sum();
+                long cpuNanos = usage.cpuNanos.sum();
+                ResourceUsageMetrics metrics = new ResourceUsageMetrics();
+                metrics.setEndpoint(endpoint.endpoint);
+                metrics.setPatterns(endpoint.patterns);
+                metrics.setStage(stage.name());
+                metrics.setSamples(samples);
+                metrics.setTotalAllocatedBytes(allocatedBytes);
+                metrics.setTotalCpuMillis(TimeUnit.NANOSECONDS.toMillis(cpuNanos));
+                if (samples > 0) {
+                    metrics.setAllocatedBytesPerRequest(allocatedBytes / samples);
+                    metrics.setCpuMicrosPerRequest(TimeUnit.NANOSECONDS.toMicros(cpuNanos / samples));
+                }
+                resourceUsage.add(metrics);
+            });
+        }
+        return resourceUsage;
+    }
+
+    /**
+     * @param name        resilience instance name, null for all instances
+     * @param type        event type, null for all types
+     * @param sinceMillis only events recorded at or after this epoch millis
+     * @param limit       maximum number of events per instance, newest first
+     */
+    public List<ResilienceEvent> getResilienceEvents(String name, ResilienceEventType type, long sinceMillis, int limit) {
+        return eventStore.query(name, type, sinceMillis, limit);
+    }
+
+    public List<ResilienceEventStats> getResilienceEventStats(int windowSeconds) {
+        return eventStore.stats(windowSeconds);
+    }
+
+    /**
+     * @return the resolved resilience settings of every endpoint
+     */
+    public Map<String, EndpointConfig> getEndpointConfigs() {
+        return patternsFactory.endpointConfigs();
+    }
+
+    /**
+     * Changes the resilience settings of endpoints at runtime, see {@link PatternsFactory#reconfigure(Map)}
+     *
+     * @param overrides per endpoint, only the values set are changed
+     * @return the resolved settings of every endpoint after the update
+     * @throws IllegalArgumentException if an endpoint is unknown or a value is invalid, nothing is changed then
+     */
+    public Map<String, EndpointConfig> reconfigure(Map<String, EndpointConfig> overrides) {
+        return patternsFactory.reconfigure(overrides);
     }
 
     //////////////// Private Methods
-    private MockDataServiceResponse callableWithBulkheadDecorator(String offerId, boolean throwException) {
-        Callable<MockDataServiceResponse> callable = () ->
-                offeringsDataService.getMockOfferingsDataFromService(offerId, throwException);
+
+    /**
+     * Runs a request of the endpoint, recording its TOTAL latency and resource usage
+     */
+    private <T> T timed(String endpointName, Function<EndpointPatterns, T> call) {
+        EndpointPatterns endpoint = startRequest(endpointName);
+        long startNanos = System.nanoTime();
+        try {
+            return call.apply(endpoint);
+        } finally {
+            finishRequest(endpoint, startNanos);
+        }
+    }
+
+    /**
+     * Same as {@link #timed(String, Function)} for requests which block on the future of the decorated call
+     */
+    private <T> T timedBlocking(String endpointName, BlockingCall<T> call) throws ExecutionException, InterruptedException {
+        EndpointPatterns endpoint = startRequest(endpointName);
+        long startNanos = System.nanoTime();
+        try {
+            return call.apply(endpoint);
+        } finally {
+            finishRequest(endpoint, startNanos);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockingCall<T> {
+        T apply(EndpointPatterns endpoint) throws ExecutionException, InterruptedException;
+    }
+
+    /**
+     * @param previous the patterns the endpoint is reconfigured from, null at startup
+     */
+    private void registerEventConsumers(EndpointPatterns previous, EndpointPatterns endpoint) {
+        if (previous == null || previous.threadPoolBulkhead != endpoint.threadPoolBulkhead) {
+            handlePublishedEvents(endpoint.threadPoolBulkhead);
+            storeEvents(endpoint.threadPoolBulkhead);
+        }
+        if (previous == null || previous.bulkhead != endpoint.bulkhead) {
+            handlePublishedEvents(endpoint.bulkhead);
+            storeEvents(endpoint.bulkhead);
+        }
+        if (previous == null || previous.retry != endpoint.retry) {
+            handlePublishedEvents(endpoint.retry);
+            recordRetryBackoff(endpoint, endpoint.retry);
+            storeEvents(endpoint.retry);
+        }
+        if (previous == null || previous.timeLimiter != endpoint.timeLimiter) {
+            handlePublishedEvents(endpoint.timeLimiter);
+            storeEvents(endpoint.timeLimiter);
+        }
+        if (previous == null || previous.circuitBreaker != endpoint.circuitBreaker) {
+            handlePublishedEvents(endpoint.circuitBreaker);
+            storeEvents(endpoint.circuitBreaker);
+        }
+        if (previous == null || previous.rateLimiter != endpoint.rateLimiter) {
+            handlePublishedEvents(endpoint.rateLimiter);
+            storeEvents(endpoint.rateLimiter);
+        }
+    }
+
+    private EndpointPatterns startRequest(String endpointName) {
+        EndpointPatterns endpoint = patternsFactory.endpoint(endpointName);
+        endpoint.requests.increment();
+        endpoint.usage(LatencyStage.TOTAL).start();
+        return endpoint;
+    }
+
+    private void finishRequest(EndpointPatterns endpoint, long startNanos) {
+        endpoint.recorder(LatencyStage.TOTAL).recordSince(startNanos);
+        endpoint.usage(LatencyStage.TOTAL).stop();
+    }
+
+    /**
+     * Decorates the supplier with the thread pool bulkhead selected by patterns.config.bulkhead.queueDiscipline,
+     * either the resilience4j FIFO ThreadPoolBulkhead or the sojourn time managed CoDelThreadPoolBulkhead.
+     * The call is submitted as a task of the endpoint's bulkheadTasks, abandoned when the bulkhead rejects or drops it.
+     */
+    private <T> Decorators.DecorateCompletionStage<T> withThreadPoolBulkhead(EndpointPatterns endpoint,
+                                                                               Supplier<T> supplier) {
+        CoDelThreadPoolBulkhead coDelThreadPoolBulkhead = endpoint.coDelThreadPoolBulkhead;
+        return Decorators.ofCompletionStage(() -> {
+            PooledTasks.Task<T> task = endpoint.bulkheadTasks.task(afterQueueWait(endpoint, System.nanoTime(), supplier));
+            CompletionStage<T> stage;
+            try {
+                stage = coDelThreadPoolBulkhead != null
+                        ? coDelThreadPoolBulkhead.submit(task)
+                        : Decorators.ofSupplier(task).withThreadPoolBulkhead(endpoint.threadPoolBulkhead).get();
+            } catch (RuntimeException e) {
+                task.abandon();
+                throw e;
+            }
+            stage.whenComplete((result, throwable) -> task.abandon());
+            return stage;
+        });
+    }
+
+    private <T> Supplier<T> afterQueueWait(EndpointPatterns endpoint, long submittedNanos, Supplier<T> supplier) {
+        return () -> {
+            endpoint.recorder(LatencyStage.QUEUE_WAIT).recordSince(submittedNanos);
+            return supplier.get();
+        };
+    }
+
+    private <T> Supplier<T> afterBulkheadWait(EndpointPatterns endpoint, long enteredNanos, Supplier<T> supplier) {
+        return () -> {
+            endpoint.recorder(LatencyStage.BULKHEAD_WAIT).recordSince(enteredNanos);
+            return supplier.get();
+        };
+    }
+
+    /**
+     * @return the service call recording its duration as the SERVICE stage of the endpoint
+     */
+    private <T> Supplier<T> timedService(EndpointPatterns endpoint, Supplier<T> service) {
+        return () -> {
+            long startNanos = System.nanoTime();
+            endpoint.usage(LatencyStage.SERVICE).start();
+            try {
+                return service.get();
+            } finally {
+                endpoint.recorder(LatencyStage.SERVICE).recordSince(startNanos);
+                endpoint.usage(LatencyStage.SERVICE).stop();
+            }
+        };
+    }
+
+    private <T> CheckedFunction0<T> timedCall(EndpointPatterns endpoint, CheckedFunction0<T> service) {
+        return () -> {
+            long startNanos = System.nanoTime();
+            endpoint.usage(LatencyStage.SERVICE).start();
+            try {
+                return service.apply();
+            } finally {
+                endpoint.recorder(LatencyStage.SERVICE).recordSince(startNanos);
+                endpoint.usage(LatencyStage.SERVICE).stop();
+            }
+        };
+    }
+
+    /**
+     * Same as {@link #withThreadPoolBulkhead(EndpointPatterns, Supplier)} but bounded by the request deadline. A call
+     * is not submitted to the bulkhead once the deadline passed. At the deadline a call still queued is dropped with a
+     * DeadlineExceededException, it does not call the service once a bulkhead thread takes it, and a running call is
+     * interrupted and fails with a TimeoutException. The time limiter records that TimeoutException like its own when
+     * the deadline comes before its timeout.
+     */
+    private <T> Supplier<CompletionStage<T>> withThreadPoolBulkhead(EndpointPatterns endpoint, Supplier<T> supplier,
+                                                                    RequestDeadline deadline,
+                                                                    ScheduledExecutorService scheduler) {
+        if (!deadline.isBounded()) {
+            return withThreadPoolBulkhead(endpoint, supplier).decorate();
+        }
+        return () -> {
+            CompletableFuture<T> promise = new CompletableFuture<>();
+            if (deadline.isExpired()) {
+                promise.completeExceptionally(
+                        new DeadlineExceededException("Request deadline exceeded before entering the bulkhead"));
+                return promise;
+            }
+            DeadlineBoundCall<T> call = new DeadlineBoundCall<>(supplier, deadline);
+            ScheduledFuture<?> timeout = scheduler.schedule(() -> promise.completeExceptionally(call.cancel()),
+                    deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+            CompletionStage<T> stage;
+            try {
+                stage = withThreadPoolBulkhead(endpoint, call).decorate().get();
+            } catch (RuntimeException e) {
+                timeout.cancel(false);
+                throw e;
+            }
+            stage.whenComplete((result, throwable) -> {
+                timeout.cancel(false);
+                if (throwable != null) {
+                    promise.completeExceptionally(throwable);
+                } else {
+                    promise.complete(result);
+                }
+            });
+            return promise;
+        };
+    }
+
+    /**
+     * Fails an attempt with a DeadlineExceededException instead of its retryable failure when the backoff before the
+     * next attempt does not fit in the remaining request budget. DeadlineExceededException is not retried, so the
+     * shared retry gives up and records the request in its metrics and events.
+     */
+    private <T> Supplier<CompletionStage<T>> stopRetryingAtDeadline(Supplier<CompletionStage<T>> attempt, Retry retry,
+                                                                    RequestDeadline deadline) {
+        if (!deadline.isBounded()) {
+            return attempt;
+        }
+        RetryConfig retryConfig = retry.getRetryConfig();
+        AtomicInteger attempts = new AtomicInteger(0);
+        return () -> {
+            int attemptNumber = attempts.incrementAndGet();
+            CompletableFuture<T> promise = new CompletableFuture<>();
+            attempt.get().whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    promise.complete(result);
+                    return;
+                }
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                if (attemptNumber < retryConfig.getMaxAttempts() && retryConfig.getExceptionPredicate().test(cause)
+                        && !deadline.canMeet(Duration.ofMillis(retryConfig.getIntervalFunction().apply(attemptNumber)))) {
+                    promise.completeExceptionally(new DeadlineExceededException(
+                            String.format("Request deadline leaves no time to retry after {%s}", cause.getMessage())));
+                } else {
+                    promise.completeExceptionally(cause);
+                }
+            });
+            return promise;
+        };
+    }
+
+    /**
+     * Synchronous retry whose attempts run on the calling thread while the backoff waits are scheduled on the clock
+     * scheduler, instead of the Thread.sleep resilience4j uses for synchronous retries, so they follow the
+     * SchedulingClock. Each attempt is handed back to the caller, waiting on the clock, when its wait elapsed.
+     */
+    private <T> T retryOnCaller(Retry retry, Supplier<T> supplier) {
+        AtomicReference<CompletableFuture<Runnable>> nextAttempt = new AtomicReference<>(new CompletableFuture<>());
+        Supplier<CompletionStage<T>> attempt = () -> {
+            CompletableFuture<T> attemptResult = new CompletableFuture<>();
+            nextAttempt.get().complete(() -> {
+                try {
+                    attemptResult.complete(supplier.get());
+                } catch (Throwable throwable) {
+                    attemptResult.completeExceptionally(throwable);
+                }
+            });
+            return attemptResult;
+        };
+        CompletableFuture<T> result = Retry.decorateCompletionStage(retry, scheduler, attempt).get().toCompletableFuture();
+        //wakes the caller once the retry gave up or succeeded
+        result.whenComplete((value, throwable) -> nextAttempt.get().complete(() -> {
+        }));
+        try {
+            while (!result.isDone()) {
+                Runnable next = clock.await(nextAttempt.get());
+                //the attempt may schedule the next one, which completes the fresh future
+                nextAttempt.set(new CompletableFuture<>());
+                next.run();
+            }
+            return result.get();
+        } catch (ExecutionException e) {
+            throw Lombok.sneakyThrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    private void recordRetryBackoff(EndpointPatterns endpoint, Retry retry) {
+        StageLatencyRecorder retryBackoff = endpoint.recorder(LatencyStage.RETRY_BACKOFF);
+        retry.getEventPublisher()
+                .onRetry(event -> retryBackoff.recordNanos(event.getWaitInterval().toNanos()));
+    }
+
+    private MockDataServiceResponse callableWithBulkheadDecorator(EndpointPatterns endpoint, String offerId, boolean throwException) {
+        long enteredNanos = System.nanoTime();
+        Callable<MockDataServiceResponse> callable = afterBulkheadWait(endpoint, enteredNanos, timedService(endpoint, () ->
+                offeringsDataService.getMockOfferingsDataFromService(offerId, throwException)))::get;
         Callable<MockDataServiceResponse> decoratedCallable = Decorators.ofCallable(callable)
-                .withBulkhead(patternsFactory.bulkhead)
+                .withBulkhead(endpoint.bulkhead)
                 .decorate();
         return Try.ofCallable(decoratedCallable)
                 .onFailure(throwable -> LOGGER.error(" Failure reason {} ", throwable.getMessage(), throwable))
-                .recoverWith(throwable -> Try.success(fallbackResponse(
-                        String.format("Request with OfferId {%s} failed due to bulkhead {%s} full", offerId, patternsFactory.bulkhead.getName()))))
+                .recoverWith(throwable -> Try.success(fallbackResponse(endpoint,
+                        String.format("Request with OfferId {%s} failed due to bulkhead {%s} full", offerId, endpoint.bulkhead.getName()))))
                 .get();
     }
 
-    private MockDataServiceResponse fallbackResponse(String message) {
+    private MockDataServiceResponse fallbackResponse(EndpointPatterns endpoint, String message) {
+        long startNanos = System.nanoTime();
+        endpoint.usage(LatencyStage.FALLBACK).start();
+        endpoint.fallbacks.increment();
         MockDataServiceResponse mockDataServiceResponse = new MockDataServiceResponse();
         mockDataServiceResponse.setHostedRegion(message);
+        endpoint.recorder(LatencyStage.FALLBACK).recordSince(startNanos);
+        endpoint.usage(LatencyStage.FALLBACK).stop();
         return mockDataServiceResponse;
     }
 
-    private MockDataServiceResponse checkedFunctionWithBulkheadDecorator(String offerId, boolean throwException) throws ChaosEngineeringRuntimeException {
+    private MockDataServiceResponse checkedFunctionWithBulkheadDecorator(EndpointPatterns endpoint, String offerId, boolean throwException)
+            throws ChaosEngineeringRuntimeException {
 //        CheckedFunction1<String, MockDataServiceResponse> checkedFunction1 = createServiceAsCheckedFunction(throwException);
 //        CheckedFunction1<String, MockDataServiceResponse> checkedFunction11 = Bulkhead.decorateCheckedFunction(decoratorFactory.bulkhead, checkedFunction1);
-        CheckedFunction0<MockDataServiceResponse> checkedFunction0 = CheckedFunction0.of(() -> offeringsDataService.getMockOfferingsDataFromService(offerId, throwException));
+        long enteredNanos = System.nanoTime();
+        CheckedFunction0<MockDataServiceResponse> checkedFunction0 = timedCall(endpoint, () -> offeringsDataService.getMockOfferingsDataFromService(offerId, throwException));
         Function0<MockDataServiceResponse> unchecked = checkedFunction0.unchecked();
-        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = Bulkhead.decorateSupplier(patternsFactory.bulkhead, unchecked);
+        Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = Bulkhead.decorateSupplier(endpoint.bulkhead,
+                afterBulkheadWait(endpoint, enteredNanos, unchecked));
         return Try.ofSupplier(mockDataServiceResponseSupplier)
                 .onFailure(throwable -> LOGGER.error(" Failure reason {} ", throwable.getMessage()))
                 .recoverWith(throwable -> Try.success(
-                        fallbackResponse(
-                                String.format("Request with OfferId {%s} failed due to bulkhead {%s} full", offerId, patternsFactory.bulkhead.getName())))
+                        fallbackResponse(endpoint,
+                                String.format("Request with OfferId {%s} failed due to bulkhead {%s} full", offerId, endpoint.bulkhead.getName())))
                 )
                 .get();
     }
 
 
-    private Supplier<MockDataServiceResponse> createServiceAsSupplier(boolean throwException) {
-        handlePublishedEvents(patternsFactory.bulkhead);
+    private Supplier<MockDataServiceResponse> createServiceAsSupplier(EndpointPatterns endpoint, boolean throwException) {
         Supplier<MockDataServiceResponse> mockDataServiceResponseSupplier = (() -> {
-            LOGGER.info("Invoking DecoratedController with Bulkhead count {} ", atomicInteger.incrementAndGet());
+            LOGGER.info("Invoking DecoratedController with Bulkhead count {} ", endpoint.requests.sum());
             return offeringsDataService.getMockOfferingsDataFromService(throwException);
         });
-        return mockDataServiceResponseSupplier;
+        return timedService(endpoint, mockDataServiceResponseSupplier);
     }
 
     private CheckedFunction1<String, MockDataServiceResponse> createServiceAsCheckedFunction(boolean throwException) throws ChaosEngineeringRuntimeException {
         CheckedFunction1<String, MockDataServiceResponse> stringMockDataServiceResponseFunction = ((offerId) -> {
-            LOGGER.info("Invoking DecoratedController with Bulkhead offerId {} count {} ", offerId, atomicInteger.incrementAndGet());
+            LOGGER.info("Invoking DecoratedController with Bulkhead offerId {} ", offerId);
             return offeringsDataService.getMockOfferingsDataFromService(offerId, throwException);
         });
         return stringMockDataServiceResponseFunction;
@@ -335,13 +974,55 @@ public class DecoratedSupplier {
     private CheckedFunction2<String, Boolean, MockDataServiceResponse> createServiceAsCheckedFunction(String offerId, boolean throwException)
             throws ChaosEngineeringRuntimeException {
         CheckedFunction2<String, Boolean, MockDataServiceResponse> stringMockDataServiceResponseFunction = ((id, exception) -> {
-            LOGGER.info("Invoking DecoratedController with Bulkhead offerId {} count {} ", id, atomicInteger.incrementAndGet());
+            LOGGER.info("Invoking DecoratedController with Bulkhead offerId {} ", id);
             return offeringsDataService.getMockOfferingsDataFromService(id, exception);
         });
         return stringMockDataServiceResponseFunction;
     }
 
 
+    //Recording into the in-memory event store, no strings are built per event
+    private void storeEvents(Bulkhead bulkhead) {
+        ResilienceEventRing ring = eventStore.ring(bulkhead.getName());
+        bulkhead.getEventPublisher()
+                .onCallRejected(event -> ring.record(ResilienceEventType.BULKHEAD_REJECTED, 0));
+    }
+
+    private void storeEvents(ThreadPoolBulkhead threadPoolBulkhead) {
+        ResilienceEventRing ring = eventStore.ring(threadPoolBulkhead.getName());
+        threadPoolBulkhead.getEventPublisher()
+                .onCallRejected(event -> ring.record(ResilienceEventType.THREAD_POOL_BULKHEAD_REJECTED, 0));
+    }
+
+    private void storeEvents(Retry retry) {
+        ResilienceEventRing ring = eventStore.ring(retry.getName());
+        retry.getEventPublisher()
+                .onRetry(event -> ring.record(ResilienceEventType.RETRY, event.getWaitInterval().toMillis()))
+                .onError(event -> ring.record(ResilienceEventType.RETRY_EXHAUSTED, event.getNumberOfRetryAttempts()));
+    }
+
+    private void storeEvents(CircuitBreaker circuitBreaker) {
+        ResilienceEventRing ring = eventStore.ring(circuitBreaker.getName());
+        circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> ring.record(ResilienceEventType.CIRCUIT_BREAKER_TRANSITION,
+                        event.getStateTransition().getToState().ordinal()))
+                .onCallNotPermitted(event -> ring.record(ResilienceEventType.CIRCUIT_BREAKER_NOT_PERMITTED, 0))
+                .onError(event -> ring.record(ResilienceEventType.CIRCUIT_BREAKER_ERROR,
+                        event.getElapsedDuration().toMillis()));
+    }
+
+    private void storeEvents(RateLimiter rateLimiter) {
+        ResilienceEventRing ring = eventStore.ring(rateLimiter.getName());
+        rateLimiter.getEventPublisher()
+                .onFailure(event -> ring.record(ResilienceEventType.RATE_LIMITER_REJECTED, 0));
+    }
+
+    private void storeEvents(TimeLimiter timeLimiter) {
+        ResilienceEventRing ring = eventStore.ring(timeLimiter.getName());
+        timeLimiter.getEventPublisher()
+                .onTimeout(event -> ring.record(ResilienceEventType.TIME_LIMITER_TIMEOUT, 0));
+    }
+
     //Monitoring by just logging
     private void handlePublishedEvents(Bulkhead bulkhead) {
         bulkhead.getEventPublisher()
@@ -388,4 +1069,55 @@ public class DecoratedSupplier {
                 .onSuccess(event -> LOGGER.debug(" TimeLimiter Event on Success {}", event))
                 .onTimeout(event -> LOGGER.info(" TimeLimiter Event on Timeout {}", event));
     }
+
+    /**
+     * A call submitted to the thread pool bulkhead for a deadline bound request, which the deadline drops while it is
+     * queued or interrupts while it runs
+     */
+    private static final class DeadlineBoundCall<T> implements Supplier<T> {
+        private final Supplier<T> supplier;
+        private final RequestDeadline deadline;
+        private boolean started;
+        private boolean cancelled;
+        private Thread runner;
+
+        DeadlineBoundCall(Supplier<T> supplier, RequestDeadline deadline) {
+            this.supplier = supplier;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public T get() {
+            synchronized (this) {
+                if (cancelled || deadline.isExpired()) {
+                    throw new DeadlineExceededException("Request deadline exceeded while queued in the bulkhead");
+                }
+                started = true;
+                runner = Thread.currentThread();
+            }
+            try {
+                return supplier.get();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    //an interrupt which came too late to cut the call short must not hit the next call of the thread
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        /**
+         * @return the failure of the call at the deadline
+         */
+        synchronized Exception cancel() {
+            cancelled = true;
+            if (!started) {
+                return new DeadlineExceededException("Request deadline exceeded while queued in the bulkhead");
+            }
+            if (runner != null) {
+                runner.interrupt();
+            }
+            return new TimeoutException("Request deadline exceeded while waiting for the decorated service");
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.ResponseFormat;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes offerings responses as compact JSON, Smile or CBOR with the Jackson settings of the application.
+ * Responses read from a repository snapshot are immutable, their encoding, gzip-compressed when the client accepts it
+ * and the body is at least patterns.serialization.gzipMinBytes, is kept by request, hosted region (the replica which
+ * answered) and snapshot version and written as is until the snapshot is refreshed. Fallback responses are encoded on
+ * every request.
+ */
+@Component
+public class EncodedResponseCache {
+    private static Logger LOGGER = LoggerFactory.getLogger(EncodedResponseCache.class);
+
+    private final Map<ResponseFormat, ObjectWriter> writers = new EnumMap<>(ResponseFormat.class);
+    private final int gzipMinBytes;
+    private final int maxEntries;
+    private final Map<Key, Encoded> entries = new ConcurrentHashMap<>();
+    /**
+     * Newest snapshot version seen, entries of older versions are dropped
+     */
+    private volatile long version;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public EncodedResponseCache(Jackson2ObjectMapperBuilder objectMapperBuilder, MeterRegistry meterRegistry,
+                                @Value("${patterns.serialization.gzipMinBytes}") int gzipMinBytes,
+                                @Value("${patterns.serialization.maxCachedResponses}") int maxEntries) {
+        this.gzipMinBytes = gzipMinBytes;
+        this.maxEntries = maxEntries;
+        writers.put(ResponseFormat.JSON, objectMapperBuilder.build().writer()
+                .without(SerializationFeature.INDENT_OUTPUT));
+        writers.put(ResponseFormat.SMILE, objectMapperBuilder.factory(new SmileFactory()).build().writer());
+        writers.put(ResponseFormat.CBOR, objectMapperBuilder.factory(new CBORFactory()).build().writer());
+        FunctionCounter.builder("offerings.encoded.cache", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("offerings.encoded.cache", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param request identifies the content of the response for the same snapshot, e.g. the path and query
+     * @param gzip    whether the client accepts a gzip-compressed body
+     */
+    public Encoded encode(MockDataServiceResponse response, String request, ResponseFormat format, boolean gzip) {
+        Long snapshotVersion = response.getSnapshotVersion();
+        if (snapshotVersion == null) {
+            return new Encoded(encode(response, format), false);
+        }
+        Key key = new Key(request, response.getHostedRegion(), snapshotVersion, format, gzip);
+        Encoded encoded = entries.get(key);
+        if (encoded != null) {
+            hits.increment();
+            return encoded;
+        }
+        misses.increment();
+        byte[] body = encode(response, format);
+        encoded = gzip && body.length >= gzipMinBytes ? new Encoded(gzip(body), true) : new Encoded(body, false);
+        if (snapshotVersion > version) {
+            synchronized (this) {
+                if (snapshotVersion > version) {
+                    version = snapshotVersion;
+                    entries.keySet().removeIf(entry -> entry.version < snapshotVersion);
+                    LOGGER.debug("Dropped encoded responses older than snapshot {}", snapshotVersion);
+                }
+            }
+        }
+        if (snapshotVersion == version && entries.size() < maxEntries) {
+            entries.put(key, encoded);
+        }
+        return encoded;
+    }
+
+    public byte[] encode(MockDataServiceResponse response, ResponseFormat format) {
+        try {
+            return writers.get(format).writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * An encoded response body, never modified once created
+     */
+    public static final class Encoded {
+        private final byte[] body;
+        private final boolean gzipped;
+
+        Encoded(byte[] body, boolean gzipped) {
+            this.body = body;
+            this.gzipped = gzipped;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public boolean isGzipped() {
+            return gzipped;
+        }
+    }
+
+    private static final class Key {
+        private final String request;
+        /**
+         * The replica which answered, responses of different replicas only differ in it
+         */
+        private final String hostedRegion;
+        private final long version;
+        private final ResponseFormat format;
+        private final boolean gzip;
+
+        private Key(String request, String hostedRegion, long version, ResponseFormat format, boolean gzip) {
+            this.request = request;
+            this.hostedRegion = hostedRegion;
+            this.version = version;
+            this.format = format;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return version == other.version && gzip == other.gzip && format == other.format
+                    && request.equals(other.request) && Objects.equals(hostedRegion, other.hostedRegion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(request, hostedRegion, version, format, gzip);
+        }
+    }
+}
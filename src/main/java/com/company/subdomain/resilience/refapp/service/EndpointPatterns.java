@@ -0,0 +1,133 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.LatencyStage;
+import com.company.subdomain.resilience.refapp.util.EndpointConfig;
+import com.company.subdomain.resilience.refapp.util.PooledTasks;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The resilience instances owned by a single DecoratedController endpoint, so failures and saturation of one endpoint
+ * do not change the CircuitBreaker, Bulkhead or RateLimiter behaviour of another.
+ * Instances are named &lt;endpoint&gt;.&lt;pattern&gt;, e.g. simple-retry.retry-for-bulkhead.
+ * <p>
+ * Requests and fallbacks are counted with LongAdders, which stripe their cells across threads, instead of a shared
+ * AtomicInteger whose single CAS location is contended by every request thread.
+ * <p>
+ * Instances are immutable, {@link PatternsFactory#reconfigure} swaps in a new EndpointPatterns sharing the counters and
+ * recorders of the one it replaces.
+ */
+class EndpointPatterns {
+    /**
+     * Stages whose allocation and CPU time are accounted
+     */
+    static final List<LatencyStage> ACCOUNTED_STAGES = Collections.unmodifiableList(
+            Arrays.asList(LatencyStage.TOTAL, LatencyStage.SERVICE, LatencyStage.FALLBACK));
+
+    final String endpoint;
+    /**
+     * Resolved settings the resilience instances were built with
+     */
+    final EndpointConfig config;
+    /**
+     * Decorators applied by the endpoint, e.g. thread-pool-bulkhead,time-limiter
+     */
+    final String patterns;
+    final ShutdownableThreadPoolBulkhead threadPoolBulkhead;
+    /**
+     * Only created when patterns.config.bulkhead.queueDiscipline is CODEL, null otherwise
+     */
+    final CoDelThreadPoolBulkhead coDelThreadPoolBulkhead;
+    /**
+     * Wraps the calls submitted to the thread pool bulkhead in use, so a virtual SchedulingClock can wait for them
+     */
+    final PooledTasks bulkheadTasks;
+    final Bulkhead bulkhead;
+    final Retry retry;
+    final TimeLimiter timeLimiter;
+    final CircuitBreaker circuitBreaker;
+    final RateLimiter rateLimiter;
+
+    final LongAdder requests;
+    final LongAdder fallbacks;
+    final Map<LatencyStage, StageLatencyRecorder> latency;
+    final Map<LatencyStage, ResourceUsageRecorder> resourceUsage;
+
+    EndpointPatterns(String endpoint, String patterns, EndpointConfig config,
+                     ShutdownableThreadPoolBulkhead threadPoolBulkhead, CoDelThreadPoolBulkhead coDelThreadPoolBulkhead,
+                     PooledTasks bulkheadTasks, Bulkhead bulkhead, Retry retry, TimeLimiter timeLimiter,
+                     CircuitBreaker circuitBreaker, RateLimiter rateLimiter, boolean resourceAccounting) {
+        this.endpoint = endpoint;
+        this.patterns = patterns;
+        this.config = config;
+        this.threadPoolBulkhead = threadPoolBulkhead;
+        this.coDelThreadPoolBulkhead = coDelThreadPoolBulkhead;
+        this.bulkheadTasks = bulkheadTasks;
+        this.bulkhead = bulkhead;
+        this.retry = retry;
+        this.timeLimiter = timeLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.requests = new LongAdder();
+        this.fallbacks = new LongAdder();
+        Map<LatencyStage, StageLatencyRecorder> recorders = new EnumMap<>(LatencyStage.class);
+        for (LatencyStage stage : LatencyStage.values()) {
+            recorders.put(stage, new StageLatencyRecorder());
+        }
+        this.latency = Collections.unmodifiableMap(recorders);
+        Map<LatencyStage, ResourceUsageRecorder> usageRecorders = new EnumMap<>(LatencyStage.class);
+        for (LatencyStage stage : ACCOUNTED_STAGES) {
+            usageRecorders.put(stage, new ResourceUsageRecorder(resourceAccounting));
+        }
+        this.resourceUsage = Collections.unmodifiableMap(usageRecorders);
+    }
+
+    /**
+     * Replacement of the previous instances of the endpoint, request counts, latency and resource usage carry on
+     */
+    EndpointPatterns(EndpointPatterns previous, EndpointConfig config,
+                     ShutdownableThreadPoolBulkhead threadPoolBulkhead, CoDelThreadPoolBulkhead coDelThreadPoolBulkhead,
+                     PooledTasks bulkheadTasks, Bulkhead bulkhead, Retry retry, TimeLimiter timeLimiter,
+                     CircuitBreaker circuitBreaker, RateLimiter rateLimiter) {
+        this.endpoint = previous.endpoint;
+        this.patterns = previous.patterns;
+        this.config = config;
+        this.threadPoolBulkhead = threadPoolBulkhead;
+        this.coDelThreadPoolBulkhead = coDelThreadPoolBulkhead;
+        this.bulkheadTasks = bulkheadTasks;
+        this.bulkhead = bulkhead;
+        this.retry = retry;
+        this.timeLimiter = timeLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.requests = previous.requests;
+        this.fallbacks = previous.fallbacks;
+        this.latency = previous.latency;
+        this.resourceUsage = previous.resourceUsage;
+    }
+
+    StageLatencyRecorder recorder(LatencyStage stage) {
+        return latency.get(stage);
+    }
+
+    /**
+     * @param stage one of {@link #ACCOUNTED_STAGES}
+     */
+    ResourceUsageRecorder usage(LatencyStage stage) {
+        return resourceUsage.get(stage);
+    }
+
+    static String instanceName(String endpoint, String pattern) {
+        return endpoint + "." + pattern;
+    }
+}
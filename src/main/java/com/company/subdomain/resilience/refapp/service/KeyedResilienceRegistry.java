@@ -0,0 +1,117 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A bounded registry of resilience instances (CircuitBreaker, Bulkhead...) created on demand per key, e.g. per
+ * ProductType or offerId.
+ * <p>
+ * Unlike the resilience4j registries, which keep every instance they ever created, this registry holds at most
+ * {@code maxSize} instances and evicts the least recently used one when full, so an unbounded key space such as
+ * offerIds cannot leak memory. Instances still in use, e.g. a CircuitBreaker which is not CLOSED or a Bulkhead with
+ * calls in flight, are skipped when choosing the one to evict, evicting them would reset their state for their key.
+ * Keys are spread over lock stripes, each an access ordered LinkedHashMap guarded by its
+ * own monitor, so callers using different keys rarely contend on the same lock.
+ *
+ * @param <K> the key type
+ * @param <V> the resilience instance type
+ */
+class KeyedResilienceRegistry<K, V> {
+    private final Stripe<K, V>[] stripes;
+    private final Function<K, V> factory;
+
+    /**
+     * @param inUse tells whether an instance is still in use and must not be evicted
+     */
+    @SuppressWarnings("unchecked")
+    KeyedResilienceRegistry(int maxSize, int concurrencyLevel, Function<K, V> factory, Predicate<V> inUse) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(concurrencyLevel, maxSize)));
+        int stripeCapacity = Math.max(1, maxSize / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(stripeCapacity, inUse);
+        }
+        this.factory = factory;
+    }
+
+    /**
+     * @return the instance registered for the key, creating it with the factory if it does not exist yet
+     */
+    V get(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            V value = stripe.get(key);
+            if (value == null) {
+                value = factory.apply(key);
+                stripe.put(key, value);
+            }
+            return value;
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Visits a snapshot of every registered instance, the action is not run while holding a stripe lock.
+     */
+    void forEach(BiConsumer<K, V> action) {
+        for (Stripe<K, V> stripe : stripes) {
+            List<Map.Entry<K, V>> entries;
+            synchronized (stripe) {
+                entries = new ArrayList<>(stripe.entrySet());
+            }
+            entries.forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    private static class Stripe<K, V> extends LinkedHashMap<K, V> {
+        private final int capacity;
+        private final Predicate<V> inUse;
+
+        Stripe(int capacity, Predicate<V> inUse) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.inUse = inUse;
+        }
+
+        /**
+         * Evicts the least recently used instances which are not in use, other than the one just added, until the
+         * stripe is back within its capacity. A stripe whose instances are all in use grows beyond its capacity until
+         * some of them are no longer in use.
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            Iterator<V> values = values().iterator();
+            for (int candidates = size() - 1; candidates > 0 && size() > capacity; candidates--) {
+                if (!inUse.test(values.next())) {
+                    values.remove();
+                }
+            }
+            return false;
+        }
+    }
+}
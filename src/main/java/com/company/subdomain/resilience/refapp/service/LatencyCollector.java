@@ -0,0 +1,51 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically merges the per thread latency histograms of every endpoint and stage, the interval view served by
+ * /latencyMetrics covers the last patterns.config.latency.collectIntervalSeconds.
+ */
+@Component
+@Lazy(false)
+class LatencyCollector {
+    private static Logger LOGGER = LoggerFactory.getLogger(LatencyCollector.class);
+
+    private final PatternsFactory patternsFactory;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "latency-collector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    LatencyCollector(PatternsFactory patternsFactory,
+                     @Value("${patterns.config.latency.collectIntervalSeconds}") int collectIntervalSeconds) {
+        this.patternsFactory = patternsFactory;
+        scheduler.scheduleAtFixedRate(this::collect, collectIntervalSeconds, collectIntervalSeconds, TimeUnit.SECONDS);
+        LOGGER.info("Collecting latency histograms every {} seconds", collectIntervalSeconds);
+    }
+
+    void collect() {
+        try {
+            for (EndpointPatterns endpoint : patternsFactory.endpoints()) {
+                endpoint.latency.values().forEach(StageLatencyRecorder::collect);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Collecting latency histograms failed", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,167 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.RequestPriority;
+import com.company.subdomain.resilience.refapp.model.LoadSheddingMetrics;
+import com.company.subdomain.resilience.refapp.util.ClientQuota;
+import com.company.subdomain.resilience.refapp.util.LoadSheddingConfig;
+import com.company.subdomain.resilience.refapp.util.TokenBucket;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Decides whether a client request is admitted before it reaches the DecoratedController.
+ * <p>
+ * Every known client has its own token bucket and priority (patterns.loadShedding.clients), unknown clients and
+ * requests without a client id share a single default bucket so the number of buckets stays bounded. A request may lower its priority with the
+ * X-Request-Priority header but never raise it above the priority of its client.
+ * When the bulkheads are saturated the lowest priority is shed first: BATCH from
+ * {@code batchSheddingUtilisation}, NORMAL from {@code normalSheddingUtilisation}, CRITICAL is never shed for
+ * saturation so it keeps its latency while lower classes absorb the overload.
+ */
+@Component
+public class LoadShedder {
+    private static Logger LOGGER = LoggerFactory.getLogger(LoadShedder.class);
+
+    public enum Outcome {
+        ADMITTED, SHED_OVER_QUOTA, SHED_OVERLOAD
+    }
+
+    private final LoadSheddingConfig config;
+    private final DoubleSupplier utilisation;
+    private final Map<String, ClientQuota> clients;
+    private final Map<String, TokenBucket> clientBuckets;
+    private final TokenBucket defaultBucket;
+    private final Map<RequestPriority, Map<Outcome, Counter>> counters = new EnumMap<>(RequestPriority.class);
+
+    @Autowired
+    public LoadShedder(PatternsFactory patternsFactory, YMLConfig ymlConfig, MeterRegistry meterRegistry) {
+        this(ymlConfig.getLoadShedding(), () -> utilisation(patternsFactory), meterRegistry);
+    }
+
+    LoadShedder(LoadSheddingConfig config, DoubleSupplier utilisation, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.utilisation = utilisation;
+        this.clients = Collections.unmodifiableMap(new HashMap<>(config.getClients()));
+        Map<String, TokenBucket> buckets = new HashMap<>();
+        clients.forEach((clientId, quota) ->
+                buckets.put(clientId, new TokenBucket(quota.getTokensPerSecond(), quota.getBurst())));
+        this.clientBuckets = Collections.unmodifiableMap(buckets);
+        this.defaultBucket = new TokenBucket(config.getDefaultTokensPerSecond(), config.getDefaultBurst());
+        for (RequestPriority priority : RequestPriority.values()) {
+            Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, Counter.builder("loadshedding.requests")
+                        .description("Requests admitted or shed by the load shedding filter")
+                        .tag("priority", priority.name())
+                        .tag("outcome", outcome.name())
+                        .register(meterRegistry));
+            }
+            counters.put(priority, outcomes);
+        }
+        LOGGER.info("Load shedding enabled {} with {} known clients", config.isEnabled(), clients.size());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * @param clientId          value of the X-Client-Id header, may be null
+     * @param requestedPriority value of the X-Request-Priority header, may be null
+     * @return whether the request may proceed
+     */
+    public Outcome admit(String clientId, String requestedPriority) {
+        ClientQuota quota = clients.get(clientId);
+        RequestPriority priority = (quota != null ? quota.getPriority() : config.getDefaultPriority())
+                .lowest(parsePriority(requestedPriority));
+        Outcome outcome;
+        if (isSaturatedFor(priority)) {
+            outcome = Outcome.SHED_OVERLOAD;
+        } else if (!(quota != null ? clientBuckets.get(clientId) : defaultBucket).tryAcquire()) {
+            outcome = Outcome.SHED_OVER_QUOTA;
+        } else {
+            outcome = Outcome.ADMITTED;
+        }
+        counters.get(priority).get(outcome).increment();
+        if (outcome != Outcome.ADMITTED) {
+            LOGGER.info("Shedding {} request of client {} : {}", priority, clientId, outcome);
+        }
+        return outcome;
+    }
+
+    public List<LoadSheddingMetrics> getLoadSheddingMetrics() {
+        List<LoadSheddingMetrics> loadSheddingMetrics = new ArrayList<>();
+        counters.forEach((priority, outcomes) -> {
+            LoadSheddingMetrics metrics = new LoadSheddingMetrics();
+            metrics.setPriority(priority.name());
+            metrics.setAdmitted((long) outcomes.get(Outcome.ADMITTED).count());
+            metrics.setShedOverQuota((long) outcomes.get(Outcome.SHED_OVER_QUOTA).count());
+            metrics.setShedOverload((long) outcomes.get(Outcome.SHED_OVERLOAD).count());
+            loadSheddingMetrics.add(metrics);
+        });
+        return loadSheddingMetrics;
+    }
+
+    private boolean isSaturatedFor(RequestPriority priority) {
+        switch (priority) {
+            case BATCH:
+                return utilisation.getAsDouble() >= config.getBatchSheddingUtilisation();
+            case NORMAL:
+                return utilisation.getAsDouble() >= config.getNormalSheddingUtilisation();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Utilisation of the busiest endpoint, 0 when idle and 1 when a bulkhead is full or a CoDel queue is overloaded,
+     * i.e. calls have been queued longer than the target delay for a whole interval.
+     * The server worker threads are shared by all endpoints so one saturated endpoint is enough to shed.
+     */
+    static double utilisation(PatternsFactory patternsFactory) {
+        double utilisation = 0;
+        for (EndpointPatterns endpoint : patternsFactory.endpoints()) {
+            Bulkhead.Metrics bulkheadMetrics = endpoint.bulkhead.getMetrics();
+            if (bulkheadMetrics.getMaxAllowedConcurrentCalls() > 0) {
+                utilisation = Math.max(utilisation, 1 - (double) bulkheadMetrics.getAvailableConcurrentCalls()
+                        / bulkheadMetrics.getMaxAllowedConcurrentCalls());
+            }
+            ThreadPoolBulkhead.Metrics threadPoolMetrics = endpoint.threadPoolBulkhead.getMetrics();
+            if (threadPoolMetrics.getQueueCapacity() > 0) {
+                utilisation = Math.max(utilisation,
+                        (double) threadPoolMetrics.getQueueDepth() / threadPoolMetrics.getQueueCapacity());
+            }
+            if (endpoint.coDelThreadPoolBulkhead != null && endpoint.coDelThreadPoolBulkhead.isOverloaded()) {
+                return 1;
+            }
+        }
+        return utilisation;
+    }
+
+    private static RequestPriority parsePriority(String priority) {
+        if (priority == null) {
+            return null;
+        }
+        try {
+            return RequestPriority.valueOf(priority.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Ignoring unknown request priority {}", priority);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Names the daemon threads of a bulkhead pool &lt;prefix&gt;-&lt;count&gt;
+ */
+class NamingThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadCount = new AtomicInteger(0);
+    private final String prefix;
+
+    NamingThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
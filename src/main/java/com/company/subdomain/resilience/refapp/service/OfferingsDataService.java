@@ -1,8 +1,11 @@
 package com.company.subdomain.resilience.refapp.service;
 
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
 import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
 import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
 import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
 
 interface OfferingsDataService {
     MockDataServiceResponse getMockOfferingsForRetry(Boolean throwException) throws TemporaryServiceOutageException;
@@ -13,5 +16,17 @@ interface OfferingsDataService {
 
     MockDataServiceResponse getMockOfferingsDataFromService(String id, boolean throwException) throws ChaosEngineeringRuntimeException;
 
+    MockDataServiceResponse getMockOfferingsDataFromService(ProductType productType, boolean throwException) throws ChaosEngineeringRuntimeException;
+
     MockDataServiceResponse getDegradedMockOfferings(boolean throwException) throws ChaosEngineeringRuntimeException;
+
+    /**
+     * @return the offerings with only the attributes owned by the source set, see {@link OfferingSource}
+     */
+    OfferingsSnapshot getOfferingsFromSource(OfferingSource source) throws ChaosEngineeringRuntimeException;
+
+    /**
+     * @return version of the snapshot the offerings are currently read from, without calling the repository
+     */
+    long getSnapshotVersion();
 }
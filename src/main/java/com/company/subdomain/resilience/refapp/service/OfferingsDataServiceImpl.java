@@ -1,10 +1,17 @@
 package com.company.subdomain.resilience.refapp.service;
 
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
 import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
 import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
 import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
 import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
 import com.company.subdomain.resilience.refapp.repository.ChaosEngineeringDataRepository;
+import com.company.subdomain.resilience.refapp.repository.OfferingSourceRepository;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -12,6 +19,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 
@@ -22,37 +30,56 @@ class OfferingsDataServiceImpl implements OfferingsDataService {
     private static final int[] FIBONACCI = new int[]{1, 2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233};
     private static Logger LOGGER = LoggerFactory.getLogger(OfferingsDataServiceImpl.class);
     private final ChaosEngineeringDataRepository chaosEngineeringDataRepository;
-    private AtomicInteger atomicInteger = new AtomicInteger(0);
+    private final OfferingSourceRepository offeringSourceRepository;
+    private final FaultInjector faultInjector;
+    private final SchedulingClock clock;
+    /**
+     * Only used for logging, a LongAdder does not make every request thread contend on one CAS location
+     */
+    private final LongAdder invocations = new LongAdder();
+    private final AtomicInteger retryAttempts = new AtomicInteger(0);
+    private final AtomicInteger degradationSequence = new AtomicInteger(0);
 
-    public OfferingsDataServiceImpl(ChaosEngineeringDataRepository chaosEngineeringDataRepository) {
+    public OfferingsDataServiceImpl(ChaosEngineeringDataRepository chaosEngineeringDataRepository,
+                                    OfferingSourceRepository offeringSourceRepository,
+                                    FaultInjector faultInjector, SchedulingClock clock) {
         this.chaosEngineeringDataRepository = chaosEngineeringDataRepository;
+        this.offeringSourceRepository = offeringSourceRepository;
+        this.faultInjector = faultInjector;
+        this.clock = clock;
     }
 
     @Override
     public MockDataServiceResponse getMockOfferingsForRetry(Boolean throwException) throws TemporaryServiceOutageException {
-        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, atomicInteger.incrementAndGet());
-        if (throwException && atomicInteger.get() < 2) {
-            throw new TemporaryServiceOutageException("TemporaryServiceOutageException thrown from service count " + atomicInteger.get());
+        faultInjector.inject(FaultTarget.SERVICE);
+        int attempt = retryAttempts.incrementAndGet();
+        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, attempt);
+        if (throwException && attempt < 2) {
+            throw new TemporaryServiceOutageException("TemporaryServiceOutageException thrown from service count " + attempt);
         }
         String hostedRegion = "";
-        List<Offering> mockOffers = chaosEngineeringDataRepository.getSampleDataFromRepository();
+        OfferingsSnapshot snapshot = chaosEngineeringDataRepository.getSnapshotFromRepository();
         MockDataServiceResponse response = new MockDataServiceResponse();
-        response.setData(mockOffers);
+        response.setData(snapshot.getOfferings());
         response.setHostedRegion(hostedRegion);
+        response.setSnapshotVersion(snapshot.getVersion());
         return response;
     }
 
     @Override
     public MockDataServiceResponse getMockOfferings(Boolean throwException) throws TemporaryServiceOutageException {
-        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, atomicInteger.incrementAndGet());
+        faultInjector.inject(FaultTarget.SERVICE);
+        invocations.increment();
+        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, invocations.sum());
         if (throwException) {
-            throw new TemporaryServiceOutageException("TemporaryServiceOutageException thrown from service count " + atomicInteger.get());
+            throw new TemporaryServiceOutageException("TemporaryServiceOutageException thrown from service count " + invocations.sum());
         }
         String hostedRegion = "";
-        List<Offering> mockOffers = chaosEngineeringDataRepository.getSampleDataFromRepository();
+        OfferingsSnapshot snapshot = chaosEngineeringDataRepository.getSnapshotFromRepository();
         MockDataServiceResponse response = new MockDataServiceResponse();
-        response.setData(mockOffers);
+        response.setData(snapshot.getOfferings());
         response.setHostedRegion(hostedRegion);
+        response.setSnapshotVersion(snapshot.getVersion());
         return response;
     }
 
@@ -62,38 +89,72 @@ class OfferingsDataServiceImpl implements OfferingsDataService {
      */
     @Override
     public MockDataServiceResponse getMockOfferingsDataFromService(boolean throwException) throws ChaosEngineeringRuntimeException {
-        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, atomicInteger.incrementAndGet());
+        faultInjector.inject(FaultTarget.SERVICE);
+        invocations.increment();
+        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, invocations.sum());
         if (throwException) {
             throw new ChaosEngineeringRuntimeException("Something went wrong!!");
         }
         String hostedRegion = "";
-        List<Offering> mockOffers = chaosEngineeringDataRepository.getSampleDataFromRepository();
+        OfferingsSnapshot snapshot = chaosEngineeringDataRepository.getSnapshotFromRepository();
         MockDataServiceResponse response = new MockDataServiceResponse();
-        response.setData(mockOffers);
+        response.setData(snapshot.getOfferings());
         response.setHostedRegion(hostedRegion);
+        response.setSnapshotVersion(snapshot.getVersion());
         return response;
     }
 
     @Override
     public MockDataServiceResponse getMockOfferingsDataFromService(String id, boolean throwException) throws ChaosEngineeringRuntimeException {
-        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, atomicInteger.incrementAndGet());
+        faultInjector.inject(FaultTarget.SERVICE);
+        invocations.increment();
+        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", throwException, invocations.sum());
         if (throwException) {
             throw new ChaosEngineeringRuntimeException("Something went wrong!!");
         }
         String hostedRegion = "";
 
-        List<Offering> mockOffers = chaosEngineeringDataRepository.getSampleDataFromRepositoryById(id);
+        OfferingsSnapshot snapshot = chaosEngineeringDataRepository.getSnapshotFromRepository();
+        List<Offering> mockOffers = snapshot.getOfferings()
+                .stream()
+                .filter(offering -> id.equals(offering.getOfferId()))
+                .collect(Collectors.toList());
         MockDataServiceResponse response = new MockDataServiceResponse();
         response.setData(mockOffers);
         response.setHostedRegion(hostedRegion);
+        response.setSnapshotVersion(snapshot.getVersion());
         return response;
     }
 
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(ProductType productType, boolean throwException) throws ChaosEngineeringRuntimeException {
+        faultInjector.inject(FaultTarget.SERVICE);
+        invocations.increment();
+        LOGGER.info("Invoking OfferingsDataServiceImpl productType {} throwException {} count {}", productType, throwException,
+                invocations.sum());
+        if (throwException) {
+            throw new ChaosEngineeringRuntimeException("Something went wrong!!");
+        }
+        String hostedRegion = "";
+
+        OfferingsSnapshot snapshot = chaosEngineeringDataRepository.getSnapshotFromRepository();
+        List<Offering> mockOffers = snapshot.getOfferings()
+                .stream()
+                .filter(offering -> productType == offering.getProductType())
+                .collect(Collectors.toList());
+        MockDataServiceResponse response = new MockDataServiceResponse();
+        response.setData(mockOffers);
+        response.setHostedRegion(hostedRegion);
+        response.setSnapshotVersion(snapshot.getVersion());
+        return response;
+    }
 
     @Override
     public MockDataServiceResponse getDegradedMockOfferings(boolean throwException) throws ChaosEngineeringRuntimeException {
-        int requestNumber = atomicInteger.incrementAndGet();
-        int index = atomicInteger.getAndIncrement();
+        faultInjector.inject(FaultTarget.SERVICE);
+        //one atomic step, concurrent requests must not read each other's request number as their index
+        int requestNumber = degradationSequence.addAndGet(2) - 1;
+        int index = requestNumber;
         int sleepDuration = FIBONACCI[index % FIBONACCI.length] * 100;
         LOGGER.info("Starting degrading service count {} request degrades by {} ", requestNumber, sleepDuration);
         if (throwException) {
@@ -103,13 +164,13 @@ class OfferingsDataServiceImpl implements OfferingsDataService {
         //Sleep to emulate a degrading service
         try {
 
-            Thread.sleep(sleepDuration);
+            clock.sleep(sleepDuration);
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
-        List<Offering> mockOffers = chaosEngineeringDataRepository.getSampleDataFromRepository();
+        OfferingsSnapshot snapshot = chaosEngineeringDataRepository.getSnapshotFromRepository();
         MockDataServiceResponse response = new MockDataServiceResponse();
-        List<Offering> slimOfferings = mockOffers.stream()
+        List<Offering> slimOfferings = snapshot.getOfferings().stream()
                 .map(offering -> {
                     Offering newInstance = new Offering();
                     newInstance.setOfferId(offering.getOfferId());
@@ -117,7 +178,25 @@ class OfferingsDataServiceImpl implements OfferingsDataService {
                 }).collect(Collectors.toList());
         response.setData(slimOfferings);
         response.setHostedRegion(hostedRegion);
-        LOGGER.info("Sending Response for request {} : {} ", requestNumber, response);
+        response.setSnapshotVersion(snapshot.getVersion());
+        LOGGER.info("Sending Response for request {} with {} offerings", requestNumber, slimOfferings.size());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Sending Response for request {} : {} ", requestNumber, response);
+        }
         return response;
     }
+
+    /**
+     * The faults of a source are injected by the source itself, a SERVICE fault would fail every source at once
+     */
+    @Override
+    public OfferingsSnapshot getOfferingsFromSource(OfferingSource source) throws ChaosEngineeringRuntimeException {
+        LOGGER.debug("Invoking OfferingsDataServiceImpl source {}", source);
+        return offeringSourceRepository.getFromSource(source);
+    }
+
+    @Override
+    public long getSnapshotVersion() {
+        return chaosEngineeringDataRepository.currentSnapshot().getVersion();
+    }
 }
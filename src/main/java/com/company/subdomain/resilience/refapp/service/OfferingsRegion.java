@@ -0,0 +1,143 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.exception.RegionFailureException;
+import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process deployment of the offerings service in one region: the replicas behind the round trip from the local
+ * region and the outage of the region, injected by a FaultInjector of its own. The region prefixes the hosted region of
+ * the response, e.g. us-west-2/replica-a.
+ * <p>
+ * Also holds what {@link RegionRouter} knows about the region: the circuit breaker which fails over from it, the
+ * latency of the calls it served and since when its calls fail.
+ */
+class OfferingsRegion implements OfferingsDataService {
+    /**
+     * Marks an unset time: 0 is not, a virtual SchedulingClock starts at 0
+     */
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    final String name;
+    final long latencyMillis;
+    final CircuitBreaker circuitBreaker;
+    final Timer latency;
+    final LongAdder calls = new LongAdder();
+    /**
+     * Time of the first failure since the last success of the region, {@link #NO_TIME} while it succeeds
+     */
+    volatile long failingSinceNanos = NO_TIME;
+    /**
+     * Time the circuit breaker of the region opened, {@link #NO_TIME} while it is closed
+     */
+    volatile long failedOverAtNanos = NO_TIME;
+
+    private final OfferingsDataService offeringsDataService;
+    private final FaultInjector faultInjector;
+    private final SchedulingClock clock;
+
+    OfferingsRegion(String name, long latencyMillis, OfferingsDataService offeringsDataService,
+                    CircuitBreaker circuitBreaker, Timer latency, SchedulingClock clock) {
+        this.name = name;
+        this.latencyMillis = latencyMillis;
+        this.offeringsDataService = offeringsDataService;
+        this.circuitBreaker = circuitBreaker;
+        this.latency = latency;
+        this.faultInjector = new FaultInjector(clock);
+        this.clock = clock;
+    }
+
+    /**
+     * Replaces the latency and errors of the region, errorRate 1 is a regional outage
+     */
+    void setFault(FaultConfig fault, long seed) {
+        faultInjector.setFault(FaultTarget.SERVICE, fault, seed);
+    }
+
+    void clearFault() {
+        faultInjector.clearFault(FaultTarget.SERVICE);
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsForRetry(Boolean throwException) throws TemporaryServiceOutageException {
+        enter();
+        return hosted(offeringsDataService.getMockOfferingsForRetry(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferings(Boolean throwException) throws TemporaryServiceOutageException {
+        enter();
+        return hosted(offeringsDataService.getMockOfferings(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(boolean throwException) throws ChaosEngineeringRuntimeException {
+        enter();
+        return hosted(offeringsDataService.getMockOfferingsDataFromService(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(String id, boolean throwException) throws ChaosEngineeringRuntimeException {
+        enter();
+        return hosted(offeringsDataService.getMockOfferingsDataFromService(id, throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(ProductType productType, boolean throwException) throws ChaosEngineeringRuntimeException {
+        enter();
+        return hosted(offeringsDataService.getMockOfferingsDataFromService(productType, throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getDegradedMockOfferings(boolean throwException) throws ChaosEngineeringRuntimeException {
+        enter();
+        return hosted(offeringsDataService.getDegradedMockOfferings(throwException));
+    }
+
+    @Override
+    public OfferingsSnapshot getOfferingsFromSource(OfferingSource source) throws ChaosEngineeringRuntimeException {
+        enter();
+        return offeringsDataService.getOfferingsFromSource(source);
+    }
+
+    @Override
+    public long getSnapshotVersion() {
+        return offeringsDataService.getSnapshotVersion();
+    }
+
+    /**
+     * The round trip is paid whether or not the region answers
+     */
+    private void enter() {
+        if (latencyMillis > 0) {
+            try {
+                clock.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            faultInjector.inject(FaultTarget.SERVICE);
+        } catch (ChaosEngineeringRuntimeException e) {
+            throw new RegionFailureException(String.format("Region {%s} failed: %s", name, e.getMessage()));
+        }
+    }
+
+    private MockDataServiceResponse hosted(MockDataServiceResponse response) {
+        String replica = response.getHostedRegion();
+        response.setHostedRegion(replica == null || replica.isEmpty() ? name : name + "/" + replica);
+        return response;
+    }
+}
@@ -0,0 +1,147 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.exception.ReplicaFailureException;
+import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process replica of the offerings service: the shared OfferingsDataService behind the latency and errors of the
+ * replica, injected by a FaultInjector of its own, answering with the name of the replica as hosted region.
+ * <p>
+ * Also holds what {@link ReplicaRouter} knows about the replica: its in-flight calls, the moving average of its latency
+ * and the circuit breaker which ejects it when its calls fail.
+ */
+class OfferingsReplica implements OfferingsDataService {
+    final String name;
+    final CircuitBreaker circuitBreaker;
+    final AtomicInteger inFlight = new AtomicInteger();
+    final LongAdder calls = new LongAdder();
+
+    private final OfferingsDataService offeringsDataService;
+    private final FaultInjector faultInjector;
+    private final SchedulingClock clock;
+    private final double decayNanos;
+    /**
+     * Peak EWMA of the call latency: a sample above the average replaces it, a lower one weighs 1 - e^(-elapsed/decay)
+     * where elapsed is the time since the previous sample. Written under the lock of the replica, read without it.
+     */
+    private volatile double ewmaNanos;
+    private volatile long lastSampleNanos;
+
+    OfferingsReplica(String name, OfferingsDataService offeringsDataService, CircuitBreaker circuitBreaker,
+                     SchedulingClock clock, long ewmaDecayMillis) {
+        this.name = name;
+        this.offeringsDataService = offeringsDataService;
+        this.circuitBreaker = circuitBreaker;
+        this.faultInjector = new FaultInjector(clock);
+        this.clock = clock;
+        this.decayNanos = ewmaDecayMillis * 1_000_000d;
+        this.lastSampleNanos = clock.nanoTime();
+    }
+
+    /**
+     * Replaces the latency and errors the replica adds to its calls
+     */
+    void setFault(FaultConfig fault, long seed) {
+        faultInjector.setFault(FaultTarget.SERVICE, fault, seed);
+    }
+
+    void clearFault() {
+        faultInjector.clearFault(FaultTarget.SERVICE);
+    }
+
+    synchronized void observe(long latencyNanos) {
+        long now = clock.nanoTime();
+        if (latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(now - lastSampleNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastSampleNanos = now;
+    }
+
+    /**
+     * @return the latency average decayed towards zero for the time since the last sample, so a replica which got no
+     * calls since it was slow is tried again
+     */
+    double latencyNanos() {
+        return ewmaNanos * Math.exp(-(clock.nanoTime() - lastSampleNanos) / decayNanos);
+    }
+
+    double cost() {
+        return (inFlight.get() + 1) * (latencyNanos() + 1);
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsForRetry(Boolean throwException) throws TemporaryServiceOutageException {
+        injectFault();
+        return hosted(offeringsDataService.getMockOfferingsForRetry(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferings(Boolean throwException) throws TemporaryServiceOutageException {
+        injectFault();
+        return hosted(offeringsDataService.getMockOfferings(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(boolean throwException) throws ChaosEngineeringRuntimeException {
+        injectFault();
+        return hosted(offeringsDataService.getMockOfferingsDataFromService(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(String id, boolean throwException) throws ChaosEngineeringRuntimeException {
+        injectFault();
+        return hosted(offeringsDataService.getMockOfferingsDataFromService(id, throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(ProductType productType, boolean throwException) throws ChaosEngineeringRuntimeException {
+        injectFault();
+        return hosted(offeringsDataService.getMockOfferingsDataFromService(productType, throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getDegradedMockOfferings(boolean throwException) throws ChaosEngineeringRuntimeException {
+        injectFault();
+        return hosted(offeringsDataService.getDegradedMockOfferings(throwException));
+    }
+
+    @Override
+    public OfferingsSnapshot getOfferingsFromSource(OfferingSource source) throws ChaosEngineeringRuntimeException {
+        injectFault();
+        return offeringsDataService.getOfferingsFromSource(source);
+    }
+
+    @Override
+    public long getSnapshotVersion() {
+        return offeringsDataService.getSnapshotVersion();
+    }
+
+    private void injectFault() {
+        try {
+            faultInjector.inject(FaultTarget.SERVICE);
+        } catch (ChaosEngineeringRuntimeException e) {
+            throw new ReplicaFailureException(String.format("Replica {%s} failed: %s", name, e.getMessage()));
+        }
+    }
+
+    private MockDataServiceResponse hosted(MockDataServiceResponse response) {
+        response.setHostedRegion(name);
+        return response;
+    }
+}
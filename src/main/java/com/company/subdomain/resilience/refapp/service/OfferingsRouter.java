@@ -0,0 +1,143 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.vavr.CheckedFunction1;
+import lombok.Lombok;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes the offerings calls to one of several targets, each behind a circuit breaker of its own, for
+ * {@link ReplicaRouter} and {@link RegionRouter}. The subclass picks the target, a call no circuit breaker permitted
+ * still goes to the target the subclass names for it but is not recorded in that circuit breaker.
+ *
+ * @param <R> the targets, OfferingsDataServices themselves
+ */
+abstract class OfferingsRouter<R extends OfferingsDataService> implements OfferingsDataService {
+    private final OfferingsDataService offeringsDataService;
+    final SchedulingClock clock;
+
+    /**
+     * @param offeringsDataService answers the version checks, which are not routed
+     */
+    OfferingsRouter(OfferingsDataService offeringsDataService, SchedulingClock clock) {
+        this.offeringsDataService = offeringsDataService;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the target whose circuit breaker permitted the call, null if none did
+     */
+    abstract R acquire();
+
+    /**
+     * @return the target of a call no circuit breaker permitted
+     */
+    abstract R unpermitted();
+
+    abstract CircuitBreaker circuitBreaker(R target);
+
+    /**
+     * Called before the target is called
+     */
+    abstract void started(R target);
+
+    /**
+     * Called once the call of the target returned, before its circuit breaker records it
+     *
+     * @param throwable the failure of the call, null if it succeeded
+     */
+    abstract void completed(R target, long startNanos, long durationNanos, Throwable throwable);
+
+    /**
+     * @return the first of the targets, from start on and wrapping around, whose circuit breaker permits a call, null
+     * if none does
+     */
+    R firstPermitted(List<R> targets, int start) {
+        int size = targets.size();
+        for (int i = 0; i < size; i++) {
+            R target = targets.get((start + i) % size);
+            if (circuitBreaker(target).tryAcquirePermission()) {
+                return target;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsForRetry(Boolean throwException) throws TemporaryServiceOutageException {
+        return route(target -> target.getMockOfferingsForRetry(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferings(Boolean throwException) throws TemporaryServiceOutageException {
+        return route(target -> target.getMockOfferings(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(boolean throwException) throws ChaosEngineeringRuntimeException {
+        return route(target -> target.getMockOfferingsDataFromService(throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(String id, boolean throwException) throws ChaosEngineeringRuntimeException {
+        return route(target -> target.getMockOfferingsDataFromService(id, throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(ProductType productType, boolean throwException) throws ChaosEngineeringRuntimeException {
+        return route(target -> target.getMockOfferingsDataFromService(productType, throwException));
+    }
+
+    @Override
+    public MockDataServiceResponse getDegradedMockOfferings(boolean throwException) throws ChaosEngineeringRuntimeException {
+        return route(target -> target.getDegradedMockOfferings(throwException));
+    }
+
+    @Override
+    public OfferingsSnapshot getOfferingsFromSource(OfferingSource source) throws ChaosEngineeringRuntimeException {
+        return route(target -> target.getOfferingsFromSource(source));
+    }
+
+    /**
+     * A version check reads the shared snapshot, it is not routed
+     */
+    @Override
+    public long getSnapshotVersion() {
+        return offeringsDataService.getSnapshotVersion();
+    }
+
+    private <T> T route(CheckedFunction1<R, T> call) {
+        R target = acquire();
+        boolean permitted = target != null;
+        if (!permitted) {
+            target = unpermitted();
+        }
+        started(target);
+        long startNanos = clock.nanoTime();
+        try {
+            T result = call.apply(target);
+            long durationNanos = clock.nanoTime() - startNanos;
+            completed(target, startNanos, durationNanos, null);
+            if (permitted) {
+                circuitBreaker(target).onSuccess(durationNanos, TimeUnit.NANOSECONDS);
+            }
+            return result;
+        } catch (Throwable throwable) {
+            long durationNanos = clock.nanoTime() - startNanos;
+            completed(target, startNanos, durationNanos, throwable);
+            if (permitted) {
+                circuitBreaker(target).onError(durationNanos, TimeUnit.NANOSECONDS, throwable);
+            }
+            throw Lombok.sneakyThrow(throwable);
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.company.subdomain.resilience.refapp.service;
 
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.QueueDiscipline;
 import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.exception.DeadlineExceededException;
 import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
+import com.company.subdomain.resilience.refapp.util.EndpointConfig;
+import com.company.subdomain.resilience.refapp.util.PooledTasks;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
 import com.company.subdomain.resilience.refapp.util.YMLConfig;
 import io.github.resilience4j.bulkhead.*;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.internal.CircuitBreakerStateMachine;
 import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
@@ -17,12 +30,31 @@ import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.timelimiter.TimeLimiter;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 @Component
 class PatternsFactory {
@@ -31,98 +63,540 @@ class PatternsFactory {
     static final String TIME_LIMITER = "time-limiter";
     static final String SEMAPHORE_BULKHEAD = "semaphore-bulkhead";
     static final String THREAD_POOL_BULKHEAD = "thread-pool-bulkhead";
+    static final String CODEL_THREAD_POOL_BULKHEAD = "codel-thread-pool-bulkhead";
     static final String RETRY_SERVICE = "retry-for-bulkhead";
     static final String CIRCUIT_BREAKER = "circuit-breaker";
     static final String RATE_LIMITER = "rate-limiter";
 
-    final ThreadPoolBulkhead threadPoolBulkhead;
-    final Bulkhead bulkhead;
-    final Retry retry;
-    final TimeLimiter timeLimiter;
-    final CircuitBreaker circuitBreaker;
-    final RateLimiter rateLimiter;
+    //DecoratedController endpoints, each owns its resilience instances configured under patterns.endpoints.<endpoint>
+    static final String OFFERINGS = "offerings";
+    static final String SIMPLE_RETRY = "simple-retry";
+    static final String SIMPLE_CIRCUIT_BREAKER = "simple-circuit-breaker";
+    static final String SIMPLE_BULKHEAD = "simple-bulkhead";
+    static final String SIMPLE_RATE_LIMITER = "simple-rate-limiter";
+    static final String SIMPLE_TIME_LIMITER = "simple-time-limiter";
+    static final String SIMPLE_SEMAPHORE_BULKHEAD = "simple-semaphore-bulkhead";
+    static final String DEGRADING_SERVICE = "degrading-service";
+    static final String KEYED_CIRCUIT_BREAKER = "keyed-circuit-breaker";
+    static final String KEYED_SEMAPHORE_BULKHEAD = "keyed-semaphore-bulkhead";
+    static final String SCATTER_GATHER = "scatter-gather";
+    //the sources called by SCATTER_GATHER, each isolated like an endpoint of its own
+    static final String SOURCE_REFERENCE_DATA = "source-reference-data";
+    static final String SOURCE_BID_QUOTES = "source-bid-quotes";
+    static final String SOURCE_ASK_QUOTES = "source-ask-quotes";
+    static final List<String> ENDPOINTS = Collections.unmodifiableList(Arrays.asList(OFFERINGS, SIMPLE_RETRY,
+            SIMPLE_CIRCUIT_BREAKER, SIMPLE_BULKHEAD, SIMPLE_RATE_LIMITER, SIMPLE_TIME_LIMITER, SIMPLE_SEMAPHORE_BULKHEAD,
+            DEGRADING_SERVICE, KEYED_CIRCUIT_BREAKER, KEYED_SEMAPHORE_BULKHEAD, SCATTER_GATHER, SOURCE_REFERENCE_DATA,
+            SOURCE_BID_QUOTES, SOURCE_ASK_QUOTES));
+    private static final Map<OfferingSource, String> SOURCE_ENDPOINTS = createSourceEndpoints();
+    /**
+     * Decorators each endpoint applies, outermost last, used to aggregate metrics per decorator chain
+     */
+    private static final Map<String, String> ENDPOINT_PATTERNS = createEndpointPatternNames();
 
-    public PatternsFactory(YMLConfig ymlConfig) {
-        this.threadPoolBulkhead = createThreadPoolBulkhead(ymlConfig.getNumberOfThreads());
-        this.bulkhead = createBulkhead(ymlConfig.getNumberOfThreads());
-        retry = createRetry(ymlConfig.getInitialIntervalMillis(), ymlConfig.getMultiplier(), ymlConfig.getMaxAttempts());
-        timeLimiter = createTimeLimiter(ymlConfig.getWaitTimeDuration());
-        circuitBreaker = createCircuitBreaker(ymlConfig.getFailureRateThreshold(), ymlConfig.getWaitDurationInOpenState(),
-                ymlConfig.getPermittedNumberOfCallsInHalfOpenState(), ymlConfig.getSlidingWindowSize());
-        this.rateLimiter = createRateLimiter(ymlConfig.getLimitForPeriod(), ymlConfig.getWindowInMilliseconds(),
-                ymlConfig.getWaitTimeForThread());
+    final ShutdownableThreadPoolBulkheadRegistry threadPoolBulkheadRegistry = new ShutdownableThreadPoolBulkheadRegistry();
+    final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+    final RetryRegistry retryRegistry = RetryRegistry.ofDefaults();
+    final TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.ofDefaults();
+    final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    final RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.ofDefaults();
 
+    /**
+     * Measures the open state and sliding time windows of the CircuitBreakers and tracks the bulkhead pools
+     */
+    private final SchedulingClock clock;
+    private final YMLConfig ymlConfig;
+    private final MeterRegistry meterRegistry;
+    /**
+     * Closes the thread pools replaced by a reconfiguration once their in-flight calls are done
+     */
+    private final ScheduledExecutorService scheduler;
+    private final List<BiConsumer<EndpointPatterns, EndpointPatterns>> reconfigurationListeners =
+            new CopyOnWriteArrayList<>();
+    /**
+     * Replaced as a whole by {@link #reconfigure(Map)}, requests read it without locking
+     */
+    private volatile Map<String, EndpointPatterns> endpointPatterns;
+    /**
+     * CircuitBreakers and Bulkheads per key (ProductType, offerId...) created on demand, they are deliberately not
+     * held in the registries above which never evict
+     */
+    final KeyedResilienceRegistry<String, CircuitBreaker> keyedCircuitBreakers;
+    final KeyedResilienceRegistry<String, Bulkhead> keyedBulkheads;
+    private volatile CircuitBreakerConfig keyedCircuitBreakerConfig;
+    private volatile BulkheadConfig keyedBulkheadConfig;
+
+    @Autowired
+    public PatternsFactory(YMLConfig ymlConfig, MeterRegistry meterRegistry, SchedulingClock clock) {
+        this(ymlConfig, meterRegistry, clock, Collections.emptyMap());
+    }
+
+    /**
+     * @param overrides per endpoint, applied on top of the application configuration before any instance is created,
+     *                  unlike {@link #reconfigure(Map)} which changes the limit of a RateLimiter from its next period only
+     */
+    PatternsFactory(YMLConfig ymlConfig, MeterRegistry meterRegistry, SchedulingClock clock,
+                    Map<String, EndpointConfig> overrides) {
+        this.clock = clock;
+        this.ymlConfig = ymlConfig;
+        this.meterRegistry = meterRegistry;
+        this.scheduler = clock.scheduler();
+        Map<String, EndpointConfig> configs = new HashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            EndpointConfig override = overrides.get(endpoint);
+            EndpointConfig config = ymlConfig.getEndpointConfig(endpoint);
+            configs.put(endpoint, override == null ? config : config.withOverrides(override));
+        }
+        Map<String, EndpointPatterns> patterns = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            EndpointConfig config = configs.get(endpoint);
+            patterns.put(endpoint, createEndpointPatterns(endpoint, config, createConfigs(config)));
+        }
+        this.endpointPatterns = Collections.unmodifiableMap(patterns);
+        bindMetrics(meterRegistry);
+
+        this.keyedCircuitBreakerConfig = createCircuitBreakerConfig(configs.get(KEYED_CIRCUIT_BREAKER));
+        this.keyedBulkheadConfig = createBulkheadConfig(configs.get(KEYED_SEMAPHORE_BULKHEAD));
+        this.keyedCircuitBreakers = new KeyedResilienceRegistry<>(ymlConfig.getMaxKeys(), ymlConfig.getConcurrencyLevel(),
+                key -> new CircuitBreakerStateMachine(keyedName(CIRCUIT_BREAKER, key), keyedCircuitBreakerConfig,
+                        clock.asClock()),
+                keyedCircuitBreaker -> keyedCircuitBreaker.getState() != CircuitBreaker.State.CLOSED);
+        this.keyedBulkheads = new KeyedResilienceRegistry<>(ymlConfig.getMaxKeys(), ymlConfig.getConcurrencyLevel(),
+                key -> Bulkhead.of(keyedName(SEMAPHORE_BULKHEAD, key), keyedBulkheadConfig),
+                keyedBulkhead -> keyedBulkhead.getMetrics().getAvailableConcurrentCalls()
+                        < keyedBulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+        LOGGER.info("Keyed CircuitBreaker and Bulkhead registries created with maxKeys {} : concurrencyLevel {}",
+                ymlConfig.getMaxKeys(), ymlConfig.getConcurrencyLevel());
+    }
+
+    /**
+     * @param endpoint one of {@link #ENDPOINTS}
+     * @return the resilience instances owned by the endpoint
+     */
+    EndpointPatterns endpoint(String endpoint) {
+        EndpointPatterns patterns = endpointPatterns.get(endpoint);
+        if (patterns == null) {
+            throw new IllegalArgumentException("No resilience patterns configured for endpoint " + endpoint);
+        }
+        return patterns;
+    }
+
+    Collection<EndpointPatterns> endpoints() {
+        return endpointPatterns.values();
+    }
+
+    /**
+     * @return the resolved settings of every endpoint
+     */
+    Map<String, EndpointConfig> endpointConfigs() {
+        Map<String, EndpointConfig> configs = new LinkedHashMap<>();
+        endpointPatterns.forEach((endpoint, patterns) -> configs.put(endpoint,
+                patterns.config.withOverrides(new EndpointConfig())));
+        return configs;
+    }
+
+    /**
+     * Called with the previous and the new patterns of every endpoint a reconfiguration changes, before requests can
+     * see the new ones
+     */
+    void onReconfigured(BiConsumer<EndpointPatterns, EndpointPatterns> listener) {
+        reconfigurationListeners.add(listener);
+    }
+
+    /**
+     * Applies the overrides on top of the current settings of the endpoints. Every changed setting is validated before
+     * anything is touched, one invalid value rejects the whole update with an IllegalArgumentException.
+     * <p>
+     * The new patterns of an endpoint are swapped in with a single write, requests already holding the previous ones
+     * finish on them. State is carried over where resilience4j allows it: the semaphore Bulkhead and the RateLimiter
+     * limit and timeout are changed in place so in-flight permits stay accounted (shrinking a Bulkhead waits for the
+     * calls above the new limit to finish), a rebuilt CircuitBreaker starts in the state of the previous one (its
+     * sliding window starts empty), and a replaced thread pool is closed after the previous time limiter timeout so its
+     * queued calls still run. Existing keyed CircuitBreakers keep their settings, new keys get the new ones.
+     *
+     * @param overrides per endpoint, only the values set are changed
+     * @return the resolved settings of every endpoint after the update
+     */
+    synchronized Map<String, EndpointConfig> reconfigure(Map<String, EndpointConfig> overrides) {
+        Map<String, EndpointPatterns> current = endpointPatterns;
+        Map<String, EndpointConfig> changed = new LinkedHashMap<>();
+        Map<String, EndpointResilienceConfigs> validated = new HashMap<>();
+        overrides.forEach((endpoint, override) -> {
+            EndpointConfig previous = endpoint(endpoint).config;
+            EndpointConfig config = previous.withOverrides(override);
+            if (!config.equals(previous)) {
+                validated.put(endpoint, createConfigs(config));
+                changed.put(endpoint, config);
+            }
+        });
+
+        Map<String, EndpointPatterns> next = new LinkedHashMap<>(current);
+        changed.forEach((endpoint, config) -> {
+            LOGGER.warn("Reconfiguring endpoint {} from {} to {}", endpoint, current.get(endpoint).config, config);
+            EndpointPatterns previous = current.get(endpoint);
+            EndpointPatterns replacement = rebuildEndpointPatterns(previous, config, validated.get(endpoint));
+            reconfigurationListeners.forEach(listener -> listener.accept(previous, replacement));
+            next.put(endpoint, replacement);
+        });
+        this.endpointPatterns = Collections.unmodifiableMap(next);
+
+        if (changed.containsKey(KEYED_CIRCUIT_BREAKER)) {
+            keyedCircuitBreakerConfig = validated.get(KEYED_CIRCUIT_BREAKER).circuitBreaker;
+        }
+        if (changed.containsKey(KEYED_SEMAPHORE_BULKHEAD)) {
+            BulkheadConfig bulkheadConfig = validated.get(KEYED_SEMAPHORE_BULKHEAD).bulkhead;
+            keyedBulkheadConfig = bulkheadConfig;
+            keyedBulkheads.forEach((key, bulkhead) -> bulkhead.changeConfig(bulkheadConfig));
+        }
+        return endpointConfigs();
+    }
+
+    /**
+     * Shuts down the thread pools of every endpoint, for factories whose calls are all done. The idle pool threads
+     * exit right away.
+     */
+    void shutdown() {
+        for (EndpointPatterns endpoint : endpoints()) {
+            endpoint.threadPoolBulkhead.shutdown();
+            if (endpoint.coDelThreadPoolBulkhead != null) {
+                endpoint.coDelThreadPoolBulkhead.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return whether the thread pools of every endpoint are shut down and their threads exited
+     */
+    boolean isTerminated() {
+        for (EndpointPatterns endpoint : endpoints()) {
+            if (!endpoint.threadPoolBulkhead.isTerminated()
+                    || endpoint.coDelThreadPoolBulkhead != null && !endpoint.coDelThreadPoolBulkhead.isTerminated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, String> createEndpointPatternNames() {
+        Map<String, String> names = new HashMap<>();
+        names.put(OFFERINGS, String.join(",", THREAD_POOL_BULKHEAD, TIME_LIMITER));
+        names.put(SIMPLE_RETRY, RETRY_SERVICE);
+        names.put(SIMPLE_CIRCUIT_BREAKER, CIRCUIT_BREAKER);
+        names.put(SIMPLE_BULKHEAD, SEMAPHORE_BULKHEAD);
+        names.put(SIMPLE_RATE_LIMITER, RATE_LIMITER);
+        names.put(SIMPLE_TIME_LIMITER, TIME_LIMITER);
+        names.put(SIMPLE_SEMAPHORE_BULKHEAD, SEMAPHORE_BULKHEAD);
+        names.put(DEGRADING_SERVICE, String.join(",", THREAD_POOL_BULKHEAD, TIME_LIMITER, CIRCUIT_BREAKER, RETRY_SERVICE));
+        names.put(KEYED_CIRCUIT_BREAKER, "keyed-" + CIRCUIT_BREAKER);
+        names.put(KEYED_SEMAPHORE_BULKHEAD, "keyed-" + SEMAPHORE_BULKHEAD);
+        names.put(SCATTER_GATHER, SCATTER_GATHER);
+        for (String source : Arrays.asList(SOURCE_REFERENCE_DATA, SOURCE_BID_QUOTES, SOURCE_ASK_QUOTES)) {
+            names.put(source, String.join(",", THREAD_POOL_BULKHEAD, TIME_LIMITER, CIRCUIT_BREAKER));
+        }
+        return Collections.unmodifiableMap(names);
+    }
+
+    private static Map<OfferingSource, String> createSourceEndpoints() {
+        Map<OfferingSource, String> endpoints = new EnumMap<>(OfferingSource.class);
+        endpoints.put(OfferingSource.REFERENCE_DATA, SOURCE_REFERENCE_DATA);
+        endpoints.put(OfferingSource.BID_QUOTES, SOURCE_BID_QUOTES);
+        endpoints.put(OfferingSource.ASK_QUOTES, SOURCE_ASK_QUOTES);
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    /**
+     * @return the endpoint owning the resilience instances the source is called through
+     */
+    static String sourceEndpoint(OfferingSource source) {
+        return SOURCE_ENDPOINTS.get(source);
+    }
+
+    static String keyedName(String name, String key) {
+        return name + ":" + key;
+    }
+
+    /**
+     * Binds every registry to Micrometer, the instances are tagged with their name (&lt;endpoint&gt;.&lt;pattern&gt;) and
+     * scraped at /actuator/prometheus. Instances added to a registry later are bound too.
+     * The keyed instances are deliberately not bound, one time series per offerId would explode the metric cardinality,
+     * see /keyedMetrics instead.
+     */
+    private void bindMetrics(MeterRegistry meterRegistry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(threadPoolBulkheadRegistry).bindTo(meterRegistry);
+        TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(meterRegistry);
+        TaggedRateLimiterMetrics.ofRateLimiterRegistry(rateLimiterRegistry).bindTo(meterRegistry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiterRegistry).bindTo(meterRegistry);
+        for (EndpointPatterns endpoint : endpoints()) {
+            endpoint.resourceUsage.forEach((stage, usage) -> {
+                Tags tags = Tags.of("endpoint", endpoint.endpoint, "patterns", endpoint.patterns, "stage", stage.name());
+                FunctionCounter.builder("decorated.allocated.bytes", usage.allocatedBytes, LongAdder::sum)
+                        .description("Bytes allocated by the thread running the stage")
+                        .baseUnit("bytes")
+                        .tags(tags)
+                        .register(meterRegistry);
+                FunctionCounter.builder("decorated.cpu.nanos", usage.cpuNanos, LongAdder::sum)
+                        .description("CPU time of the thread running the stage")
+                        .baseUnit("nanoseconds")
+                        .tags(tags)
+                        .register(meterRegistry);
+                FunctionCounter.builder("decorated.resource.samples", usage.samples, LongAdder::sum)
+                        .description("Number of executions of the stage accounted")
+                        .tags(tags)
+                        .register(meterRegistry);
+            });
+        }
     }
 
-    private Retry createRetry(int initialIntervalMillis, int multiplier, int maxAttempts) {
+    private EndpointPatterns createEndpointPatterns(String endpoint, EndpointConfig config,
+                                                    EndpointResilienceConfigs configs) {
+        LOGGER.info("Creating resilience patterns for endpoint {} with {}", endpoint, config);
+        ShutdownableThreadPoolBulkhead threadPoolBulkhead = threadPoolBulkheadRegistry.bulkhead(
+                EndpointPatterns.instanceName(endpoint, THREAD_POOL_BULKHEAD), configs.threadPoolBulkhead);
+        CoDelThreadPoolBulkhead coDelThreadPoolBulkhead = ymlConfig.getQueueDiscipline() == QueueDiscipline.CODEL
+                ? createCoDelThreadPoolBulkhead(EndpointPatterns.instanceName(endpoint, CODEL_THREAD_POOL_BULKHEAD), config)
+                : null;
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(
+                EndpointPatterns.instanceName(endpoint, SEMAPHORE_BULKHEAD), configs.bulkhead);
+        Retry retry = retryRegistry.retry(
+                EndpointPatterns.instanceName(endpoint, RETRY_SERVICE), configs.retry);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(
+                EndpointPatterns.instanceName(endpoint, TIME_LIMITER), configs.timeLimiter);
+        CircuitBreaker circuitBreaker = clockedCircuitBreaker(
+                EndpointPatterns.instanceName(endpoint, CIRCUIT_BREAKER), configs.circuitBreaker);
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter(
+                EndpointPatterns.instanceName(endpoint, RATE_LIMITER), configs.rateLimiter);
+        return new EndpointPatterns(endpoint, ENDPOINT_PATTERNS.get(endpoint), config, threadPoolBulkhead,
+                coDelThreadPoolBulkhead, bulkheadTasks(threadPoolBulkhead, coDelThreadPoolBulkhead), bulkhead, retry,
+                timeLimiter, circuitBreaker, rateLimiter,
+                ymlConfig.isResourceAccountingEnabled());
+    }
+
+    /**
+     * The registry creates CircuitBreakers on the wall clock, its instance is replaced by one reading the
+     * SchedulingClock, the Micrometer metrics follow the replacement. Also creates the circuit breakers of the routers,
+     * which have to wait in open state on the clock their calls sleep on.
+     */
+    CircuitBreaker clockedCircuitBreaker(String name, CircuitBreakerConfig config) {
+        CircuitBreaker circuitBreaker = new CircuitBreakerStateMachine(name, config, clock.asClock());
+        circuitBreakerRegistry.circuitBreaker(name, config);
+        circuitBreakerRegistry.replace(name, circuitBreaker);
+        return circuitBreaker;
+    }
+
+    private PooledTasks bulkheadTasks(ThreadPoolBulkhead threadPoolBulkhead,
+                                      CoDelThreadPoolBulkhead coDelThreadPoolBulkhead) {
+        return coDelThreadPoolBulkhead != null
+                ? clock.trackPool(coDelThreadPoolBulkhead::getPoolSize)
+                : clock.trackPool(threadPoolBulkhead.getMetrics()::getThreadPoolSize);
+    }
+
+    /**
+     * Only the instances whose settings changed are touched, replaced instances are swapped in the registries so
+     * their metrics are rebound under the same name
+     */
+    private EndpointPatterns rebuildEndpointPatterns(EndpointPatterns previous, EndpointConfig config,
+                                                     EndpointResilienceConfigs configs) {
+        EndpointConfig previousConfig = previous.config;
+        ShutdownableThreadPoolBulkhead threadPoolBulkhead = previous.threadPoolBulkhead;
+        CoDelThreadPoolBulkhead coDelThreadPoolBulkhead = previous.coDelThreadPoolBulkhead;
+        PooledTasks bulkheadTasks = previous.bulkheadTasks;
+        if (changed(previousConfig, config, EndpointConfig::getNumberOfThreads, EndpointConfig::getQueueCapacity)) {
+            threadPoolBulkhead = new ShutdownableThreadPoolBulkhead(previous.threadPoolBulkhead.getName(),
+                    configs.threadPoolBulkhead, previous.threadPoolBulkhead.getTags());
+            threadPoolBulkheadRegistry.replace(threadPoolBulkhead.getName(), threadPoolBulkhead);
+            if (coDelThreadPoolBulkhead != null) {
+                coDelThreadPoolBulkhead = createCoDelThreadPoolBulkhead(coDelThreadPoolBulkhead.getName(), config);
+            }
+            bulkheadTasks = bulkheadTasks(threadPoolBulkhead, coDelThreadPoolBulkhead);
+            retire(previous.threadPoolBulkhead, previous.coDelThreadPoolBulkhead, previousConfig.getWaitTimeDuration());
+        }
+        if (changed(previousConfig, config, EndpointConfig::getNumberOfThreads)) {
+            previous.bulkhead.changeConfig(configs.bulkhead);
+        }
+        Retry retry = previous.retry;
+        if (changed(previousConfig, config, EndpointConfig::getInitialIntervalMillis, EndpointConfig::getMultiplier,
+                EndpointConfig::getMaxAttempts)) {
+            retry = Retry.of(retry.getName(), configs.retry);
+            retryRegistry.replace(retry.getName(), retry);
+        }
+        TimeLimiter timeLimiter = previous.timeLimiter;
+        if (changed(previousConfig, config, EndpointConfig::getWaitTimeDuration)) {
+            timeLimiter = TimeLimiter.of(timeLimiter.getName(), configs.timeLimiter);
+            timeLimiterRegistry.replace(timeLimiter.getName(), timeLimiter);
+        }
+        CircuitBreaker circuitBreaker = previous.circuitBreaker;
+        if (changed(previousConfig, config, EndpointConfig::getFailureRateThreshold,
+                EndpointConfig::getWaitDurationInOpenState, EndpointConfig::getPermittedNumberOfCallsInHalfOpenState,
+                EndpointConfig::getSlidingWindowSize)) {
+            circuitBreaker = new CircuitBreakerStateMachine(circuitBreaker.getName(), configs.circuitBreaker,
+                    clock.asClock());
+            transferState(previous.circuitBreaker, circuitBreaker);
+            circuitBreakerRegistry.replace(circuitBreaker.getName(), circuitBreaker);
+        }
+        RateLimiter rateLimiter = previous.rateLimiter;
+        if (changed(previousConfig, config, EndpointConfig::getWindowInMilliseconds)) {
+            rateLimiter = RateLimiter.of(rateLimiter.getName(), configs.rateLimiter);
+            rateLimiterRegistry.replace(rateLimiter.getName(), rateLimiter);
+        } else {
+            if (changed(previousConfig, config, EndpointConfig::getLimitForPeriod)) {
+                rateLimiter.changeLimitForPeriod(config.getLimitForPeriod());
+            }
+            if (changed(previousConfig, config, EndpointConfig::getWaitTimeForThread)) {
+                rateLimiter.changeTimeoutDuration(Duration.ofMillis(config.getWaitTimeForThread()));
+            }
+        }
+        return new EndpointPatterns(previous, config, threadPoolBulkhead, coDelThreadPoolBulkhead, bulkheadTasks,
+                previous.bulkhead, retry, timeLimiter, circuitBreaker, rateLimiter);
+    }
+
+    @SafeVarargs
+    private static boolean changed(EndpointConfig previous, EndpointConfig config,
+                                   Function<EndpointConfig, Integer>... values) {
+        for (Function<EndpointConfig, Integer> value : values) {
+            if (!Objects.equals(value.apply(previous), value.apply(config))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The failure rate of the previous CircuitBreaker cannot be carried over, an open breaker starts a new
+     * waitDurationInOpenState
+     */
+    private static void transferState(CircuitBreaker previous, CircuitBreaker replacement) {
+        switch (previous.getState()) {
+            case OPEN:
+                replacement.transitionToOpenState();
+                break;
+            case HALF_OPEN:
+                replacement.transitionToOpenState();
+                replacement.transitionToHalfOpenState();
+                break;
+            case FORCED_OPEN:
+                replacement.transitionToForcedOpenState();
+                break;
+            case DISABLED:
+                replacement.transitionToDisabledState();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void retire(ShutdownableThreadPoolBulkhead threadPoolBulkhead,
+                        CoDelThreadPoolBulkhead coDelThreadPoolBulkhead, long graceMillis) {
+        scheduler.schedule(() -> {
+            LOGGER.info("Closing replaced thread pool bulkhead {}", threadPoolBulkhead.getName());
+            threadPoolBulkhead.shutdown();
+            if (coDelThreadPoolBulkhead != null) {
+                coDelThreadPoolBulkhead.shutdown();
+            }
+        }, graceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Builds every resilience4j config of the endpoint, which validates the settings
+     */
+    private EndpointResilienceConfigs createConfigs(EndpointConfig config) {
+        return new EndpointResilienceConfigs(createThreadPoolBulkheadConfig(config), createBulkheadConfig(config),
+                createRetryConfig(config), createTimeLimiterConfig(config), createCircuitBreakerConfig(config),
+                createRateLimiterConfig(config));
+    }
+
+    private RetryConfig createRetryConfig(EndpointConfig config) {
         IntervalFunction intervalWithCustomExponentialBackoff = IntervalFunction
-                .ofExponentialBackoff(initialIntervalMillis, multiplier);
-        RetryConfig retryConfig = RetryConfig.custom()
+                .ofExponentialBackoff(config.getInitialIntervalMillis(), config.getMultiplier());
+        return RetryConfig.custom()
                 .intervalFunction(intervalWithCustomExponentialBackoff)
-                .maxAttempts(maxAttempts)
+                .maxAttempts(config.getMaxAttempts())
                 .retryExceptions(TemporaryServiceOutageException.class, ChaosEngineeringRuntimeException.class)
                 .build();
-        RetryRegistry retryRegistry = RetryRegistry.of(retryConfig);
-        return retryRegistry.retry(RETRY_SERVICE);
     }
 
-    private TimeLimiter createTimeLimiter(int waitTimeForThread) {
-        TimeLimiterConfig timeLimiterConfig = TimeLimiterConfig.custom()
+    private TimeLimiterConfig createTimeLimiterConfig(EndpointConfig config) {
+        return TimeLimiterConfig.custom()
                 .cancelRunningFuture(true)
-                .timeoutDuration(Duration.ofMillis(waitTimeForThread))
+                .timeoutDuration(Duration.ofMillis(config.getWaitTimeDuration()))
                 .build();
-        TimeLimiterRegistry timeLimiterRegistry = TimeLimiterRegistry.of(timeLimiterConfig);
-        return timeLimiterRegistry.timeLimiter(TIME_LIMITER);
     }
 
-    private ThreadPoolBulkhead createThreadPoolBulkhead(int availableProcessors) {
-        int coreThreadPoolSizeFactor = availableProcessors >= 8 ? 4 : 1;
-        int coreThreadPoolSize = availableProcessors - coreThreadPoolSizeFactor;
-        ThreadPoolBulkheadConfig threadPoolBulkheadConfig = ThreadPoolBulkheadConfig.custom()
+    private ThreadPoolBulkheadConfig createThreadPoolBulkheadConfig(EndpointConfig config) {
+        int availableProcessors = config.getNumberOfThreads();
+        int coreThreadPoolSize = coreThreadPoolSize(availableProcessors);
+        LOGGER.info("ThreadPoolBulkheadConfig created with maxThreadPoolSize {} : coreThreadPoolSize {}",
+                availableProcessors, coreThreadPoolSize);
+        return ThreadPoolBulkheadConfig.custom()
                 .maxThreadPoolSize(availableProcessors)
                 .coreThreadPoolSize(coreThreadPoolSize)
-                .queueCapacity(4)
+                .queueCapacity(config.getQueueCapacity())
                 .keepAliveDuration(Duration.ofSeconds(2))
                 .build();
-        LOGGER.info("ThreadPoolBulkheadConfig created with maxThreadPoolSize {} : coreThreadPoolSize {}",
-                availableProcessors, coreThreadPoolSize);
-        ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry = ThreadPoolBulkheadRegistry.of(threadPoolBulkheadConfig);
-        return threadPoolBulkheadRegistry.bulkhead(THREAD_POOL_BULKHEAD);
     }
 
-    private Bulkhead createBulkhead(int availableProcessors) {
-        LOGGER.info("Semaphore bulkhead with maxConcurrentCalls {}", availableProcessors);
-        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
-                .maxConcurrentCalls(availableProcessors)
+    private CoDelThreadPoolBulkhead createCoDelThreadPoolBulkhead(String name, EndpointConfig config) {
+        int availableProcessors = config.getNumberOfThreads();
+        int coreThreadPoolSize = coreThreadPoolSize(availableProcessors);
+        LOGGER.info("CoDelThreadPoolBulkhead {} created with maxThreadPoolSize {} : coreThreadPoolSize {} : " +
+                        "queueCapacity {} : targetDelayMillis {} : intervalMillis {}",
+                name, availableProcessors, coreThreadPoolSize, config.getQueueCapacity(),
+                ymlConfig.getCodelTargetDelayMillis(), ymlConfig.getCodelIntervalMillis());
+        return new CoDelThreadPoolBulkhead(name, availableProcessors, coreThreadPoolSize, config.getQueueCapacity(),
+                ymlConfig.getCodelTargetDelayMillis(), ymlConfig.getCodelIntervalMillis(), meterRegistry);
+    }
+
+    private int coreThreadPoolSize(int availableProcessors) {
+        int coreThreadPoolSizeFactor = availableProcessors >= 8 ? 4 : 1;
+        return availableProcessors - coreThreadPoolSizeFactor;
+    }
+
+    private BulkheadConfig createBulkheadConfig(EndpointConfig config) {
+        LOGGER.info("Semaphore bulkhead with maxConcurrentCalls {}", config.getNumberOfThreads());
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getNumberOfThreads())
                 .maxWaitDuration(Duration.ofMillis(0))
                 .writableStackTraceEnabled(true)
                 .build();
-
-        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(bulkheadConfig);
-        return bulkheadRegistry.bulkhead(SEMAPHORE_BULKHEAD);
     }
 
-    private CircuitBreaker createCircuitBreaker(int failureRateThreshold, int waitDurationInOpenState,
-                                                int permittedNumberOfCallsInHalfOpenState, int slidingWindowSize) {
-        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
-                .failureRateThreshold(failureRateThreshold)
-                .waitDurationInOpenState(Duration.ofMillis(waitDurationInOpenState))
-                .permittedNumberOfCallsInHalfOpenState(permittedNumberOfCallsInHalfOpenState)
-                .slidingWindowSize(slidingWindowSize)
+    private CircuitBreakerConfig createCircuitBreakerConfig(EndpointConfig config) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .waitDurationInOpenState(Duration.ofMillis(config.getWaitDurationInOpenState()))
+                .permittedNumberOfCallsInHalfOpenState(config.getPermittedNumberOfCallsInHalfOpenState())
+                .slidingWindowSize(config.getSlidingWindowSize())
                 .recordExceptions(ChaosEngineeringRuntimeException.class, TemporaryServiceOutageException.class)
-                .ignoreExceptions(IOException.class)
+                .ignoreExceptions(IOException.class, DeadlineExceededException.class)
                 .build();
-        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
-        return circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
     }
 
-    private RateLimiter createRateLimiter(int limitForPeriod, int windowInMilliseconds, int waitTimeForThread) {
-        RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
-                .limitRefreshPeriod(Duration.ofMillis(windowInMilliseconds))
-                .limitForPeriod(limitForPeriod)
-                .timeoutDuration(Duration.ofMillis(waitTimeForThread))
+    private RateLimiterConfig createRateLimiterConfig(EndpointConfig config) {
+        return RateLimiterConfig.custom()
+                .limitRefreshPeriod(Duration.ofMillis(config.getWindowInMilliseconds()))
+                .limitForPeriod(config.getLimitForPeriod())
+                .timeoutDuration(Duration.ofMillis(config.getWaitTimeForThread()))
                 .build();
-        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(rateLimiterConfig);
-        return rateLimiterRegistry.rateLimiter(RATE_LIMITER);
+    }
+
+    private static class EndpointResilienceConfigs {
+        final ThreadPoolBulkheadConfig threadPoolBulkhead;
+        final BulkheadConfig bulkhead;
+        final RetryConfig retry;
+        final TimeLimiterConfig timeLimiter;
+        final CircuitBreakerConfig circuitBreaker;
+        final RateLimiterConfig rateLimiter;
+
+        EndpointResilienceConfigs(ThreadPoolBulkheadConfig threadPoolBulkhead, BulkheadConfig bulkhead,
+                                  RetryConfig retry, TimeLimiterConfig timeLimiter, CircuitBreakerConfig circuitBreaker,
+                                  RateLimiterConfig rateLimiter) {
+            this.threadPoolBulkhead = threadPoolBulkhead;
+            this.bulkhead = bulkhead;
+            this.retry = retry;
+            this.timeLimiter = timeLimiter;
+            this.circuitBreaker = circuitBreaker;
+            this.rateLimiter = rateLimiter;
+        }
     }
 }
@@ -0,0 +1,200 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.exception.RegionFailureException;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.RegionConfig;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Region-aware failover of the offerings calls over the regions configured under patterns.regions, each an
+ * {@link OfferingsRegion} in front of the {@link ReplicaRouter} paying the round trip from the local region.
+ * <p>
+ * Calls go to the local region while its circuit breaker permits them. Once it opens on {@link RegionFailureException}s
+ * they fail over to the remote region with the lowest round trip whose circuit breaker is closed, and come back when
+ * the trial calls of the half-open local circuit breaker succeed. Failures of the request itself or of a single replica
+ * say nothing about the region and do not count. When every region is open the call goes to the local one anyway.
+ * <p>
+ * Measured per region: offerings.region.latency for the latency a failover adds, offerings.region.failover for the time
+ * from the first failure of the region to its circuit breaker opening and offerings.region.outage for the time it stayed
+ * failed over.
+ */
+@Primary
+@Component
+class RegionRouter extends OfferingsRouter<OfferingsRegion> {
+    private static Logger LOGGER = LoggerFactory.getLogger(RegionRouter.class);
+
+    /**
+     * The local region first, then the remote ones by round trip
+     */
+    private final List<OfferingsRegion> regions;
+    private final LongAdder failovers = new LongAdder();
+    private volatile OfferingsRegion active;
+
+    RegionRouter(ReplicaRouter replicaRouter, YMLConfig ymlConfig, SchedulingClock clock,
+                 PatternsFactory patternsFactory, MeterRegistry meterRegistry) {
+        super(replicaRouter, clock);
+        RegionConfig config = ymlConfig.getRegions();
+        Map<String, Long> latencyMillis = config.getLatencyMillis();
+        if (config.getLocal() == null || !latencyMillis.containsKey(config.getLocal())) {
+            throw new IllegalArgumentException("patterns.regions.latencyMillis must name the local region " + config.getLocal());
+        }
+        CircuitBreakerConfig failoverConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(config.getEjectionFailureRateThreshold())
+                .slidingWindowSize(config.getEjectionSlidingWindowSize())
+                .minimumNumberOfCalls(config.getEjectionSlidingWindowSize())
+                .waitDurationInOpenState(Duration.ofMillis(config.getEjectionWaitMillis()))
+                .permittedNumberOfCallsInHalfOpenState(config.getRecoveryCalls())
+                .recordExceptions(RegionFailureException.class)
+                .build();
+        List<OfferingsRegion> regions = new ArrayList<>();
+        latencyMillis.forEach((name, latency) -> {
+            CircuitBreaker circuitBreaker = patternsFactory.clockedCircuitBreaker(
+                    EndpointPatterns.instanceName("region." + name, PatternsFactory.CIRCUIT_BREAKER), failoverConfig);
+            Timer timer = Timer.builder("offerings.region.latency")
+                    .description("Latency of the calls the region served, round trip included")
+                    .tag("region", name)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            OfferingsRegion region = new OfferingsRegion(name, latency, replicaRouter, circuitBreaker, timer, clock);
+            bindFailoverMetrics(region, meterRegistry);
+            regions.add(region);
+        });
+        //stable sort, the local region has no round trip of its own to sort by
+        regions.sort(Comparator.comparing((OfferingsRegion region) -> !region.name.equals(config.getLocal()))
+                .thenComparingLong(region -> region.latencyMillis));
+        this.regions = Collections.unmodifiableList(regions);
+        this.active = this.regions.get(0);
+        FunctionCounter.builder("offerings.region.failovers", failovers, LongAdder::sum)
+                .description("Changes of the region serving the calls")
+                .register(meterRegistry);
+        LOGGER.info("Routing offerings calls to region {}, failing over to {}", config.getLocal(),
+                this.regions.subList(1, this.regions.size()).stream().map(region -> region.name).toArray());
+    }
+
+    List<OfferingsRegion> regions() {
+        return regions;
+    }
+
+    OfferingsRegion region(String name) {
+        for (OfferingsRegion region : regions) {
+            if (region.name.equals(name)) {
+                return region;
+            }
+        }
+        throw new IllegalArgumentException("No region " + name);
+    }
+
+    /**
+     * Replaces the latency and errors of the region, e.g. errorRate 1 for a regional outage
+     */
+    void setRegionFault(String name, FaultConfig fault, long seed) {
+        region(name).setFault(fault, seed);
+    }
+
+    /**
+     * @return the region which served the latest call
+     */
+    String getActiveRegion() {
+        return active.name;
+    }
+
+    long getFailovers() {
+        return failovers.sum();
+    }
+
+    /**
+     * @return the most preferred region whose circuit breaker permitted the call, null if every region is open
+     */
+    @Override
+    OfferingsRegion acquire() {
+        return firstPermitted(regions, 0);
+    }
+
+    @Override
+    OfferingsRegion unpermitted() {
+        OfferingsRegion region = regions.get(0);
+        LOGGER.debug("Every region is failed over from, routing to {}", region.name);
+        return region;
+    }
+
+    @Override
+    CircuitBreaker circuitBreaker(OfferingsRegion region) {
+        return region.circuitBreaker;
+    }
+
+    @Override
+    void started(OfferingsRegion region) {
+        OfferingsRegion previous = active;
+        if (previous != region) {
+            active = region;
+            failovers.increment();
+            LOGGER.warn("Offerings calls moved from region {} to {}", previous.name, region.name);
+        }
+        region.calls.increment();
+    }
+
+    @Override
+    void completed(OfferingsRegion region, long startNanos, long durationNanos, Throwable throwable) {
+        if (throwable == null) {
+            region.latency.record(durationNanos, TimeUnit.NANOSECONDS);
+            region.failingSinceNanos = OfferingsRegion.NO_TIME;
+        } else if (throwable instanceof RegionFailureException && region.failingSinceNanos == OfferingsRegion.NO_TIME) {
+            region.failingSinceNanos = startNanos;
+        }
+    }
+
+    private void bindFailoverMetrics(OfferingsRegion region, MeterRegistry meterRegistry) {
+        Timer failover = Timer.builder("offerings.region.failover")
+                .description("Time from the first failure of the region to failing over from it")
+                .tag("region", region.name)
+                .register(meterRegistry);
+        Timer outage = Timer.builder("offerings.region.outage")
+                .description("Time the region was failed over from until its trial calls succeeded")
+                .tag("region", region.name)
+                .register(meterRegistry);
+        region.circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            long now = clock.nanoTime();
+            switch (event.getStateTransition().getToState()) {
+                case OPEN:
+                    if (event.getStateTransition().getFromState() == CircuitBreaker.State.CLOSED) {
+                        region.failedOverAtNanos = now;
+                        long failingSince = region.failingSinceNanos;
+                        if (failingSince != OfferingsRegion.NO_TIME) {
+                            failover.record(now - failingSince, TimeUnit.NANOSECONDS);
+                        }
+                        LOGGER.warn("Failing over from region {}", region.name);
+                    }
+                    break;
+                case CLOSED:
+                    long failedOverAt = region.failedOverAtNanos;
+                    if (failedOverAt != OfferingsRegion.NO_TIME) {
+                        outage.record(now - failedOverAt, TimeUnit.NANOSECONDS);
+                        region.failedOverAtNanos = OfferingsRegion.NO_TIME;
+                    }
+                    LOGGER.info("Region {} recovered", region.name);
+                    break;
+                default:
+                    break;
+            }
+        });
+    }
+}
@@ -0,0 +1,188 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.LoadBalancingStrategy;
+import com.company.subdomain.resilience.refapp.exception.ReplicaFailureException;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.RoutingConfig;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side load balancing of the offerings calls over the in-process replicas configured under
+ * patterns.routing.replicas, each an {@link OfferingsReplica} of the OfferingsDataService with its own latency and
+ * errors. The replica answering a call names itself in the hosted region of the response.
+ * <p>
+ * With P2C two distinct replicas are drawn at random and the call goes to the one with the lower cost, its in-flight
+ * calls plus one times its decayed peak latency average, so load drains away from a slow replica without every caller
+ * herding onto the same fastest one. With ROUND_ROBIN the replicas are taken in turn.
+ * <p>
+ * Outliers are ejected by a circuit breaker per replica which only counts {@link ReplicaFailureException}s, failures
+ * of the request itself (throwException, faults injected into the whole service) say nothing about the replica. When
+ * every replica is ejected the call goes to the cheapest one anyway rather than failing, ejection must not turn a
+ * partial outage into a full one.
+ */
+@Component
+class ReplicaRouter extends OfferingsRouter<OfferingsReplica> {
+    private static Logger LOGGER = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final List<OfferingsReplica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    /**
+     * Calls routed to an ejected replica because no replica was left
+     */
+    private final LongAdder panicRoutes = new LongAdder();
+    private volatile LoadBalancingStrategy strategy;
+
+    ReplicaRouter(OfferingsDataServiceImpl offeringsDataService, YMLConfig ymlConfig, SchedulingClock clock,
+                  PatternsFactory patternsFactory, MeterRegistry meterRegistry) {
+        super(offeringsDataService, clock);
+        RoutingConfig routing = ymlConfig.getRouting();
+        if (routing.getReplicas().isEmpty()) {
+            throw new IllegalArgumentException("patterns.routing.replicas must name at least one replica");
+        }
+        this.strategy = routing.getStrategy();
+        CircuitBreakerConfig ejectionConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(routing.getEjectionFailureRateThreshold())
+                .slidingWindowSize(routing.getEjectionSlidingWindowSize())
+                .minimumNumberOfCalls(routing.getEjectionSlidingWindowSize())
+                .waitDurationInOpenState(Duration.ofMillis(routing.getEjectionWaitMillis()))
+                .recordExceptions(ReplicaFailureException.class)
+                .build();
+        List<OfferingsReplica> replicas = new ArrayList<>();
+        routing.getReplicas().forEach((name, fault) -> {
+            //registered with the endpoint instances so the ejections show up in the resilience4j metrics
+            CircuitBreaker circuitBreaker = patternsFactory.clockedCircuitBreaker(
+                    EndpointPatterns.instanceName("replica." + name, PatternsFactory.CIRCUIT_BREAKER), ejectionConfig);
+            OfferingsReplica replica = new OfferingsReplica(name, offeringsDataService, circuitBreaker, clock,
+                    routing.getEwmaDecayMillis());
+            if (fault != null && (fault.getLatencyMillis() > 0 || fault.getErrorRate() > 0)) {
+                replica.setFault(fault, name.hashCode());
+            }
+            replicas.add(replica);
+        });
+        this.replicas = Collections.unmodifiableList(replicas);
+        bindMetrics(meterRegistry);
+        LOGGER.info("Routing offerings calls with {} over replicas {}", strategy, routing.getReplicas());
+    }
+
+    List<OfferingsReplica> replicas() {
+        return replicas;
+    }
+
+    OfferingsReplica replica(String name) {
+        for (OfferingsReplica replica : replicas) {
+            if (replica.name.equals(name)) {
+                return replica;
+            }
+        }
+        throw new IllegalArgumentException("No replica " + name);
+    }
+
+    /**
+     * Replaces the latency and errors the replica adds to its calls, e.g. to degrade one replica while the others stay
+     * healthy
+     */
+    void setReplicaFault(String name, FaultConfig fault, long seed) {
+        replica(name).setFault(fault, seed);
+    }
+
+    void setStrategy(LoadBalancingStrategy strategy) {
+        LOGGER.warn("Switching replica routing from {} to {}", this.strategy, strategy);
+        this.strategy = strategy;
+    }
+
+    long getPanicRoutes() {
+        return panicRoutes.sum();
+    }
+
+    /**
+     * @return the replica picked by the strategy whose circuit breaker permitted the call, null if every replica is
+     * ejected
+     */
+    @Override
+    OfferingsReplica acquire() {
+        int size = replicas.size();
+        if (strategy == LoadBalancingStrategy.P2C && size > 1) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            OfferingsReplica a = replicas.get(first);
+            OfferingsReplica b = replicas.get(second);
+            OfferingsReplica cheaper = a.cost() <= b.cost() ? a : b;
+            OfferingsReplica other = cheaper == a ? b : a;
+            if (cheaper.circuitBreaker.tryAcquirePermission()) {
+                return cheaper;
+            }
+            if (other.circuitBreaker.tryAcquirePermission()) {
+                return other;
+            }
+        }
+        return firstPermitted(replicas, Math.floorMod(nextReplica.getAndIncrement(), size));
+    }
+
+    @Override
+    OfferingsReplica unpermitted() {
+        OfferingsReplica replica = Collections.min(replicas, Comparator.comparingDouble(OfferingsReplica::cost));
+        panicRoutes.increment();
+        LOGGER.debug("Every replica is ejected, routing to {}", replica.name);
+        return replica;
+    }
+
+    @Override
+    CircuitBreaker circuitBreaker(OfferingsReplica replica) {
+        return replica.circuitBreaker;
+    }
+
+    @Override
+    void started(OfferingsReplica replica) {
+        replica.calls.increment();
+        replica.inFlight.incrementAndGet();
+    }
+
+    @Override
+    void completed(OfferingsReplica replica, long startNanos, long durationNanos, Throwable throwable) {
+        replica.inFlight.decrementAndGet();
+        replica.observe(durationNanos);
+    }
+
+    private void bindMetrics(MeterRegistry meterRegistry) {
+        for (OfferingsReplica replica : replicas) {
+            FunctionCounter.builder("offerings.replica.calls", replica.calls, LongAdder::sum)
+                    .description("Calls routed to the replica")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("offerings.replica.in.flight", replica.inFlight, AtomicInteger::get)
+                    .description("Calls of the replica in progress")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("offerings.replica.latency", replica, r -> r.latencyNanos() / 1_000_000d)
+                    .description("Decayed peak moving average of the call latency the routing compares")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("offerings.replica.panic.routes", panicRoutes, LongAdder::sum)
+                .description("Calls routed to an ejected replica because every replica was ejected")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.util.EndpointConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Applies the patterns.endpoints block of the file patterns.reload.file, in application.yml format, with
+ * {@link PatternsFactory#reconfigure(Map)} at startup and whenever the file changes. Values are applied on top of the
+ * running settings, a value removed from the file keeps its current setting. A file which cannot be read or holds an
+ * invalid value is logged and ignored, the running settings stay in place.
+ */
+@Component
+@Lazy(false)
+class ResilienceConfigWatcher {
+    private static Logger LOGGER = LoggerFactory.getLogger(ResilienceConfigWatcher.class);
+    private static final String ENDPOINTS_PREFIX = "patterns.endpoints";
+
+    private final PatternsFactory patternsFactory;
+    private final Path file;
+    private final WatchService watchService;
+
+    ResilienceConfigWatcher(PatternsFactory patternsFactory, @Value("${patterns.reload.file:}") String file)
+            throws IOException {
+        this.patternsFactory = patternsFactory;
+        if (file.isEmpty()) {
+            this.file = null;
+            this.watchService = null;
+            LOGGER.info("Resilience settings file not configured, change the settings at /admin/resilienceConfig");
+            return;
+        }
+        this.file = Paths.get(file).toAbsolutePath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        apply();
+        Thread watcher = new Thread(this::watch, "resilience-config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOGGER.info("Watching resilience settings file {}", this.file);
+    }
+
+    void apply() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            Map<String, EndpointConfig> overrides = read(file);
+            patternsFactory.reconfigure(overrides);
+            LOGGER.warn("Applied resilience settings of {} for endpoints {}", file, overrides.keySet());
+        } catch (RuntimeException e) {
+            LOGGER.error("Ignoring resilience settings file {}: {}", file, e.getMessage());
+        }
+    }
+
+    static Map<String, EndpointConfig> read(Path file) {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new FileSystemResource(file));
+        Properties properties = yaml.getObject();
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bind(ENDPOINTS_PREFIX, Bindable.mapOf(String.class, EndpointConfig.class))
+                .orElse(Collections.emptyMap());
+    }
+
+    private void watch() {
+        try {
+            for (; ; ) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                //editors often write a file in several steps, applying unchanged settings again is a no-op
+                if (changed) {
+                    apply();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOGGER.info("Stopped watching resilience settings file {}", file);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.ResilienceEventType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size ring buffer of the most recent events of a single resilience instance.
+ * <p>
+ * An event is stored as two longs, the timestamp packed with the type ordinal and the value, nothing is allocated or
+ * formatted when recording. Writers claim a slot with a single getAndIncrement and publish it by writing the sequence
+ * number of the event into the slot, so recording never blocks. Readers check the published sequence before and after
+ * reading a slot and skip it if a writer is still filling it or has overwritten it meanwhile. All slot accesses are
+ * volatile so the sequence checks are ordered with the data they guard.
+ */
+class ResilienceEventRing {
+    private final String name;
+    private final int mask;
+    private final int capacity;
+    /**
+     * epoch millis &lt;&lt; 8 | type ordinal
+     */
+    private final AtomicLongArray stamps;
+    private final AtomicLongArray values;
+    private final AtomicLongArray published;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    ResilienceEventRing(String name, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.name = name;
+        this.mask = size - 1;
+        this.capacity = size;
+        this.stamps = new AtomicLongArray(size);
+        this.values = new AtomicLongArray(size);
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void record(ResilienceEventType type, long value) {
+        long seq = sequence.getAndIncrement();
+        int index = (int) (seq & mask);
+        published.set(index, -1);
+        stamps.set(index, System.currentTimeMillis() << 8 | type.ordinal());
+        values.set(index, value);
+        published.set(index, seq);
+    }
+
+    /**
+     * Visits the events still held in the ring from the newest to the oldest
+     */
+    void forEachNewestFirst(EventVisitor visitor) {
+        long head = sequence.get();
+        for (long seq = head - 1; seq >= 0 && seq >= head - capacity; seq--) {
+            int index = (int) (seq & mask);
+            if (published.get(index) != seq) {
+                continue;
+            }
+            long stamp = stamps.get(index);
+            long value = values.get(index);
+            if (published.get(index) != seq) {
+                continue;
+            }
+            if (!visitor.visit(stamp >>> 8, ResilienceEventType.ofOrdinal((int) (stamp & 0xFF)), value)) {
+                return;
+            }
+        }
+    }
+
+    interface EventVisitor {
+        /**
+         * @return false to stop visiting older events
+         */
+        boolean visit(long timestampMillis, ResilienceEventType type, long value);
+    }
+}
@@ -0,0 +1,119 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.ResilienceEventType;
+import com.company.subdomain.resilience.refapp.model.ResilienceEvent;
+import com.company.subdomain.resilience.refapp.model.ResilienceEventStats;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recent resilience events of every resilience instance, one {@link ResilienceEventRing} of
+ * patterns.config.events.capacityPerInstance events per instance name so memory use is bounded by the number of
+ * instances. Events are only turned into objects and formatted when they are queried.
+ */
+@Component
+class ResilienceEventStore {
+    private final int capacityPerInstance;
+    private final Map<String, ResilienceEventRing> rings = new ConcurrentHashMap<>();
+
+    ResilienceEventStore(@Value("${patterns.config.events.capacityPerInstance}") int capacityPerInstance) {
+        this.capacityPerInstance = capacityPerInstance;
+    }
+
+    /**
+     * @return the ring of the instance, instances with the same name share it
+     */
+    ResilienceEventRing ring(String name) {
+        return rings.computeIfAbsent(name, key -> new ResilienceEventRing(key, capacityPerInstance));
+    }
+
+    /**
+     * @param name        instance name, null for all instances
+     * @param type        event type, null for all types
+     * @param sinceMillis only events recorded at or after this epoch millis
+     * @param limit       maximum number of events per instance, newest first
+     */
+    List<ResilienceEvent> query(String name, ResilienceEventType type, long sinceMillis, int limit) {
+        List<ResilienceEvent> events = new ArrayList<>();
+        for (ResilienceEventRing ring : rings.values()) {
+            if (name != null && !name.equals(ring.getName())) {
+                continue;
+            }
+            int[] remaining = {limit};
+            ring.forEachNewestFirst((timestampMillis, eventType, value) -> {
+                if (timestampMillis < sinceMillis) {
+                    return false;
+                }
+                if (type == null || type == eventType) {
+                    events.add(toEvent(ring.getName(), timestampMillis, eventType, value));
+                    remaining[0]--;
+                }
+                return remaining[0] > 0;
+            });
+        }
+        return events;
+    }
+
+    /**
+     * @param windowSeconds length of the window, values below 1 are clamped to 1 second
+     * @return number and rate per second of the events of each instance and type recorded in the last window
+     */
+    List<ResilienceEventStats> stats(int windowSeconds) {
+        windowSeconds = Math.max(1, windowSeconds);
+        long sinceMillis = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(windowSeconds);
+        List<ResilienceEventStats> stats = new ArrayList<>();
+        for (ResilienceEventRing ring : rings.values()) {
+            long[] counts = new long[ResilienceEventType.values().length];
+            ring.forEachNewestFirst((timestampMillis, eventType, value) -> {
+                if (timestampMillis < sinceMillis) {
+                    return false;
+                }
+                counts[eventType.ordinal()]++;
+                return true;
+            });
+            for (ResilienceEventType type : ResilienceEventType.values()) {
+                if (counts[type.ordinal()] > 0) {
+                    ResilienceEventStats typeStats = new ResilienceEventStats();
+                    typeStats.setName(ring.getName());
+                    typeStats.setType(type.name());
+                    typeStats.setCount(counts[type.ordinal()]);
+                    typeStats.setPerSecond((double) counts[type.ordinal()] / windowSeconds);
+                    stats.add(typeStats);
+                }
+            }
+        }
+        return stats;
+    }
+
+    private static ResilienceEvent toEvent(String name, long timestampMillis, ResilienceEventType type, long value) {
+        ResilienceEvent event = new ResilienceEvent();
+        event.setName(name);
+        event.setType(type.name());
+        event.setTimestampMillis(timestampMillis);
+        event.setValue(value);
+        event.setDetail(detail(type, value));
+        return event;
+    }
+
+    private static String detail(ResilienceEventType type, long value) {
+        switch (type) {
+            case RETRY:
+                return String.format("retry after %d ms", value);
+            case RETRY_EXHAUSTED:
+                return String.format("gave up after %d attempts", value);
+            case CIRCUIT_BREAKER_TRANSITION:
+                return "transitioned to " + CircuitBreaker.State.values()[(int) value];
+            case CIRCUIT_BREAKER_ERROR:
+                return String.format("call failed after %d ms", value);
+            default:
+                return "";
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes allocated and CPU time consumed by the current thread between {@link #start()} and {@link #stop()}, summed over
+ * all requests of one endpoint and stage.
+ * <p>
+ * Uses the HotSpot {@code com.sun.management.ThreadMXBean}, which reads the allocation counter of the thread's TLAB
+ * bookkeeping, so only work done on the calling thread is accounted: the TOTAL stage covers the request thread,
+ * work on a thread pool bulkhead thread shows up in the SERVICE stage. The start values are kept in a per thread
+ * array so sampling does not allocate itself.
+ */
+class ResourceUsageRecorder {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final boolean enabled;
+    private final ThreadLocal<long[]> startValues = ThreadLocal.withInitial(() -> new long[2]);
+    final LongAdder samples = new LongAdder();
+    final LongAdder allocatedBytes = new LongAdder();
+    final LongAdder cpuNanos = new LongAdder();
+
+    ResourceUsageRecorder(boolean enabled) {
+        this.enabled = enabled && THREAD_MX_BEAN != null;
+    }
+
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        long[] start = startValues.get();
+        start[0] = THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+        start[1] = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+
+    void stop() {
+        if (!enabled) {
+            return;
+        }
+        long[] start = startValues.get();
+        allocatedBytes.add(THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) - start[0]);
+        cpuNanos.add(THREAD_MX_BEAN.getCurrentThreadCpuTime() - start[1]);
+        samples.increment();
+    }
+
+    /**
+     * @return the HotSpot ThreadMXBean with allocation and CPU time measurement enabled, null if the JVM does not
+     * support it
+     */
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean hotSpotThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!hotSpotThreadMXBean.isThreadAllocatedMemorySupported() || !hotSpotThreadMXBean.isCurrentThreadCpuTimeSupported()) {
+            return null;
+        }
+        hotSpotThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        hotSpotThreadMXBean.setThreadCpuTimeEnabled(true);
+        return hotSpotThreadMXBean;
+    }
+}
@@ -0,0 +1,188 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ContextPropagator;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.event.BulkheadEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallFinishedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallPermittedEvent;
+import io.github.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
+import io.github.resilience4j.core.EventConsumer;
+import io.github.resilience4j.core.EventProcessor;
+import io.vavr.collection.Map;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The resilience4j 1.3.1 ThreadPoolBulkhead with a pool that can be shut down. The FixedThreadPoolBulkhead of
+ * resilience4j keeps its pool until the JVM exits, so every bulkhead replaced by {@link PatternsFactory#reconfigure}
+ * would leak its threads. Sizing, events and the BulkheadFullException on a full queue are the same as resilience4j's.
+ */
+class ShutdownableThreadPoolBulkhead implements ThreadPoolBulkhead {
+    private final String name;
+    private final ThreadPoolBulkheadConfig config;
+    private final Map<String, String> tags;
+    private final ThreadPoolExecutor executor;
+    private final Metrics metrics = new BulkheadMetrics();
+    private final BulkheadEventProcessor eventProcessor = new BulkheadEventProcessor();
+
+    ShutdownableThreadPoolBulkhead(String name, ThreadPoolBulkheadConfig config, Map<String, String> tags) {
+        this.name = name;
+        this.config = config;
+        this.tags = tags;
+        this.executor = new ThreadPoolExecutor(config.getCoreThreadPoolSize(), config.getMaxThreadPoolSize(),
+                config.getKeepAliveDuration().toMillis(), TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()), new NamingThreadFactory("bulkhead-" + name));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Callable<T> callable) {
+        CompletableFuture<T> promise = new CompletableFuture<>();
+        try {
+            CompletableFuture.supplyAsync(ContextPropagator.decorateSupplier(config.getContextPropagator(), () -> {
+                try {
+                    publishBulkheadEvent(() -> new BulkheadOnCallPermittedEvent(name));
+                    return callable.call();
+                } catch (CompletionException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }), executor).whenComplete((result, throwable) -> {
+                publishBulkheadEvent(() -> new BulkheadOnCallFinishedEvent(name));
+                if (throwable != null) {
+                    promise.completeExceptionally(throwable);
+                } else {
+                    promise.complete(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            publishBulkheadEvent(() -> new BulkheadOnCallRejectedEvent(name));
+            throw BulkheadFullException.createBulkheadFullException(this);
+        }
+        return promise;
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(Runnable runnable) {
+        return submit(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting calls, queued calls still run and the threads exit once the queue is empty
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ThreadPoolBulkheadConfig getBulkheadConfig() {
+        return config;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public ThreadPoolBulkheadEventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShutdownableThreadPoolBulkhead '%s'", name);
+    }
+
+    private void publishBulkheadEvent(Supplier<BulkheadEvent> eventSupplier) {
+        if (eventProcessor.hasConsumers()) {
+            eventProcessor.consumeEvent(eventSupplier.get());
+        }
+    }
+
+    private class BulkheadMetrics implements Metrics {
+
+        @Override
+        public int getCoreThreadPoolSize() {
+            return executor.getCorePoolSize();
+        }
+
+        @Override
+        public int getThreadPoolSize() {
+            return executor.getPoolSize();
+        }
+
+        @Override
+        public int getMaximumThreadPoolSize() {
+            return executor.getMaximumPoolSize();
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return executor.getQueue().size();
+        }
+
+        @Override
+        public int getRemainingQueueCapacity() {
+            return executor.getQueue().remainingCapacity();
+        }
+
+        @Override
+        public int getQueueCapacity() {
+            return config.getQueueCapacity();
+        }
+    }
+
+    private class BulkheadEventProcessor extends EventProcessor<BulkheadEvent>
+            implements ThreadPoolBulkheadEventPublisher, EventConsumer<BulkheadEvent> {
+
+        @Override
+        public ThreadPoolBulkheadEventPublisher onCallPermitted(EventConsumer<BulkheadOnCallPermittedEvent> consumer) {
+            registerConsumer(BulkheadOnCallPermittedEvent.class.getSimpleName(), consumer);
+            return this;
+        }
+
+        @Override
+        public ThreadPoolBulkheadEventPublisher onCallRejected(EventConsumer<BulkheadOnCallRejectedEvent> consumer) {
+            registerConsumer(BulkheadOnCallRejectedEvent.class.getSimpleName(), consumer);
+            return this;
+        }
+
+        @Override
+        public ThreadPoolBulkheadEventPublisher onCallFinished(EventConsumer<BulkheadOnCallFinishedEvent> consumer) {
+            registerConsumer(BulkheadOnCallFinishedEvent.class.getSimpleName(), consumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(BulkheadEvent event) {
+            super.processEvent(event);
+        }
+    }
+}
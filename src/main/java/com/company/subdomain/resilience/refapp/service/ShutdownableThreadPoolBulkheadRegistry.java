@@ -0,0 +1,75 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.core.ConfigurationNotFoundException;
+import io.github.resilience4j.core.registry.AbstractRegistry;
+import io.vavr.collection.Array;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+
+import java.util.function.Supplier;
+
+/**
+ * ThreadPoolBulkheadRegistry creating {@link ShutdownableThreadPoolBulkhead}s, so the tagged metrics bound to the
+ * registry still see every thread pool bulkhead. Resilience4j's InMemoryThreadPoolBulkheadRegistry is final.
+ */
+class ShutdownableThreadPoolBulkheadRegistry extends AbstractRegistry<ThreadPoolBulkhead, ThreadPoolBulkheadConfig>
+        implements ThreadPoolBulkheadRegistry {
+
+    ShutdownableThreadPoolBulkheadRegistry() {
+        super(ThreadPoolBulkheadConfig.ofDefaults());
+    }
+
+    @Override
+    public Seq<ThreadPoolBulkhead> getAllBulkheads() {
+        return Array.ofAll(entryMap.values());
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name) {
+        return bulkhead(name, getDefaultConfig());
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name, Map<String, String> tags) {
+        return bulkhead(name, getDefaultConfig(), tags);
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name, ThreadPoolBulkheadConfig config) {
+        return bulkhead(name, config, HashMap.empty());
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name, ThreadPoolBulkheadConfig config,
+                                                  Map<String, String> tags) {
+        return (ShutdownableThreadPoolBulkhead) computeIfAbsent(name,
+                () -> new ShutdownableThreadPoolBulkhead(name, config, getAllTags(tags)));
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name, Supplier<ThreadPoolBulkheadConfig> configSupplier) {
+        return bulkhead(name, configSupplier, HashMap.empty());
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name, Supplier<ThreadPoolBulkheadConfig> configSupplier,
+                                                  Map<String, String> tags) {
+        return (ShutdownableThreadPoolBulkhead) computeIfAbsent(name,
+                () -> new ShutdownableThreadPoolBulkhead(name, configSupplier.get(), getAllTags(tags)));
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name, String configName) {
+        return bulkhead(name, configName, HashMap.empty());
+    }
+
+    @Override
+    public ShutdownableThreadPoolBulkhead bulkhead(String name, String configName, Map<String, String> tags) {
+        return bulkhead(name, getConfiguration(configName)
+                .orElseThrow(() -> new ConfigurationNotFoundException(configName)), tags);
+    }
+}
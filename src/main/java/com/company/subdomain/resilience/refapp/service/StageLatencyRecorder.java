@@ -0,0 +1,94 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.model.LatencyPercentiles;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one stage of one endpoint recorded into HdrHistograms.
+ * <p>
+ * Every thread records into its own SingleWriterRecorder, so recording is wait free, does not allocate once the thread
+ * recorded its first value and never contends with other threads. {@link #collect()}, run periodically by the
+ * {@link LatencyCollector}, swaps out the interval histogram of every thread recorder and merges them into the interval
+ * and cumulative views. Recorders of threads which terminated are dropped after their last values are merged.
+ * Values are recorded in microseconds between 1 µs and 1 minute with 2 significant digits.
+ */
+class StageLatencyRecorder {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final List<ThreadRecorder> threadRecorders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ThreadRecorder> threadRecorder = ThreadLocal.withInitial(this::register);
+    private final Histogram cumulative = newHistogram();
+    private Histogram interval = newHistogram();
+
+    void recordNanos(long nanos) {
+        long micros = Math.max(1, Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        threadRecorder.get().recorder.recordValue(micros);
+    }
+
+    void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    synchronized void collect() {
+        Histogram collected = newHistogram();
+        for (ThreadRecorder threadRecorder : threadRecorders) {
+            threadRecorder.recycled = threadRecorder.recorder.getIntervalHistogram(threadRecorder.recycled);
+            collected.add(threadRecorder.recycled);
+            if (!threadRecorder.owner.isAlive()) {
+                threadRecorders.remove(threadRecorder);
+            }
+        }
+        cumulative.add(collected);
+        interval = collected;
+    }
+
+    synchronized LatencyPercentiles getInterval() {
+        return percentiles(interval);
+    }
+
+    synchronized LatencyPercentiles getCumulative() {
+        return percentiles(cumulative);
+    }
+
+    private ThreadRecorder register() {
+        ThreadRecorder recorder = new ThreadRecorder(Thread.currentThread());
+        threadRecorders.add(recorder);
+        return recorder;
+    }
+
+    private static LatencyPercentiles percentiles(Histogram histogram) {
+        LatencyPercentiles percentiles = new LatencyPercentiles();
+        percentiles.setCount(histogram.getTotalCount());
+        percentiles.setP50(histogram.getValueAtPercentile(50));
+        percentiles.setP90(histogram.getValueAtPercentile(90));
+        percentiles.setP99(histogram.getValueAtPercentile(99));
+        percentiles.setP999(histogram.getValueAtPercentile(99.9));
+        percentiles.setP9999(histogram.getValueAtPercentile(99.99));
+        percentiles.setMax(histogram.getMaxValue());
+        return percentiles;
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    private static class ThreadRecorder {
+        private final Thread owner;
+        private final SingleWriterRecorder recorder =
+                new SingleWriterRecorder(1, HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        /**
+         * Only accessed by the collecting thread
+         */
+        private Histogram recycled;
+
+        ThreadRecorder(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
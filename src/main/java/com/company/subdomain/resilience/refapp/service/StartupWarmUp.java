@@ -0,0 +1,193 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.enums.ResponseFormat;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.repository.ChaosEngineeringDataRepository;
+import com.company.subdomain.resilience.refapp.util.EndpointConfig;
+import com.company.subdomain.resilience.refapp.util.RequestDeadline;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.CheckedFunction2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Once the application is started, calls every DecoratedSupplier path and encodes the responses in every
+ * {@link ResponseFormat}, so the JIT has compiled the decorator chains and Jackson has built its serializers before
+ * real traffic arrives. {@link WarmUpHealthIndicator} keeps the readiness health group OUT_OF_SERVICE until then.
+ * <p>
+ * The calls go to a separate DecoratedSupplier with its own resilience instances and metrics and a
+ * {@link WarmUpOfferingsDataService}, so the circuit breaker windows, rate limiter permits, metrics and events of the
+ * application are untouched. The factory is created with a shortened retry backoff and a lifted rate limit, so the
+ * warm-up does not wait from its first call.
+ */
+@Component
+class StartupWarmUp implements ApplicationListener<ApplicationReadyEvent> {
+    private static Logger LOGGER = LoggerFactory.getLogger(StartupWarmUp.class);
+    /**
+     * Every FAILURE_INTERVAL-th call fails so the retry, fallback and open circuit paths get compiled too
+     */
+    private static final int FAILURE_INTERVAL = 20;
+
+    private final YMLConfig ymlConfig;
+    private final SchedulingClock clock;
+    private final ChaosEngineeringDataRepository repository;
+    private final EncodedResponseCache encodedResponseCache;
+    private final PatternsFactory patternsFactory;
+    private final boolean enabled;
+    private final int iterations;
+    private volatile boolean complete;
+    private volatile long durationMillis;
+    private volatile PatternsFactory warmUpPatterns;
+
+    StartupWarmUp(YMLConfig ymlConfig, SchedulingClock clock, ChaosEngineeringDataRepository repository,
+                  EncodedResponseCache encodedResponseCache, PatternsFactory patternsFactory,
+                  @Value("${patterns.warmUp.enabled}") boolean enabled,
+                  @Value("${patterns.warmUp.iterations}") int iterations) {
+        this.ymlConfig = ymlConfig;
+        this.clock = clock;
+        this.repository = repository;
+        this.encodedResponseCache = encodedResponseCache;
+        this.patternsFactory = patternsFactory;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.complete = !enabled;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            LOGGER.info("Startup warm-up disabled");
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "startup-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return the patterns factory of the latest warm-up, null if none ran
+     */
+    PatternsFactory getWarmUpPatterns() {
+        return warmUpPatterns;
+    }
+
+    void warmUp() {
+        long startNanos = System.nanoTime();
+        PatternsFactory warmUpPatterns = null;
+        try {
+            //the keyed circuit breakers of the application are created on first use, one per ProductType
+            for (ProductType productType : ProductType.values()) {
+                patternsFactory.keyedCircuitBreakers.get(productType.name());
+            }
+            warmUpPatterns = new PatternsFactory(ymlConfig, new SimpleMeterRegistry(), clock, warmUpOverrides());
+            this.warmUpPatterns = warmUpPatterns;
+            DecoratedSupplier decoratedSupplier = new DecoratedSupplier(
+                    new WarmUpOfferingsDataService(repository.getSampleDataFromRepository()), warmUpPatterns,
+                    new ResilienceEventStore(16), clock);
+            Map<String, CheckedFunction2<Integer, Boolean, MockDataServiceResponse>> calls = calls(decoratedSupplier);
+            ExecutorService executor = Executors.newFixedThreadPool(calls.size());
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                calls.forEach((path, call) -> futures.add(executor.submit(() -> run(path, call))));
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Startup warm-up failed, reporting ready anyway", e);
+        } finally {
+            if (warmUpPatterns != null) {
+                warmUpPatterns.shutdown();
+            }
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            complete = true;
+        }
+        LOGGER.warn("Startup warm-up of {} iterations per path completed in {} ms", iterations, durationMillis);
+    }
+
+    private void run(String path, CheckedFunction2<Integer, Boolean, MockDataServiceResponse> call) {
+        for (int i = 0; i < iterations; i++) {
+            try {
+                MockDataServiceResponse response = call.apply(i, i % FAILURE_INTERVAL == FAILURE_INTERVAL - 1);
+                if (response != null) {
+                    encodedResponseCache.encode(response, ResponseFormat.values()[i % ResponseFormat.values().length]);
+                }
+            } catch (Throwable throwable) {
+                LOGGER.debug("Warm-up call {} failed: {}", path, throwable.getMessage());
+            }
+        }
+    }
+
+    static Map<String, EndpointConfig> warmUpOverrides() {
+        EndpointConfig overrides = new EndpointConfig();
+        overrides.setInitialIntervalMillis(10);
+        overrides.setMultiplier(1);
+        overrides.setLimitForPeriod(Integer.MAX_VALUE);
+        Map<String, EndpointConfig> endpoints = new HashMap<>();
+        for (String endpoint : PatternsFactory.ENDPOINTS) {
+            endpoints.put(endpoint, overrides);
+        }
+        return endpoints;
+    }
+
+    /**
+     * Every public call path of DecoratedSupplier, by iteration and whether the service should fail
+     */
+    private Map<String, CheckedFunction2<Integer, Boolean, MockDataServiceResponse>> calls(DecoratedSupplier supplier) {
+        ProductType[] productTypes = ProductType.values();
+        Map<String, CheckedFunction2<Integer, Boolean, MockDataServiceResponse>> calls = new LinkedHashMap<>();
+        calls.put("retry", (i, fail) -> supplier.callRetryDecoratedService(fail));
+        calls.put("retryWithFallback", (i, fail) -> supplier.callRetryDecoratedServiceWithFallBack(fail));
+        calls.put("circuitBreaker", (i, fail) -> supplier.callCircuitBreakerDecoratedService(fail));
+        calls.put("simpleCircuitBreaker", (i, fail) -> supplier.callSimpleCircuitBreakerDecoratedService(fail));
+        calls.put("rateLimiter", (i, fail) -> supplier.callRateLimiterDecoratedService(fail));
+        calls.put("timeLimiter", (i, fail) -> supplier.callTimeLimiterDecoratedService(fail));
+        calls.put("bulkhead", (i, fail) -> supplier.callBulkheadDecoratedService(fail));
+        calls.put("simpleBulkhead", (i, fail) -> supplier.callSimpleBulkheadDecoratedService(fail));
+        calls.put("threadPoolBulkheadAndTimeLimiter",
+                (i, fail) -> supplier.callThreadPoolBulkheadAndTimeLimiterDecoratedService(fail));
+        calls.put("bulkheadAndRetry", (i, fail) -> supplier.callBulkheadAndRetryDecoratedService(fail));
+        calls.put("degrading", (i, fail) -> supplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(fail));
+        calls.put("degradingWithDeadline", (i, fail) -> supplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(
+                fail, RequestDeadline.fromTimeoutMillis(5000L, clock)));
+        calls.put("scatterGather", (i, fail) -> supplier.callScatterGatherDecoratedService(RequestDeadline.none()));
+        calls.put("semaphoreBulkhead", (i, fail) -> supplier.callSemaphoreBulkheadDecoratedService(
+                String.valueOf(i % 100), fail));
+        calls.put("keyedCircuitBreaker", (i, fail) -> supplier.callKeyedCircuitBreakerDecoratedService(
+                productTypes[i % productTypes.length], fail));
+        calls.put("keyedSemaphoreBulkhead", (i, fail) -> supplier.callKeyedSemaphoreBulkheadDecoratedService(
+                String.valueOf(i % 100), fail));
+        return calls;
+    }
+}
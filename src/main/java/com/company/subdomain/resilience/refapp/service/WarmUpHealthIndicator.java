@@ -0,0 +1,30 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * OUT_OF_SERVICE until {@link StartupWarmUp} completes, the readiness health group (/actuator/health/readiness) includes
+ * it so load balancers only route traffic to warmed up instances
+ */
+@Component
+class WarmUpHealthIndicator implements HealthIndicator {
+    private final StartupWarmUp startupWarmUp;
+
+    WarmUpHealthIndicator(StartupWarmUp startupWarmUp) {
+        this.startupWarmUp = startupWarmUp;
+    }
+
+    @Override
+    public Health health() {
+        if (!startupWarmUp.isComplete()) {
+            return Health.outOfService()
+                    .withDetail("iterations", startupWarmUp.getIterations())
+                    .build();
+        }
+        return Health.up()
+                .withDetail("durationMillis", startupWarmUp.getDurationMillis())
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.exception.TemporaryServiceOutageException;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Answers like OfferingsDataServiceImpl, including its exceptions, from offerings fetched once and without latency or
+ * injected faults, see {@link StartupWarmUp}
+ */
+class WarmUpOfferingsDataService implements OfferingsDataService {
+    private final List<Offering> offerings;
+
+    WarmUpOfferingsDataService(List<Offering> offerings) {
+        this.offerings = offerings;
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsForRetry(Boolean throwException) throws TemporaryServiceOutageException {
+        return getMockOfferings(throwException);
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferings(Boolean throwException) throws TemporaryServiceOutageException {
+        if (throwException) {
+            throw new TemporaryServiceOutageException("TemporaryServiceOutageException thrown from warm-up service");
+        }
+        return response(offerings);
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(boolean throwException) throws ChaosEngineeringRuntimeException {
+        failIf(throwException);
+        return response(offerings);
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(String id, boolean throwException) throws ChaosEngineeringRuntimeException {
+        failIf(throwException);
+        return response(offerings.stream()
+                .filter(offering -> id.equals(offering.getOfferId()))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public MockDataServiceResponse getMockOfferingsDataFromService(ProductType productType, boolean throwException) throws ChaosEngineeringRuntimeException {
+        failIf(throwException);
+        return response(offerings.stream()
+                .filter(offering -> productType == offering.getProductType())
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public MockDataServiceResponse getDegradedMockOfferings(boolean throwException) throws ChaosEngineeringRuntimeException {
+        failIf(throwException);
+        return response(offerings.stream()
+                .map(offering -> {
+                    Offering newInstance = new Offering();
+                    newInstance.setOfferId(offering.getOfferId());
+                    return newInstance;
+                }).collect(Collectors.toList()));
+    }
+
+    @Override
+    public OfferingsSnapshot getOfferingsFromSource(OfferingSource source) throws ChaosEngineeringRuntimeException {
+        return new OfferingsSnapshot(0, offerings);
+    }
+
+    @Override
+    public long getSnapshotVersion() {
+        return 0;
+    }
+
+    private static void failIf(boolean throwException) {
+        if (throwException) {
+            throw new ChaosEngineeringRuntimeException("Something went wrong!!");
+        }
+    }
+
+    private static MockDataServiceResponse response(List<Offering> offerings) {
+        MockDataServiceResponse response = new MockDataServiceResponse();
+        response.setData(offerings);
+        response.setHostedRegion("");
+        return response;
+    }
+}
@@ -0,0 +1,227 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Yield to maturity, yield to worst, modified duration and convexity of a {@link BondUniverse}, computed in parallel
+ * over batches of rows on a ForkJoinPool. Only the rows whose terms or quote changed since the previous compute are
+ * recomputed.
+ * <p>
+ * Bonds pay coupon / 2 every six months on a schedule ending at maturity, so the current period is the part of a
+ * period by which the years to maturity exceed a whole number of periods, and its accrued coupon is added to the clean
+ * price. Yields are semiannually compounded and solved by Newton's method, falling back to bisection within the
+ * bracket where the step leaves it. A callable bond is assumed callable at par on every coupon date from its first call
+ * date. The yield to a par call is monotonic in the call date, so the worst yield is either the yield to the first call
+ * or the yield to maturity.
+ */
+@Component
+public class BondAnalyticsEngine {
+    private static final double MIN_YIELD = -0.99;
+    private static final double MAX_YIELD = 20;
+    private static final double YIELD_TOLERANCE = 1e-12;
+    private static final int MAX_ITERATIONS = 100;
+
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final double callProtectionYears;
+
+    @Autowired
+    public BondAnalyticsEngine(@Value("${patterns.analytics.callProtectionYears}") double callProtectionYears) {
+        this(ForkJoinPool.commonPool(), 4096, callProtectionYears);
+    }
+
+    /**
+     * @param batchSize rows computed by one fork-join task
+     */
+    public BondAnalyticsEngine(ForkJoinPool pool, int batchSize, double callProtectionYears) {
+        this.pool = pool;
+        this.batchSize = Math.max(1, batchSize);
+        this.callProtectionYears = callProtectionYears;
+    }
+
+    /**
+     * @return the number of rows recomputed
+     */
+    public int compute(BondUniverse universe) {
+        return pool.invoke(new Batch(universe, 0, universe.size));
+    }
+
+    /**
+     * @return the years to the first coupon date at least callProtectionYears away, NaN if there is no coupon date
+     * between it and maturity
+     */
+    public double firstCallYears(double yearsToMaturity) {
+        double periodsBeforeMaturity = Math.floor((yearsToMaturity - callProtectionYears) * 2);
+        return periodsBeforeMaturity >= 1 ? yearsToMaturity - periodsBeforeMaturity / 2 : Double.NaN;
+    }
+
+    /**
+     * @return the clean price in percent of par of a bond redeemed at par after years, at a yield in percent
+     */
+    public static double price(double coupon, double years, double yield) {
+        int periods = periods(years);
+        double elapsed = periods - years * 2;
+        return dirtyPrice(coupon / 2, periods, elapsed, yield / 100, null) - coupon / 2 * elapsed;
+    }
+
+    /**
+     * @return the yield in percent at which a bond redeemed at par after years is worth the clean price, NaN if none is
+     * within the bracket
+     */
+    public static double yieldFromPrice(double coupon, double years, double cleanPrice) {
+        if (!(years > 0) || !(cleanPrice > 0)) {
+            return Double.NaN;
+        }
+        int periods = periods(years);
+        double elapsed = periods - years * 2;
+        double couponPayment = coupon / 2;
+        double target = cleanPrice + couponPayment * elapsed;
+
+        double low = MIN_YIELD;
+        double high = MAX_YIELD;
+        //price falls with the yield
+        if (dirtyPrice(couponPayment, periods, elapsed, low, null) < target
+                || dirtyPrice(couponPayment, periods, elapsed, high, null) > target) {
+            return Double.NaN;
+        }
+        //current yield plus the pull to par as the first guess
+        double y = Math.min(high, Math.max(low, (coupon + (100 - cleanPrice) / years) / ((100 + cleanPrice) / 2)));
+        double[] derivative = new double[1];
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double difference = dirtyPrice(couponPayment, periods, elapsed, y, derivative) - target;
+            if (difference > 0) {
+                low = y;
+            } else {
+                high = y;
+            }
+            double next = y - difference / derivative[0];
+            if (!(next > low && next < high)) {
+                next = (low + high) / 2;
+            }
+            if (Math.abs(next - y) < YIELD_TOLERANCE) {
+                return next * 100;
+            }
+            y = next;
+        }
+        return y * 100;
+    }
+
+    private static void computeRow(BondUniverse universe, int row, double[] measures) {
+        double coupon = universe.coupon[row];
+        double years = universe.yearsToMaturity[row];
+        double callYears = universe.yearsToCall[row];
+
+        double bidYtm = yieldFromPrice(coupon, years, universe.bidPrice[row]);
+        double askYtm = yieldFromPrice(coupon, years, universe.askPrice[row]);
+        universe.bidYtm[row] = bidYtm;
+        universe.askYtm[row] = askYtm;
+        universe.bidYtw[row] = worst(bidYtm, callYears < years ? yieldFromPrice(coupon, callYears, universe.bidPrice[row]) : Double.NaN);
+        universe.askYtw[row] = worst(askYtm, callYears < years ? yieldFromPrice(coupon, callYears, universe.askPrice[row]) : Double.NaN);
+
+        if (Double.isNaN(askYtm)) {
+            universe.duration[row] = Double.NaN;
+            universe.convexity[row] = Double.NaN;
+        } else {
+            riskMeasures(coupon, years, askYtm / 100, measures);
+            universe.duration[row] = measures[0];
+            universe.convexity[row] = measures[1];
+        }
+    }
+
+    private static double worst(double toMaturity, double toCall) {
+        return Double.isNaN(toCall) ? toMaturity : Math.min(toMaturity, toCall);
+    }
+
+    /**
+     * Sets measures to the modified duration in years and the convexity in years squared at the yield
+     */
+    private static void riskMeasures(double coupon, double years, double yield, double[] measures) {
+        int periods = periods(years);
+        double elapsed = periods - years * 2;
+        double couponPayment = coupon / 2;
+        double discount = 1 / (1 + yield / 2);
+        double factor = Math.pow(discount, 1 - elapsed);
+        double price = 0;
+        double weightedTime = 0;
+        double weightedConvexity = 0;
+        for (int k = 1; k <= periods; k++) {
+            double time = k - elapsed;
+            double cashFlow = k == periods ? couponPayment + 100 : couponPayment;
+            double presentValue = cashFlow * factor;
+            price += presentValue;
+            weightedTime += time * presentValue;
+            weightedConvexity += time * (time + 1) * presentValue;
+            factor *= discount;
+        }
+        //in periods, then in years
+        measures[0] = weightedTime / price * discount / 2;
+        measures[1] = weightedConvexity / price * discount * discount / 4;
+    }
+
+    /**
+     * @param elapsed part of the current coupon period already gone, the first coupon is 1 - elapsed periods away
+     * @param derivative if not null, set to the derivative of the price by the yield
+     */
+    private static double dirtyPrice(double couponPayment, int periods, double elapsed, double yield, double[] derivative) {
+        double discount = 1 / (1 + yield / 2);
+        double factor = Math.pow(discount, 1 - elapsed);
+        double price = 0;
+        double weightedTime = 0;
+        for (int k = 1; k <= periods; k++) {
+            double cashFlow = k == periods ? couponPayment + 100 : couponPayment;
+            double presentValue = cashFlow * factor;
+            price += presentValue;
+            weightedTime += (k - elapsed) * presentValue;
+            factor *= discount;
+        }
+        if (derivative != null) {
+            derivative[0] = -weightedTime * discount / 2;
+        }
+        return price;
+    }
+
+    private static int periods(double years) {
+        return Math.max(1, (int) Math.ceil(years * 2 - 1e-9));
+    }
+
+    private final class Batch extends RecursiveTask<Integer> {
+        private final BondUniverse universe;
+        private final int from;
+        private final int to;
+
+        Batch(BondUniverse universe, int from, int to) {
+            this.universe = universe;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from > batchSize) {
+                int middle = (from + to) >>> 1;
+                Batch left = new Batch(universe, from, middle);
+                left.fork();
+                int right = new Batch(universe, middle, to).compute();
+                return left.join() + right;
+            }
+            double[] measures = new double[2];
+            int computed = 0;
+            byte[] state = universe.state;
+            for (int row = from; row < to; row++) {
+                if (state[row] == BondUniverse.DIRTY) {
+                    computeRow(universe, row, measures);
+                    state[row] = BondUniverse.UPDATED;
+                    computed++;
+                } else if (state[row] == BondUniverse.UPDATED) {
+                    state[row] = BondUniverse.CLEAN;
+                }
+            }
+            return computed;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import java.util.Arrays;
+
+/**
+ * The inputs and analytics of a universe of fixed coupon bonds in primitive arrays, one row per bond, for
+ * {@link BondAnalyticsEngine} to compute in bulk without an object per bond.
+ * <p>
+ * Setting the terms or quote of a row marks it for recomputation only if a value changed, so a compute after a partial
+ * requote recomputes the requoted rows. After a compute, {@link #isUpdated(int)} tells which rows it recomputed.
+ * A universe has a single writer: rows are set and computed from one thread at a time.
+ */
+public class BondUniverse {
+    static final byte CLEAN = 0;
+    static final byte DIRTY = 1;
+    static final byte UPDATED = 2;
+
+    final int size;
+    /**
+     * Annual coupon in percent of par, paid semiannually
+     */
+    final double[] coupon;
+    final double[] yearsToMaturity;
+    /**
+     * Years to the first date the bond is callable at par, NaN if it is not callable
+     */
+    final double[] yearsToCall;
+    /**
+     * Clean prices in percent of par, NaN if the side is not quoted
+     */
+    final double[] bidPrice;
+    final double[] askPrice;
+
+    /**
+     * Yields in percent, NaN when there is no quote or no yield matches the price
+     */
+    final double[] bidYtm;
+    final double[] bidYtw;
+    final double[] askYtm;
+    final double[] askYtw;
+    /**
+     * Modified duration in years and convexity in years squared at the ask yield to maturity
+     */
+    final double[] duration;
+    final double[] convexity;
+
+    final byte[] state;
+
+    public BondUniverse(int size) {
+        this.size = size;
+        coupon = nans(size);
+        yearsToMaturity = nans(size);
+        yearsToCall = nans(size);
+        bidPrice = nans(size);
+        askPrice = nans(size);
+        bidYtm = nans(size);
+        bidYtw = nans(size);
+        askYtm = nans(size);
+        askYtw = nans(size);
+        duration = nans(size);
+        convexity = nans(size);
+        state = new byte[size];
+        Arrays.fill(state, DIRTY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setTerms(int row, double coupon, double yearsToMaturity, double yearsToCall) {
+        if (changed(this.coupon, row, coupon) | changed(this.yearsToMaturity, row, yearsToMaturity)
+                | changed(this.yearsToCall, row, yearsToCall)) {
+            state[row] = DIRTY;
+        }
+    }
+
+    public void setQuote(int row, double bidPrice, double askPrice) {
+        if (changed(this.bidPrice, row, bidPrice) | changed(this.askPrice, row, askPrice)) {
+            state[row] = DIRTY;
+        }
+    }
+
+    /**
+     * @return true if the latest compute recomputed the row
+     */
+    public boolean isUpdated(int row) {
+        return state[row] == UPDATED;
+    }
+
+    public double getBidYtm(int row) {
+        return bidYtm[row];
+    }
+
+    public double getBidYtw(int row) {
+        return bidYtw[row];
+    }
+
+    public double getAskYtm(int row) {
+        return askYtm[row];
+    }
+
+    public double getAskYtw(int row) {
+        return askYtw[row];
+    }
+
+    public double getDuration(int row) {
+        return duration[row];
+    }
+
+    public double getConvexity(int row) {
+        return convexity[row];
+    }
+
+    private static boolean changed(double[] values, int row, double value) {
+        //compare, unlike ==, finds NaN equal to NaN
+        if (Double.compare(values[row], value) == 0) {
+            return false;
+        }
+        values[row] = value;
+        return true;
+    }
+
+    private static double[] nans(int size) {
+        double[] values = new double[size];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+}
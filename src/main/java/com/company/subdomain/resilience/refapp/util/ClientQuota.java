@@ -0,0 +1,17 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.company.subdomain.resilience.refapp.enums.RequestPriority;
+import lombok.Data;
+
+/**
+ * Priority and token bucket quota of a client, bound from patterns.loadShedding.clients.&lt;clientId&gt;
+ */
+@Data
+public class ClientQuota {
+    private RequestPriority priority = RequestPriority.NORMAL;
+    private int tokensPerSecond;
+    /**
+     * Maximum number of tokens the bucket holds, i.e. the largest burst the client may send at once
+     */
+    private int burst;
+}
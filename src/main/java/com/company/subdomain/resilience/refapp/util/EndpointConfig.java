@@ -0,0 +1,55 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import lombok.Data;
+
+/**
+ * Resilience settings of a single DecoratedController endpoint, bound from patterns.endpoints.&lt;endpoint&gt;.
+ * Every value is optional, a missing value falls back to the global value under patterns.config.
+ */
+@Data
+public class EndpointConfig {
+    //retry
+    private Integer initialIntervalMillis;
+    private Integer multiplier;
+    private Integer maxAttempts;
+    //timeLimiter
+    private Integer waitTimeDuration;
+    //circuitBreaker
+    private Integer failureRateThreshold;
+    private Integer waitDurationInOpenState;
+    private Integer permittedNumberOfCallsInHalfOpenState;
+    private Integer slidingWindowSize;
+    //bulkhead
+    private Integer numberOfThreads;
+    private Integer queueCapacity;
+    //rateLimiter
+    private Integer limitForPeriod;
+    private Integer windowInMilliseconds;
+    private Integer waitTimeForThread;
+
+    /**
+     * @return a copy of this config where every value set in the overrides replaces the value of this config
+     */
+    public EndpointConfig withOverrides(EndpointConfig overrides) {
+        EndpointConfig merged = new EndpointConfig();
+        merged.setInitialIntervalMillis(orElse(overrides.getInitialIntervalMillis(), initialIntervalMillis));
+        merged.setMultiplier(orElse(overrides.getMultiplier(), multiplier));
+        merged.setMaxAttempts(orElse(overrides.getMaxAttempts(), maxAttempts));
+        merged.setWaitTimeDuration(orElse(overrides.getWaitTimeDuration(), waitTimeDuration));
+        merged.setFailureRateThreshold(orElse(overrides.getFailureRateThreshold(), failureRateThreshold));
+        merged.setWaitDurationInOpenState(orElse(overrides.getWaitDurationInOpenState(), waitDurationInOpenState));
+        merged.setPermittedNumberOfCallsInHalfOpenState(orElse(overrides.getPermittedNumberOfCallsInHalfOpenState(),
+                permittedNumberOfCallsInHalfOpenState));
+        merged.setSlidingWindowSize(orElse(overrides.getSlidingWindowSize(), slidingWindowSize));
+        merged.setNumberOfThreads(orElse(overrides.getNumberOfThreads(), numberOfThreads));
+        merged.setQueueCapacity(orElse(overrides.getQueueCapacity(), queueCapacity));
+        merged.setLimitForPeriod(orElse(overrides.getLimitForPeriod(), limitForPeriod));
+        merged.setWindowInMilliseconds(orElse(overrides.getWindowInMilliseconds(), windowInMilliseconds));
+        merged.setWaitTimeForThread(orElse(overrides.getWaitTimeForThread(), waitTimeForThread));
+        return merged;
+    }
+
+    private static Integer orElse(Integer value, Integer other) {
+        return value != null ? value : other;
+    }
+}
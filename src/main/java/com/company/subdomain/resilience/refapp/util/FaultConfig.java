@@ -0,0 +1,19 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import lombok.Data;
+
+/**
+ * Errors and latency injected into every call of a FaultTarget while the fault is active
+ */
+@Data
+public class FaultConfig {
+    /**
+     * Share of calls (0..1) failing with a ChaosEngineeringRuntimeException
+     */
+    private double errorRate;
+    private long latencyMillis;
+    /**
+     * Added latency is uniformly distributed between latencyMillis and latencyMillis + latencyJitterMillis
+     */
+    private long latencyJitterMillis;
+}
@@ -0,0 +1,108 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Injects errors and latency into the repository and service calls on behalf of a chaos scenario, inactive unless a
+ * fault is set.
+ * <p>
+ * Reproducible across runs: whether the n-th call of a target fails and how much latency it gets is a hash of the seed
+ * and n rather than a draw from a shared Random, so the same seed yields the same fault sequence however the request
+ * threads interleave, and injection does not contend on a Random.
+ */
+@Component
+public class FaultInjector {
+    private static Logger LOGGER = LoggerFactory.getLogger(FaultInjector.class);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final Map<FaultTarget, ActiveFault> faults = new EnumMap<>(FaultTarget.class);
+    private final SchedulingClock clock;
+
+    public FaultInjector(SchedulingClock clock) {
+        this.clock = clock;
+        for (FaultTarget target : FaultTarget.values()) {
+            faults.put(target, new ActiveFault());
+        }
+    }
+
+    /**
+     * Replaces the fault of the target and restarts its call sequence
+     */
+    public void setFault(FaultTarget target, FaultConfig fault, long seed) {
+        ActiveFault activeFault = faults.get(target);
+        activeFault.calls.set(0);
+        activeFault.seed = seed ^ ((long) target.ordinal() * GOLDEN_GAMMA);
+        activeFault.config = fault;
+        LOGGER.info("Injecting {} into {} with seed {}", fault, target, seed);
+    }
+
+    public void clearFault(FaultTarget target) {
+        faults.get(target).config = null;
+    }
+
+    public void clearFaults() {
+        for (FaultTarget target : FaultTarget.values()) {
+            clearFault(target);
+        }
+    }
+
+    /**
+     * @return calls of the target since its fault was last set, calls without an active fault are not counted
+     */
+    public long getCalls(FaultTarget target) {
+        return faults.get(target).calls.get();
+    }
+
+    /**
+     * Sleeps and throws as the active fault of the target dictates, returns immediately if none is set
+     *
+     * @throws ChaosEngineeringRuntimeException for the share of calls given by the error rate
+     */
+    public void inject(FaultTarget target) {
+        ActiveFault activeFault = faults.get(target);
+        FaultConfig fault = activeFault.config;
+        if (fault == null) {
+            return;
+        }
+        long call = activeFault.calls.getAndIncrement();
+        long random = mix(activeFault.seed + call * GOLDEN_GAMMA);
+        long latencyMillis = fault.getLatencyMillis();
+        if (fault.getLatencyJitterMillis() > 0) {
+            latencyMillis += (random >>> 32) % (fault.getLatencyJitterMillis() + 1);
+        }
+        if (latencyMillis > 0) {
+            try {
+                clock.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        //53 low bits as a uniform double in [0, 1)
+        if ((random & ((1L << 53) - 1)) * 0x1.0p-53 < fault.getErrorRate()) {
+            throw new ChaosEngineeringRuntimeException("Fault injected into " + target + " call " + call);
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static class ActiveFault {
+        final AtomicLong calls = new AtomicLong();
+        volatile long seed;
+        volatile FaultConfig config;
+    }
+}
@@ -0,0 +1,150 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point decimals held as a scaled {@code long}: the value 101.25 at scale 4 is the long 1012500. The scale is
+ * fixed per field, see {@link FixedPointScale}, so it is not stored with the value and a decimal field costs 8 bytes
+ * and no allocation, where a {@code BigDecimal} built from a double is an object, a BigInteger and a 50 digit
+ * magnitude.
+ * <p>
+ * Rounding is half up, to the scale of the result. Arithmetic on a value which does not fit in a long throws an
+ * ArithmeticException, as the exact methods of Math do. {@link #NONE} stands for a missing value and is no number.
+ */
+public final class FixedPoint {
+    /**
+     * A missing value, written as null
+     */
+    public static final long NONE = Long.MIN_VALUE;
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    public static long of(double value, int scale) {
+        double scaled = value * powerOfTen(scale);
+        if (Double.isNaN(scaled) || Math.abs(scaled) >= 0x1p63) {
+            throw new ArithmeticException("Out of the fixed point range at scale " + scale + ": " + value);
+        }
+        //Math.round rounds half towards positive infinity
+        return (long) (scaled < 0 ? -Math.floor(-scaled + 0.5) : Math.floor(scaled + 0.5));
+    }
+
+    public static long of(BigDecimal value, int scale) {
+        if (value == null) {
+            return NONE;
+        }
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long parse(String value, int scale) {
+        return of(new BigDecimal(value), scale);
+    }
+
+    public static BigDecimal toBigDecimal(long value, int scale) {
+        return value == NONE ? null : BigDecimal.valueOf(value, scale);
+    }
+
+    /**
+     * @return the nearest double, exact for the values of a few significant digits prices and yields have
+     */
+    public static double toDouble(long value, int scale) {
+        return requirePresent(value) / (double) powerOfTen(scale);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(requirePresent(a), requirePresent(b));
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(requirePresent(a), requirePresent(b));
+    }
+
+    public static long multiply(long a, int aScale, long b, int bScale, int scale) {
+        return rescale(Math.multiplyExact(requirePresent(a), requirePresent(b)), aScale + bScale, scale);
+    }
+
+    public static long divide(long a, int aScale, long b, int bScale, int scale) {
+        requirePresent(a);
+        if (requirePresent(b) == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        //a / b is at scale aScale - bScale, move a so that the quotient comes out at scale
+        int shift = scale - aScale + bScale;
+        if (shift >= 0) {
+            return divideHalfUp(Math.multiplyExact(a, powerOfTen(shift)), b);
+        }
+        return divideHalfUp(a, Math.multiplyExact(b, powerOfTen(-shift)));
+    }
+
+    public static long rescale(long value, int fromScale, int toScale) {
+        requirePresent(value);
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(value, powerOfTen(toScale - fromScale));
+        }
+        return divideHalfUp(value, powerOfTen(fromScale - toScale));
+    }
+
+    /**
+     * @return the plain decimal representation with exactly scale fraction digits, e.g. 101.250000 at scale 6
+     */
+    public static String toString(long value, int scale) {
+        if (value == NONE) {
+            return "null";
+        }
+        powerOfTen(scale);
+        char[] buffer = new char[21 + scale];
+        int position = buffer.length;
+        //negative digits so that Long.MIN_VALUE + 1 .. Long.MAX_VALUE all have a magnitude
+        long remaining = value < 0 ? value : -value;
+        for (int i = 0; i < scale; i++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        if (scale > 0) {
+            buffer[--position] = '.';
+        }
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            buffer[--position] = '-';
+        }
+        return new String(buffer, position, buffer.length - position);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        //remainder >= |divisor| - remainder is remainder * 2 >= |divisor| without the overflow
+        if (remainder != 0 && remainder >= Math.abs(divisor) - remainder) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    private static long powerOfTen(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+        return POWERS_OF_TEN[scale];
+    }
+
+    private static long requirePresent(long value) {
+        if (value == NONE) {
+            throw new IllegalArgumentException("No arithmetic on a missing fixed point value");
+        }
+        return value;
+    }
+}
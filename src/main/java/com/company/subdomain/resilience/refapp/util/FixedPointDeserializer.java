@@ -0,0 +1,50 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a decimal number, or its text, into a {@link FixedPointScale} field, rounded half up to the scale of the field
+ */
+public class FixedPointDeserializer extends StdDeserializer<Long> implements ContextualDeserializer {
+    private final int scale;
+
+    public FixedPointDeserializer() {
+        this(0);
+    }
+
+    private FixedPointDeserializer(int scale) {
+        super(Long.class);
+        this.scale = scale;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property) {
+        FixedPointScale fixedPointScale = property == null ? null : property.getAnnotation(FixedPointScale.class);
+        return fixedPointScale == null ? this : new FixedPointDeserializer(fixedPointScale.value());
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return FixedPoint.of(parser.getDecimalValue(), scale);
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return FixedPoint.parse(parser.getText().trim(), scale);
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+
+    @Override
+    public Long getNullValue(DeserializationContext context) {
+        return FixedPoint.NONE;
+    }
+}
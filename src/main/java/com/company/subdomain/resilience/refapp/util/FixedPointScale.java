@@ -0,0 +1,23 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a long field as a {@link FixedPoint} decimal of the given scale, written and read by Jackson as the decimal
+ * number, e.g. 101.25 for 1012500 at scale 4
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = FixedPointSerializer.class)
+@JsonDeserialize(using = FixedPointDeserializer.class)
+public @interface FixedPointScale {
+    int value();
+}
@@ -0,0 +1,44 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link FixedPointScale} field as the decimal number it holds. Text formats get the digits without a
+ * BigDecimal in between, binary ones (Smile, CBOR) a BigDecimal they encode natively.
+ */
+public class FixedPointSerializer extends StdSerializer<Long> implements ContextualSerializer {
+    private final int scale;
+
+    public FixedPointSerializer() {
+        this(0);
+    }
+
+    private FixedPointSerializer(int scale) {
+        super(Long.class);
+        this.scale = scale;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+        FixedPointScale fixedPointScale = property == null ? null : property.getAnnotation(FixedPointScale.class);
+        return fixedPointScale == null ? this : new FixedPointSerializer(fixedPointScale.value());
+    }
+
+    @Override
+    public void serialize(Long value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (value == FixedPoint.NONE) {
+            generator.writeNull();
+        } else if (generator.canWriteFormattedNumbers()) {
+            generator.writeNumber(FixedPoint.toString(value, scale));
+        } else {
+            generator.writeNumber(FixedPoint.toBigDecimal(value, scale));
+        }
+    }
+}
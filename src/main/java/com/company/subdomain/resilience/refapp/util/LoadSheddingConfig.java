@@ -0,0 +1,28 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.company.subdomain.resilience.refapp.enums.RequestPriority;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load shedding settings bound from patterns.loadShedding
+ */
+@Data
+public class LoadSheddingConfig {
+    private boolean enabled = true;
+    /**
+     * Known clients, clients sending an unknown X-Client-Id share the default quota below
+     */
+    private Map<String, ClientQuota> clients = new HashMap<>();
+    private RequestPriority defaultPriority = RequestPriority.NORMAL;
+    private int defaultTokensPerSecond = 50;
+    private int defaultBurst = 100;
+    /**
+     * Bulkhead utilisation (0..1) from which BATCH and NORMAL requests are shed, CRITICAL requests are never shed for
+     * saturation
+     */
+    private double batchSheddingUtilisation = 0.5;
+    private double normalSheddingUtilisation = 0.9;
+}
@@ -0,0 +1,33 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Tasks submitted to a thread pool of the application, see {@link SchedulingClock#trackPool(java.util.function.IntSupplier)}.
+ * A clock which only moves when the application is idle needs to know about tasks waiting in the queue of a pool with
+ * an idle thread, the thread taking them is not runnable yet.
+ */
+public interface PooledTasks {
+    /**
+     * For clocks whose time passes on its own
+     */
+    PooledTasks UNTRACKED = new PooledTasks() {
+        @Override
+        public <T> Task<T> task(Supplier<T> supplier) {
+            return supplier::get;
+        }
+    };
+
+    /**
+     * @return the task to submit to the pool in place of the supplier, counted as waiting until a pool thread runs it
+     */
+    <T> Task<T> task(Supplier<T> supplier);
+
+    interface Task<T> extends Supplier<T> {
+        /**
+         * Stops counting a task the pool rejected or dropped without running it, does nothing once the task started
+         */
+        default void abandon() {
+        }
+    }
+}
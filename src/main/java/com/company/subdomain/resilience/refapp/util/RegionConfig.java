@@ -0,0 +1,30 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Simulated multi-region deployment bound from patterns.regions
+ */
+@Data
+public class RegionConfig {
+    /**
+     * Region the application runs in, preferred as long as its circuit breaker is closed
+     */
+    private String local;
+    /**
+     * Round trip from the local region to every region, the local one included, remote regions are failed over to in
+     * the order of this latency
+     */
+    private Map<String, Long> latencyMillis = new LinkedHashMap<>();
+    /**
+     * Failure rate (percent) over the last ejectionSlidingWindowSize calls of a region at which calls fail over from it
+     * for ejectionWaitMillis, after which recoveryCalls trial calls decide whether it is used again
+     */
+    private int ejectionFailureRateThreshold = 50;
+    private int ejectionSlidingWindowSize = 10;
+    private long ejectionWaitMillis = 10000;
+    private int recoveryCalls = 3;
+}
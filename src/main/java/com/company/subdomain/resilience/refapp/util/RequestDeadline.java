@@ -0,0 +1,89 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The point in time after which the client of a request is no longer waiting for the response.
+ * It is derived from the {@value #TIMEOUT_HEADER} request header and carried through the decorator chain so that
+ * time limiters, retries and bulkhead queues do not spend more than the remaining budget of the request.
+ */
+public final class RequestDeadline {
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Millis";
+
+    /**
+     * Longer client timeouts are treated as no timeout, they would overflow the deadline in nanoseconds
+     */
+    static final long MAX_TIMEOUT_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final RequestDeadline NONE = new RequestDeadline(null, Long.MAX_VALUE, false);
+
+    private final SchedulingClock clock;
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private RequestDeadline(SchedulingClock clock, long deadlineNanos, boolean bounded) {
+        this.clock = clock;
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * @return a deadline which never expires, used when the client did not send a timeout
+     */
+    public static RequestDeadline none() {
+        return NONE;
+    }
+
+    /**
+     * @param timeoutMillis the client timeout taken from the request header, may be null
+     * @param clock         the clock the deadline is measured on, the same one the sleeps and timeouts follow
+     * @return a deadline timeoutMillis from now or {@link #none()} if no positive timeout up to
+     * {@link #MAX_TIMEOUT_MILLIS} was given
+     */
+    public static RequestDeadline fromTimeoutMillis(Long timeoutMillis, SchedulingClock clock) {
+        if (timeoutMillis == null || timeoutMillis <= 0 || timeoutMillis > MAX_TIMEOUT_MILLIS) {
+            return NONE;
+        }
+        return new RequestDeadline(clock, clock.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis), true);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && clock.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * @return the time left before the deadline, zero once expired
+     */
+    public Duration remaining() {
+        if (!bounded) {
+            return Duration.ofNanos(Long.MAX_VALUE);
+        }
+        long remainingNanos = deadlineNanos - clock.nanoTime();
+        return remainingNanos > 0 ? Duration.ofNanos(remainingNanos) : Duration.ZERO;
+    }
+
+    /**
+     * @return true if there is more than the given duration left before the deadline
+     */
+    public boolean canMeet(Duration duration) {
+        return remaining().compareTo(duration) > 0;
+    }
+
+    /**
+     * @return the smaller of the given duration and the time left before the deadline
+     */
+    public Duration cap(Duration duration) {
+        Duration remaining = remaining();
+        return remaining.compareTo(duration) < 0 ? remaining : duration;
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? "RequestDeadline{remaining=" + remaining().toMillis() + "ms}" : "RequestDeadline{none}";
+    }
+}
@@ -0,0 +1,31 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.company.subdomain.resilience.refapp.enums.LoadBalancingStrategy;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replica routing settings bound from patterns.routing
+ */
+@Data
+public class RoutingConfig {
+    private LoadBalancingStrategy strategy = LoadBalancingStrategy.P2C;
+    /**
+     * Time constant of the latency moving average, a replica without calls for this long has its average decayed to
+     * about a third
+     */
+    private long ewmaDecayMillis = 1000;
+    /**
+     * Replicas by name with the latency and errors they add to every call routed to them
+     */
+    private Map<String, FaultConfig> replicas = new LinkedHashMap<>();
+    /**
+     * Failure rate (percent) over the last ejectionSlidingWindowSize calls of a replica at which it is ejected for
+     * ejectionWaitMillis, after which a few trial calls decide whether it is let back in
+     */
+    private int ejectionFailureRateThreshold = 50;
+    private int ejectionSlidingWindowSize = 10;
+    private long ejectionWaitMillis = 5000;
+}
@@ -0,0 +1,55 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntSupplier;
+
+/**
+ * Source of time for the simulated latencies of the repository and service and for the waits of the resilience
+ * patterns: retry backoff intervals and time limiter timeouts are scheduled on {@link #scheduler()}.
+ * The application runs on the {@link SystemSchedulingClock}, tests can substitute a virtual clock so that seconds of
+ * sleeps and timeouts pass without waiting for them.
+ * <p>
+ * A virtual clock can only move on once the application is idle, so the application hands work between its threads
+ * through the clock: it waits for futures with {@link #await(CompletableFuture)}, runs asynchronous calls on
+ * {@link #executor()} and submits the tasks of its own thread pools through {@link #trackPool(IntSupplier)}.
+ */
+public interface SchedulingClock {
+
+    long nanoTime();
+
+    long currentTimeMillis();
+
+    /**
+     * Blocks the calling thread for the given time on this clock
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    ScheduledExecutorService scheduler();
+
+    /**
+     * Blocks the calling thread until the future completed
+     *
+     * @return the result of the future
+     */
+    <T> T await(CompletableFuture<T> future) throws InterruptedException, ExecutionException;
+
+    /**
+     * Runs asynchronous calls of the application, such as the calls bounded by a time limiter
+     */
+    Executor executor();
+
+    /**
+     * @param poolSize current number of threads of the pool
+     * @return the tasks to submit to the pool
+     */
+    PooledTasks trackPool(IntSupplier poolSize);
+
+    /**
+     * @return this clock for the resilience4j instances taking a java.time.Clock, such as the CircuitBreaker
+     */
+    Clock asClock();
+}
@@ -0,0 +1,67 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntSupplier;
+
+/**
+ * Wall clock time, {@link Thread#sleep(long)} and a shared daemon scheduler
+ */
+@Component
+public class SystemSchedulingClock implements SchedulingClock {
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "clock-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Override
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public <T> T await(CompletableFuture<T> future) throws InterruptedException, ExecutionException {
+        return future.get();
+    }
+
+    /**
+     * The common pool CompletableFuture.supplyAsync uses by default
+     */
+    @Override
+    public Executor executor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    @Override
+    public PooledTasks trackPool(IntSupplier poolSize) {
+        return PooledTasks.UNTRACKED;
+    }
+
+    @Override
+    public Clock asClock() {
+        return Clock.systemUTC();
+    }
+}
@@ -0,0 +1,43 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket refilled continuously at {@code tokensPerSecond} up to {@code capacity} tokens.
+ * Unlike the resilience4j RateLimiter, which hands out a fixed number of permits per refresh period, the bucket lets a
+ * client burst up to its capacity and then limits it to its sustained rate.
+ */
+public class TokenBucket {
+    private final long capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(int tokensPerSecond, int capacity) {
+        this(tokensPerSecond, capacity, System::nanoTime);
+    }
+
+    TokenBucket(int tokensPerSecond, int capacity, LongSupplier nanoClock) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = (double) tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.nanoClock = nanoClock;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return true and takes a token if one is available, false otherwise
+     */
+    public synchronized boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -1,10 +1,15 @@
 package com.company.subdomain.resilience.refapp.util;
 
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.QueueDiscipline;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @EnableConfigurationProperties
 @ConfigurationProperties(prefix = "patterns")
@@ -27,12 +32,46 @@ public class YMLConfig {
     private int slidingWindowSize;
     @Value("${patterns.config.bulkhead.numberOfThreads}")
     private int numberOfThreads;
+    @Value("${patterns.config.bulkhead.queueCapacity}")
+    private int queueCapacity;
+    @Value("${patterns.config.bulkhead.queueDiscipline}")
+    private QueueDiscipline queueDiscipline;
+    @Value("${patterns.config.bulkhead.codelTargetDelayMillis}")
+    private int codelTargetDelayMillis;
+    @Value("${patterns.config.bulkhead.codelIntervalMillis}")
+    private int codelIntervalMillis;
     @Value("${patterns.config.rateLimiter.limitForPeriod}")
     private int limitForPeriod;
     @Value("${patterns.config.rateLimiter.windowInMilliseconds}")
     private int windowInMilliseconds;
     @Value("${patterns.config.rateLimiter.waitTimeForThread}")
     private int waitTimeForThread;
+    @Value("${patterns.config.keyed.maxKeys}")
+    private int maxKeys;
+    @Value("${patterns.config.keyed.concurrencyLevel}")
+    private int concurrencyLevel;
+    @Value("${patterns.config.resources.enabled}")
+    private boolean resourceAccountingEnabled;
+    /**
+     * Per endpoint overrides of the values above, bound from patterns.endpoints.&lt;endpoint&gt;
+     */
+    private Map<String, EndpointConfig> endpoints = new HashMap<>();
+    /**
+     * Bound from patterns.loadShedding
+     */
+    private LoadSheddingConfig loadShedding = new LoadSheddingConfig();
+    /**
+     * Latency of every stand-in source of the scatter-gather endpoint, bound from patterns.sourceLatencyMillis
+     */
+    private Map<OfferingSource, Integer> sourceLatencyMillis = new HashMap<>();
+    /**
+     * Bound from patterns.routing
+     */
+    private RoutingConfig routing = new RoutingConfig();
+    /**
+     * Bound from patterns.regions
+     */
+    private RegionConfig regions = new RegionConfig();
 
     public int getInitialIntervalMillis() {
         return initialIntervalMillis;
@@ -72,6 +111,22 @@ public class YMLConfig {
         return numberOfThreads;
     }
 
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public QueueDiscipline getQueueDiscipline() {
+        return queueDiscipline;
+    }
+
+    public int getCodelTargetDelayMillis() {
+        return codelTargetDelayMillis;
+    }
+
+    public int getCodelIntervalMillis() {
+        return codelIntervalMillis;
+    }
+
     public int getLimitForPeriod() {
         return limitForPeriod;
     }
@@ -83,4 +138,84 @@ public class YMLConfig {
     public int getWaitTimeForThread() {
         return waitTimeForThread;
     }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    public boolean isResourceAccountingEnabled() {
+        return resourceAccountingEnabled;
+    }
+
+    public Map<String, EndpointConfig> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, EndpointConfig> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public LoadSheddingConfig getLoadShedding() {
+        return loadShedding;
+    }
+
+    public void setLoadShedding(LoadSheddingConfig loadShedding) {
+        this.loadShedding = loadShedding;
+    }
+
+    public Map<OfferingSource, Integer> getSourceLatencyMillis() {
+        return sourceLatencyMillis;
+    }
+
+    public void setSourceLatencyMillis(Map<OfferingSource, Integer> sourceLatencyMillis) {
+        this.sourceLatencyMillis = sourceLatencyMillis;
+    }
+
+    public RoutingConfig getRouting() {
+        return routing;
+    }
+
+    public void setRouting(RoutingConfig routing) {
+        this.routing = routing;
+    }
+
+    public RegionConfig getRegions() {
+        return regions;
+    }
+
+    public void setRegions(RegionConfig regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * @param endpoint the endpoint name, e.g. simple-retry
+     * @return the settings of the endpoint where every value missing in its section is taken from patterns.config
+     */
+    public EndpointConfig getEndpointConfig(String endpoint) {
+        EndpointConfig section = endpoints.getOrDefault(endpoint, new EndpointConfig());
+        EndpointConfig resolved = new EndpointConfig();
+        resolved.setInitialIntervalMillis(orDefault(section.getInitialIntervalMillis(), initialIntervalMillis));
+        resolved.setMultiplier(orDefault(section.getMultiplier(), multiplier));
+        resolved.setMaxAttempts(orDefault(section.getMaxAttempts(), maxAttempts));
+        resolved.setWaitTimeDuration(orDefault(section.getWaitTimeDuration(), waitTimeDuration));
+        resolved.setFailureRateThreshold(orDefault(section.getFailureRateThreshold(), failureRateThreshold));
+        resolved.setWaitDurationInOpenState(orDefault(section.getWaitDurationInOpenState(), waitDurationInOpenState));
+        resolved.setPermittedNumberOfCallsInHalfOpenState(orDefault(section.getPermittedNumberOfCallsInHalfOpenState(),
+                permittedNumberOfCallsInHalfOpenState));
+        resolved.setSlidingWindowSize(orDefault(section.getSlidingWindowSize(), slidingWindowSize));
+        resolved.setNumberOfThreads(orDefault(section.getNumberOfThreads(), numberOfThreads));
+        resolved.setQueueCapacity(orDefault(section.getQueueCapacity(), queueCapacity));
+        resolved.setLimitForPeriod(orDefault(section.getLimitForPeriod(), limitForPeriod));
+        resolved.setWindowInMilliseconds(orDefault(section.getWindowInMilliseconds(), windowInMilliseconds));
+        resolved.setWaitTimeForThread(orDefault(section.getWaitTimeForThread(), waitTimeForThread));
+        return resolved;
+    }
+
+    private static Integer orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
 }
@@ -0,0 +1,107 @@
+package com.company.subdomain.resilience.refapp.benchmark;
+
+import com.company.subdomain.resilience.refapp.util.BondAnalyticsEngine;
+import com.company.subdomain.resilience.refapp.util.BondUniverse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analytics of a universe of {@code bonds} with {@link BondAnalyticsEngine}, on one core and on every core.
+ * {@code full} requotes and recomputes every bond, {@code incremental} requotes {@code requotedPercent} of them and
+ * recomputes only those. Bonds per second is {@code bonds} (or the requoted share of it) over the time per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BondAnalyticsBenchmark {
+
+    @Param({"1000000"})
+    public int bonds;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    @Param({"1"})
+    public int requotedPercent;
+
+    private ForkJoinPool pool;
+    private BondAnalyticsEngine engine;
+    private BondUniverse universe;
+    private double[] askPrices;
+    private double move;
+    private int nextRequote;
+
+    @Setup
+    public void setUp() {
+        //0 for every core
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        engine = new BondAnalyticsEngine(pool, 4096, 5);
+        universe = new BondUniverse(bonds);
+        askPrices = new double[bonds];
+        Random random = new Random(42);
+        for (int row = 0; row < bonds; row++) {
+            double coupon = 10 * random.nextDouble();
+            double years = 0.5 * (1 + random.nextInt(60));
+            askPrices[row] = BondAnalyticsEngine.price(coupon, years, 1 + random.nextDouble() * 7);
+            universe.setTerms(row, coupon, years, random.nextBoolean() ? engine.firstCallYears(years) : Double.NaN);
+            universe.setQuote(row, askPrices[row] - 0.25, askPrices[row]);
+        }
+        engine.compute(universe);
+        System.out.printf("%n%d bonds on %d threads%n", bonds, pool.getParallelism());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int full() {
+        move = move == 0 ? 0.001 : 0;
+        for (int row = 0; row < bonds; row++) {
+            double ask = askPrices[row] + move;
+            universe.setQuote(row, ask - 0.25, ask);
+        }
+        return engine.compute(universe);
+    }
+
+    @Benchmark
+    public int incremental() {
+        move = move == 0 ? 0.001 : 0;
+        int requoted = (int) ((long) bonds * requotedPercent / 100);
+        for (int i = 0; i < requoted; i++) {
+            int row = nextRequote;
+            nextRequote = (nextRequote + 7919) % bonds;
+            double ask = askPrices[row] + move;
+            universe.setQuote(row, ask - 0.25, ask);
+        }
+        return engine.compute(universe);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BondAnalyticsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.company.subdomain.resilience.refapp.benchmark;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the cost of the per request bookkeeping under contention, 32 threads either share one AtomicInteger and one
+ * Bulkhead (the previous DecoratedSupplier/PatternsFactory layout) or use a LongAdder and the Bulkhead of their own
+ * endpoint.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class CounterContentionBenchmark {
+    private static final int ENDPOINTS = 8;
+
+    @State(Scope.Benchmark)
+    public static class SharedState {
+        final AtomicInteger atomicInteger = new AtomicInteger();
+        final LongAdder longAdder = new LongAdder();
+        final AtomicInteger threadIndex = new AtomicInteger();
+        Bulkhead sharedBulkhead;
+        Bulkhead[] endpointBulkheads;
+
+        @Setup
+        public void setUp() {
+            BulkheadConfig config = BulkheadConfig.custom()
+                    .maxConcurrentCalls(Integer.MAX_VALUE)
+                    .maxWaitDuration(Duration.ZERO)
+                    .build();
+            sharedBulkhead = Bulkhead.of("shared.semaphore-bulkhead", config);
+            endpointBulkheads = new Bulkhead[ENDPOINTS];
+            for (int i = 0; i < ENDPOINTS; i++) {
+                endpointBulkheads[i] = Bulkhead.of("endpoint-" + i + ".semaphore-bulkhead", config);
+            }
+        }
+    }
+
+    /**
+     * Spreads the benchmark threads evenly over the endpoints like requests to different DecoratedController endpoints
+     */
+    @State(Scope.Thread)
+    public static class EndpointState {
+        Bulkhead bulkhead;
+
+        @Setup
+        public void setUp(SharedState sharedState) {
+            bulkhead = sharedState.endpointBulkheads[sharedState.threadIndex.getAndIncrement() % ENDPOINTS];
+        }
+    }
+
+    @Benchmark
+    public int sharedAtomicInteger(SharedState state) {
+        return state.atomicInteger.incrementAndGet();
+    }
+
+    @Benchmark
+    public void longAdder(SharedState state) {
+        state.longAdder.increment();
+    }
+
+    @Benchmark
+    public boolean sharedBulkhead(SharedState state) {
+        boolean permitted = state.sharedBulkhead.tryAcquirePermission();
+        state.sharedBulkhead.onComplete();
+        return permitted;
+    }
+
+    @Benchmark
+    public boolean endpointBulkhead(EndpointState state) {
+        boolean permitted = state.bulkhead.tryAcquirePermission();
+        state.bulkhead.onComplete();
+        return permitted;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CounterContentionBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.company.subdomain.resilience.refapp.benchmark;
+
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of a service call logging the OfferingsDataServiceImpl hot path messages with the logger OFF or at INFO.
+ * The logger has the same name as the service logger so the configured BurstFilter applies, loggers are asynchronous
+ * as configured in log4j2.component.properties. To compare with synchronous loggers run with
+ * {@code -jvmArgsAppend -DLog4jContextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HotPathLoggingBenchmark {
+    private static final String SERVICE_LOGGER = "com.company.subdomain.resilience.refapp.service.OfferingsDataServiceImpl";
+    private static Logger LOGGER = LoggerFactory.getLogger(SERVICE_LOGGER);
+
+    @Param({"OFF", "INFO"})
+    public String level;
+
+    private final LongAdder invocations = new LongAdder();
+    private List<Offering> offerings;
+
+    @Setup
+    public void setUp() {
+        Configurator.setLevel(SERVICE_LOGGER, Level.toLevel(level));
+        offerings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Offering offering = new Offering();
+            offering.setOfferId(String.valueOf(i));
+            offerings.add(offering);
+        }
+    }
+
+    @Benchmark
+    public MockDataServiceResponse serviceCall() {
+        invocations.increment();
+        LOGGER.info("Invoking OfferingsDataServiceImpl throwException {} count {}", false, invocations.sum());
+        MockDataServiceResponse response = new MockDataServiceResponse();
+        response.setData(offerings);
+        response.setHostedRegion("");
+        LOGGER.info("Sending Response for request {} with {} offerings", invocations.sum(), offerings.size());
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotPathLoggingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.subdomain.resilience.refapp.benchmark;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.decorators.Decorators;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of the Micrometer binding of the resilience4j registries on the call path. The same
+ * CircuitBreaker/Bulkhead/RateLimiter/Retry chain around a no-op supplier is measured with the registries unbound,
+ * bound to a PrometheusMeterRegistry, and bound plus a percentile histogram Timer around the call as
+ * http.server.requests records it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"NONE", "BOUND", "BOUND_WITH_HISTOGRAM"})
+    public String instrumentation;
+
+    private Supplier<String> decoratedSupplier;
+    private Timer timer;
+
+    @Setup
+    public void setUp() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(Integer.MAX_VALUE)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .build());
+        RetryRegistry retryRegistry = RetryRegistry.ofDefaults();
+        if (!"NONE".equals(instrumentation)) {
+            PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+            TaggedRateLimiterMetrics.ofRateLimiterRegistry(rateLimiterRegistry).bindTo(meterRegistry);
+            TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(meterRegistry);
+            if ("BOUND_WITH_HISTOGRAM".equals(instrumentation)) {
+                timer = Timer.builder("benchmark.calls")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+            }
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("benchmark.circuit-breaker");
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead("benchmark.semaphore-bulkhead");
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter("benchmark.rate-limiter");
+        Retry retry = retryRegistry.retry("benchmark.retry-for-bulkhead");
+        decoratedSupplier = Decorators.ofSupplier(() -> "offerings")
+                .withCircuitBreaker(circuitBreaker)
+                .withBulkhead(bulkhead)
+                .withRateLimiter(rateLimiter)
+                .withRetry(retry)
+                .decorate();
+    }
+
+    @Benchmark
+    public String decoratedCall() {
+        if (timer == null) {
+            return decoratedSupplier.get();
+        }
+        return timer.record(decoratedSupplier);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InstrumentationOverheadBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
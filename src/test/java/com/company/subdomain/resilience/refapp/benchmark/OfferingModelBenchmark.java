@@ -0,0 +1,184 @@
+package com.company.subdomain.resilience.refapp.benchmark;
+
+import com.company.subdomain.resilience.refapp.enums.CouponType;
+import com.company.subdomain.resilience.refapp.enums.MarketType;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.model.CompactOffering;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.util.FixedPoint;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BigDecimal {@link Offering} against the fixed point {@link CompactOffering} for the 100 offerings of a response:
+ * {@code build} maps the generated prices and yields as the repository does, {@code json} and {@code smile} serialize
+ * the offerings. Run with {@code -prof gc} for the allocation per operation. The retained heap per offering of both
+ * models and the bytes of a response are printed in the setup of each fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Threads(1)
+@State(Scope.Benchmark)
+public class OfferingModelBenchmark {
+    private static final int OFFERINGS = 100;
+    private static final int HEAP_SAMPLE = 200_000;
+
+    @Param({"BIG_DECIMAL", "FIXED_POINT"})
+    public String model;
+
+    private double[][] quotes;
+    private List<?> offerings;
+    private ObjectWriter jsonWriter;
+    private ObjectWriter smileWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        quotes = quotes(OFFERINGS, new Random(42));
+        offerings = build();
+        jsonWriter = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build().writer();
+        smileWriter = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build().writer();
+        System.out.printf("%n%s: %d bytes retained per offering, response JSON %d bytes, Smile %d bytes%n", model,
+                retainedBytesPerOffering(), jsonWriter.writeValueAsBytes(offerings).length,
+                smileWriter.writeValueAsBytes(offerings).length);
+    }
+
+    @Benchmark
+    public List<?> build() {
+        return "BIG_DECIMAL".equals(model) ? bigDecimalOfferings(quotes) : compactOfferings(quotes);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return jsonWriter.writeValueAsBytes(offerings);
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smileWriter.writeValueAsBytes(offerings);
+    }
+
+    /**
+     * Heap used by a list of offerings divided by their number, after a full collection with and without them
+     */
+    private long retainedBytesPerOffering() {
+        double[][] sample = quotes(HEAP_SAMPLE, new Random(7));
+        long before = usedHeap();
+        List<?> retained = "BIG_DECIMAL".equals(model) ? bigDecimalOfferings(sample) : compactOfferings(sample);
+        long after = usedHeap();
+        if (retained.size() != HEAP_SAMPLE) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / HEAP_SAMPLE;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * coupon, bid price, bid yield, ask price, ask yield per offering, drawn as the repository draws them
+     */
+    private static double[][] quotes(int count, Random random) {
+        double[][] quotes = new double[count][];
+        for (int i = 0; i < count; i++) {
+            quotes[i] = new double[]{10 * random.nextDouble(), random.nextInt(100) + 50, random.nextDouble() * 25,
+                    random.nextInt(100) + 50, random.nextDouble() * 25};
+        }
+        return quotes;
+    }
+
+    private static List<Offering> bigDecimalOfferings(double[][] quotes) {
+        List<Offering> offerings = new ArrayList<>(quotes.length);
+        for (int i = 0; i < quotes.length; i++) {
+            double[] quote = quotes[i];
+            Offering offering = new Offering();
+            offering.setCusip(String.valueOf(100000000 + i));
+            offering.setDescription("FED Treasury Bond");
+            offering.setProductType(ProductType.TREASURY);
+            offering.setMaturityDate(LocalDate.of(2019, 10, 9));
+            offering.setSnpRating("AAA+");
+            offering.setCoupon(new BigDecimal(quote[0]));
+            offering.setCallable(true);
+            offering.setState("NY");
+            offering.setBidPrice(new BigDecimal(quote[1]));
+            offering.setBidYtw(new BigDecimal(quote[2]));
+            offering.setAskPrice(new BigDecimal(quote[3]));
+            offering.setAskYtw(new BigDecimal(quote[4]));
+            offering.setCouponType(CouponType.NONZERO);
+            offering.setMarketType(MarketType.SECONDARY);
+            offering.setDuration(new BigDecimal("0.05"));
+            offering.setConvexity(new BigDecimal("0.02"));
+            offering.setOfferId(String.valueOf(1000 + i));
+            offerings.add(offering);
+        }
+        return offerings;
+    }
+
+    private static List<CompactOffering> compactOfferings(double[][] quotes) {
+        List<CompactOffering> offerings = new ArrayList<>(quotes.length);
+        for (int i = 0; i < quotes.length; i++) {
+            double[] quote = quotes[i];
+            CompactOffering offering = new CompactOffering();
+            offering.setCusip(String.valueOf(100000000 + i));
+            offering.setDescription("FED Treasury Bond");
+            offering.setProductType(ProductType.TREASURY);
+            offering.setMaturityDate(LocalDate.of(2019, 10, 9));
+            offering.setSnpRating("AAA+");
+            offering.setCoupon(FixedPoint.of(quote[0], CompactOffering.RATE_SCALE));
+            offering.setCallable(true);
+            offering.setState("NY");
+            offering.setBidPrice(FixedPoint.of(quote[1], CompactOffering.PRICE_SCALE));
+            offering.setBidYtw(FixedPoint.of(quote[2], CompactOffering.YIELD_SCALE));
+            offering.setAskPrice(FixedPoint.of(quote[3], CompactOffering.PRICE_SCALE));
+            offering.setAskYtw(FixedPoint.of(quote[4], CompactOffering.YIELD_SCALE));
+            offering.setCouponType(CouponType.NONZERO);
+            offering.setMarketType(MarketType.SECONDARY);
+            offering.setDuration(FixedPoint.of(0.05, CompactOffering.RATE_SCALE));
+            offering.setConvexity(FixedPoint.of(0.02, CompactOffering.RATE_SCALE));
+            offering.setOfferId(String.valueOf(1000 + i));
+            offerings.add(offering);
+        }
+        return offerings;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OfferingModelBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
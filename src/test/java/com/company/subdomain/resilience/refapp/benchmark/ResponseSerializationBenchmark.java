@@ -0,0 +1,117 @@
+package com.company.subdomain.resilience.refapp.benchmark;
+
+import com.company.subdomain.resilience.refapp.enums.ResponseFormat;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.repository.ChaosEngineeringDataRepositoryImpl;
+import com.company.subdomain.resilience.refapp.service.EncodedResponseCache;
+import com.company.subdomain.resilience.refapp.util.BondAnalyticsEngine;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.SystemSchedulingClock;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization cost of a 100 offerings response per format, single threaded so the average time is the CPU time of a
+ * request. JSON_INDENTED is the previous pretty printed default. {@code cachedHit} is the cost of a snapshot response
+ * served from {@link EncodedResponseCache}. The bytes on the wire of every format, plain and gzipped, are printed in
+ * the setup of each fork, run with {@code -prof gc} for the allocation per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"JSON_INDENTED", "JSON", "SMILE", "CBOR"})
+    public String format;
+
+    private MockDataServiceResponse response;
+    private EncodedResponseCache encodedResponseCache;
+    private ObjectWriter indentedWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        SystemSchedulingClock clock = new SystemSchedulingClock();
+        OfferingsSnapshot snapshot = new ChaosEngineeringDataRepositoryImpl(new FaultInjector(clock), clock,
+                new BondAnalyticsEngine(5), Long.MAX_VALUE)
+                .getSnapshotFromRepository();
+        response = new MockDataServiceResponse();
+        response.setData(snapshot.getOfferings());
+        response.setHostedRegion("");
+        response.setSnapshotVersion(snapshot.getVersion());
+        encodedResponseCache = new EncodedResponseCache(objectMapperBuilder(), new SimpleMeterRegistry(), 1024, 16);
+        indentedWriter = objectMapperBuilder().build().writer().with(SerializationFeature.INDENT_OUTPUT);
+
+        byte[] indented = indentedWriter.writeValueAsBytes(response);
+        System.out.printf("%nJSON_INDENTED: %d bytes, gzip %d bytes%n", indented.length, gzip(indented).length);
+        for (ResponseFormat responseFormat : ResponseFormat.values()) {
+            byte[] body = encodedResponseCache.encode(response, responseFormat);
+            System.out.printf("%s: %d bytes, gzip %d bytes%n", responseFormat, body.length, gzip(body).length);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if ("JSON_INDENTED".equals(format)) {
+            return indentedWriter.writeValueAsBytes(response);
+        }
+        return encodedResponseCache.encode(response, ResponseFormat.valueOf(format));
+    }
+
+    @Benchmark
+    public byte[] cachedHit() throws IOException {
+        if ("JSON_INDENTED".equals(format)) {
+            return indentedWriter.writeValueAsBytes(response);
+        }
+        return encodedResponseCache.encode(response, "/decorated-services/simpleRetry?throwException=false",
+                ResponseFormat.valueOf(format), true).getBody();
+    }
+
+    /**
+     * Jackson settings of the application, Spring Boot writes dates as ISO strings
+     */
+    private static Jackson2ObjectMapperBuilder objectMapperBuilder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseSerializationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,29 @@
+package com.company.subdomain.resilience.refapp.chaos;
+
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One step of a ChaosScenario timeline, targets without a fault run without injection during the phase
+ */
+@Data
+public class ChaosPhase {
+
+    private String name;
+
+    /**
+     * e.g. 30s, 500ms or 2m
+     */
+    private String duration;
+
+    /**
+     * Arrival rate per endpoint for this phase, the scenario rate if absent
+     */
+    private Double rate;
+
+    private Map<FaultTarget, FaultConfig> faults = new EnumMap<>(FaultTarget.class);
+}
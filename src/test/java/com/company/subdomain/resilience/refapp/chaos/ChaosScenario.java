@@ -0,0 +1,43 @@
+package com.company.subdomain.resilience.refapp.chaos;
+
+import com.company.subdomain.resilience.refapp.loadtest.LoadProfile;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A timeline of fault phases run under a constant open model load, read from a JSON file
+ */
+@Data
+public class ChaosScenario {
+
+    private String name;
+
+    /**
+     * Seeds the fault sequences, runs with the same seed inject the same faults into the same calls
+     */
+    private long seed;
+
+    /**
+     * Arrival rate per endpoint and second
+     */
+    private double rate;
+
+    /**
+     * DecoratedController paths below /decorated-services with their query
+     */
+    private List<String> endpoints = new ArrayList<>();
+
+    private List<ChaosPhase> phases = new ArrayList<>();
+
+    LoadProfile loadProfile() {
+        List<LoadProfile.Phase> loadPhases = new ArrayList<>();
+        for (ChaosPhase phase : phases) {
+            double phaseRate = phase.getRate() != null ? phase.getRate() : rate;
+            loadPhases.add(new LoadProfile.Phase(phase.getName(), phaseRate, phaseRate,
+                    LoadProfile.parseDurationNanos(phase.getDuration())));
+        }
+        return new LoadProfile(loadPhases);
+    }
+}
@@ -0,0 +1,85 @@
+package com.company.subdomain.resilience.refapp.chaos;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.loadtest.LoadReport;
+import com.company.subdomain.resilience.refapp.loadtest.LoadReportWriter;
+import com.company.subdomain.resilience.refapp.loadtest.LoadTarget;
+import com.company.subdomain.resilience.refapp.loadtest.LoadTestMain;
+import com.company.subdomain.resilience.refapp.loadtest.OpenModelLoadGenerator;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a {@link ChaosScenario} against the application started on a random port: at the start of each phase the faults
+ * of the phase are set on the {@link FaultInjector}, which injects them into ChaosEngineeringDataRepositoryImpl and
+ * OfferingsDataServiceImpl, while the open model load generator records throughput and latency per phase. Reports go to
+ * target/chaos-reports/&lt;scenario&gt;-seed&lt;seed&gt;.json|html so runs with different resilience configurations can be
+ * compared phase by phase.
+ * <p>
+ * Usage: ChaosScenarioRunner &lt;scenario.json&gt; [spring arguments, e.g. --patterns.config.retry.maxAttempts=2]
+ */
+public class ChaosScenarioRunner {
+    private static Logger LOGGER = LoggerFactory.getLogger(ChaosScenarioRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: ChaosScenarioRunner <scenario.json> [spring arguments]");
+        }
+        ChaosScenario scenario = read(new File(args[0]));
+        String[] springArgs = new String[args.length - 1];
+        System.arraycopy(args, 1, springArgs, 0, springArgs.length);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChaosEngineeringReferenceApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run(springArgs)) {
+            LoadTestMain.awaitReadiness(context, TimeUnit.MINUTES.toMillis(10));
+            LoadReport report = run(scenario, context);
+            new LoadReportWriter().write(report, Paths.get("target", "chaos-reports"));
+        }
+    }
+
+    static ChaosScenario read(File file) throws IOException {
+        return new ObjectMapper().readValue(file, ChaosScenario.class);
+    }
+
+    static LoadReport run(ChaosScenario scenario, ConfigurableApplicationContext context) throws InterruptedException {
+        FaultInjector faultInjector = context.getBean(FaultInjector.class);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<LoadTarget> targets = LoadTestMain.targets(context, scenario.getEndpoints().toArray(new String[0]),
+                    false, executor);
+            return new OpenModelLoadGenerator(30_000).run(scenario.getName() + "-seed" + scenario.getSeed(),
+                    scenario.loadProfile(), targets, index -> applyFaults(faultInjector, scenario, index));
+        } finally {
+            faultInjector.clearFaults();
+            executor.shutdown();
+        }
+    }
+
+    private static void applyFaults(FaultInjector faultInjector, ChaosScenario scenario, int phaseIndex) {
+        ChaosPhase phase = scenario.getPhases().get(phaseIndex);
+        LOGGER.warn("Chaos phase {} with faults {}", phase.getName(), phase.getFaults());
+        for (FaultTarget target : FaultTarget.values()) {
+            FaultConfig fault = phase.getFaults().get(target);
+            if (fault == null) {
+                faultInjector.clearFault(target);
+            } else {
+                //every phase gets its own fault sequence so a phase is reproducible whatever precedes it
+                faultInjector.setFault(target, fault, scenario.getSeed() * 31 + phaseIndex);
+            }
+        }
+    }
+}
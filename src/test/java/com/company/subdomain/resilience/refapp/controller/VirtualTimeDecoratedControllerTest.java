@@ -0,0 +1,240 @@
+package com.company.subdomain.resilience.refapp.controller;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClockConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vavr.CheckedFunction0;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The time dependent DecoratedController scenarios in virtual time, so their outcome does not depend on the speed of
+ * the machine. The controller is called from tasks of the clock, the clock only waits for the threads it knows, and
+ * each call takes its repository latency of 500ms and the degrading service latency in virtual time.
+ * <p>
+ * The degrading service slows down with every call of the application context, the context is started for this class
+ * only so the time limiter scenarios see the same latencies whichever test class ran before.
+ */
+@SpringBootTest(classes = {ChaosEngineeringReferenceApplication.class, VirtualSchedulingClockConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "patterns.warmUp.enabled=false")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class VirtualTimeDecoratedControllerTest {
+    @Autowired
+    private DecoratedController decoratedController;
+    @Autowired
+    private SchedulingClock clock;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 10 concurrent calls to a service protected by a semaphore Bulkhead of 4 concurrent calls without waiting, the
+     * first 4 hold their permits for the 500ms of the repository
+     */
+    @Test
+    @Order(1)
+    void testSemaphoreBulkhead() throws Exception {
+        List<Callable<MockDataServiceResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String offerId = String.valueOf(1010 + i);
+            MockHttpServletRequest request = request("/decorated-services/simpleSemaphoreBulkhead", "offerId=" + offerId);
+            calls.add(() -> decoded(decoratedController.offeringsById(offerId, false, request)));
+        }
+        List<MockDataServiceResponse> responses = concurrently(calls);
+        assertEquals(4, successful(responses).size());
+        assertEquals(6, failed(responses).size());
+    }
+
+    /**
+     * The first 2 attempts fail, the third succeeds after backing off 500ms, then 2500ms
+     */
+    @Test
+    @Order(2)
+    void testSimpleRetry() throws Exception {
+        MockDataServiceResponse response = sequentially(
+                unchecked(() -> decoded(decoratedController.offeringsWithSimpleRetry(true,
+                        request("/decorated-services/simpleRetry", null)))));
+        assertEquals(100, response.getData().size());
+    }
+
+    /**
+     * 5 concurrent calls to a service which is protected by a Bulkhead which is able to handle 4 concurrent requests.
+     * The result was 4 calls succeeded and 1 failed. This is because we have set the maxWaitDuration(Duration.ofMillis(0))
+     * to zero which does not allow the request to retry after the first attempt even when a Thread becomes available for processing.
+     */
+    @Test
+    @Order(3)
+    void testSimpleBulkhead_Semaphore() throws Exception {
+        List<Callable<MockDataServiceResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String offerId = String.valueOf(1010 + i);
+            MockHttpServletRequest request = request("/decorated-services/simpleBulkhead", "offerId=" + offerId);
+            calls.add(unchecked(() -> decoded(decoratedController.offeringsWithSimpleBulkhead(offerId, false, request))));
+        }
+        List<String> failedRequests = failed(concurrently(calls));
+        assertEquals(1, failedRequests.size());
+        assertEquals("BulkheadFullException thrown: {Bulkhead 'simple-bulkhead.semaphore-bulkhead' is full and does not permit further calls}", failedRequests.get(0));
+    }
+
+    /**
+     * 10 sequential calls to a service which is protected by a CircuitBreaker which is configured with a
+     * failure threshold of 25% out of a sliding window of 4 requests.
+     * The first 6 requests throw exceptions, the first 4 of them fail and open the CircuitBreaker, the next 4 requests
+     * are not permitted while it is OPEN. Failing calls do not take any time, so the requests wait the 25ms
+     * waitDurationInOpenState on the clock before the CircuitBreaker moves to HALF_OPEN and permits the last 2 requests.
+     */
+    @Test
+    @Order(4)
+    void testSimpleCircuitBreaker() throws Exception {
+        List<MockDataServiceResponse> responses = sequentially(() -> {
+            List<MockDataServiceResponse> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                if (i == 8) {
+                    clock.sleep(26);
+                }
+                results.add(decoded(decoratedController.offeringsWithSimpleCircuitBreaker(i < 6,
+                        request("/decorated-services/simpleCircuitBreaker", null))));
+            }
+            return results;
+        });
+        List<MockDataServiceResponse> circuitBreakerFailures = responses.stream()
+                .filter(response -> response.getHostedRegion()
+                        .equals("CircuitBreaker 'simple-circuit-breaker.circuit-breaker' is OPEN and does not permit further calls"))
+                .collect(Collectors.toList());
+        List<MockDataServiceResponse> regularFailures = responses.stream()
+                .filter(response -> response.getHostedRegion()
+                        .contains("TemporaryServiceOutageException thrown from service"))
+                .collect(Collectors.toList());
+        assertEquals(4, regularFailures.size());
+        assertEquals(4, circuitBreakerFailures.size());
+        assertEquals(2, successful(responses).size());
+    }
+
+    /**
+     * 8 sequential calls to the degrading service, which sleeps 200ms, 500ms, 1.3s, 3.4s, 8.9s, 23.3s, then 200ms
+     * and 500ms again, plus the repository latency. The time limiter gives up after 3s on the 4th to 6th call.
+     */
+    @Test
+    @Order(5)
+    void testTimeLimiter() throws Exception {
+        List<MockDataServiceResponse> responses = sequentially(() -> {
+            List<MockDataServiceResponse> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(decoded(decoratedController.offeringsWithSimpleTimeLimiter(false,
+                        request("/decorated-services/simpleTimeLimiter", null))));
+            }
+            return results;
+        });
+        List<MockDataServiceResponse> timeLimiterFailures = responses.stream()
+                .filter(response -> response.getHostedRegion()
+                        .equals("TimeLimiter does not set an exception message so creating one"))
+                .collect(Collectors.toList());
+        assertEquals(3, timeLimiterFailures.size());
+        assertEquals(5, successful(responses).size());
+    }
+
+    /**
+     * 10 concurrent calls to the degrading service behind a thread pool bulkhead of 4 threads and a queue of 4, so 2
+     * calls are rejected. The 4 running calls sleep 1.3s, 3.4s, 8.9s and 23.3s, the thread of the first then runs 2
+     * queued calls of 200ms and 500ms, the second of them finishes after the time limiter gave up on it at 3s like on
+     * every other call.
+     */
+    @Test
+    @Order(6)
+    void testThreadPoolBulkheadWithTimeLimiter() throws Exception {
+        List<Callable<MockDataServiceResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request =
+                    request("/decorated-services/offeringsWithThreadPoolBulkheadAndTimeLimiter", null);
+            calls.add(() -> decoded(decoratedController.offerings(false, request)));
+        }
+        List<MockDataServiceResponse> responses = concurrently(calls);
+        List<String> failedRequests = failed(responses);
+        assertEquals(2, successful(responses).size());
+        assertEquals(8, failedRequests.size());
+        assertEquals(2,
+                failedRequests.stream().filter(response -> response.contains("thread-pool-bulkhead")).count());
+        assertEquals(6,
+                failedRequests.stream().filter(response -> response.contains("time-limiter")).count());
+    }
+
+    /////////       Private methods
+
+    /**
+     * The requests of concurrent calls are built before the calls start: the clock cannot see a call waiting for a
+     * lock handed over by another thread, it would move on before that call reached the pattern.
+     */
+    private static MockHttpServletRequest request(String uri, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(query);
+        request.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        return request;
+    }
+
+    private MockDataServiceResponse decoded(ResponseEntity<byte[]> response) throws IOException {
+        return objectMapper.readValue(response.getBody(), MockDataServiceResponse.class);
+    }
+
+    private <T> T sequentially(Callable<T> calls) throws Exception {
+        return clock.scheduler().submit(calls).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts the calls from a task of the clock, the clock cannot move on before all of them started
+     */
+    private List<MockDataServiceResponse> concurrently(List<Callable<MockDataServiceResponse>> calls) throws Exception {
+        List<Future<MockDataServiceResponse>> futures = sequentially(() -> {
+            List<Future<MockDataServiceResponse>> started = new ArrayList<>();
+            for (Callable<MockDataServiceResponse> call : calls) {
+                started.add(clock.scheduler().submit(call));
+            }
+            return started;
+        });
+        List<MockDataServiceResponse> responses = new ArrayList<>();
+        for (Future<MockDataServiceResponse> future : futures) {
+            responses.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    /**
+     * The controller methods of the retry and of the semaphore bulkhead declare Throwable
+     */
+    private Callable<MockDataServiceResponse> unchecked(CheckedFunction0<MockDataServiceResponse> call) {
+        return call.unchecked()::apply;
+    }
+
+    private List<MockDataServiceResponse> successful(List<MockDataServiceResponse> responses) {
+        return responses.stream()
+                .filter(val -> val.getData() != null)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> failed(List<MockDataServiceResponse> responses) {
+        return responses.stream()
+                .filter(val -> val.getData() == null || val.getData().isEmpty())
+                .map(MockDataServiceResponse::getHostedRegion)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.subdomain.resilience.refapp.filter;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.model.EndpointRequestCounts;
+import com.company.subdomain.resilience.refapp.service.DecoratedSupplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = ChaosEngineeringReferenceApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"patterns.warmUp.enabled=false", "patterns.snapshot.refreshMillis=600000"})
+class ConditionalGetFilterTest {
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private DecoratedSupplier decoratedSupplier;
+
+    @Test
+    void testUnchangedPollIsAnsweredBeforeTheDecorators() {
+        WebClient webClient = WebClient.create(String.format(
+                "http://localhost:%d/decorated-services/simpleRateLimiter?throwException=false", port));
+        ResponseEntity<byte[]> first = webClient.get().retrieve().toEntity(byte[].class).block();
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        String etag = first.getHeaders().getETag();
+        assertEquals(ConditionalGetFilter.etag(decoratedSupplier.getSnapshotVersion()), etag);
+        long requests = rateLimiterRequests();
+
+        ResponseEntity<byte[]> poll = webClient.get().header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange().flatMap(response -> response.toEntity(byte[].class)).block();
+        assertEquals(HttpStatus.NOT_MODIFIED, poll.getStatusCode());
+        assertEquals(etag, poll.getHeaders().getETag());
+        assertNull(poll.getBody());
+        assertEquals(requests, rateLimiterRequests());
+
+        ResponseEntity<byte[]> stale = webClient.get().header(HttpHeaders.IF_NONE_MATCH, "W/\"1\"")
+                .retrieve().toEntity(byte[].class).block();
+        assertEquals(HttpStatus.OK, stale.getStatusCode());
+        assertNotNull(stale.getBody());
+        assertEquals(requests + 1, rateLimiterRequests());
+    }
+
+    @Test
+    void testWeakComparison() {
+        assertTrue(ConditionalGetFilter.matches("\"7\"", ConditionalGetFilter.etag(7)));
+        assertTrue(ConditionalGetFilter.matches("W/\"6\", W/\"7\"", ConditionalGetFilter.etag(7)));
+        assertTrue(ConditionalGetFilter.matches("*", ConditionalGetFilter.etag(7)));
+        assertFalse(ConditionalGetFilter.matches("W/\"6\"", ConditionalGetFilter.etag(7)));
+    }
+
+    private long rateLimiterRequests() {
+        return decoratedSupplier.getEndpointRequestCounts().stream()
+                .filter(counts -> "simple-rate-limiter".equals(counts.getEndpoint()))
+                .mapToLong(EndpointRequestCounts::getRequests)
+                .sum();
+    }
+}
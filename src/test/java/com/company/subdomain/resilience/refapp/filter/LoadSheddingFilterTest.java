@@ -0,0 +1,63 @@
+package com.company.subdomain.resilience.refapp.filter;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = ChaosEngineeringReferenceApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"patterns.loadShedding.clients.filtertest.priority=CRITICAL",
+                "patterns.loadShedding.clients.filtertest.tokensPerSecond=0",
+                "patterns.loadShedding.clients.filtertest.burst=1",
+                "patterns.loadShedding.defaultTokensPerSecond=0",
+                "patterns.loadShedding.defaultBurst=1"})
+class LoadSheddingFilterTest {
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testRequestOverQuotaIsRejectedWithRetryAfter() {
+        WebClient webClient = WebClient.create(String.format(
+                "http://localhost:%d/decorated-services/simpleRateLimiter?throwException=false", port));
+        ResponseEntity<MockDataServiceResponse> admitted = exchange(webClient, "filtertest");
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, admitted.getStatusCode());
+
+        ResponseEntity<MockDataServiceResponse> shed = exchange(webClient, "filtertest");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, shed.getStatusCode());
+        assertEquals("1", shed.getHeaders().getFirst("Retry-After"));
+        assertTrue(shed.getBody().getHostedRegion().contains("SHED_OVER_QUOTA"));
+    }
+
+    /**
+     * Requests without a client id share the default bucket with unknown clients
+     */
+    @Test
+    void testRequestWithoutClientIdUsesDefaultQuota() {
+        WebClient webClient = WebClient.create(String.format(
+                "http://localhost:%d/decorated-services/simpleRateLimiter?throwException=false", port));
+        ResponseEntity<MockDataServiceResponse> admitted = exchange(webClient, null);
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, admitted.getStatusCode());
+
+        ResponseEntity<MockDataServiceResponse> shed = exchange(webClient, "unknown-client");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, shed.getStatusCode());
+        assertTrue(shed.getBody().getHostedRegion().contains("SHED_OVER_QUOTA"));
+
+        shed = exchange(webClient, null);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, shed.getStatusCode());
+    }
+
+    private static ResponseEntity<MockDataServiceResponse> exchange(WebClient webClient, String clientId) {
+        WebClient.RequestHeadersSpec<?> request = clientId == null ? webClient.get()
+                : webClient.get().header(LoadSheddingFilter.CLIENT_ID_HEADER, clientId);
+        return request.exchange().flatMap(response -> response.toEntity(MockDataServiceResponse.class)).block();
+    }
+}
@@ -0,0 +1,15 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class EndpointLoadReport {
+
+    private String endpoint;
+
+    private PhaseLoadReport total;
+
+    private List<PhaseLoadReport> phases;
+}
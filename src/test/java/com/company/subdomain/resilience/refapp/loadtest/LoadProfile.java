@@ -0,0 +1,183 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arrival rate over time as a sequence of phases, each with a start and end rate in requests per second which is
+ * interpolated linearly over the phase, so a phase is either constant, a ramp or, when short, a burst.
+ * <p>
+ * Parsed from {@code name=rate@duration} or {@code name=startRate-endRate@duration} separated by commas, durations in
+ * ms, s or m, e.g. {@code warmup=0-500@10s,steady=500@30s,burst=5000@2s,recovery=500@20s}.
+ */
+public class LoadProfile {
+    private final List<Phase> phases;
+
+    public LoadProfile(List<Phase> phases) {
+        if (phases.isEmpty()) {
+            throw new IllegalArgumentException("A load profile needs at least one phase");
+        }
+        this.phases = Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    public static LoadProfile parse(String spec) {
+        List<Phase> phases = new ArrayList<>();
+        for (String phaseSpec : spec.split(",")) {
+            String[] nameAndRest = phaseSpec.trim().split("=");
+            String[] rateAndDuration = nameAndRest[nameAndRest.length - 1].split("@");
+            if (rateAndDuration.length != 2) {
+                throw new IllegalArgumentException("Expected name=rate@duration but was " + phaseSpec);
+            }
+            String name = nameAndRest.length == 2 ? nameAndRest[0] : "phase-" + phases.size();
+            String[] rates = rateAndDuration[0].split("-");
+            double startRate = Double.parseDouble(rates[0]);
+            double endRate = rates.length == 2 ? Double.parseDouble(rates[1]) : startRate;
+            phases.add(new Phase(name, startRate, endRate, parseDurationNanos(rateAndDuration[1])));
+        }
+        return new LoadProfile(phases);
+    }
+
+    public static long parseDurationNanos(String duration) {
+        if (duration.endsWith("ms")) {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(duration.substring(0, duration.length() - 2)));
+        } else if (duration.endsWith("s")) {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(duration.substring(0, duration.length() - 1)));
+        } else if (duration.endsWith("m")) {
+            return TimeUnit.MINUTES.toNanos(Long.parseLong(duration.substring(0, duration.length() - 1)));
+        }
+        throw new IllegalArgumentException("Duration must end with ms, s or m but was " + duration);
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public long getDurationNanos() {
+        return phases.stream().mapToLong(Phase::getDurationNanos).sum();
+    }
+
+    /**
+     * @return a new schedule of the intended arrival times of this profile, not thread safe
+     */
+    public Schedule schedule() {
+        return new Schedule();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : phases) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(phase);
+        }
+        return builder.toString();
+    }
+
+    public static class Phase {
+        private final String name;
+        private final double startRate;
+        private final double endRate;
+        private final long durationNanos;
+
+        public Phase(String name, double startRate, double endRate, long durationNanos) {
+            if (startRate < 0 || endRate < 0 || durationNanos <= 0) {
+                throw new IllegalArgumentException("Rates must not be negative and the duration must be positive");
+            }
+            this.name = name;
+            this.startRate = startRate;
+            this.endRate = endRate;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getStartRate() {
+            return startRate;
+        }
+
+        public double getEndRate() {
+            return endRate;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Inverts the cumulative arrivals of the linearly interpolated rate, s*t + (e-s)*t^2/(2T) with t and T in
+         * seconds, so a ramp gets the integral of its rate even when it starts at 0.
+         *
+         * @return offset in nanos from the start of the phase at which the given number of arrivals is reached, -1 if
+         * the phase ends first
+         */
+        long arrivalOffsetNanos(long arrivals) {
+            if (arrivals == 0) {
+                return startRate > 0 || endRate > 0 ? 0 : -1;
+            }
+            double durationSeconds = (double) durationNanos / TimeUnit.SECONDS.toNanos(1);
+            double acceleration = (endRate - startRate) / (2 * durationSeconds);
+            double discriminant = startRate * startRate + 4 * acceleration * arrivals;
+            if (discriminant < 0) {
+                return -1;
+            }
+            //2k / (s + sqrt(s^2 + 4ak)) is the positive root of a*t^2 + s*t - k and stays exact for a constant rate
+            double denominator = startRate + Math.sqrt(discriminant);
+            if (denominator <= 0) {
+                return -1;
+            }
+            double offsetNanos = 2 * arrivals / denominator * TimeUnit.SECONDS.toNanos(1);
+            return offsetNanos < durationNanos ? (long) offsetNanos : -1;
+        }
+
+        @Override
+        public String toString() {
+            String rate = startRate == endRate ? format(startRate) : format(startRate) + "-" + format(endRate);
+            return name + "=" + rate + "@" + TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms";
+        }
+
+        private static String format(double rate) {
+            return rate == Math.rint(rate) ? String.valueOf((long) rate) : String.valueOf(rate);
+        }
+    }
+
+    /**
+     * Walks the phases and returns the intended start of every request as an offset from the start of the run. The
+     * n-th arrival of a phase is when the integral of its rate reaches n, independent of when requests complete.
+     */
+    public class Schedule {
+        private int phaseIndex;
+        private long phaseOffsetNanos;
+        private long arrivalsInPhase;
+
+        /**
+         * @return offset in nanos of the next intended request start from the start of the run, -1 once all phases ended
+         */
+        public long next() {
+            while (phaseIndex < phases.size()) {
+                Phase phase = phases.get(phaseIndex);
+                long arrivalOffsetNanos = phase.arrivalOffsetNanos(arrivalsInPhase);
+                if (arrivalOffsetNanos >= 0) {
+                    arrivalsInPhase++;
+                    return phaseOffsetNanos + arrivalOffsetNanos;
+                }
+                phaseOffsetNanos += phase.getDurationNanos();
+                arrivalsInPhase = 0;
+                phaseIndex++;
+            }
+            return -1;
+        }
+
+        /**
+         * @return index of the phase of the arrival last returned by {@link #next()}
+         */
+        public int phase() {
+            return Math.min(phaseIndex, phases.size() - 1);
+        }
+    }
+}
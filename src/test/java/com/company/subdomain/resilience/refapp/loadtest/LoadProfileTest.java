@@ -0,0 +1,47 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadProfileTest {
+
+    @Test
+    public void testArrivalsFollowConstantRampAndBurstPhases() {
+        LoadProfile profile = LoadProfile.parse("steady=100@1s,ramp=0-200@1s,burst=1000@100ms");
+        assertEquals(3, profile.getPhases().size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2100), profile.getDurationNanos());
+
+        LoadProfile.Schedule schedule = profile.schedule();
+        int[] arrivals = new int[3];
+        long previous = -1;
+        long offset;
+        while ((offset = schedule.next()) >= 0) {
+            assertTrue(offset >= previous, "arrivals are ordered");
+            arrivals[schedule.phase()]++;
+            previous = offset;
+        }
+        assertEquals(100, arrivals[0]);
+        //the integral of a ramp from 0 to 200 per second over one second
+        assertTrue(Math.abs(arrivals[1] - 100) <= 2, "ramp arrivals " + arrivals[1]);
+        assertEquals(100, arrivals[2]);
+        assertTrue(previous < profile.getDurationNanos());
+    }
+
+    @Test
+    public void testRampDownAndIdlePhases() {
+        LoadProfile profile = LoadProfile.parse("rampDown=200-0@1s,idle=0@1s,rampUp=0-1000@200ms");
+        LoadProfile.Schedule schedule = profile.schedule();
+        int[] arrivals = new int[3];
+        long offset;
+        while ((offset = schedule.next()) >= 0) {
+            arrivals[schedule.phase()]++;
+        }
+        assertTrue(Math.abs(arrivals[0] - 100) <= 2, "ramp down arrivals " + arrivals[0]);
+        assertEquals(0, arrivals[1]);
+        assertTrue(Math.abs(arrivals[2] - 100) <= 2, "ramp up arrivals " + arrivals[2]);
+    }
+}
@@ -0,0 +1,89 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.model.LatencyPercentiles;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes and latencies of the requests to one target, per phase of the {@link LoadProfile}.
+ * <p>
+ * Latency is recorded twice: from the intended start given by the schedule, which corrects for coordinated omission
+ * because a stalled system or a lagging generator delays the actual start but not the intended one, and from the
+ * actual start as service time, which is what a closed model client would report. Values are in microseconds.
+ */
+class LoadRecorder {
+    private final List<PhaseRecorder> phases = new ArrayList<>();
+
+    LoadRecorder(int phaseCount) {
+        for (int i = 0; i < phaseCount; i++) {
+            phases.add(new PhaseRecorder());
+        }
+    }
+
+    void record(int phase, RequestOutcome outcome, long latencyNanos, long serviceTimeNanos) {
+        PhaseRecorder recorder = phases.get(phase);
+        recorder.outcomes[outcome.ordinal()].increment();
+        recorder.latency.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        recorder.serviceTime.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(serviceTimeNanos)));
+    }
+
+    void sent(int phase) {
+        phases.get(phase).sent.increment();
+    }
+
+    PhaseResult result(int phase) {
+        PhaseRecorder recorder = phases.get(phase);
+        return new PhaseResult(recorder.sent.sum(), recorder.outcomes[RequestOutcome.SUCCESS.ordinal()].sum(),
+                recorder.outcomes[RequestOutcome.FALLBACK.ordinal()].sum(),
+                recorder.outcomes[RequestOutcome.ERROR.ordinal()].sum(),
+                recorder.latency.getIntervalHistogram(), recorder.serviceTime.getIntervalHistogram());
+    }
+
+    static LatencyPercentiles percentiles(Histogram histogram) {
+        LatencyPercentiles percentiles = new LatencyPercentiles();
+        percentiles.setCount(histogram.getTotalCount());
+        percentiles.setP50(histogram.getValueAtPercentile(50));
+        percentiles.setP90(histogram.getValueAtPercentile(90));
+        percentiles.setP99(histogram.getValueAtPercentile(99));
+        percentiles.setP999(histogram.getValueAtPercentile(99.9));
+        percentiles.setP9999(histogram.getValueAtPercentile(99.99));
+        percentiles.setMax(histogram.getMaxValue());
+        return percentiles;
+    }
+
+    private static class PhaseRecorder {
+        final LongAdder sent = new LongAdder();
+        final LongAdder[] outcomes = new LongAdder[RequestOutcome.values().length];
+        final Recorder latency = new Recorder(3);
+        final Recorder serviceTime = new Recorder(3);
+
+        PhaseRecorder() {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+    }
+
+    static class PhaseResult {
+        final long sent;
+        final long successes;
+        final long fallbacks;
+        final long errors;
+        final Histogram latency;
+        final Histogram serviceTime;
+
+        PhaseResult(long sent, long successes, long fallbacks, long errors, Histogram latency, Histogram serviceTime) {
+            this.sent = sent;
+            this.successes = successes;
+            this.fallbacks = fallbacks;
+            this.errors = errors;
+            this.latency = latency;
+            this.serviceTime = serviceTime;
+        }
+    }
+}
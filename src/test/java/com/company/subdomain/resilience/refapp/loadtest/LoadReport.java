@@ -0,0 +1,19 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class LoadReport {
+
+    private String name;
+
+    private String profile;
+
+    private String startedAt;
+
+    private double durationSeconds;
+
+    private List<EndpointLoadReport> endpoints;
+}
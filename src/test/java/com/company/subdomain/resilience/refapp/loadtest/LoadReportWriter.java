@@ -0,0 +1,83 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.model.LatencyPercentiles;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Writes a {@link LoadReport} as &lt;name&gt;.json and as a static &lt;name&gt;.html page with one table per endpoint
+ */
+public class LoadReportWriter {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public void write(LoadReport report, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(directory.resolve(report.getName() + ".json").toFile(), report);
+        try (Writer writer = Files.newBufferedWriter(directory.resolve(report.getName() + ".html"), StandardCharsets.UTF_8)) {
+            writer.write(html(report));
+        }
+    }
+
+    String html(LoadReport report) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>").append(escape(report.getName()))
+                .append("</title>\n<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}")
+                .append("</style></head><body>\n");
+        html.append("<h1>").append(escape(report.getName())).append("</h1>\n<p>Profile <code>")
+                .append(escape(report.getProfile())).append("</code> started ").append(escape(report.getStartedAt()))
+                .append(". Latency in µs from the intended start (corrected for coordinated omission), service time from")
+                .append(" the actual start.</p>\n");
+        for (EndpointLoadReport endpoint : report.getEndpoints()) {
+            html.append("<h2>").append(escape(endpoint.getEndpoint())).append("</h2>\n<table><tr><th>phase</th>")
+                    .append("<th>offered/s</th><th>throughput/s</th><th>sent</th><th>incomplete</th><th>fallback %</th>")
+                    .append("<th>error %</th><th>p50</th><th>p90</th><th>p99</th><th>p99.9</th><th>p99.99</th><th>max</th>")
+                    .append("<th>service p99</th></tr>\n");
+            for (PhaseLoadReport phase : endpoint.getPhases()) {
+                row(html, phase);
+            }
+            row(html, endpoint.getTotal());
+            html.append("</table>\n");
+        }
+        html.append("</body></html>\n");
+        return html.toString();
+    }
+
+    private static void row(StringBuilder html, PhaseLoadReport phase) {
+        LatencyPercentiles latency = phase.getLatency();
+        html.append("<tr><td>").append(escape(phase.getPhase())).append("</td>");
+        cell(html, format(phase.getOfferedRate()));
+        cell(html, format(phase.getThroughput()));
+        cell(html, String.valueOf(phase.getSent()));
+        cell(html, String.valueOf(phase.getIncomplete()));
+        cell(html, format(phase.getFallbackRate() * 100));
+        cell(html, format(phase.getErrorRate() * 100));
+        cell(html, String.valueOf(latency.getP50()));
+        cell(html, String.valueOf(latency.getP90()));
+        cell(html, String.valueOf(latency.getP99()));
+        cell(html, String.valueOf(latency.getP999()));
+        cell(html, String.valueOf(latency.getP9999()));
+        cell(html, String.valueOf(latency.getMax()));
+        cell(html, String.valueOf(phase.getServiceTime().getP99()));
+        html.append("</tr>\n");
+    }
+
+    private static void cell(StringBuilder html, String value) {
+        html.append("<td>").append(value).append("</td>");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import io.vavr.CheckedFunction0;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * An endpoint driven by the {@link OpenModelLoadGenerator}. {@link #call()} must not block the generator thread, the
+ * request is only started, completion is observed through the returned future.
+ */
+public interface LoadTarget {
+
+    String name();
+
+    CompletableFuture<MockDataServiceResponse> call();
+
+    /**
+     * A DecoratedController endpoint called over HTTP, e.g.
+     * {@code http(webClient, "simpleRetry", "/decorated-services/simpleRetry?throwException=false")}
+     */
+    static LoadTarget http(WebClient webClient, String name, String uri) {
+        return new LoadTarget() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public CompletableFuture<MockDataServiceResponse> call() {
+                return webClient.get().uri(uri)
+                        .retrieve()
+                        .bodyToMono(MockDataServiceResponse.class)
+                        .toFuture();
+            }
+        };
+    }
+
+    /**
+     * A DecoratedSupplier method called in process. The call blocks, so it runs on the executor, whose queueing delay is
+     * part of the measured latency like the accept queue of the embedded server would be.
+     */
+    static LoadTarget direct(String name, CheckedFunction0<MockDataServiceResponse> call, Executor executor) {
+        return new LoadTarget() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public CompletableFuture<MockDataServiceResponse> call() {
+                CompletableFuture<MockDataServiceResponse> future = new CompletableFuture<>();
+                executor.execute(() -> {
+                    try {
+                        future.complete(call.apply());
+                    } catch (Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+                return future;
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.service.DecoratedSupplier;
+import io.vavr.CheckedFunction0;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application on a random port and runs an open model load against it, reports are written to
+ * target/load-reports. Configured with system properties:
+ * <ul>
+ * <li>{@code load.profile} phases as parsed by {@link LoadProfile#parse(String)}, rates per endpoint</li>
+ * <li>{@code load.endpoints} comma separated DecoratedController paths below /decorated-services with their query</li>
+ * <li>{@code load.mode} http to go through the embedded server, direct to call DecoratedSupplier in process</li>
+ * <li>{@code load.name} report file name</li>
+ * </ul>
+ */
+public class LoadTestMain {
+    static final String DEFAULT_ENDPOINTS = "simpleRetry?throwException=false,"
+            + "simpleCircuitBreaker?throwException=false,"
+            + "simpleSemaphoreBulkhead?offerId=1&throwException=false,"
+            + "offeringsWithThreadPoolBulkheadAndTimeLimiter?throwException=false,"
+            + "degradingService?throwException=false";
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.parse(System.getProperty("load.profile",
+                "warmup=0-200@10s,steady=200@30s,burst=2000@2s,recovery=200@20s"));
+        String[] endpoints = System.getProperty("load.endpoints", DEFAULT_ENDPOINTS).split(",");
+        boolean direct = "direct".equals(System.getProperty("load.mode", "http"));
+        String name = System.getProperty("load.name", "load-" + (direct ? "direct" : "http"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChaosEngineeringReferenceApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run(args)) {
+            awaitReadiness(context, TimeUnit.MINUTES.toMillis(10));
+            ExecutorService executor = Executors.newCachedThreadPool();
+            List<LoadTarget> targets = targets(context, endpoints, direct, executor);
+            LoadReport report = new OpenModelLoadGenerator(30_000).run(name, profile, targets);
+            executor.shutdown();
+            new LoadReportWriter().write(report, Paths.get("target", "load-reports"));
+        }
+    }
+
+    /**
+     * Waits like a load balancer until /actuator/health/readiness reports UP, i.e. the startup warm-up is done
+     *
+     * @return milliseconds waited
+     */
+    public static long awaitReadiness(ConfigurableApplicationContext context, long timeoutMillis)
+            throws InterruptedException {
+        String port = context.getEnvironment().getProperty("local.server.port");
+        WebClient webClient = WebClient.create("http://localhost:" + port + "/actuator/health/readiness");
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (System.nanoTime() < deadlineNanos) {
+            HttpStatus status = webClient.get().exchange()
+                    .map(ClientResponse::statusCode)
+                    .onErrorReturn(HttpStatus.SERVICE_UNAVAILABLE)
+                    .block();
+            if (status == HttpStatus.OK) {
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Application not ready after " + timeoutMillis + " ms");
+    }
+
+    /**
+     * @param endpoints DecoratedController paths below /decorated-services with their query
+     * @param direct    call DecoratedSupplier in process on the executor instead of going through the embedded server
+     */
+    public static List<LoadTarget> targets(ConfigurableApplicationContext context, String[] endpoints, boolean direct,
+                                           Executor executor) {
+        List<LoadTarget> targets = new ArrayList<>();
+        if (direct) {
+            DecoratedSupplier decoratedSupplier = context.getBean(DecoratedSupplier.class);
+            for (String endpoint : endpoints) {
+                targets.add(LoadTarget.direct(endpoint, directCall(decoratedSupplier, endpoint), executor));
+            }
+        } else {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            WebClient webClient = WebClient.create("http://localhost:" + port + "/decorated-services/");
+            for (String endpoint : endpoints) {
+                targets.add(LoadTarget.http(webClient, endpoint, endpoint));
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @param endpoint DecoratedController path below /decorated-services with its query
+     */
+    public static CheckedFunction0<MockDataServiceResponse> directCall(DecoratedSupplier decoratedSupplier, String endpoint) {
+        String path = endpoint.split("\\?")[0];
+        boolean throwException = endpoint.contains("throwException=true");
+        switch (path) {
+            case "simpleRetry":
+                return () -> decoratedSupplier.callRetryDecoratedService(throwException);
+            case "simpleCircuitBreaker":
+                return () -> decoratedSupplier.callCircuitBreakerDecoratedService(throwException);
+            case "simpleBulkhead":
+                return () -> decoratedSupplier.callBulkheadDecoratedService(throwException);
+            case "simpleRateLimiter":
+                return () -> decoratedSupplier.callRateLimiterDecoratedService(throwException);
+            case "simpleTimeLimiter":
+                return () -> decoratedSupplier.callTimeLimiterDecoratedService(throwException);
+            case "simpleSemaphoreBulkhead":
+                return () -> decoratedSupplier.callSemaphoreBulkheadDecoratedService("1", throwException);
+            case "offeringsWithThreadPoolBulkheadAndTimeLimiter":
+                return () -> decoratedSupplier.callThreadPoolBulkheadAndTimeLimiterDecoratedService(throwException);
+            case "degradingService":
+                return () -> decoratedSupplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(throwException);
+            default:
+                throw new IllegalArgumentException("No direct call for endpoint " + endpoint);
+        }
+    }
+}
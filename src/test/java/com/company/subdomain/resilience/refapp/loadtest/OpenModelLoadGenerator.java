@@ -0,0 +1,188 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * Open model load generator: requests are started at the arrival times of a {@link LoadProfile} whether or not earlier
+ * requests completed, like independent users would, instead of a fixed number of clients each waiting for its previous
+ * response, which slows down with the system under test and hides its stalls (coordinated omission).
+ * <p>
+ * Every target gets its own generator thread running the whole profile, so the rates of the profile are per target.
+ * If a generator thread falls behind its schedule it starts the overdue requests immediately, the latency is still
+ * measured from the intended start.
+ */
+public class OpenModelLoadGenerator {
+    private static Logger LOGGER = LoggerFactory.getLogger(OpenModelLoadGenerator.class);
+
+    private final long drainTimeoutNanos;
+
+    /**
+     * @param drainTimeoutMillis how long to wait for outstanding requests after the last phase ended
+     */
+    public OpenModelLoadGenerator(long drainTimeoutMillis) {
+        this.drainTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+    }
+
+    public LoadReport run(String name, LoadProfile profile, List<LoadTarget> targets) throws InterruptedException {
+        return run(name, profile, targets, phase -> {
+        });
+    }
+
+    /**
+     * @param phaseListener called with the index of each phase when it starts, on a separate timer thread, e.g. to
+     *                      change the injected faults
+     */
+    public LoadReport run(String name, LoadProfile profile, List<LoadTarget> targets, IntConsumer phaseListener)
+            throws InterruptedException {
+        int phaseCount = profile.getPhases().size();
+        List<LoadRecorder> recorders = new ArrayList<>();
+        List<Thread> generators = new ArrayList<>();
+        LongAdder outstanding = new LongAdder();
+        Instant startedAt = Instant.now();
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        for (LoadTarget target : targets) {
+            LoadRecorder recorder = new LoadRecorder(phaseCount);
+            recorders.add(recorder);
+            Thread generator = new Thread(() -> generate(profile.schedule(), target, recorder, startNanos, outstanding),
+                    "load-generator-" + target.name());
+            generator.setDaemon(true);
+            generators.add(generator);
+        }
+        Thread phaseTimer = new Thread(() -> notifyPhases(profile, startNanos, phaseListener), "load-phase-timer");
+        phaseTimer.setDaemon(true);
+        LOGGER.info("Starting load {} with profile {} against {} targets", name, profile, targets.size());
+        phaseTimer.start();
+        generators.forEach(Thread::start);
+        for (Thread generator : generators) {
+            generator.join();
+        }
+        phaseTimer.join();
+        long drainDeadline = System.nanoTime() + drainTimeoutNanos;
+        while (outstanding.sum() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        if (outstanding.sum() > 0) {
+            LOGGER.warn("{} requests still outstanding after the drain timeout", outstanding.sum());
+        }
+
+        LoadReport report = new LoadReport();
+        report.setName(name);
+        report.setProfile(profile.toString());
+        report.setStartedAt(startedAt.toString());
+        report.setDurationSeconds(profile.getDurationNanos() / 1e9);
+        List<EndpointLoadReport> endpoints = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            endpoints.add(endpointReport(targets.get(i).name(), profile, recorders.get(i)));
+        }
+        report.setEndpoints(endpoints);
+        return report;
+    }
+
+    private static void generate(LoadProfile.Schedule schedule, LoadTarget target, LoadRecorder recorder,
+                                 long startNanos, LongAdder outstanding) {
+        long offsetNanos;
+        while ((offsetNanos = schedule.next()) >= 0) {
+            long intendedStartNanos = startNanos + offsetNanos;
+            long waitNanos;
+            while ((waitNanos = intendedStartNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            int phase = schedule.phase();
+            recorder.sent(phase);
+            outstanding.increment();
+            long actualStartNanos = System.nanoTime();
+            CompletableFuture<MockDataServiceResponse> future;
+            try {
+                future = target.call();
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            future.whenComplete((response, throwable) -> {
+                long endNanos = System.nanoTime();
+                recorder.record(phase, RequestOutcome.of(response, throwable), endNanos - intendedStartNanos,
+                        endNanos - actualStartNanos);
+                outstanding.decrement();
+            });
+        }
+    }
+
+    private static void notifyPhases(LoadProfile profile, long startNanos, IntConsumer phaseListener) {
+        long phaseStartNanos = startNanos;
+        for (int i = 0; i < profile.getPhases().size(); i++) {
+            long waitNanos;
+            while ((waitNanos = phaseStartNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            phaseListener.accept(i);
+            phaseStartNanos += profile.getPhases().get(i).getDurationNanos();
+        }
+    }
+
+    private static EndpointLoadReport endpointReport(String endpoint, LoadProfile profile, LoadRecorder recorder) {
+        List<PhaseLoadReport> phases = new ArrayList<>();
+        Histogram totalLatency = null;
+        Histogram totalServiceTime = null;
+        long sent = 0;
+        long successes = 0;
+        long fallbacks = 0;
+        long errors = 0;
+        for (int i = 0; i < profile.getPhases().size(); i++) {
+            LoadProfile.Phase phase = profile.getPhases().get(i);
+            LoadRecorder.PhaseResult result = recorder.result(i);
+            double durationSeconds = phase.getDurationNanos() / 1e9;
+            phases.add(phaseReport(phase.getName(), durationSeconds, (phase.getStartRate() + phase.getEndRate()) / 2,
+                    result));
+            if (totalLatency == null) {
+                totalLatency = result.latency.copy();
+                totalServiceTime = result.serviceTime.copy();
+            } else {
+                totalLatency.add(result.latency);
+                totalServiceTime.add(result.serviceTime);
+            }
+            sent += result.sent;
+            successes += result.successes;
+            fallbacks += result.fallbacks;
+            errors += result.errors;
+        }
+        double durationSeconds = profile.getDurationNanos() / 1e9;
+        EndpointLoadReport report = new EndpointLoadReport();
+        report.setEndpoint(endpoint);
+        report.setPhases(phases);
+        report.setTotal(phaseReport("total", durationSeconds, sent / durationSeconds,
+                new LoadRecorder.PhaseResult(sent, successes, fallbacks, errors, totalLatency, totalServiceTime)));
+        return report;
+    }
+
+    private static PhaseLoadReport phaseReport(String name, double durationSeconds, double offeredRate,
+                                               LoadRecorder.PhaseResult result) {
+        long completed = result.successes + result.fallbacks + result.errors;
+        PhaseLoadReport report = new PhaseLoadReport();
+        report.setPhase(name);
+        report.setDurationSeconds(durationSeconds);
+        report.setOfferedRate(offeredRate);
+        report.setSent(result.sent);
+        report.setIncomplete(result.sent - completed);
+        report.setThroughput(completed / durationSeconds);
+        report.setSuccesses(result.successes);
+        report.setFallbacks(result.fallbacks);
+        report.setErrors(result.errors);
+        report.setFallbackRate(completed == 0 ? 0 : (double) result.fallbacks / completed);
+        report.setErrorRate(completed == 0 ? 0 : (double) result.errors / completed);
+        report.setLatency(LoadRecorder.percentiles(result.latency));
+        report.setServiceTime(LoadRecorder.percentiles(result.serviceTime));
+        return report;
+    }
+}
@@ -0,0 +1,49 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.model.LatencyPercentiles;
+import lombok.Data;
+
+/**
+ * Results of one target during one phase of the profile, or the whole run, rates per second
+ */
+@Data
+public class PhaseLoadReport {
+
+    private String phase;
+
+    private double durationSeconds;
+
+    /**
+     * Average arrival rate of the profile
+     */
+    private double offeredRate;
+
+    private long sent;
+
+    /**
+     * Requests still outstanding when the drain timeout expired, not included in the latencies
+     */
+    private long incomplete;
+
+    private double throughput;
+
+    private long successes;
+
+    private long fallbacks;
+
+    private long errors;
+
+    private double fallbackRate;
+
+    private double errorRate;
+
+    /**
+     * From the intended start, corrected for coordinated omission
+     */
+    private LatencyPercentiles latency;
+
+    /**
+     * From the actual start, uncorrected
+     */
+    private LatencyPercentiles serviceTime;
+}
@@ -0,0 +1,25 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+
+/**
+ * Result of one generated request
+ */
+public enum RequestOutcome {
+    SUCCESS,
+    /**
+     * A DecoratedSupplier fallback, the response carries the failure message in hostedRegion instead of data
+     */
+    FALLBACK,
+    /**
+     * An exception or a non 2xx response
+     */
+    ERROR;
+
+    public static RequestOutcome of(MockDataServiceResponse response, Throwable throwable) {
+        if (throwable != null || response == null) {
+            return ERROR;
+        }
+        return response.getData() == null ? FALLBACK : SUCCESS;
+    }
+}
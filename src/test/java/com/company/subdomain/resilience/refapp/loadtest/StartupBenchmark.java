@@ -0,0 +1,183 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches the application in fresh JVMs and measures the time from launch to the first successful request and the
+ * resident set size at that point, for the default profile, the startup profile and the startup profile with the class
+ * data sharing archive of {@code mvn -Pappcds package}. Configured with system properties:
+ * <ul>
+ * <li>{@code startup.runs} JVM launches per profile, 5 by default</li>
+ * <li>{@code startup.endpoint} request polled below /decorated-services, simpleCircuitBreaker?throwException=false</li>
+ * <li>{@code startup.cdsDirectory} output of the appcds build profile, target/cds by default</li>
+ * </ul>
+ * Reports are written to target/startup-reports/startup-benchmark.json, child JVM output next to it. The resident set
+ * size is read from /proc and needs Linux and Java 9+, it is -1 otherwise.
+ */
+public class StartupBenchmark {
+    private static Logger LOGGER = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+        String endpoint = System.getProperty("startup.endpoint", "simpleCircuitBreaker?throwException=false");
+        Path cdsDirectory = Paths.get(System.getProperty("startup.cdsDirectory", "target/cds"));
+        Path reportDirectory = Paths.get("target", "startup-reports");
+        Files.createDirectories(reportDirectory);
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> launch = new ArrayList<>();
+        Path cdsJar = cdsJar(cdsDirectory);
+        if (cdsJar != null) {
+            launch.addAll(Arrays.asList("-jar", cdsJar.toString()));
+        } else {
+            launch.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"),
+                    ChaosEngineeringReferenceApplication.class.getName()));
+        }
+
+        List<StartupProfileReport> reports = new ArrayList<>();
+        reports.add(run("default", command(java, Collections.emptyList(), launch, Collections.emptyList()),
+                endpoint, runs, reportDirectory));
+        List<String> startupProfile = Collections.singletonList("--spring.profiles.active=startup");
+        reports.add(run("startup", command(java, Collections.emptyList(), launch, startupProfile),
+                endpoint, runs, reportDirectory));
+        Path archive = cdsDirectory.resolve("app.jsa");
+        if (cdsJar != null && Files.isRegularFile(archive)) {
+            reports.add(run("startup-cds", command(java, Collections.singletonList("-XX:SharedArchiveFile=" + archive),
+                    launch, startupProfile), endpoint, runs, reportDirectory));
+        } else {
+            LOGGER.warn("No class data sharing archive in {}, run mvn -Pappcds package first", cdsDirectory);
+        }
+
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValue(reportDirectory.resolve("startup-benchmark.json").toFile(), reports);
+        for (StartupProfileReport report : reports) {
+            LOGGER.warn("{}: first successful request after {} ms, rss {} kB (medians of {} runs)", report.getProfile(),
+                    report.getMedianTimeToFirstSuccessMillis(), report.getMedianRssKb(), runs);
+        }
+    }
+
+    private static StartupProfileReport run(String profile, List<String> command, String endpoint, int runs,
+                                            Path reportDirectory) throws IOException, InterruptedException {
+        List<Long> timeToFirstSuccess = new ArrayList<>();
+        List<Long> rss = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            int port = freePort();
+            List<String> runCommand = new ArrayList<>(command);
+            runCommand.add("--server.port=" + port);
+            File log = reportDirectory.resolve(profile + "-" + run + ".log").toFile();
+            long startNanos = System.nanoTime();
+            Process process = new ProcessBuilder(runCommand).redirectErrorStream(true).redirectOutput(log).start();
+            try {
+                awaitFirstSuccess(process, new URL("http://localhost:" + port + "/decorated-services/" + endpoint));
+                timeToFirstSuccess.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                rss.add(rssKb(process));
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            LOGGER.warn("{} run {}: {} ms, rss {} kB", profile, run, timeToFirstSuccess.get(run), rss.get(run));
+        }
+        StartupProfileReport report = new StartupProfileReport();
+        report.setProfile(profile);
+        report.setCommand(command);
+        report.setTimeToFirstSuccessMillis(timeToFirstSuccess);
+        report.setMedianTimeToFirstSuccessMillis(median(timeToFirstSuccess));
+        report.setRssKb(rss);
+        report.setMedianRssKb(median(rss));
+        return report;
+    }
+
+    private static List<String> command(String java, List<String> jvmOptions, List<String> launch, List<String> args) {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmOptions);
+        command.addAll(launch);
+        command.add("--logging.level.root=WARN");
+        command.addAll(args);
+        return command;
+    }
+
+    private static void awaitFirstSuccess(Process process, URL url) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (System.nanoTime() < deadlineNanos) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + " before serving " + url);
+            }
+            try {
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                connection.setConnectTimeout(100);
+                connection.setReadTimeout(30_000);
+                int status = connection.getResponseCode();
+                connection.disconnect();
+                if (status == HttpURLConnection.HTTP_OK) {
+                    return;
+                }
+            } catch (IOException e) {
+                //not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No successful response from " + url + " within 5 minutes");
+    }
+
+    /**
+     * VmRSS of /proc/&lt;pid&gt;/status, Process.pid() is looked up reflectively as it was added in Java 9
+     */
+    private static long rssKb(Process process) {
+        try {
+            long pid = (Long) Process.class.getMethod("pid").invoke(process);
+            for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (ReflectiveOperationException | IOException e) {
+            LOGGER.debug("Resident set size not available: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    private static Path cdsJar(Path cdsDirectory) throws IOException {
+        if (!Files.isDirectory(cdsDirectory)) {
+            return null;
+        }
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(cdsDirectory, "*-cds.jar")) {
+            for (Path jar : jars) {
+                return jar;
+            }
+        }
+        return null;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
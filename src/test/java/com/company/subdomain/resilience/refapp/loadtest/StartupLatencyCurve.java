@@ -0,0 +1,52 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the first seconds after the application reports ready, one phase per second so the report shows how
+ * p99 settles while the JIT compiles the call paths. JIT state is per JVM, run once with
+ * {@code --patterns.warmUp.enabled=false} and once without to get the cold and warm curves:
+ * <ul>
+ * <li>{@code startup.rate} requests per second per endpoint, 100 by default</li>
+ * <li>{@code startup.seconds} length of the curve, 60 by default</li>
+ * <li>{@code load.endpoints} as for {@link LoadTestMain}</li>
+ * </ul>
+ * Reports are written to target/load-reports/startup-warm.json or startup-cold.json.
+ */
+public class StartupLatencyCurve {
+    private static Logger LOGGER = LoggerFactory.getLogger(StartupLatencyCurve.class);
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("startup.rate", "100"));
+        int seconds = Integer.parseInt(System.getProperty("startup.seconds", "60"));
+        String[] endpoints = System.getProperty("load.endpoints", LoadTestMain.DEFAULT_ENDPOINTS).split(",");
+
+        long startNanos = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChaosEngineeringReferenceApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run(args)) {
+            boolean warmUp = context.getEnvironment().getProperty("patterns.warmUp.enabled", Boolean.class, true);
+            LoadTestMain.awaitReadiness(context, TimeUnit.MINUTES.toMillis(10));
+            LOGGER.warn("Ready {} ms after start, warm-up {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    warmUp ? "enabled" : "disabled");
+
+            List<LoadProfile.Phase> phases = new ArrayList<>();
+            for (int second = 1; second <= seconds; second++) {
+                phases.add(new LoadProfile.Phase("s" + second, rate, rate, TimeUnit.SECONDS.toNanos(1)));
+            }
+            List<LoadTarget> targets = LoadTestMain.targets(context, endpoints, false, null);
+            LoadReport report = new OpenModelLoadGenerator(30_000)
+                    .run(warmUp ? "startup-warm" : "startup-cold", new LoadProfile(phases), targets);
+            new LoadReportWriter().write(report, Paths.get("target", "load-reports"));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.company.subdomain.resilience.refapp.loadtest;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StartupProfileReport {
+
+    private String profile;
+
+    private List<String> command;
+
+    /**
+     * From launching the JVM to the first 200 response, per run
+     */
+    private List<Long> timeToFirstSuccessMillis;
+
+    private long medianTimeToFirstSuccessMillis;
+
+    /**
+     * Resident set size of the JVM right after the first successful response, per run
+     */
+    private List<Long> rssKb;
+
+    private long medianRssKb;
+}
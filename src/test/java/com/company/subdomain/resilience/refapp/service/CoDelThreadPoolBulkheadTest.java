@@ -0,0 +1,58 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.exception.BulkheadQueueRejectionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CoDelThreadPoolBulkheadTest {
+
+    @Test
+    public void testUncongestedCallsAreNotDropped() throws Exception {
+        CoDelThreadPoolBulkhead bulkhead = new CoDelThreadPoolBulkhead("uncongested", 1, 1, 4, 10, 50,
+                new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            int request = i;
+            assertEquals(request, bulkhead.submit(() -> request).get(1, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    /**
+     * A single thread is kept busy for 300 ms while 5 more calls are queued. When the thread frees up every queued
+     * call has waited longer than the 50 ms interval so all of them are dropped instead of being executed late.
+     */
+    @Test
+    public void testCallsQueuedLongerThanIntervalAreDropped() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CoDelThreadPoolBulkhead bulkhead = new CoDelThreadPoolBulkhead("congested", 1, 1, 10, 10, 50,
+                meterRegistry);
+        CompletableFuture<String> first = bulkhead.submit(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "first";
+        });
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(bulkhead.submit(() -> "queued"));
+        }
+
+        assertEquals("first", first.get(1, TimeUnit.SECONDS));
+        for (CompletableFuture<String> future : queued) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof BulkheadQueueRejectionException);
+        }
+        assertEquals(6, meterRegistry.get("bulkhead.queue.sojourn").tag("name", "congested").timer().count());
+    }
+}
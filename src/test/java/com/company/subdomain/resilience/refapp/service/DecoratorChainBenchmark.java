@@ -0,0 +1,171 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.ProductType;
+import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.OfferingsSnapshot;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of each DecoratedSupplier chain around a zero latency OfferingsDataService, compared to calling
+ * the service directly. The resilience instances are the ones PatternsFactory builds from application.yml, so the
+ * numbers reflect the configured chains. Lives in the service package because the chains and the service are package
+ * private.
+ * <p>
+ * {@link #main(String[])} adds the GC profiler, gc.alloc.rate.norm is the number of bytes allocated per call.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.root=WARN")
+@State(Scope.Benchmark)
+public class DecoratorChainBenchmark {
+    private static final String OFFER_ID = "1";
+
+    private ConfigurableApplicationContext context;
+    private StubOfferingsDataService offeringsDataService;
+    private DecoratedSupplier decoratedSupplier;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ChaosEngineeringReferenceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        offeringsDataService = new StubOfferingsDataService();
+        decoratedSupplier = new DecoratedSupplier(offeringsDataService, context.getBean(PatternsFactory.class),
+                context.getBean(ResilienceEventStore.class), context.getBean(SchedulingClock.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockDataServiceResponse undecorated() {
+        return offeringsDataService.getMockOfferings(false);
+    }
+
+    @Benchmark
+    public MockDataServiceResponse retry() {
+        return decoratedSupplier.callRetryDecoratedService(false);
+    }
+
+    @Benchmark
+    public MockDataServiceResponse circuitBreaker() {
+        return decoratedSupplier.callCircuitBreakerDecoratedService(false);
+    }
+
+    @Benchmark
+    public MockDataServiceResponse semaphoreBulkhead() throws ChaosEngineeringRuntimeException {
+        return decoratedSupplier.callSemaphoreBulkheadDecoratedService(OFFER_ID, false);
+    }
+
+    @Benchmark
+    public MockDataServiceResponse threadPoolBulkheadAndTimeLimiter()
+            throws InterruptedException, ExecutionException, ChaosEngineeringRuntimeException {
+        return decoratedSupplier.callThreadPoolBulkheadAndTimeLimiterDecoratedService(false);
+    }
+
+    @Benchmark
+    public MockDataServiceResponse degradingService()
+            throws InterruptedException, ExecutionException, ChaosEngineeringRuntimeException {
+        return decoratedSupplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DecoratorChainBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+    /**
+     * Returns the same response without sleeping, logging or allocating, so only the cost of the chain is measured
+     */
+    static class StubOfferingsDataService implements OfferingsDataService {
+        private final MockDataServiceResponse response;
+        private final OfferingsSnapshot snapshot;
+
+        StubOfferingsDataService() {
+            List<Offering> offerings = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Offering offering = new Offering();
+                offering.setOfferId(String.valueOf(i));
+                offerings.add(offering);
+            }
+            response = new MockDataServiceResponse();
+            response.setData(offerings);
+            response.setHostedRegion("");
+            snapshot = new OfferingsSnapshot(0, offerings);
+        }
+
+        @Override
+        public MockDataServiceResponse getMockOfferingsForRetry(Boolean throwException) {
+            return response;
+        }
+
+        @Override
+        public MockDataServiceResponse getMockOfferings(Boolean throwException) {
+            return response;
+        }
+
+        @Override
+        public MockDataServiceResponse getMockOfferingsDataFromService(boolean throwException) {
+            return response;
+        }
+
+        @Override
+        public MockDataServiceResponse getMockOfferingsDataFromService(String id, boolean throwException) {
+            return response;
+        }
+
+        @Override
+        public MockDataServiceResponse getMockOfferingsDataFromService(ProductType productType, boolean throwException) {
+            return response;
+        }
+
+        @Override
+        public MockDataServiceResponse getDegradedMockOfferings(boolean throwException) {
+            return response;
+        }
+
+        @Override
+        public OfferingsSnapshot getOfferingsFromSource(OfferingSource source) {
+            return snapshot;
+        }
+
+        @Override
+        public long getSnapshotVersion() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.ResponseFormat;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncodedResponseCacheTest {
+    private final EncodedResponseCache cache = new EncodedResponseCache(Jackson2ObjectMapperBuilder.json(),
+            new SimpleMeterRegistry(), 1024, 16);
+
+    @Test
+    void testFormatsDecodeToTheSameResponse() throws IOException {
+        MockDataServiceResponse response = response(1L, 20);
+        assertEquals(response, Jackson2ObjectMapperBuilder.json().build()
+                .readValue(cache.encode(response, ResponseFormat.JSON), MockDataServiceResponse.class));
+        assertEquals(response, mapper(new SmileFactory())
+                .readValue(cache.encode(response, ResponseFormat.SMILE), MockDataServiceResponse.class));
+        assertEquals(response, mapper(new CBORFactory())
+                .readValue(cache.encode(response, ResponseFormat.CBOR), MockDataServiceResponse.class));
+        assertTrue(cache.encode(response, ResponseFormat.SMILE).length < cache.encode(response, ResponseFormat.JSON).length);
+    }
+
+    @Test
+    void testSnapshotResponsesAreCachedUntilTheNextVersion() throws IOException {
+        EncodedResponseCache.Encoded first = cache.encode(response(1L, 20), "/simpleRetry", ResponseFormat.JSON, true);
+        assertTrue(first.isGzipped());
+        assertSame(first, cache.encode(response(1L, 20), "/simpleRetry", ResponseFormat.JSON, true));
+        assertNotSame(first, cache.encode(response(1L, 20), "/simpleRetry", ResponseFormat.SMILE, true));
+        assertEquals(new String(cache.encode(response(1L, 20), ResponseFormat.JSON), StandardCharsets.UTF_8),
+                gunzip(first.getBody()));
+
+        EncodedResponseCache.Encoded next = cache.encode(response(2L, 20), "/simpleRetry", ResponseFormat.JSON, true);
+        assertNotSame(first, next);
+        assertEquals(1, cache.size());
+        //responses of an older snapshot still in flight are encoded but not cached
+        assertNotSame(cache.encode(response(1L, 20), "/simpleRetry", ResponseFormat.JSON, true),
+                cache.encode(response(1L, 20), "/simpleRetry", ResponseFormat.JSON, true));
+    }
+
+    @Test
+    void testFallbackAndSmallResponses() {
+        MockDataServiceResponse fallback = new MockDataServiceResponse();
+        fallback.setHostedRegion("BulkheadFullException thrown");
+        EncodedResponseCache.Encoded encoded = cache.encode(fallback, "/simpleBulkhead", ResponseFormat.JSON, true);
+        assertFalse(encoded.isGzipped());
+        assertNotSame(encoded, cache.encode(fallback, "/simpleBulkhead", ResponseFormat.JSON, true));
+        assertFalse(cache.encode(response(1L, 0), "/simpleRetry", ResponseFormat.JSON, true).isGzipped());
+        assertEquals(1, cache.size());
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json().factory(factory).build();
+    }
+
+    private static MockDataServiceResponse response(Long version, int offerings) {
+        List<Offering> data = new ArrayList<>();
+        for (int i = 0; i < offerings; i++) {
+            Offering offering = new Offering();
+            offering.setOfferId(String.valueOf(1000 + i));
+            offering.setCusip("12345ABC" + i % 10);
+            offering.setAskPrice(new BigDecimal("101.25"));
+            offering.setMaturityDate(LocalDate.parse("2030-10-09"));
+            data.add(offering);
+        }
+        MockDataServiceResponse response = new MockDataServiceResponse();
+        response.setData(data);
+        response.setHostedRegion("");
+        response.setSnapshotVersion(version);
+        return response;
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            StringBuilder text = new StringBuilder();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = gzip.read(buffer)) > 0) {
+                text.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeyedResilienceRegistryTest {
+
+    @Test
+    public void testInstancesAreCreatedOncePerKey() {
+        AtomicInteger created = new AtomicInteger(0);
+        KeyedResilienceRegistry<String, CircuitBreaker> registry = new KeyedResilienceRegistry<>(100, 4, key -> {
+            created.incrementAndGet();
+            return CircuitBreaker.of("circuit-breaker:" + key, CircuitBreakerConfig.ofDefaults());
+        }, KeyedResilienceRegistryTest::isNotClosed);
+        CircuitBreaker municipal = registry.get("MUNICIPAL");
+        assertSame(municipal, registry.get("MUNICIPAL"));
+        assertNotSame(municipal, registry.get("TREASURY"));
+        assertEquals(2, created.get());
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void testRegistryIsBoundedWhenKeysKeepGrowing() {
+        KeyedResilienceRegistry<String, CircuitBreaker> registry = new KeyedResilienceRegistry<>(64, 8,
+                key -> CircuitBreaker.of("circuit-breaker:" + key, CircuitBreakerConfig.ofDefaults()),
+                KeyedResilienceRegistryTest::isNotClosed);
+        for (int offerId = 0; offerId < 100_000; offerId++) {
+            registry.get(String.valueOf(offerId));
+        }
+        assertTrue(registry.size() <= 64);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedKeyIsEvicted() {
+        KeyedResilienceRegistry<String, CircuitBreaker> registry = new KeyedResilienceRegistry<>(2, 1,
+                key -> CircuitBreaker.of("circuit-breaker:" + key, CircuitBreakerConfig.ofDefaults()),
+                KeyedResilienceRegistryTest::isNotClosed);
+        CircuitBreaker first = registry.get("1001");
+        CircuitBreaker second = registry.get("1002");
+        registry.get("1001");
+        registry.get("1003");
+        assertSame(first, registry.get("1001"));
+        assertEquals(2, registry.size());
+        assertNotSame(second, registry.get("1002"));
+    }
+
+    @Test
+    public void testOpenCircuitBreakerIsNotEvicted() {
+        KeyedResilienceRegistry<String, CircuitBreaker> registry = new KeyedResilienceRegistry<>(2, 1,
+                key -> CircuitBreaker.of("circuit-breaker:" + key, CircuitBreakerConfig.ofDefaults()),
+                KeyedResilienceRegistryTest::isNotClosed);
+        CircuitBreaker open = registry.get("1001");
+        open.transitionToOpenState();
+        CircuitBreaker closed = registry.get("1002");
+        registry.get("1003");
+        assertSame(open, registry.get("1001"));
+        assertNotSame(closed, registry.get("1002"));
+    }
+
+    @Test
+    public void testBulkheadWithCallsInFlightIsNotEvicted() {
+        KeyedResilienceRegistry<String, Bulkhead> registry = new KeyedResilienceRegistry<>(1, 1,
+                key -> Bulkhead.of("semaphore-bulkhead:" + key, BulkheadConfig.ofDefaults()),
+                bulkhead -> bulkhead.getMetrics().getAvailableConcurrentCalls()
+                        < bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+        Bulkhead busy = registry.get("1001");
+        assertTrue(busy.tryAcquirePermission());
+        registry.get("1002");
+        assertSame(busy, registry.get("1001"));
+        assertEquals(2, registry.size());
+
+        busy.onComplete();
+        registry.get("1003");
+        assertEquals(1, registry.size());
+        assertNotSame(busy, registry.get("1001"));
+    }
+
+    @Test
+    public void testFailingKeyDoesNotOpenCircuitBreakerOfOtherKeys() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .failureRateThreshold(50)
+                .build();
+        KeyedResilienceRegistry<String, CircuitBreaker> registry = new KeyedResilienceRegistry<>(100, 4,
+                key -> CircuitBreaker.of("circuit-breaker:" + key, config), KeyedResilienceRegistryTest::isNotClosed);
+        for (int i = 0; i < 4; i++) {
+            registry.get("MUNICIPAL").onError(1, TimeUnit.MILLISECONDS, new IllegalStateException("failing key"));
+            registry.get("TREASURY").onSuccess(1, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, registry.get("MUNICIPAL").getState());
+        assertFalse(registry.get("MUNICIPAL").tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.CLOSED, registry.get("TREASURY").getState());
+        assertTrue(registry.get("TREASURY").tryAcquirePermission());
+    }
+
+    private static boolean isNotClosed(CircuitBreaker circuitBreaker) {
+        return circuitBreaker.getState() != CircuitBreaker.State.CLOSED;
+    }
+}
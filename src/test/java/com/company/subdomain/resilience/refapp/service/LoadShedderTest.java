@@ -0,0 +1,79 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.RequestPriority;
+import com.company.subdomain.resilience.refapp.model.LoadSheddingMetrics;
+import com.company.subdomain.resilience.refapp.util.ClientQuota;
+import com.company.subdomain.resilience.refapp.util.LoadSheddingConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LoadShedderTest {
+    private final AtomicReference<Double> utilisation = new AtomicReference<>(0.0);
+    private LoadShedder loadShedder;
+
+    @BeforeEach
+    public void setUp() {
+        LoadSheddingConfig config = new LoadSheddingConfig();
+        config.setDefaultTokensPerSecond(0);
+        config.setDefaultBurst(100);
+        config.getClients().put("trading-desk", quota(RequestPriority.CRITICAL, 100));
+        config.getClients().put("nightly-batch", quota(RequestPriority.BATCH, 100));
+        config.getClients().put("small-client", quota(RequestPriority.NORMAL, 2));
+        loadShedder = new LoadShedder(config, utilisation::get, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testLowestPriorityIsShedFirst() {
+        utilisation.set(0.4);
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("nightly-batch", null));
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("unknown-client", null));
+
+        utilisation.set(0.5);
+        assertEquals(LoadShedder.Outcome.SHED_OVERLOAD, loadShedder.admit("nightly-batch", null));
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("unknown-client", null));
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("trading-desk", null));
+
+        utilisation.set(1.0);
+        assertEquals(LoadShedder.Outcome.SHED_OVERLOAD, loadShedder.admit("nightly-batch", null));
+        assertEquals(LoadShedder.Outcome.SHED_OVERLOAD, loadShedder.admit("unknown-client", null));
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("trading-desk", null));
+    }
+
+    @Test
+    public void testRequestMayLowerButNotRaiseItsPriority() {
+        utilisation.set(0.5);
+        assertEquals(LoadShedder.Outcome.SHED_OVERLOAD, loadShedder.admit("trading-desk", "batch"));
+        assertEquals(LoadShedder.Outcome.SHED_OVERLOAD, loadShedder.admit("nightly-batch", "CRITICAL"));
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("trading-desk", "unknown"));
+    }
+
+    @Test
+    public void testClientIsShedOnceItsQuotaIsExhausted() {
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("small-client", null));
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("small-client", null));
+        assertEquals(LoadShedder.Outcome.SHED_OVER_QUOTA, loadShedder.admit("small-client", null));
+        //other clients have their own buckets
+        assertEquals(LoadShedder.Outcome.ADMITTED, loadShedder.admit("trading-desk", null));
+
+        LoadSheddingMetrics normal = loadShedder.getLoadSheddingMetrics().stream()
+                .filter(metrics -> RequestPriority.NORMAL.name().equals(metrics.getPriority()))
+                .findFirst()
+                .get();
+        assertEquals(2, normal.getAdmitted());
+        assertEquals(1, normal.getShedOverQuota());
+        assertEquals(0, normal.getShedOverload());
+    }
+
+    private static ClientQuota quota(RequestPriority priority, int burst) {
+        ClientQuota quota = new ClientQuota();
+        quota.setPriority(priority);
+        quota.setTokensPerSecond(0);
+        quota.setBurst(burst);
+        return quota;
+    }
+}
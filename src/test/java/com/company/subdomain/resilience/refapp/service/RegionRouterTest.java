@@ -0,0 +1,146 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.exception.RegionFailureException;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClockConfig;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Failover between the regions of application.yml in virtual time, the circuit breakers wait on the same clock. The
+ * calls are made from tasks of the clock, so the clock waits for them.
+ */
+@SpringBootTest(classes = {ChaosEngineeringReferenceApplication.class, VirtualSchedulingClockConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "patterns.warmUp.enabled=false")
+class RegionRouterTest {
+    private static final String LOCAL = "us-east-1";
+    private static final String NEXT_BEST = "us-west-2";
+
+    @Autowired
+    private RegionRouter regionRouter;
+    @Autowired
+    private SchedulingClock clock;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private YMLConfig ymlConfig;
+    /**
+     * Virtual duration of the last {@link #call()}
+     */
+    private long virtualMillis;
+
+    /**
+     * The application context is shared with the other test classes on the virtual clock, their calls go through the
+     * regions too
+     */
+    @BeforeEach
+    @AfterEach
+    void resetRegions() {
+        for (OfferingsRegion region : regionRouter.regions()) {
+            region.clearFault();
+            region.circuitBreaker.reset();
+            region.failingSinceNanos = OfferingsRegion.NO_TIME;
+            region.failedOverAtNanos = OfferingsRegion.NO_TIME;
+        }
+    }
+
+    @Test
+    void testFailoverToNextBestRegionAndBack() throws Throwable {
+        OfferingsRegion local = regionRouter.region(LOCAL);
+        assertEquals(LOCAL, regionRouter.regions().get(0).name);
+        assertEquals(NEXT_BEST, regionRouter.regions().get(1).name);
+        long localMillis = timedCall(LOCAL);
+
+        FaultConfig outage = new FaultConfig();
+        outage.setErrorRate(1);
+        regionRouter.setRegionFault(LOCAL, outage, 1);
+        int failures = 0;
+        for (int i = 0; i < 30 && local.circuitBreaker.getState() != CircuitBreaker.State.OPEN; i++) {
+            assertThrows(RegionFailureException.class, this::call);
+            failures++;
+        }
+        assertEquals(CircuitBreaker.State.OPEN, local.circuitBreaker.getState());
+        //the successful call before the outage is in the window too
+        assertEquals(9, failures);
+
+        long remoteMillis = timedCall(NEXT_BEST);
+        long addedMillis = remoteMillis - localMillis;
+        assertTrue(addedMillis >= regionRouter.region(NEXT_BEST).latencyMillis && addedMillis < 200,
+                "local call " + localMillis + "ms, failed over call " + remoteMillis + "ms");
+        assertEquals(1, regionRouter.getFailovers());
+        assertEquals(1, meterRegistry.get("offerings.region.failover").tag("region", LOCAL).timer().count());
+
+        //recovered, the half-open trial calls bring the calls back
+        local.clearFault();
+        clock.scheduler().schedule(() -> null, ymlConfig.getRegions().getEjectionWaitMillis(), TimeUnit.MILLISECONDS)
+                .get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            timedCall(LOCAL);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, local.circuitBreaker.getState());
+        timedCall(LOCAL);
+        assertEquals(2, regionRouter.getFailovers());
+        assertEquals(1, meterRegistry.get("offerings.region.outage").tag("region", LOCAL).timer().count());
+    }
+
+    /**
+     * A region failing since the clock started at 0 is timed like any other
+     */
+    @Test
+    void testFailoverTimeOfFailureAtTimeZero() {
+        OfferingsRegion local = regionRouter.region(LOCAL);
+        Timer failover = meterRegistry.get("offerings.region.failover").tag("region", LOCAL).timer();
+        long count = failover.count();
+        double totalNanos = failover.totalTime(TimeUnit.NANOSECONDS);
+
+        regionRouter.completed(local, 0, 0, new RegionFailureException("Region {us-east-1} failed"));
+        assertEquals(0, local.failingSinceNanos);
+        long openedAt = clock.nanoTime();
+        local.circuitBreaker.transitionToOpenState();
+
+        assertEquals(count + 1, failover.count());
+        assertEquals(openedAt, failover.totalTime(TimeUnit.NANOSECONDS) - totalNanos, 0);
+        assertEquals(openedAt, local.failedOverAtNanos);
+    }
+
+    /**
+     * @return the virtual millis of a call which must be served by the region
+     */
+    private long timedCall(String region) throws Throwable {
+        MockDataServiceResponse response = call();
+        assertTrue(response.getHostedRegion().startsWith(region + "/replica-"), response.getHostedRegion());
+        assertEquals(region, regionRouter.getActiveRegion());
+        return virtualMillis;
+    }
+
+    private MockDataServiceResponse call() throws Throwable {
+        try {
+            return clock.scheduler().submit(() -> {
+                long virtualStart = clock.nanoTime();
+                MockDataServiceResponse response = regionRouter.getMockOfferingsDataFromService(false);
+                virtualMillis = TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - virtualStart);
+                return response;
+            }).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.enums.LoadBalancingStrategy;
+import com.company.subdomain.resilience.refapp.exception.ReplicaFailureException;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClockConfig;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing over the three replicas of application.yml in virtual time, every call spends 500ms in the repository. The
+ * callers are tasks of the clock, so the clock waits for them.
+ */
+@SpringBootTest(classes = {ChaosEngineeringReferenceApplication.class, VirtualSchedulingClockConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "patterns.warmUp.enabled=false")
+class ReplicaRouterTest {
+    private static final String DEGRADED = "replica-c";
+    private static final int CALLERS = 8;
+    private static final int CALLS_PER_CALLER = 25;
+
+    @Autowired
+    private ReplicaRouter replicaRouter;
+    @Autowired
+    private SchedulingClock clock;
+    @Autowired
+    private YMLConfig ymlConfig;
+
+    /**
+     * The application context is shared with the other test classes on the virtual clock, their calls go through the
+     * replicas too
+     */
+    @BeforeEach
+    @AfterEach
+    void resetReplicas() {
+        replicaRouter.setStrategy(LoadBalancingStrategy.P2C);
+        for (OfferingsReplica replica : replicaRouter.replicas()) {
+            replica.clearFault();
+            replica.circuitBreaker.reset();
+        }
+    }
+
+    @Test
+    void testLoadMovesAwayFromDegradedReplica() throws Exception {
+        FaultConfig slow = new FaultConfig();
+        slow.setLatencyMillis(400);
+        replicaRouter.setReplicaFault(DEGRADED, slow, 1);
+
+        Map<String, Long> roundRobin = run(LoadBalancingStrategy.ROUND_ROBIN);
+        Map<String, Long> p2c = run(LoadBalancingStrategy.P2C);
+
+        double total = CALLERS * CALLS_PER_CALLER;
+        assertEquals(CALLERS * CALLS_PER_CALLER, replicaCalls(roundRobin), "round robin " + roundRobin);
+        assertEquals(CALLERS * CALLS_PER_CALLER, replicaCalls(p2c), "p2c " + p2c);
+        assertTrue(roundRobin.get(DEGRADED) / total > 0.25, "round robin " + roundRobin);
+        assertTrue(p2c.get(DEGRADED) / total < 0.25, "p2c " + p2c);
+        //the same calls complete sooner when fewer of them wait for the degraded replica
+        assertTrue(p2c.get("virtualMillis") < roundRobin.get("virtualMillis"), "p2c " + p2c + " round robin " + roundRobin);
+    }
+
+    @Test
+    void testFailingReplicaIsEjected() throws Throwable {
+        FaultConfig failing = new FaultConfig();
+        failing.setErrorRate(1);
+        replicaRouter.setReplicaFault(DEGRADED, failing, 1);
+        OfferingsReplica degraded = replicaRouter.replica(DEGRADED);
+
+        int failures = 0;
+        for (int i = 0; i < 60 && degraded.circuitBreaker.getState() != CircuitBreaker.State.OPEN; i++) {
+            try {
+                call();
+            } catch (ReplicaFailureException e) {
+                failures++;
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, degraded.circuitBreaker.getState());
+        assertTrue(failures >= 5, "failures " + failures);
+
+        //8 calls of 500ms, within the 5s the replica stays ejected
+        long degradedCalls = degraded.calls.sum();
+        for (int i = 0; i < 8; i++) {
+            MockDataServiceResponse response = call();
+            assertNotEquals(DEGRADED, response.getHostedRegion());
+            assertTrue(response.getHostedRegion().startsWith("replica-"));
+        }
+        assertEquals(degradedCalls, degraded.calls.sum());
+        assertEquals(0, replicaRouter.getPanicRoutes());
+
+        //the ejection ends on the clock of the calls
+        clock.scheduler().schedule(() -> null, ymlConfig.getRouting().getEjectionWaitMillis(), TimeUnit.MILLISECONDS)
+                .get(10, TimeUnit.SECONDS);
+        assertTrue(degraded.circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, degraded.circuitBreaker.getState());
+    }
+
+    /**
+     * @return calls per replica and the virtual time the callers took
+     */
+    private Map<String, Long> run(LoadBalancingStrategy strategy) throws Exception {
+        replicaRouter.setStrategy(strategy);
+        Map<String, Long> callsBefore = calls();
+        AtomicInteger errors = new AtomicInteger();
+        long virtualStart = clock.nanoTime();
+        //started from one task of the clock, the clock cannot move on before all of them started
+        List<Future<Long>> callers = clock.scheduler().submit(() -> {
+            List<Future<Long>> started = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                started.add(clock.scheduler().submit(() -> {
+                    for (int call = 0; call < CALLS_PER_CALLER; call++) {
+                        try {
+                            replicaRouter.getMockOfferingsDataFromService(false);
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return clock.nanoTime();
+                }));
+            }
+            return started;
+        }).get(10, TimeUnit.SECONDS);
+        //taken by the callers, the clock may move on afterwards
+        long virtualEnd = virtualStart;
+        for (Future<Long> caller : callers) {
+            virtualEnd = Math.max(virtualEnd, caller.get(60, TimeUnit.SECONDS));
+        }
+        assertEquals(0, errors.get());
+        Map<String, Long> result = new LinkedHashMap<>();
+        calls().forEach((replica, calls) -> result.put(replica, calls - callsBefore.get(replica)));
+        result.put("virtualMillis", TimeUnit.NANOSECONDS.toMillis(virtualEnd - virtualStart));
+        return result;
+    }
+
+    private MockDataServiceResponse call() throws Throwable {
+        try {
+            return clock.scheduler().submit(() -> replicaRouter.getMockOfferingsDataFromService(false))
+                    .get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long replicaCalls(Map<String, Long> result) {
+        return result.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith("replica-"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+
+    private Map<String, Long> calls() {
+        Map<String, Long> calls = new LinkedHashMap<>();
+        for (OfferingsReplica replica : replicaRouter.replicas()) {
+            calls.put(replica.name, replica.calls.sum());
+        }
+        return calls;
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.RequestDeadline;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The degrading service chain bounded by the deadline of a client sending a tight
+ * {@value RequestDeadline#TIMEOUT_HEADER}. The degrading service takes at least 100ms per call, the time limiter times
+ * out after 3 seconds and the retry backs off 500ms, then 2500ms.
+ */
+@SpringBootTest(classes = ChaosEngineeringReferenceApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class RequestDeadlineChainTest {
+
+    @Autowired
+    private DecoratedSupplier decoratedSupplier;
+    @Autowired
+    private PatternsFactory patternsFactory;
+    @Autowired
+    private SchedulingClock clock;
+    @Autowired
+    private FaultInjector faultInjector;
+
+    /**
+     * The service is slowed down by 2 seconds, so the deadline of 300ms passes while it runs, with room for a slow
+     * machine to reach the bulkhead before the deadline
+     */
+    @Test
+    void testDeadlineCapsTimeLimiterTimeout() throws Exception {
+        FaultConfig slow = new FaultConfig();
+        slow.setLatencyMillis(2000);
+        faultInjector.setFault(FaultTarget.SERVICE, slow, 1);
+        long startNanos = System.nanoTime();
+        MockDataServiceResponse response;
+        try {
+            response = decoratedSupplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(
+                    false, RequestDeadline.fromTimeoutMillis(300L, clock));
+        } finally {
+            faultInjector.clearFault(FaultTarget.SERVICE);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertNull(response.getData());
+        assertTrue(response.getHostedRegion().endsWith("due to TimeoutException"), response.getHostedRegion());
+        assertTrue(elapsedMillis < 1000, "elapsed " + elapsedMillis);
+    }
+
+    /**
+     * The first backoff of 500ms fits in the budget of 1 second, the second of 2500ms does not
+     */
+    @Test
+    void testRetryIsSkippedWhenBackoffDoesNotFit() throws Exception {
+        long startNanos = System.nanoTime();
+        MockDataServiceResponse response = decoratedSupplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(
+                true, RequestDeadline.fromTimeoutMillis(1000L, clock));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertNull(response.getData());
+        assertTrue(response.getHostedRegion().startsWith("Request deadline leaves no time to retry"),
+                response.getHostedRegion());
+        assertTrue(elapsedMillis >= 500 && elapsedMillis < 1000, "elapsed " + elapsedMillis);
+    }
+
+    /**
+     * Every core thread of the bulkhead is busy, so the call waits in the queue until its deadline passes
+     */
+    @Test
+    void testCallQueuedPastDeadlineFailsWithDeadlineExceeded() throws Exception {
+        ThreadPoolBulkhead threadPoolBulkhead =
+                patternsFactory.endpoint(PatternsFactory.DEGRADING_SERVICE).threadPoolBulkhead;
+        int coreThreads = threadPoolBulkhead.getMetrics().getCoreThreadPoolSize();
+        CountDownLatch started = new CountDownLatch(coreThreads);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < coreThreads; i++) {
+                threadPoolBulkhead.submit(() -> {
+                    started.countDown();
+                    return release.await(10, TimeUnit.SECONDS);
+                });
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            MockDataServiceResponse response = decoratedSupplier.callDegradingOfferingsUsingSemaphoreBulkheadDecoratedService(
+                    false, RequestDeadline.fromTimeoutMillis(300L, clock));
+
+            assertNull(response.getData());
+            assertEquals("Request deadline exceeded while queued in the bulkhead", response.getHostedRegion());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.ResilienceEventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResilienceEventRingTest {
+
+    @Test
+    public void testOnlyTheMostRecentEventsAreKept() {
+        ResilienceEventRing ring = new ResilienceEventRing("simple-retry.retry-for-bulkhead", 8);
+        for (int i = 0; i < 20; i++) {
+            ring.record(ResilienceEventType.RETRY, i);
+        }
+        List<Long> values = new ArrayList<>();
+        ring.forEachNewestFirst((timestampMillis, type, value) -> {
+            assertEquals(ResilienceEventType.RETRY, type);
+            values.add(value);
+            return true;
+        });
+        assertEquals(8, values.size());
+        assertEquals(19L, values.get(0).longValue());
+        assertEquals(12L, values.get(7).longValue());
+    }
+
+    @Test
+    public void testConcurrentWritersDoNotLoseSlots() throws InterruptedException {
+        ResilienceEventRing ring = new ResilienceEventRing("simple-bulkhead.semaphore-bulkhead", 4096);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    ring.record(ResilienceEventType.BULKHEAD_REJECTED, 0);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        int[] count = {0};
+        ring.forEachNewestFirst((timestampMillis, type, value) -> {
+            count[0]++;
+            return true;
+        });
+        assertEquals(4000, count[0]);
+    }
+}
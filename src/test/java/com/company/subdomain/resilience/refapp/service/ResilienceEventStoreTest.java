@@ -0,0 +1,26 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.enums.ResilienceEventType;
+import com.company.subdomain.resilience.refapp.model.ResilienceEventStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResilienceEventStoreTest {
+
+    @Test
+    public void testNonPositiveWindowIsClampedToOneSecond() {
+        ResilienceEventStore store = new ResilienceEventStore(16);
+        store.ring("simple-retry.retry-for-bulkhead").record(ResilienceEventType.RETRY, 500);
+        store.ring("simple-retry.retry-for-bulkhead").record(ResilienceEventType.RETRY, 2500);
+
+        for (int windowSeconds : new int[]{0, -5}) {
+            List<ResilienceEventStats> stats = store.stats(windowSeconds);
+            assertEquals(1, stats.size());
+            assertEquals(2L, stats.get(0).getCount());
+            assertEquals(2.0, stats.get(0).getPerSecond(), 0.0);
+        }
+    }
+}
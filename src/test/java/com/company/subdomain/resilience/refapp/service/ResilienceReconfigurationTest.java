@@ -0,0 +1,162 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.util.EndpointConfig;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClockConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Changes resilience settings while requests run, in virtual time so the 500ms repository calls do not slow the test.
+ * The callers run as tasks of the clock, the clock only waits for the threads it knows.
+ */
+@SpringBootTest(classes = {ChaosEngineeringReferenceApplication.class, VirtualSchedulingClockConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "patterns.warmUp.enabled=false")
+class ResilienceReconfigurationTest {
+
+    @Autowired
+    private DecoratedSupplier decoratedSupplier;
+    @Autowired
+    private PatternsFactory patternsFactory;
+    @Autowired
+    private SchedulingClock clock;
+
+    @Test
+    void testReconfigureUnderLoad() throws Exception {
+        Bulkhead bulkhead = patternsFactory.endpoint(PatternsFactory.SIMPLE_SEMAPHORE_BULKHEAD).bulkhead;
+        CircuitBreaker circuitBreaker = patternsFactory.endpoint(PatternsFactory.SIMPLE_CIRCUIT_BREAKER).circuitBreaker;
+        circuitBreaker.transitionToForcedOpenState();
+        long requestsBefore = patternsFactory.endpoint(PatternsFactory.SIMPLE_SEMAPHORE_BULKHEAD).requests.sum();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong successes = new AtomicLong();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            workers.add(clock.scheduler().submit(() -> {
+                while (running.get()) {
+                    try {
+                        MockDataServiceResponse response = decoratedSupplier.callSemaphoreBulkheadDecoratedService("1", false);
+                        if (response.getData() != null) {
+                            successes.incrementAndGet();
+                        }
+                        decoratedSupplier.callCircuitBreakerDecoratedService(false);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        for (int numberOfThreads : new int[]{8, 2, 6}) {
+            Thread.sleep(100);
+            decoratedSupplier.reconfigure(Collections.singletonMap(PatternsFactory.SIMPLE_SEMAPHORE_BULKHEAD,
+                    numberOfThreads(numberOfThreads)));
+        }
+        EndpointConfig failureRate = new EndpointConfig();
+        failureRate.setFailureRateThreshold(60);
+        decoratedSupplier.reconfigure(Collections.singletonMap(PatternsFactory.SIMPLE_CIRCUIT_BREAKER, failureRate));
+        Thread.sleep(100);
+        running.set(false);
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, errors.get());
+        assertTrue(successes.get() > 0);
+        //the in-place change kept every in-flight permit accounted
+        EndpointPatterns semaphoreEndpoint = patternsFactory.endpoint(PatternsFactory.SIMPLE_SEMAPHORE_BULKHEAD);
+        assertSame(bulkhead, semaphoreEndpoint.bulkhead);
+        assertEquals(6, bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+        assertEquals(6, bulkhead.getMetrics().getAvailableConcurrentCalls());
+        assertTrue(semaphoreEndpoint.requests.sum() > requestsBefore);
+        //the rebuilt circuit breaker kept the state of the previous one
+        CircuitBreaker rebuilt = patternsFactory.endpoint(PatternsFactory.SIMPLE_CIRCUIT_BREAKER).circuitBreaker;
+        assertNotSame(circuitBreaker, rebuilt);
+        assertEquals(CircuitBreaker.State.FORCED_OPEN, rebuilt.getState());
+        assertEquals(60f, rebuilt.getCircuitBreakerConfig().getFailureRateThreshold());
+        assertSame(rebuilt, patternsFactory.circuitBreakerRegistry.circuitBreaker(rebuilt.getName()));
+        rebuilt.transitionToClosedState();
+    }
+
+    @Test
+    void testReplacedThreadPoolBulkheadThreadsExit() throws Exception {
+        ShutdownableThreadPoolBulkhead previous = patternsFactory.endpoint(PatternsFactory.OFFERINGS).threadPoolBulkhead;
+        for (int i = 0; i < 4; i++) {
+            callOfferings();
+        }
+        List<Thread> previousThreads = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("bulkhead-" + previous.getName() + "-")) {
+                previousThreads.add(thread);
+            }
+        }
+        assertFalse(previousThreads.isEmpty());
+
+        decoratedSupplier.reconfigure(Collections.singletonMap(PatternsFactory.OFFERINGS, numberOfThreads(6)));
+
+        ShutdownableThreadPoolBulkhead replacement = patternsFactory.endpoint(PatternsFactory.OFFERINGS).threadPoolBulkhead;
+        assertNotSame(previous, replacement);
+        assertSame(replacement, patternsFactory.threadPoolBulkheadRegistry.bulkhead(previous.getName()));
+        //the previous pool is shut down after the time limiter timeout, its idle threads exit right away
+        for (Thread thread : previousThreads) {
+            thread.join(10_000);
+            assertFalse(thread.isAlive(), thread.getName());
+        }
+        assertTrue(previous.isTerminated());
+        callOfferings();
+        assertTrue(replacement.getMetrics().getThreadPoolSize() > 0);
+    }
+
+    @Test
+    void testInvalidValueRejectsWholeUpdate() {
+        EndpointConfig invalid = new EndpointConfig();
+        invalid.setFailureRateThreshold(150);
+        Map<String, EndpointConfig> overrides = new LinkedHashMap<>();
+        overrides.put(PatternsFactory.SIMPLE_BULKHEAD, numberOfThreads(12));
+        overrides.put(PatternsFactory.SIMPLE_CIRCUIT_BREAKER, invalid);
+        EndpointConfig before = decoratedSupplier.getEndpointConfigs().get(PatternsFactory.SIMPLE_BULKHEAD);
+
+        assertThrows(IllegalArgumentException.class, () -> decoratedSupplier.reconfigure(overrides));
+        assertThrows(IllegalArgumentException.class, () -> decoratedSupplier.reconfigure(
+                Collections.singletonMap("unknown-endpoint", numberOfThreads(2))));
+
+        assertEquals(before, decoratedSupplier.getEndpointConfigs().get(PatternsFactory.SIMPLE_BULKHEAD));
+        assertEquals(before.getNumberOfThreads().intValue(), patternsFactory.endpoint(PatternsFactory.SIMPLE_BULKHEAD)
+                .bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+    }
+
+    private void callOfferings() throws Exception {
+        clock.scheduler().submit(() -> decoratedSupplier.callThreadPoolBulkheadAndTimeLimiterDecoratedService(false))
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private static EndpointConfig numberOfThreads(int numberOfThreads) {
+        EndpointConfig config = new EndpointConfig();
+        config.setNumberOfThreads(numberOfThreads);
+        return config;
+    }
+}
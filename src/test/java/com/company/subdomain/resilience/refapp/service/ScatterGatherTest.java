@@ -0,0 +1,134 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.enums.OfferingSource;
+import com.company.subdomain.resilience.refapp.enums.SourceOutcome;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.company.subdomain.resilience.refapp.model.SourceStatus;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.RequestDeadline;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClockConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The sources are called in parallel in virtual time: reference data 300ms, bid quotes 100ms and ask quotes 150ms, each
+ * cut off by a 1 second time limiter. The endpoint is called from a task of the clock, so the clock waits for it.
+ */
+@SpringBootTest(classes = {ChaosEngineeringReferenceApplication.class, VirtualSchedulingClockConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"patterns.warmUp.enabled=false", "patterns.snapshot.refreshMillis=600000"})
+class ScatterGatherTest {
+
+    @Autowired
+    private DecoratedSupplier decoratedSupplier;
+    @Autowired
+    private PatternsFactory patternsFactory;
+    @Autowired
+    private SchedulingClock clock;
+    @Autowired
+    private FaultInjector faultInjector;
+    /**
+     * Virtual duration of the last {@link #scatterGather()}, taken inside the task as the clock moves on afterwards
+     * for a timed out source which is still sleeping
+     */
+    private long virtualMillis;
+
+    @AfterEach
+    void clearFaults() {
+        faultInjector.clearFaults();
+    }
+
+    @Test
+    void testLatencyOfSlowestSource() throws Exception {
+        MockDataServiceResponse response = scatterGather();
+
+        //the slowest source, not the sum of 550ms
+        assertTrue(virtualMillis >= 300 && virtualMillis < 550, "virtual " + virtualMillis);
+        outcomes(response).values().forEach(outcome -> assertEquals(SourceOutcome.OK, outcome));
+        assertNotNull(response.getSnapshotVersion());
+        assertEquals(100, response.getData().size());
+        for (Offering offering : response.getData()) {
+            assertNotNull(offering.getCusip());
+            assertNotNull(offering.getBidPrice());
+            assertNotNull(offering.getAskPrice());
+        }
+    }
+
+    @Test
+    void testPartialResponseWhenSourceTimesOut() throws Exception {
+        FaultConfig fault = new FaultConfig();
+        fault.setLatencyMillis(TimeUnit.SECONDS.toMillis(10));
+        faultInjector.setFault(FaultTarget.ASK_QUOTES, fault, 1);
+        MockDataServiceResponse response = scatterGather();
+
+        assertTrue(virtualMillis >= 1000 && virtualMillis < 10_000, "virtual " + virtualMillis);
+        Map<OfferingSource, SourceOutcome> outcomes = outcomes(response);
+        assertEquals(SourceOutcome.OK, outcomes.get(OfferingSource.REFERENCE_DATA));
+        assertEquals(SourceOutcome.OK, outcomes.get(OfferingSource.BID_QUOTES));
+        assertEquals(SourceOutcome.TIMEOUT, outcomes.get(OfferingSource.ASK_QUOTES));
+        //partial data is neither cached nor given an ETag
+        assertNull(response.getSnapshotVersion());
+        assertEquals(100, response.getData().size());
+        for (Offering offering : response.getData()) {
+            assertNotNull(offering.getCusip());
+            assertNotNull(offering.getBidPrice());
+            assertNull(offering.getAskPrice());
+        }
+    }
+
+    @Test
+    void testOpenSourceIsSkippedWithoutWaiting() throws Exception {
+        CircuitBreaker circuitBreaker = patternsFactory.endpoint(PatternsFactory.SOURCE_REFERENCE_DATA).circuitBreaker;
+        circuitBreaker.transitionToForcedOpenState();
+        try {
+            MockDataServiceResponse response = scatterGather();
+
+            //the quote sources alone
+            assertTrue(virtualMillis >= 150 && virtualMillis < 300, "virtual " + virtualMillis);
+            assertEquals(SourceOutcome.CIRCUIT_OPEN, outcomes(response).get(OfferingSource.REFERENCE_DATA));
+            assertEquals(100, response.getData().size());
+            for (Offering offering : response.getData()) {
+                assertNull(offering.getCusip());
+                assertNotNull(offering.getOfferId());
+                assertNotNull(offering.getAskPrice());
+            }
+        } finally {
+            circuitBreaker.transitionToClosedState();
+        }
+    }
+
+    private MockDataServiceResponse scatterGather() throws Exception {
+        return clock.scheduler().submit(() -> {
+            long virtualStart = clock.nanoTime();
+            MockDataServiceResponse response = decoratedSupplier.callScatterGatherDecoratedService(RequestDeadline.none());
+            virtualMillis = TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - virtualStart);
+            return response;
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    private static Map<OfferingSource, SourceOutcome> outcomes(MockDataServiceResponse response) {
+        Map<OfferingSource, SourceOutcome> outcomes = new EnumMap<>(OfferingSource.class);
+        for (SourceStatus status : response.getSources()) {
+            outcomes.put(status.getSource(), status.getOutcome());
+        }
+        assertEquals(OfferingSource.values().length, outcomes.size());
+        return outcomes;
+    }
+}
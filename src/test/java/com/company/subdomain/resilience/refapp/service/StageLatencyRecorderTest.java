@@ -0,0 +1,47 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.model.LatencyPercentiles;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StageLatencyRecorderTest {
+
+    @Test
+    public void testThreadRecordersAreMergedIntoIntervalAndCumulative() throws InterruptedException {
+        StageLatencyRecorder recorder = new StageLatencyRecorder();
+        Thread other = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                recorder.recordNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        });
+        other.start();
+        for (int i = 0; i < 900; i++) {
+            recorder.recordNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        other.join();
+
+        recorder.collect();
+        LatencyPercentiles interval = recorder.getInterval();
+        assertEquals(1000, interval.getCount());
+        //2 significant digits, values are within 1% of what was recorded
+        assertEquals(1000, interval.getP50(), 10);
+        assertEquals(100_000, interval.getP99(), 1000);
+
+        recorder.recordNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.collect();
+        assertEquals(1, recorder.getInterval().getCount());
+        assertEquals(1001, recorder.getCumulative().getCount());
+    }
+
+    @Test
+    public void testValuesAboveRangeAreClamped() {
+        StageLatencyRecorder recorder = new StageLatencyRecorder();
+        recorder.recordNanos(TimeUnit.HOURS.toNanos(1));
+        recorder.collect();
+        assertTrue(recorder.getInterval().getMax() >= TimeUnit.MINUTES.toMicros(1) * 99 / 100);
+    }
+}
@@ -0,0 +1,71 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.YMLConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = ChaosEngineeringReferenceApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"patterns.warmUp.enabled=true", "patterns.warmUp.iterations=50"})
+class StartupWarmUpTest {
+
+    @Autowired
+    private WarmUpHealthIndicator warmUpHealthIndicator;
+    @Autowired
+    private PatternsFactory patternsFactory;
+    @Autowired
+    private StartupWarmUp startupWarmUp;
+    @Autowired
+    private YMLConfig ymlConfig;
+    @Autowired
+    private SchedulingClock clock;
+
+    @Test
+    void testReadyAfterWarmUpWithoutTouchingApplicationState() throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (warmUpHealthIndicator.health().getStatus() != Status.UP && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(Status.UP, warmUpHealthIndicator.health().getStatus());
+        for (String endpoint : PatternsFactory.ENDPOINTS) {
+            EndpointPatterns endpointPatterns = patternsFactory.endpoint(endpoint);
+            assertEquals(0, endpointPatterns.requests.sum(), endpoint);
+            assertEquals(0, endpointPatterns.circuitBreaker.getMetrics().getNumberOfBufferedCalls(), endpoint);
+        }
+        //the pools of other cached test contexts keep their threads, only those of the warm-up factory must exit
+        PatternsFactory warmUpPatterns = startupWarmUp.getWarmUpPatterns();
+        deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!warmUpPatterns.isTerminated() && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(50);
+        }
+        assertTrue(warmUpPatterns.isTerminated());
+    }
+
+    /**
+     * The warm-up settings apply from the first call, the RateLimiter starts with the lifted limit
+     */
+    @Test
+    void testWarmUpPatternsAreCreatedWithTheWarmUpSettings() {
+        PatternsFactory warmUpPatterns = new PatternsFactory(ymlConfig, new SimpleMeterRegistry(), clock,
+                StartupWarmUp.warmUpOverrides());
+        try {
+            EndpointPatterns rateLimited = warmUpPatterns.endpoint(PatternsFactory.SIMPLE_RATE_LIMITER);
+            assertEquals(Integer.MAX_VALUE, rateLimited.rateLimiter.getMetrics().getAvailablePermissions());
+            assertEquals(10L, warmUpPatterns.endpoint(PatternsFactory.SIMPLE_RETRY).retry.getRetryConfig()
+                    .getIntervalFunction().apply(1));
+        } finally {
+            warmUpPatterns.shutdown();
+        }
+    }
+}
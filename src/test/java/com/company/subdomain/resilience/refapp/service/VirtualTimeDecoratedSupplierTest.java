@@ -0,0 +1,80 @@
+package com.company.subdomain.resilience.refapp.service;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClockConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retry backoff, repository latency and time limiter timeouts in virtual time: the clock advances by seconds while the
+ * test takes milliseconds. The calls run as tasks of the clock, the clock only waits for the threads it knows.
+ */
+@SpringBootTest(classes = {ChaosEngineeringReferenceApplication.class, VirtualSchedulingClockConfig.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "patterns.warmUp.enabled=false")
+class VirtualTimeDecoratedSupplierTest {
+
+    @Autowired
+    private DecoratedSupplier decoratedSupplier;
+    @Autowired
+    private SchedulingClock clock;
+    @Autowired
+    private FaultInjector faultInjector;
+
+    @AfterEach
+    void clearFaults() {
+        faultInjector.clearFaults();
+    }
+
+    @Test
+    void testRetryBackoffAndRepositoryLatencyInVirtualTime() throws Exception {
+        AtomicReference<MockDataServiceResponse> response = new AtomicReference<>();
+        long wallStart = System.nanoTime();
+        //the first attempt fails, the retry waits 500ms and the repository sleeps 500ms
+        long virtualMillis = virtualMillis(() -> decoratedSupplier.callRetryDecoratedService(true), response);
+        assertEquals(100, response.get().getData().size());
+        assertEquals(1000, virtualMillis);
+        assertTrue(System.nanoTime() - wallStart < TimeUnit.MILLISECONDS.toNanos(virtualMillis));
+    }
+
+    @Test
+    void testTimeLimiterTimesOutInVirtualTime() throws Exception {
+        FaultConfig fault = new FaultConfig();
+        fault.setLatencyMillis(TimeUnit.SECONDS.toMillis(10));
+        faultInjector.setFault(FaultTarget.SERVICE, fault, 1);
+        AtomicReference<MockDataServiceResponse> response = new AtomicReference<>();
+        long wallStart = System.nanoTime();
+        //the time limiter gives up after 3 seconds of virtual time
+        long virtualMillis = virtualMillis(() -> decoratedSupplier.callTimeLimiterDecoratedService(false), response);
+        assertNull(response.get().getData());
+        assertEquals(3000, virtualMillis);
+        assertTrue(System.nanoTime() - wallStart < TimeUnit.SECONDS.toNanos(3));
+    }
+
+    /**
+     * Runs the call as a task of the clock and measures it there, the clock moves on with the sleep of a timed out
+     * call once the task returned
+     */
+    private long virtualMillis(Callable<MockDataServiceResponse> call, AtomicReference<MockDataServiceResponse> response)
+            throws Exception {
+        return clock.scheduler().submit(() -> {
+            long virtualStart = clock.nanoTime();
+            response.set(call.call());
+            return TimeUnit.NANOSECONDS.toMillis(clock.nanoTime() - virtualStart);
+        }).get(5, TimeUnit.SECONDS);
+    }
+}
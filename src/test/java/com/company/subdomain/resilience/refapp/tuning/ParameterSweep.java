@@ -0,0 +1,297 @@
+package com.company.subdomain.resilience.refapp.tuning;
+
+import com.company.subdomain.resilience.refapp.ChaosEngineeringReferenceApplication;
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.loadtest.LoadProfile;
+import com.company.subdomain.resilience.refapp.loadtest.LoadReport;
+import com.company.subdomain.resilience.refapp.loadtest.LoadTarget;
+import com.company.subdomain.resilience.refapp.loadtest.LoadTestMain;
+import com.company.subdomain.resilience.refapp.loadtest.OpenModelLoadGenerator;
+import com.company.subdomain.resilience.refapp.loadtest.PhaseLoadReport;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.service.DecoratedSupplier;
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import com.company.subdomain.resilience.refapp.util.FaultInjector;
+import com.company.subdomain.resilience.refapp.util.SchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClock;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClockConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.vavr.CheckedFunction0;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sweeps a grid of resilience parameters of one DecoratedController endpoint against a fixed downstream fault profile
+ * and recommends the configuration with the best goodput within a p99 latency budget.
+ * <p>
+ * Every grid point runs in its own application context (no web server) with the parameters set as
+ * patterns.endpoints.&lt;endpoint&gt;.&lt;parameter&gt; overrides, the fault profile set on the SERVICE
+ * {@link FaultInjector} target with the same seed, and constant rate open model load calling the DecoratedSupplier in
+ * process. With {@code sweep.time=virtual} the context uses a {@link VirtualSchedulingClock}, so injected latency,
+ * retry backoffs, time limiter timeouts and the CircuitBreaker open state elapse in virtual time and a minute of load
+ * per point takes seconds. Every context has its own clock, which only waits for the threads of its own context, so
+ * points running in parallel do not hold back each other's time. The resilience4j RateLimiter reads the wall clock,
+ * the rate limiter endpoint is only swept with {@code sweep.time=real}.
+ * <p>
+ * Points are compared on goodput (successful responses per second), p99 latency from the intended start and downstream
+ * load (calls reaching OfferingsDataService per second, retries included). The Pareto frontier of the three and the
+ * recommendation are written to target/sweep-reports/&lt;endpoint&gt;.json, the recommendation as an application.yml
+ * block to &lt;endpoint&gt;-recommended.yml.
+ * <p>
+ * System properties:
+ * <ul>
+ * <li>{@code sweep.endpoint} PatternsFactory endpoint name, default simple-circuit-breaker</li>
+ * <li>{@code sweep.grid} e.g. failureRateThreshold=25,50,75;slidingWindowSize=4,10,20</li>
+ * <li>{@code sweep.rate} requests per second, default 20</li>
+ * <li>{@code sweep.duration} per point, default 60s</li>
+ * <li>{@code sweep.errorRate}, {@code sweep.latencyMillis}, {@code sweep.jitterMillis} downstream fault profile</li>
+ * <li>{@code sweep.seed} fault sequence seed, default 42</li>
+ * <li>{@code sweep.p99BudgetMillis} latency budget of the recommendation, 0 for none</li>
+ * <li>{@code sweep.parallelism} points run concurrently, default 2</li>
+ * <li>{@code sweep.time} virtual or real, default virtual</li>
+ * </ul>
+ */
+public class ParameterSweep {
+    private static Logger LOGGER = LoggerFactory.getLogger(ParameterSweep.class);
+
+    private static final Map<String, String> ENDPOINT_PATHS = createEndpointPaths();
+    /**
+     * Endpoints whose patterns read the wall clock
+     */
+    private static final Set<String> WALL_CLOCK_ENDPOINTS = Collections.singleton("simple-rate-limiter");
+
+    private final String endpoint;
+    private final double rate;
+    private final long durationNanos;
+    private final FaultConfig downstream;
+    private final long seed;
+    private final boolean virtualTime;
+
+    ParameterSweep(String endpoint, double rate, long durationNanos, FaultConfig downstream, long seed,
+                   boolean virtualTime) {
+        if (!ENDPOINT_PATHS.containsKey(endpoint)) {
+            throw new IllegalArgumentException("Endpoint " + endpoint + " cannot be swept, use one of "
+                    + ENDPOINT_PATHS.keySet());
+        }
+        if (virtualTime && WALL_CLOCK_ENDPOINTS.contains(endpoint)) {
+            throw new IllegalArgumentException("Endpoint " + endpoint
+                    + " uses the wall clock and cannot be swept in virtual time, use -Dsweep.time=real");
+        }
+        this.endpoint = endpoint;
+        this.rate = rate;
+        this.durationNanos = durationNanos;
+        this.downstream = downstream;
+        this.seed = seed;
+        this.virtualTime = virtualTime;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String endpoint = System.getProperty("sweep.endpoint", "simple-circuit-breaker");
+        Map<String, List<Integer>> grid = parseGrid(System.getProperty("sweep.grid",
+                "failureRateThreshold=25,50,75;slidingWindowSize=4,10,20"));
+        FaultConfig downstream = new FaultConfig();
+        downstream.setErrorRate(Double.parseDouble(System.getProperty("sweep.errorRate", "0.2")));
+        downstream.setLatencyMillis(Long.parseLong(System.getProperty("sweep.latencyMillis", "50")));
+        downstream.setLatencyJitterMillis(Long.parseLong(System.getProperty("sweep.jitterMillis", "20")));
+        ParameterSweep sweep = new ParameterSweep(endpoint,
+                Double.parseDouble(System.getProperty("sweep.rate", "20")),
+                LoadProfile.parseDurationNanos(System.getProperty("sweep.duration", "60s")),
+                downstream,
+                Long.parseLong(System.getProperty("sweep.seed", "42")),
+                !"real".equals(System.getProperty("sweep.time", "virtual")));
+
+        SweepReport report = sweep.run(grid, Integer.getInteger("sweep.parallelism", 2),
+                Double.parseDouble(System.getProperty("sweep.p99BudgetMillis", "0")));
+        write(report, Paths.get("target", "sweep-reports"));
+        LOGGER.warn("Recommended {} for {}: {}", report.getRecommended() == null ? null
+                : report.getRecommended().getParameters(), endpoint, report.getRecommended());
+    }
+
+    SweepReport run(Map<String, List<Integer>> grid, int parallelism, double p99BudgetMillis) throws Exception {
+        List<Map<String, Integer>> combinations = combinations(grid);
+        LOGGER.warn("Sweeping {} combinations of {} for {}", combinations.size(), grid.keySet(), endpoint);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<SweepPoint> points = new ArrayList<>();
+        try {
+            List<Future<SweepPoint>> futures = new ArrayList<>();
+            for (Map<String, Integer> parameters : combinations) {
+                futures.add(executor.submit(() -> runPoint(parameters)));
+            }
+            for (Future<SweepPoint> future : futures) {
+                points.add(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        List<SweepPoint> frontier = ParetoFrontier.of(points);
+        SweepPoint recommended = ParetoFrontier.recommend(frontier, p99BudgetMillis);
+
+        SweepReport report = new SweepReport();
+        report.setEndpoint(endpoint);
+        report.setVirtualTime(virtualTime);
+        report.setRate(rate);
+        report.setDurationSeconds(durationNanos / 1e9);
+        report.setDownstream(downstream);
+        report.setPoints(points);
+        report.setFrontier(frontier);
+        report.setRecommended(recommended);
+        report.setRecommendedConfig(recommended == null ? null : recommendedConfig(endpoint, recommended));
+        return report;
+    }
+
+    SweepPoint runPoint(Map<String, Integer> parameters) throws InterruptedException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.jmx.enabled", "false");
+        properties.put("patterns.warmUp.enabled", "false");
+        parameters.forEach((name, value) -> properties.put("patterns.endpoints." + endpoint + "." + name, value));
+        List<Class<?>> sources = new ArrayList<>();
+        sources.add(ChaosEngineeringReferenceApplication.class);
+        if (virtualTime) {
+            sources.add(VirtualSchedulingClockConfig.class);
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(sources.toArray(new Class<?>[0]))
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run()) {
+            FaultInjector faultInjector = context.getBean(FaultInjector.class);
+            faultInjector.setFault(FaultTarget.SERVICE, downstream, seed);
+            CheckedFunction0<MockDataServiceResponse> call = LoadTestMain.directCall(
+                    context.getBean(DecoratedSupplier.class), ENDPOINT_PATHS.get(endpoint));
+            SweepPoint point = virtualTime
+                    ? measureVirtual((VirtualSchedulingClock) context.getBean(SchedulingClock.class), call)
+                    : measureReal(call);
+            point.setParameters(parameters);
+            point.setDownstreamLoad(faultInjector.getCalls(FaultTarget.SERVICE) / (durationNanos / 1e9));
+            LOGGER.warn("{} {}: goodput {}/s, p99 {}ms, downstream {}/s", endpoint, parameters, point.getGoodput(),
+                    point.getP99Millis(), point.getDownstreamLoad());
+            return point;
+        }
+    }
+
+    private SweepPoint measureVirtual(VirtualSchedulingClock clock, CheckedFunction0<MockDataServiceResponse> call)
+            throws InterruptedException {
+        try {
+            VirtualTimeLoadDriver.Measurement measurement = VirtualTimeLoadDriver.run(clock, call, rate, durationNanos);
+            double seconds = durationNanos / 1e9;
+            long requests = measurement.successes.sum() + measurement.fallbacks.sum() + measurement.errors.sum();
+            SweepPoint point = new SweepPoint();
+            point.setGoodput(measurement.successes.sum() / seconds);
+            point.setP99Millis(measurement.latencyMicros.getValueAtPercentile(99) / 1000.0);
+            point.setFallbackRate(requests == 0 ? 0 : (double) measurement.fallbacks.sum() / requests);
+            point.setErrorRate(requests == 0 ? 0 : (double) measurement.errors.sum() / requests);
+            return point;
+        } finally {
+            clock.stopAutoAdvance();
+        }
+    }
+
+    private SweepPoint measureReal(CheckedFunction0<MockDataServiceResponse> call) throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            LoadProfile profile = new LoadProfile(Collections.singletonList(
+                    new LoadProfile.Phase("sweep", rate, rate, durationNanos)));
+            LoadReport report = new OpenModelLoadGenerator(30_000).run(endpoint, profile,
+                    Collections.singletonList(LoadTarget.direct(endpoint, call, executor)));
+            PhaseLoadReport total = report.getEndpoints().get(0).getTotal();
+            SweepPoint point = new SweepPoint();
+            point.setGoodput(total.getSuccesses() / total.getDurationSeconds());
+            point.setP99Millis(total.getLatency().getP99() / 1000.0);
+            point.setFallbackRate(total.getFallbackRate());
+            point.setErrorRate(total.getErrorRate());
+            return point;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @param spec parameter=value,value;parameter=value... with EndpointConfig property names
+     */
+    static Map<String, List<Integer>> parseGrid(String spec) {
+        Map<String, List<Integer>> grid = new LinkedHashMap<>();
+        for (String axis : spec.split(";")) {
+            String[] nameAndValues = axis.trim().split("=");
+            if (nameAndValues.length != 2) {
+                throw new IllegalArgumentException("Invalid sweep axis " + axis + ", expected parameter=v1,v2,...");
+            }
+            List<Integer> values = new ArrayList<>();
+            for (String value : nameAndValues[1].split(",")) {
+                values.add(Integer.valueOf(value.trim()));
+            }
+            grid.put(nameAndValues[0].trim(), values);
+        }
+        return grid;
+    }
+
+    static List<Map<String, Integer>> combinations(Map<String, List<Integer>> grid) {
+        List<Map<String, Integer>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<Integer>> axis : grid.entrySet()) {
+            List<Map<String, Integer>> extended = new ArrayList<>();
+            for (Map<String, Integer> combination : combinations) {
+                for (Integer value : axis.getValue()) {
+                    Map<String, Integer> next = new LinkedHashMap<>(combination);
+                    next.put(axis.getKey(), value);
+                    extended.add(next);
+                }
+            }
+            combinations = extended;
+        }
+        return combinations;
+    }
+
+    /**
+     * A patterns.endpoints block rather than patterns.config values, the endpoint sections of application.yml
+     * override the shared values
+     */
+    static String recommendedConfig(String endpoint, SweepPoint recommended) {
+        StringBuilder yml = new StringBuilder("patterns.endpoints:\n  ").append(endpoint).append(":\n");
+        recommended.getParameters().forEach((name, value) ->
+                yml.append("    ").append(name).append(": ").append(value).append('\n'));
+        return yml.toString();
+    }
+
+    private static void write(SweepReport report, Path directory) throws Exception {
+        Files.createDirectories(directory);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve(report.getEndpoint() + ".json").toFile(), report);
+        if (report.getRecommendedConfig() != null) {
+            Files.write(directory.resolve(report.getEndpoint() + "-recommended.yml"),
+                    report.getRecommendedConfig().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> createEndpointPaths() {
+        Map<String, String> paths = new LinkedHashMap<>();
+        paths.put("offerings", "offeringsWithThreadPoolBulkheadAndTimeLimiter?throwException=false");
+        paths.put("simple-retry", "simpleRetry?throwException=false");
+        paths.put("simple-circuit-breaker", "simpleCircuitBreaker?throwException=false");
+        paths.put("simple-bulkhead", "simpleBulkhead?throwException=false");
+        paths.put("simple-rate-limiter", "simpleRateLimiter?throwException=false");
+        paths.put("simple-time-limiter", "simpleTimeLimiter?throwException=false");
+        paths.put("simple-semaphore-bulkhead", "simpleSemaphoreBulkhead?offerId=1&throwException=false");
+        paths.put("degrading-service", "degradingService?throwException=false");
+        return Collections.unmodifiableMap(paths);
+    }
+}
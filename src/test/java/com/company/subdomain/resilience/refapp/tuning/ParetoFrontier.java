@@ -0,0 +1,53 @@
+package com.company.subdomain.resilience.refapp.tuning;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sweep points not dominated by another point: no other point has at least the goodput, at most the p99 latency and at
+ * most the downstream load while being strictly better in one of them
+ */
+final class ParetoFrontier {
+
+    private ParetoFrontier() {
+    }
+
+    static List<SweepPoint> of(List<SweepPoint> points) {
+        List<SweepPoint> frontier = new ArrayList<>();
+        for (SweepPoint point : points) {
+            boolean dominated = points.stream().anyMatch(other -> dominates(other, point));
+            point.setParetoOptimal(!dominated);
+            if (!dominated) {
+                frontier.add(point);
+            }
+        }
+        frontier.sort(Comparator.comparingDouble(SweepPoint::getGoodput).reversed()
+                .thenComparingDouble(SweepPoint::getP99Millis));
+        return frontier;
+    }
+
+    /**
+     * @param p99BudgetMillis points above the budget are only considered if no point meets it, 0 for no budget
+     * @return the frontier point with the highest goodput within the latency budget, ties broken by p99 and load
+     */
+    static SweepPoint recommend(List<SweepPoint> frontier, double p99BudgetMillis) {
+        Comparator<SweepPoint> best = Comparator.comparingDouble(SweepPoint::getGoodput).reversed()
+                .thenComparingDouble(SweepPoint::getP99Millis)
+                .thenComparingDouble(SweepPoint::getDownstreamLoad);
+        return frontier.stream()
+                .filter(point -> p99BudgetMillis <= 0 || point.getP99Millis() <= p99BudgetMillis)
+                .min(best)
+                .orElseGet(() -> frontier.stream()
+                        .min(Comparator.comparingDouble(SweepPoint::getP99Millis))
+                        .orElse(null));
+    }
+
+    static boolean dominates(SweepPoint a, SweepPoint b) {
+        boolean noWorse = a.getGoodput() >= b.getGoodput() && a.getP99Millis() <= b.getP99Millis()
+                && a.getDownstreamLoad() <= b.getDownstreamLoad();
+        boolean better = a.getGoodput() > b.getGoodput() || a.getP99Millis() < b.getP99Millis()
+                || a.getDownstreamLoad() < b.getDownstreamLoad();
+        return noWorse && better;
+    }
+}
@@ -0,0 +1,54 @@
+package com.company.subdomain.resilience.refapp.tuning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParetoFrontierTest {
+
+    @Test
+    public void testDominatedPointsAreExcludedAndBudgetIsApplied() {
+        SweepPoint fast = point(1, 18, 40, 20);
+        SweepPoint productive = point(2, 19, 120, 22);
+        SweepPoint dominated = point(3, 17, 130, 25);
+        SweepPoint frugal = point(4, 15, 60, 15);
+
+        List<SweepPoint> frontier = ParetoFrontier.of(Arrays.asList(fast, productive, dominated, frugal));
+
+        assertEquals(Arrays.asList(productive, fast, frugal), frontier);
+        assertFalse(dominated.isParetoOptimal());
+        assertTrue(frugal.isParetoOptimal());
+        assertSame(productive, ParetoFrontier.recommend(frontier, 0));
+        assertSame(fast, ParetoFrontier.recommend(frontier, 100));
+        //no point meets the budget, the lowest p99 is recommended
+        assertSame(fast, ParetoFrontier.recommend(frontier, 10));
+    }
+
+    @Test
+    public void testGridCombinations() {
+        Map<String, List<Integer>> grid = ParameterSweep.parseGrid("failureRateThreshold=25,50;slidingWindowSize=4,10,20");
+
+        List<Map<String, Integer>> combinations = ParameterSweep.combinations(grid);
+
+        assertEquals(6, combinations.size());
+        assertEquals(Integer.valueOf(25), combinations.get(0).get("failureRateThreshold"));
+        assertEquals(Integer.valueOf(20), combinations.get(5).get("slidingWindowSize"));
+    }
+
+    private static SweepPoint point(int id, double goodput, double p99Millis, double downstreamLoad) {
+        SweepPoint point = new SweepPoint();
+        point.setParameters(Collections.singletonMap("id", id));
+        point.setGoodput(goodput);
+        point.setP99Millis(p99Millis);
+        point.setDownstreamLoad(downstreamLoad);
+        return point;
+    }
+}
@@ -0,0 +1,35 @@
+package com.company.subdomain.resilience.refapp.tuning;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Result of running one combination of the swept parameters, rates per second of (virtual) run time
+ */
+@Data
+public class SweepPoint {
+
+    private Map<String, Integer> parameters;
+
+    /**
+     * Successful responses, fallbacks and errors excluded
+     */
+    private double goodput;
+
+    /**
+     * Measured from the intended start of each request
+     */
+    private double p99Millis;
+
+    /**
+     * Calls reaching the OfferingsDataService, retries included
+     */
+    private double downstreamLoad;
+
+    private double fallbackRate;
+
+    private double errorRate;
+
+    private boolean paretoOptimal;
+}
@@ -0,0 +1,31 @@
+package com.company.subdomain.resilience.refapp.tuning;
+
+import com.company.subdomain.resilience.refapp.util.FaultConfig;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SweepReport {
+
+    private String endpoint;
+
+    private boolean virtualTime;
+
+    private double rate;
+
+    private double durationSeconds;
+
+    private FaultConfig downstream;
+
+    private List<SweepPoint> points;
+
+    private List<SweepPoint> frontier;
+
+    private SweepPoint recommended;
+
+    /**
+     * application.yml block with the recommended values
+     */
+    private String recommendedConfig;
+}
@@ -0,0 +1,76 @@
+package com.company.subdomain.resilience.refapp.tuning;
+
+import com.company.subdomain.resilience.refapp.loadtest.RequestOutcome;
+import com.company.subdomain.resilience.refapp.model.MockDataServiceResponse;
+import com.company.subdomain.resilience.refapp.util.VirtualSchedulingClock;
+import io.vavr.CheckedFunction0;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Constant rate open model load in virtual time: every arrival is a task scheduled on the virtual clock at its
+ * intended start, so the request threads sleep, wait for backoffs and time out on the virtual clock and a minute of
+ * load passes in seconds of wall time. Latency is measured on the virtual clock from the intended start.
+ */
+class VirtualTimeLoadDriver {
+
+    static Measurement run(VirtualSchedulingClock clock, CheckedFunction0<MockDataServiceResponse> call, double rate,
+                           long durationNanos) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        int requests = (int) (durationNanos / intervalNanos);
+        Measurement measurement = new Measurement(durationNanos);
+        CountDownLatch completed = new CountDownLatch(requests);
+        //the arrivals are scheduled from a task of the clock, so the clock cannot move on while they are scheduled
+        clock.scheduler().execute(() -> {
+            long startNanos = clock.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                long intendedStartNanos = startNanos + i * intervalNanos;
+                clock.scheduler().schedule(() -> {
+                    MockDataServiceResponse response = null;
+                    Throwable throwable = null;
+                    try {
+                        response = call.apply();
+                    } catch (Throwable t) {
+                        throwable = t;
+                    }
+                    measurement.record(RequestOutcome.of(response, throwable), clock.nanoTime() - intendedStartNanos);
+                    completed.countDown();
+                }, i * intervalNanos, TimeUnit.NANOSECONDS);
+            }
+        });
+        if (!completed.await(10, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(completed.getCount() + " requests did not complete in virtual time");
+        }
+        return measurement;
+    }
+
+    static class Measurement {
+        final long durationNanos;
+        final LongAdder successes = new LongAdder();
+        final LongAdder fallbacks = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final Histogram latencyMicros = new ConcurrentHistogram(3);
+
+        Measurement(long durationNanos) {
+            this.durationNanos = durationNanos;
+        }
+
+        void record(RequestOutcome outcome, long latencyNanos) {
+            switch (outcome) {
+                case SUCCESS:
+                    successes.increment();
+                    break;
+                case FALLBACK:
+                    fallbacks.increment();
+                    break;
+                default:
+                    errors.increment();
+            }
+            latencyMicros.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BondAnalyticsEngineTest {
+    private final BondAnalyticsEngine engine = new BondAnalyticsEngine(ForkJoinPool.commonPool(), 64, 5);
+
+    @Test
+    public void testYieldInvertsPrice() {
+        assertEquals(100, BondAnalyticsEngine.price(5, 10, 5), 1e-9);
+        assertEquals(5, BondAnalyticsEngine.yieldFromPrice(5, 10, 100), 1e-9);
+        //in the middle of a coupon period, with accrued interest
+        double price = BondAnalyticsEngine.price(3.7, 9.8, 6.2);
+        assertTrue(price < 100);
+        assertEquals(6.2, BondAnalyticsEngine.yieldFromPrice(3.7, 9.8, price), 1e-9);
+        assertEquals(-0.5, BondAnalyticsEngine.yieldFromPrice(1, 2, BondAnalyticsEngine.price(1, 2, -0.5)), 1e-9);
+        assertTrue(Double.isNaN(BondAnalyticsEngine.yieldFromPrice(5, 10, 0)));
+        assertTrue(Double.isNaN(BondAnalyticsEngine.yieldFromPrice(5, 0, 100)));
+    }
+
+    @Test
+    public void testDurationAndConvexityMatchPriceSensitivity() {
+        BondUniverse universe = new BondUniverse(1);
+        double price = BondAnalyticsEngine.price(4, 10, 6);
+        universe.setTerms(0, 4, 10, Double.NaN);
+        universe.setQuote(0, price, price);
+        engine.compute(universe);
+
+        //no accrued interest on a coupon date, so the clean price moves as the dirty one
+        double up = BondAnalyticsEngine.price(4, 10, 6.01);
+        double down = BondAnalyticsEngine.price(4, 10, 5.99);
+        assertEquals(6, universe.getAskYtm(0), 1e-9);
+        assertEquals((down - up) / 0.0002 / price, universe.getDuration(0), 1e-4);
+        assertEquals((up + down - 2 * price) / 0.0001 / 0.0001 / price, universe.getConvexity(0), 1e-2);
+    }
+
+    @Test
+    public void testYieldToWorst() {
+        BondUniverse universe = new BondUniverse(3);
+        double premium = BondAnalyticsEngine.price(8, 20, 5);
+        double discount = BondAnalyticsEngine.price(2, 20, 5);
+        assertEquals(5, engine.firstCallYears(20), 1e-9);
+        assertTrue(Double.isNaN(engine.firstCallYears(5.3)));
+        universe.setTerms(0, 8, 20, engine.firstCallYears(20));
+        universe.setQuote(0, premium, premium);
+        universe.setTerms(1, 8, 20, Double.NaN);
+        universe.setQuote(1, premium, premium);
+        universe.setTerms(2, 2, 20, engine.firstCallYears(20));
+        universe.setQuote(2, discount, discount);
+        engine.compute(universe);
+
+        //a premium callable is worst when called at par, a discount one when held to maturity
+        assertEquals(BondAnalyticsEngine.yieldFromPrice(8, 5, premium), universe.getAskYtw(0), 1e-9);
+        assertTrue(universe.getAskYtw(0) < universe.getAskYtm(0));
+        assertEquals(universe.getAskYtm(1), universe.getAskYtw(1), 0);
+        assertEquals(universe.getAskYtm(2), universe.getAskYtw(2), 0);
+    }
+
+    @Test
+    public void testOnlyChangedRowsAreRecomputed() {
+        BondUniverse universe = randomUniverse(10_000, new Random(1));
+        assertEquals(10_000, engine.compute(universe));
+        assertEquals(0, engine.compute(universe));
+
+        double askYtm = universe.getAskYtm(17);
+        universe.setQuote(17, universe.bidPrice[17] - 1, universe.askPrice[17] - 1);
+        universe.setQuote(42, universe.bidPrice[42], universe.askPrice[42]);
+        universe.setTerms(4242, universe.coupon[4242] + 0.5, universe.yearsToMaturity[4242], universe.yearsToCall[4242]);
+        assertEquals(2, engine.compute(universe));
+        assertTrue(universe.isUpdated(17));
+        assertFalse(universe.isUpdated(42));
+        assertTrue(universe.isUpdated(4242));
+        assertTrue(universe.getAskYtm(17) > askYtm);
+        assertEquals(0, engine.compute(universe));
+        assertFalse(universe.isUpdated(17));
+    }
+
+    @Test
+    public void testParallelBatchesMatchOneBatch() {
+        BondUniverse parallel = randomUniverse(5_000, new Random(2));
+        BondUniverse serial = randomUniverse(5_000, new Random(2));
+        engine.compute(parallel);
+        new BondAnalyticsEngine(new ForkJoinPool(1), Integer.MAX_VALUE, 5).compute(serial);
+
+        assertArrayEquals(serial.askYtw, parallel.askYtw);
+        assertArrayEquals(serial.bidYtm, parallel.bidYtm);
+        assertArrayEquals(serial.duration, parallel.duration);
+        assertArrayEquals(serial.convexity, parallel.convexity);
+    }
+
+    private BondUniverse randomUniverse(int size, Random random) {
+        BondUniverse universe = new BondUniverse(size);
+        for (int row = 0; row < size; row++) {
+            double coupon = 10 * random.nextDouble();
+            double years = 0.1 + random.nextDouble() * 30;
+            double ask = BondAnalyticsEngine.price(coupon, years, 1 + random.nextDouble() * 7);
+            universe.setTerms(row, coupon, years, random.nextBoolean() ? engine.firstCallYears(years) : Double.NaN);
+            universe.setQuote(row, ask - 0.25, ask);
+        }
+        return universe;
+    }
+}
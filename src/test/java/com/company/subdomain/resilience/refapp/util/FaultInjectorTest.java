@@ -0,0 +1,50 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.company.subdomain.resilience.refapp.enums.FaultTarget;
+import com.company.subdomain.resilience.refapp.exception.ChaosEngineeringRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FaultInjectorTest {
+
+    @Test
+    public void testSameSeedInjectsSameErrorSequence() {
+        FaultConfig fault = new FaultConfig();
+        fault.setErrorRate(0.2);
+        FaultInjector faultInjector = new FaultInjector(new SystemSchedulingClock());
+
+        faultInjector.setFault(FaultTarget.REPOSITORY, fault, 42);
+        boolean[] first = failures(faultInjector, 1000);
+        faultInjector.setFault(FaultTarget.REPOSITORY, fault, 42);
+        boolean[] second = failures(faultInjector, 1000);
+        assertArrayEquals(first, second);
+
+        int failed = 0;
+        for (boolean failure : first) {
+            failed += failure ? 1 : 0;
+        }
+        assertTrue(failed > 150 && failed < 250, "failed " + failed);
+
+        //other targets are not affected and nothing is injected once cleared
+        faultInjector.inject(FaultTarget.SERVICE);
+        faultInjector.clearFaults();
+        for (boolean failure : failures(faultInjector, 100)) {
+            assertFalse(failure);
+        }
+    }
+
+    private static boolean[] failures(FaultInjector faultInjector, int calls) {
+        boolean[] failures = new boolean[calls];
+        for (int i = 0; i < calls; i++) {
+            try {
+                faultInjector.inject(FaultTarget.REPOSITORY);
+            } catch (ChaosEngineeringRuntimeException e) {
+                failures[i] = true;
+            }
+        }
+        return failures;
+    }
+}
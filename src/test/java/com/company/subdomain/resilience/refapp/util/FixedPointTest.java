@@ -0,0 +1,81 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import com.company.subdomain.resilience.refapp.model.CompactOffering;
+import com.company.subdomain.resilience.refapp.model.Offering;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FixedPointTest {
+
+    @Test
+    public void testConversionsRoundHalfUp() {
+        assertEquals(1012500, FixedPoint.of(101.25, 4));
+        assertEquals(-1012500, FixedPoint.of(-101.25, 4));
+        assertEquals(3, FixedPoint.of(0.25, 1));
+        assertEquals(-3, FixedPoint.of(-0.25, 1));
+        //the binary expansion of 0.1 does not leak into the scaled value
+        assertEquals(100000, FixedPoint.of(new BigDecimal(0.1), 6));
+        assertEquals(FixedPoint.NONE, FixedPoint.of((BigDecimal) null, 6));
+        assertEquals(new BigDecimal("101.2500"), FixedPoint.toBigDecimal(1012500, 4));
+        assertEquals(101.25, FixedPoint.toDouble(1012500, 4));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.of(1e18, 6));
+    }
+
+    @Test
+    public void testToStringWritesEveryFractionDigit() {
+        assertEquals("101.250000", FixedPoint.toString(101250000, 6));
+        assertEquals("-0.000001", FixedPoint.toString(-1, 6));
+        assertEquals("0.0000", FixedPoint.toString(0, 4));
+        assertEquals("42", FixedPoint.toString(42, 0));
+        assertEquals("-922337203685.4775807", FixedPoint.toString(-9223372036854775807L, 7));
+    }
+
+    @Test
+    public void testArithmetic() {
+        long price = FixedPoint.of(101.25, 6);
+        long quantity = FixedPoint.of(3, 0);
+        assertEquals(FixedPoint.of(303.75, 6), FixedPoint.multiply(price, 6, quantity, 0, 6));
+        assertEquals(FixedPoint.of(0.5, 4), FixedPoint.subtract(FixedPoint.of(2.25, 4), FixedPoint.of(1.75, 4)));
+        //2 / 3 = 0.6667 at scale 4, -2 / 3 = -0.6667
+        assertEquals(6667, FixedPoint.divide(2, 0, 3, 0, 4));
+        assertEquals(-6667, FixedPoint.divide(-2, 0, 3, 0, 4));
+        assertEquals(FixedPoint.of(1.01, 2), FixedPoint.rescale(FixedPoint.of(1.005, 4), 4, 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.divide(1, 0, 0, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.add(FixedPoint.NONE, 1));
+    }
+
+    @Test
+    public void testJsonRoundTripAtFieldScale() throws Exception {
+        Offering offering = new Offering();
+        offering.setCusip("12345ABC6");
+        offering.setCoupon(new BigDecimal(4.125));
+        offering.setMaturityDate(LocalDate.parse("2019-10-09"));
+        offering.setAskPrice(new BigDecimal(101.2345678));
+        offering.setBidYtw(new BigDecimal("3.5"));
+        CompactOffering compact = CompactOffering.of(offering);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        String json = objectMapper.writeValueAsString(compact);
+        assertTrue(json.contains("\"coupon\":4.1250,"), json);
+        assertTrue(json.contains("\"askPrice\":101.234568,"), json);
+        assertTrue(json.contains("\"bidYtw\":3.500000,"), json);
+        assertTrue(json.contains("\"askYtw\":null,"), json);
+        assertEquals(compact, objectMapper.readValue(json, CompactOffering.class));
+
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        assertEquals(compact, cbor.readValue(cbor.writeValueAsBytes(compact), CompactOffering.class));
+    }
+}
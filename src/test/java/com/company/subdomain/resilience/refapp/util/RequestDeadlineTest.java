@@ -0,0 +1,43 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestDeadlineTest {
+    private final VirtualSchedulingClock clock = new VirtualSchedulingClock();
+
+    @Test
+    public void testMissingOrNonPositiveTimeoutIsUnbounded() {
+        assertFalse(RequestDeadline.fromTimeoutMillis(null, clock).isBounded());
+        assertFalse(RequestDeadline.fromTimeoutMillis(0L, clock).isBounded());
+        assertFalse(RequestDeadline.fromTimeoutMillis(-1L, clock).isBounded());
+    }
+
+    @Test
+    public void testOversizedTimeoutIsUnbounded() {
+        RequestDeadline deadline = RequestDeadline.fromTimeoutMillis(Long.MAX_VALUE, clock);
+        assertFalse(deadline.isBounded());
+        assertFalse(deadline.isExpired());
+        assertFalse(RequestDeadline.fromTimeoutMillis(RequestDeadline.MAX_TIMEOUT_MILLIS + 1, clock).isBounded());
+    }
+
+    @Test
+    public void testRemainingBudgetFollowsTheClock() {
+        RequestDeadline deadline = RequestDeadline.fromTimeoutMillis(RequestDeadline.MAX_TIMEOUT_MILLIS, clock);
+        assertTrue(deadline.isBounded());
+        assertEquals(Duration.ofDays(1), deadline.remaining());
+        assertEquals(Duration.ofMillis(500), deadline.cap(Duration.ofMillis(500)));
+
+        clock.advanceBy(23, TimeUnit.HOURS);
+        assertEquals(Duration.ofHours(1), deadline.remaining());
+        assertFalse(deadline.canMeet(Duration.ofHours(2)));
+
+        clock.advanceBy(1, TimeUnit.HOURS);
+        assertTrue(deadline.isExpired());
+        assertEquals(Duration.ZERO, deadline.remaining());
+    }
+}
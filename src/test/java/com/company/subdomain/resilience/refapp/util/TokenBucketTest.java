@@ -0,0 +1,34 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    @Test
+    public void testBurstUpToCapacityThenRefillAtRate() {
+        AtomicLong nanoTime = new AtomicLong(0);
+        TokenBucket tokenBucket = new TokenBucket(10, 3, nanoTime::get);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(tokenBucket.tryAcquire());
+        }
+        assertFalse(tokenBucket.tryAcquire());
+
+        //10 tokens per second, one token after 100 ms
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(tokenBucket.tryAcquire());
+        assertFalse(tokenBucket.tryAcquire());
+
+        //refill never exceeds the capacity
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(tokenBucket.tryAcquire());
+        }
+        assertFalse(tokenBucket.tryAcquire());
+    }
+}
@@ -0,0 +1,535 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SchedulingClock} whose time only moves when it is advanced. Sleeping threads and scheduled tasks are kept
+ * in a timer queue ordered by their virtual deadline, advancing the clock wakes the sleepers and runs the tasks whose
+ * deadline passed, in deadline order.
+ * <p>
+ * Time is advanced explicitly with {@link #advanceBy(long, TimeUnit)} or, once {@link #startAutoAdvance()} was called,
+ * by a driver thread which jumps to the next deadline. Both only fire a timer once the application is idle. The clock
+ * knows the application by the threads which ran one of its scheduled tasks, its {@link #executor()} tasks or a task
+ * of a pool registered with {@link #trackPool(IntSupplier)}. The application is idle when none of those threads is
+ * runnable and the clock has nothing in flight that would make one runnable: no task handed to its executor which did
+ * not start yet, no thread woken by a timer or by a future completing in {@link #await(CompletableFuture)} which did not
+ * resume yet and no tracked pool with a queued task and an idle thread.
+ * <p>
+ * Threads the clock does not know, such as a test thread or a servlet container thread, are not waited for. Calls into
+ * the application which should follow the clock are submitted to {@link #scheduler()}, see
+ * {@code VirtualTimeDecoratedControllerTest}. Likewise a thread waiting on a plain lock, queue or future, rather than
+ * on the clock, and released by another thread is not seen until it is scheduled.
+ */
+public class VirtualSchedulingClock implements SchedulingClock {
+    private static final long EPOCH_MILLIS = 1_577_836_800_000L;
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Object lock = new Object();
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    /**
+     * Incremented on every change of the counters below, an idle check which saw it change is repeated
+     */
+    private final AtomicLong activity = new AtomicLong();
+    /**
+     * Tasks handed to the task executor which did not start yet
+     */
+    private final AtomicInteger startingTasks = new AtomicInteger();
+    /**
+     * Waiters whose timer fired or whose future completed and which did not resume yet
+     */
+    private final AtomicInteger pendingWakeups = new AtomicInteger();
+    /**
+     * Threads which ran a task of the clock or of a tracked pool, they belong to the application until they terminate
+     */
+    private final Set<Thread> applicationThreads = ConcurrentHashMap.newKeySet();
+    private final List<TrackedPool> pools = new CopyOnWriteArrayList<>();
+    private final ExecutorService taskExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "virtual-clock-task");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final VirtualScheduler scheduler = new VirtualScheduler();
+    private final Clock clock = new VirtualClock();
+    private volatile long nowNanos;
+    private long sequence;
+    private volatile Thread driver;
+
+    @Override
+    public long nanoTime() {
+        return nowNanos;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return EPOCH_MILLIS + TimeUnit.NANOSECONDS.toMillis(nowNanos);
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (millis <= 0) {
+            return;
+        }
+        Waiter waiter = new Waiter();
+        Timer timer = addTimer(TimeUnit.MILLISECONDS.toNanos(millis), waiter::wakeUp);
+        try {
+            waiter.await();
+        } catch (InterruptedException e) {
+            synchronized (lock) {
+                timers.remove(timer);
+            }
+            throw e;
+        } finally {
+            waiter.resumed();
+        }
+    }
+
+    @Override
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public <T> T await(CompletableFuture<T> future) throws InterruptedException, ExecutionException {
+        if (!future.isDone()) {
+            Waiter waiter = new Waiter();
+            future.whenComplete((result, throwable) -> waiter.wakeUp());
+            try {
+                waiter.await();
+            } finally {
+                waiter.resumed();
+            }
+        }
+        return future.get();
+    }
+
+    /**
+     * Runs the tasks right away on the threads of the scheduled tasks
+     */
+    @Override
+    public Executor executor() {
+        return scheduler;
+    }
+
+    @Override
+    public PooledTasks trackPool(IntSupplier poolSize) {
+        TrackedPool pool = new TrackedPool(poolSize);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public Clock asClock() {
+        return clock;
+    }
+
+    /**
+     * Moves the clock forward, firing every timer due on the way at its own deadline. Waits for the application to be
+     * idle before each timer, so what a fired task or sleeper does happens before the clock moves on.
+     */
+    public void advanceBy(long duration, TimeUnit unit) {
+        long targetNanos = nowNanos + unit.toNanos(duration);
+        do {
+            //fire timers in deadline order, including those added by fired tasks which are due before the target
+            awaitIdle();
+        } while (fireNext(targetNanos));
+        synchronized (lock) {
+            nowNanos = Math.max(nowNanos, targetNanos);
+        }
+    }
+
+    /**
+     * Starts a daemon thread advancing the clock to the next deadline whenever the application is idle
+     */
+    public synchronized void startAutoAdvance() {
+        if (driver != null) {
+            return;
+        }
+        driver = new Thread(this::autoAdvance, "virtual-clock-driver");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    public synchronized void stopAutoAdvance() {
+        if (driver != null) {
+            driver.interrupt();
+            driver = null;
+        }
+    }
+
+    /**
+     * @return number of sleeping threads and scheduled tasks waiting for the clock
+     */
+    public int pendingTimers() {
+        synchronized (lock) {
+            return timers.size();
+        }
+    }
+
+    private void autoAdvance() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (pendingTimers() == 0 || !awaitIdle() || !fireNext(Long.MAX_VALUE)) {
+                LockSupport.parkNanos(POLL_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Waits until the application is idle, see {@link #isIdle()}, without touching the clock
+     *
+     * @return false if the waiting thread was interrupted
+     */
+    private boolean awaitIdle() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (isIdle()) {
+                return true;
+            }
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+        return false;
+    }
+
+    /**
+     * @return true if nothing the clock released is still on its way and no application thread is runnable
+     */
+    private boolean isIdle() {
+        long activityBefore = activity.get();
+        if (startingTasks.get() > 0 || pendingWakeups.get() > 0) {
+            return false;
+        }
+        for (TrackedPool pool : pools) {
+            if (pool.hasQueuedTaskAndIdleThread()) {
+                return false;
+            }
+        }
+        for (Thread thread : applicationThreads) {
+            Thread.State state = thread.getState();
+            if (state == Thread.State.TERMINATED) {
+                applicationThreads.remove(thread);
+            } else if (state == Thread.State.RUNNABLE && thread != Thread.currentThread()) {
+                return false;
+            }
+        }
+        //a thread which changed a counter after it was read was runnable, possibly until after its state was read
+        return activity.get() == activityBefore;
+    }
+
+    /**
+     * Fires the earliest timer if it is due at or before the target, moving the clock to its deadline
+     *
+     * @return false if no timer was due
+     */
+    private boolean fireNext(long targetNanos) {
+        Timer timer;
+        synchronized (lock) {
+            timer = timers.peek();
+            if (timer == null || timer.deadlineNanos > targetNanos) {
+                return false;
+            }
+            timers.poll();
+            nowNanos = Math.max(nowNanos, timer.deadlineNanos);
+        }
+        activity.incrementAndGet();
+        timer.action.run();
+        return true;
+    }
+
+    private Timer addTimer(long delayNanos, Runnable action) {
+        synchronized (lock) {
+            Timer timer = new Timer(nowNanos + Math.max(0, delayNanos), sequence++, action);
+            timers.add(timer);
+            activity.incrementAndGet();
+            return timer;
+        }
+    }
+
+    private void runTask(Runnable task) {
+        startingTasks.incrementAndGet();
+        activity.incrementAndGet();
+        taskExecutor.execute(() -> {
+            applicationThreads.add(Thread.currentThread());
+            startingTasks.decrementAndGet();
+            activity.incrementAndGet();
+            task.run();
+        });
+    }
+
+    /**
+     * A thread waiting on the clock, counted as pending from its wake up until it resumed so the clock does not move
+     * on before the waiter continued
+     */
+    private class Waiter {
+        private static final int WAITING = 0;
+        private static final int WOKEN = 1;
+        private static final int RESUMED = 2;
+
+        private final CountDownLatch wakeUp = new CountDownLatch(1);
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        void wakeUp() {
+            pendingWakeups.incrementAndGet();
+            if (!state.compareAndSet(WAITING, WOKEN)) {
+                //the waiter was interrupted and already left
+                pendingWakeups.decrementAndGet();
+            }
+            activity.incrementAndGet();
+            wakeUp.countDown();
+        }
+
+        void await() throws InterruptedException {
+            wakeUp.await();
+        }
+
+        void resumed() {
+            if (state.getAndSet(RESUMED) == WOKEN) {
+                pendingWakeups.decrementAndGet();
+                activity.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Counts the tasks of an application thread pool which are queued and running. A queued task keeps the clock from
+     * moving while the pool has more threads than running tasks, one of them is about to take it.
+     */
+    private class TrackedPool implements PooledTasks {
+        private final IntSupplier poolSize;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+
+        TrackedPool(IntSupplier poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        @Override
+        public <T> Task<T> task(Supplier<T> supplier) {
+            queued.incrementAndGet();
+            activity.incrementAndGet();
+            return new TrackedTask<>(supplier);
+        }
+
+        boolean hasQueuedTaskAndIdleThread() {
+            return queued.get() > 0 && poolSize.getAsInt() > running.get();
+        }
+
+        private class TrackedTask<T> implements Task<T> {
+            private static final int QUEUED = 0;
+            private static final int STARTED = 1;
+            private static final int ABANDONED = 2;
+
+            private final Supplier<T> supplier;
+            private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+            TrackedTask(Supplier<T> supplier) {
+                this.supplier = supplier;
+            }
+
+            @Override
+            public T get() {
+                applicationThreads.add(Thread.currentThread());
+                running.incrementAndGet();
+                if (state.compareAndSet(QUEUED, STARTED)) {
+                    queued.decrementAndGet();
+                }
+                activity.incrementAndGet();
+                try {
+                    return supplier.get();
+                } finally {
+                    running.decrementAndGet();
+                    activity.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void abandon() {
+                if (state.compareAndSet(QUEUED, ABANDONED)) {
+                    queued.decrementAndGet();
+                    activity.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static class Timer implements Comparable<Timer> {
+        final long deadlineNanos;
+        final long sequence;
+        final Runnable action;
+
+        Timer(long deadlineNanos, long sequence, Runnable action) {
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            int byDeadline = Long.compare(deadlineNanos, other.deadlineNanos);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * The virtual time in UTC, for the CircuitBreaker open state and sliding time windows
+     */
+    private class VirtualClock extends Clock {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException("The virtual clock is in UTC only");
+        }
+
+        @Override
+        public long millis() {
+            return currentTimeMillis();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(EPOCH_MILLIS).plusNanos(nowNanos);
+        }
+    }
+
+    /**
+     * Runs scheduled tasks on a cached thread pool when their virtual deadline is reached
+     */
+    private class VirtualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+        private volatile boolean shutdown;
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return schedule(Executors.callable(command), delay, unit);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            VirtualFuture<V> future = new VirtualFuture<>(callable, 0);
+            future.schedule(unit.toNanos(delay));
+            return future;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            VirtualFuture<Object> future = new VirtualFuture<>(Executors.callable(command), unit.toNanos(period));
+            future.schedule(unit.toNanos(initialDelay));
+            return future;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            return scheduleAtFixedRate(command, initialDelay, delay, unit);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            runTask(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return shutdown;
+        }
+    }
+
+    private class VirtualFuture<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        private final long periodNanos;
+        private volatile Timer timer;
+
+        VirtualFuture(Callable<V> callable, long periodNanos) {
+            super(callable);
+            this.periodNanos = periodNanos;
+        }
+
+        void schedule(long delayNanos) {
+            timer = addTimer(delayNanos, () -> runTask(this));
+        }
+
+        /**
+         * Also removes the timer, a cancelled timeout must not make the clock jump to its deadline
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                synchronized (lock) {
+                    timers.remove(timer);
+                }
+                activity.incrementAndGet();
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (periodNanos == 0) {
+                super.run();
+            } else if (runAndReset() && !isCancelled()) {
+                schedule(periodNanos);
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(timer.deadlineNanos - nowNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        public boolean isPeriodic() {
+            return periodNanos != 0;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Replaces the SystemSchedulingClock with an auto advancing VirtualSchedulingClock when added to the sources of a
+ * context, e.g. {@code @SpringBootTest(classes = {ChaosEngineeringReferenceApplication.class,
+ * VirtualSchedulingClockConfig.class})}.
+ * Deliberately not annotated with @Configuration: test classes are on the component scan path of the application, an
+ * annotated class would put every context started from the test classpath, including the load test runners, into
+ * virtual time.
+ */
+public class VirtualSchedulingClockConfig {
+
+    @Bean
+    @Primary
+    public SchedulingClock virtualSchedulingClock() {
+        VirtualSchedulingClock clock = new VirtualSchedulingClock();
+        clock.startAutoAdvance();
+        return clock;
+    }
+}
@@ -0,0 +1,154 @@
+package com.company.subdomain.resilience.refapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualSchedulingClockTest {
+
+    @Test
+    public void testAdvanceFiresTimersInDeadlineOrder() throws InterruptedException {
+        VirtualSchedulingClock clock = new VirtualSchedulingClock();
+        List<Long> firedAtMillis = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(2);
+        clock.scheduler().schedule(() -> {
+            firedAtMillis.add(TimeUnit.NANOSECONDS.toMillis(clock.nanoTime()));
+            fired.countDown();
+        }, 3, TimeUnit.SECONDS);
+        clock.scheduler().schedule(() -> {
+            firedAtMillis.add(TimeUnit.NANOSECONDS.toMillis(clock.nanoTime()));
+            fired.countDown();
+        }, 500, TimeUnit.MILLISECONDS);
+
+        clock.advanceBy(499, TimeUnit.MILLISECONDS);
+        assertEquals(2, clock.pendingTimers());
+        clock.advanceBy(10, TimeUnit.SECONDS);
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(firedAtMillis.contains(500L));
+        assertTrue(firedAtMillis.contains(3000L));
+        assertEquals(10_499, TimeUnit.NANOSECONDS.toMillis(clock.nanoTime()));
+    }
+
+    @Test
+    public void testMinutesOfSleepsPassInMillisecondsOfWallTime() throws Exception {
+        VirtualSchedulingClock clock = new VirtualSchedulingClock();
+        clock.startAutoAdvance();
+        try {
+            long wallStart = System.nanoTime();
+            List<Future<?>> sleepers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                long sleepMillis = TimeUnit.SECONDS.toMillis(30 * (i + 1));
+                //10 sleeps per task, the longest task sleeps 2 minutes in total
+                sleepers.add(clock.scheduler().submit(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        clock.sleep(sleepMillis / 10);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> sleeper : sleepers) {
+                sleeper.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(TimeUnit.MINUTES.toNanos(2), clock.nanoTime());
+            assertTrue(System.nanoTime() - wallStart < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            clock.stopAutoAdvance();
+        }
+    }
+
+    /**
+     * Each task sleeps 1 second on the single thread of a tracked pool, the clock waits for the thread to take the
+     * next queued task before it moves on
+     */
+    @Test
+    public void testQueuedTasksOfTrackedPoolRunBeforeTheClockMoves() throws Exception {
+        VirtualSchedulingClock clock = new VirtualSchedulingClock();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        PooledTasks tasks = clock.trackPool(pool::getPoolSize);
+        clock.startAutoAdvance();
+        try {
+            List<CompletableFuture<Long>> finishedAtMillis = new ArrayList<>();
+            clock.scheduler().submit(() -> {
+                for (int i = 0; i < 3; i++) {
+                    finishedAtMillis.add(CompletableFuture.supplyAsync(tasks.task(() -> {
+                        try {
+                            clock.sleep(1000);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return TimeUnit.NANOSECONDS.toMillis(clock.nanoTime());
+                    }), pool));
+                }
+            }).get(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(1000L * (i + 1), finishedAtMillis.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            clock.stopAutoAdvance();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAwaitedFutureCompletesAtTheVirtualTimeOfItsTask() throws Exception {
+        VirtualSchedulingClock clock = new VirtualSchedulingClock();
+        clock.startAutoAdvance();
+        try {
+            Future<Long> awaitedAtMillis = clock.scheduler().submit(() -> {
+                CompletableFuture<Long> future = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        clock.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 2000L;
+                }, clock.executor());
+                //a timer due after the sleep must not fire before the awaiting task resumed
+                clock.scheduler().schedule(() -> future.complete(-1L), 2001, TimeUnit.MILLISECONDS);
+                assertEquals(2000L, clock.await(future));
+                return TimeUnit.NANOSECONDS.toMillis(clock.nanoTime());
+            });
+            assertEquals(2000L, awaitedAtMillis.get(5, TimeUnit.SECONDS));
+        } finally {
+            clock.stopAutoAdvance();
+        }
+    }
+
+    /**
+     * A runnable thread of another clock, such as one of another application context, does not hold back this clock
+     */
+    @Test
+    public void testThreadsOfAnotherClockDoNotHoldTimeBack() throws Exception {
+        VirtualSchedulingClock other = new VirtualSchedulingClock();
+        VirtualSchedulingClock clock = new VirtualSchedulingClock();
+        AtomicBoolean spinning = new AtomicBoolean(true);
+        clock.startAutoAdvance();
+        try {
+            other.scheduler().execute(() -> {
+                while (spinning.get()) {
+                    Thread.yield();
+                }
+            });
+            Future<Long> sleptUntilMillis = clock.scheduler().submit(() -> {
+                clock.sleep(1000);
+                return TimeUnit.NANOSECONDS.toMillis(clock.nanoTime());
+            });
+            assertEquals(1000L, sleptUntilMillis.get(5, TimeUnit.SECONDS));
+        } finally {
+            spinning.set(false);
+            clock.stopAutoAdvance();
+        }
+    }
+}